@@ -0,0 +1,88 @@
+package com.alberti.joinly.busqueda;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de usuarios por nombre sobre un índice con nombres sintéticos de nombre y apellidos.
+ * <p>
+ * {@code buscar} es el autocompletado acotado a {@code max-resultados}, que para en cuanto
+ * completa el primer nivel; {@code buscarPagina} recorre todas las coincidencias para dar el
+ * total real y páginas estables. Las consultas cortas ({@code "an"}) coinciden con gran parte
+ * del índice y marcan la diferencia entre ambos; {@code contienePorLineal} es la referencia de
+ * recorrer todos los nombres, equivalente al {@code LIKE '%texto%'} sin índice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceTrigramasBenchmark {
+
+    private static final String[] NOMBRES = {
+            "Ana", "María", "Juan", "José", "Lucía", "Carmen", "Pedro", "Javier", "Laura", "Pablo",
+            "Marta", "David", "Sara", "Daniel", "Elena", "Sergio", "Paula", "Jorge", "Irene", "Adrián"
+    };
+    private static final String[] APELLIDOS = {
+            "García", "Fernández", "González", "Rodríguez", "López", "Martínez", "Sánchez", "Pérez",
+            "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Álvarez", "Romero",
+            "Alonso", "Gutiérrez", "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil"
+    };
+
+    @Param({"100000"})
+    private int usuarios;
+
+    @Param({"an", "garc", "nandez"})
+    private String consulta;
+
+    @Param({"20"})
+    private int limite;
+
+    private IndiceTrigramas indice;
+    private String[] normalizados;
+
+    @Setup
+    public void preparar() {
+        var aleatorio = new SplittableRandom(42);
+        indice = new IndiceTrigramas();
+        normalizados = new String[usuarios];
+        for (var id = 0; id < usuarios; id++) {
+            var nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+            indice.indexar(id, nombre);
+            normalizados[id] = IndiceTrigramas.normalizar(nombre);
+        }
+    }
+
+    @Benchmark
+    public List<Long> buscar() {
+        return indice.buscar(consulta, limite);
+    }
+
+    @Benchmark
+    public IndiceTrigramas.Pagina buscarPagina() {
+        return indice.buscarPagina(consulta, 0, limite);
+    }
+
+    @Benchmark
+    public IndiceTrigramas.Pagina buscarPaginaLejana() {
+        return indice.buscarPagina(consulta, 10 * limite, limite);
+    }
+
+    @Benchmark
+    public int contienePorLineal() {
+        var normalizada = IndiceTrigramas.normalizar(consulta);
+        var total = 0;
+        for (var nombre : normalizados) {
+            if (nombre.contains(normalizada)) {
+                total++;
+            }
+        }
+        return total;
+    }
+}
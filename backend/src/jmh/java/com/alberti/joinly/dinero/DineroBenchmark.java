@@ -0,0 +1,96 @@
+package com.alberti.joinly.dinero;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un ciclo de facturación masivo: para cada suscripción calcula el precio por plaza, lo que se
+ * cobra entre todas las plazas y lo que queda por reembolsar de un pago parcialmente devuelto.
+ * <p>
+ * {@code bigDecimal} es el cálculo anterior con {@link BigDecimal}; {@code dinero} hace lo mismo
+ * con {@link Dinero} partiendo de céntimos, y {@code dineroDesdeDecimal} incluye además la
+ * conversión desde los {@code BigDecimal} de las entidades. Con {@code -prof gc} se ve
+ * {@code gc.alloc.rate.norm} (bytes/op) además del tiempo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DineroBenchmark {
+
+    @Param({"10000"})
+    private int suscripciones;
+
+    private BigDecimal[] precios;
+    private BigDecimal[] reembolsos;
+    private long[] preciosCentimos;
+    private long[] reembolsosCentimos;
+    private int[] plazas;
+
+    @Setup
+    public void preparar() {
+        var aleatorio = new SplittableRandom(42);
+        precios = new BigDecimal[suscripciones];
+        reembolsos = new BigDecimal[suscripciones];
+        preciosCentimos = new long[suscripciones];
+        reembolsosCentimos = new long[suscripciones];
+        plazas = new int[suscripciones];
+        for (var i = 0; i < suscripciones; i++) {
+            preciosCentimos[i] = aleatorio.nextLong(299, 9_999);
+            reembolsosCentimos[i] = aleatorio.nextLong(0, preciosCentimos[i]);
+            precios[i] = BigDecimal.valueOf(preciosCentimos[i], 2);
+            reembolsos[i] = BigDecimal.valueOf(reembolsosCentimos[i], 2);
+            plazas[i] = aleatorio.nextInt(1, 7);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        var total = BigDecimal.ZERO;
+        for (var i = 0; i < suscripciones; i++) {
+            var porPlaza = precios[i].divide(BigDecimal.valueOf(plazas[i]), 2, RoundingMode.HALF_UP);
+            total = total.add(porPlaza.multiply(BigDecimal.valueOf(plazas[i])));
+            var pendiente = precios[i].subtract(reembolsos[i]);
+            if (pendiente.compareTo(porPlaza) > 0) {
+                total = total.add(pendiente);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long dinero() {
+        var total = Dinero.cero("EUR");
+        for (var i = 0; i < suscripciones; i++) {
+            var precio = Dinero.deCentimos(preciosCentimos[i], "EUR");
+            var porPlaza = precio.cuotaMaxima(plazas[i]);
+            total = total.sumar(porPlaza.multiplicar(plazas[i]));
+            var pendiente = precio.restar(Dinero.deCentimos(reembolsosCentimos[i], "EUR"));
+            if (pendiente.esMayorQue(porPlaza)) {
+                total = total.sumar(pendiente);
+            }
+        }
+        return total.centimos();
+    }
+
+    @Benchmark
+    public long dineroDesdeDecimal() {
+        var total = Dinero.cero("EUR");
+        for (var i = 0; i < suscripciones; i++) {
+            var precio = Dinero.de(precios[i], "EUR");
+            var porPlaza = precio.cuotaMaxima(plazas[i]);
+            total = total.sumar(porPlaza.multiplicar(plazas[i]));
+            var pendiente = precio.restar(Dinero.de(reembolsos[i], "EUR"));
+            if (pendiente.esMayorQue(porPlaza)) {
+                total = total.sumar(pendiente);
+            }
+        }
+        return total.centimos();
+    }
+}
@@ -0,0 +1,130 @@
+package com.alberti.joinly.json;
+
+import com.alberti.joinly.dto.dashboard.DashboardResponse;
+import com.alberti.joinly.dto.notificacion.NotificacionResponse;
+import com.alberti.joinly.dto.pago.PagoResponse;
+import com.alberti.joinly.dto.servicio.ServicioResponse;
+import com.alberti.joinly.dto.soporte.TicketSoporteResponse;
+import com.alberti.joinly.dto.solicitud.SolicitudResponse;
+import com.alberti.joinly.dto.suscripcion.SuscripcionDetalleResponse;
+import com.alberti.joinly.dto.suscripcion.SuscripcionResponse;
+import com.alberti.joinly.dto.unidad.UnidadFamiliarResponse;
+import com.alberti.joinly.dto.usuario.UsuarioResponse;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de serializar las diez respuestas más frecuentes de la API, con el {@link JsonMapper}
+ * por defecto (reflexión) y con {@link BlackbirdModule}. Con {@code -prof gc},
+ * {@code gc.alloc.rate.norm} da los bytes asignados por operación.
+ * <p>
+ * Las muestras se generan rellenando cada componente de los records con un valor fijo y las
+ * listas con {@value #ELEMENTOS_LISTA} elementos; los listados se miden como lista de
+ * {@value #ELEMENTOS_LISTA} respuestas, igual que los devuelve la API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionJsonBenchmark {
+
+    static final int ELEMENTOS_LISTA = 20;
+
+    private static final Map<String, Class<? extends Record>> RESPUESTAS = Map.of(
+            "ServicioResponse[]", ServicioResponse.class,
+            "DashboardResponse", DashboardResponse.class,
+            "SuscripcionDetalleResponse", SuscripcionDetalleResponse.class,
+            "SuscripcionResponse[]", SuscripcionResponse.class,
+            "PagoResponse[]", PagoResponse.class,
+            "NotificacionResponse[]", NotificacionResponse.class,
+            "SolicitudResponse[]", SolicitudResponse.class,
+            "TicketSoporteResponse[]", TicketSoporteResponse.class,
+            "UnidadFamiliarResponse", UnidadFamiliarResponse.class,
+            "UsuarioResponse", UsuarioResponse.class);
+
+    @Param({
+            "ServicioResponse[]", "DashboardResponse", "SuscripcionDetalleResponse", "SuscripcionResponse[]",
+            "PagoResponse[]", "NotificacionResponse[]", "SolicitudResponse[]", "TicketSoporteResponse[]",
+            "UnidadFamiliarResponse", "UsuarioResponse"
+    })
+    private String respuesta;
+
+    @Param({"reflexion", "blackbird"})
+    private String serializador;
+
+    private JsonMapper mapper;
+    private Object muestra;
+
+    @Setup
+    public void preparar() {
+        var builder = JsonMapper.builder();
+        if ("blackbird".equals(serializador)) {
+            builder.addModule(new BlackbirdModule());
+        }
+        mapper = builder.build();
+
+        var tipo = RESPUESTAS.get(respuesta);
+        muestra = respuesta.endsWith("[]") ? lista(tipo) : valor(tipo);
+        // Primera serialización fuera de la medida: construye y cachea los serializadores
+        mapper.writeValueAsBytes(muestra);
+    }
+
+    @Benchmark
+    public byte[] serializar() {
+        return mapper.writeValueAsBytes(muestra);
+    }
+
+    private static List<Object> lista(Type tipo) {
+        var elementos = new ArrayList<>(ELEMENTOS_LISTA);
+        for (var i = 0; i < ELEMENTOS_LISTA; i++) {
+            elementos.add(valor(tipo));
+        }
+        return elementos;
+    }
+
+    private static Object valor(Type tipo) {
+        if (tipo instanceof ParameterizedType parametrizado && parametrizado.getRawType() == List.class) {
+            return lista(parametrizado.getActualTypeArguments()[0]);
+        }
+        var clase = (Class<?>) tipo;
+        if (clase == String.class) return "Texto de ejemplo para la respuesta";
+        if (clase == Long.class || clase == long.class) return 1234L;
+        if (clase == Integer.class || clase == int.class) return 12;
+        if (clase == Short.class || clase == short.class) return (short) 4;
+        if (clase == Boolean.class || clase == boolean.class) return true;
+        if (clase == BigDecimal.class) return new BigDecimal("17.99");
+        if (clase == LocalDate.class) return LocalDate.of(2026, 3, 1);
+        if (clase == LocalDateTime.class) return LocalDateTime.of(2026, 3, 1, 10, 30, 15);
+        if (clase.isEnum()) return clase.getEnumConstants()[0];
+        if (clase.isRecord()) return registro(clase);
+        throw new IllegalArgumentException("Tipo sin valor de ejemplo: " + clase);
+    }
+
+    private static Object registro(Class<?> clase) {
+        var componentes = clase.getRecordComponents();
+        var tipos = new Class<?>[componentes.length];
+        var valores = new Object[componentes.length];
+        for (var i = 0; i < componentes.length; i++) {
+            tipos[i] = componentes[i].getType();
+            valores[i] = valor(componentes[i].getGenericType());
+        }
+        try {
+            return clase.getDeclaredConstructor(tipos).newInstance(valores);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo construir " + clase.getSimpleName(), e);
+        }
+    }
+}
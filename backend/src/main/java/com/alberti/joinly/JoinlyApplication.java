@@ -2,6 +2,7 @@ package com.alberti.joinly;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
@@ -18,8 +19,13 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 @ConfigurationPropertiesScan
 public class JoinlyApplication {
 
+	/** Pasos de arranque que se guardan para el informe por fases (ver InformeArranque). */
+	private static final int PASOS_ARRANQUE = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(JoinlyApplication.class, args);
+		var aplicacion = new SpringApplication(JoinlyApplication.class);
+		aplicacion.setApplicationStartup(new BufferingApplicationStartup(PASOS_ARRANQUE));
+		aplicacion.run(args);
 	}
 
 }
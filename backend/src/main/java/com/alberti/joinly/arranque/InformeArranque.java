@@ -0,0 +1,117 @@
+package com.alberti.joinly.arranque;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Escribe en el log cuánto tarda cada fase del arranque, a partir de los pasos que Spring
+ * registra en el {@link BufferingApplicationStartup} de {@code JoinlyApplication}.
+ * <p>
+ * Da una línea por fase (preparación del entorno, análisis de las clases de configuración,
+ * post-procesado de la factoría, refresco del contexto...) y los beans que más tardaron en
+ * crearse. Las fases se anidan, así que sus tiempos se solapan; el de cada bean incluye el de
+ * las dependencias que se crearon con él. Se escribe cuando la aplicación pasa a aceptar
+ * tráfico, es decir, después de los listeners de {@link ApplicationReadyEvent} que cargan
+ * índices en memoria, cuyo tiempo se da aparte.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InformeArranque {
+
+    static final String PASO_BEAN = "spring.beans.instantiate";
+    static final int BEANS_EN_INFORME = 10;
+
+    private final ApplicationStartup applicationStartup;
+    private volatile Duration hastaListo;
+
+    /** Tiempo total de un paso de arranque (sumado si se repite). */
+    record Fase(String nombre, Duration duracion) {
+    }
+
+    record Resumen(List<Fase> fases, List<Fase> beansLentos) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void marcarListo(ApplicationReadyEvent evento) {
+        hastaListo = evento.getTimeTaken();
+    }
+
+    @EventListener
+    public void informar(AvailabilityChangeEvent<ReadinessState> evento) {
+        var listo = hastaListo;
+        if (evento.getState() != ReadinessState.ACCEPTING_TRAFFIC || listo == null
+                || !(applicationStartup instanceof BufferingApplicationStartup registro)) {
+            return;
+        }
+        hastaListo = null;
+        var linea = registro.getBufferedTimeline();
+        var resumen = resumir(linea);
+        var total = Duration.between(linea.getStartTime(), Instant.now());
+
+        var informe = new StringBuilder()
+                .append("Arranque en ").append(total.toMillis()).append(" ms")
+                .append(" (JVM iniciada hace ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms")
+                .append(", hasta ApplicationReady: ").append(listo.toMillis()).append(" ms")
+                .append(", listeners de ApplicationReady: ").append(total.minus(listo).toMillis()).append(" ms)");
+        informe.append("\n  Fases:");
+        resumen.fases().forEach(fase -> anadir(informe, fase));
+        informe.append("\n  Beans más lentos:");
+        resumen.beansLentos().forEach(bean -> anadir(informe, bean));
+        log.info(informe.toString());
+    }
+
+    /**
+     * Agrupa los pasos por nombre, en el orden en que terminaron, salvo los de creación de
+     * beans, de los que se devuelven los {@value #BEANS_EN_INFORME} más lentos.
+     */
+    static Resumen resumir(StartupTimeline linea) {
+        var fases = new LinkedHashMap<String, Duration>();
+        var beans = new ArrayList<Fase>();
+        for (var evento : linea.getEvents()) {
+            var paso = evento.getStartupStep();
+            if (PASO_BEAN.equals(paso.getName())) {
+                beans.add(new Fase(nombreBean(paso), evento.getDuration()));
+            } else {
+                fases.merge(paso.getName(), evento.getDuration(), Duration::plus);
+            }
+        }
+        beans.sort(Comparator.comparing(Fase::duracion).reversed());
+        return new Resumen(
+                fases.entrySet().stream().map(e -> new Fase(e.getKey(), e.getValue())).toList(),
+                List.copyOf(beans.subList(0, Math.min(BEANS_EN_INFORME, beans.size()))));
+    }
+
+    private static String nombreBean(StartupStep paso) {
+        for (var etiqueta : paso.getTags()) {
+            if ("beanName".equals(etiqueta.getKey())) {
+                return etiqueta.getValue();
+            }
+        }
+        return paso.getName();
+    }
+
+    private static void anadir(StringBuilder informe, Fase fase) {
+        informe.append(String.format("\n    %6d ms  %s", fase.duracion().toMillis(), fase.nombre()));
+    }
+}
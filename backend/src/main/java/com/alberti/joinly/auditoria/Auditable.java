@@ -0,0 +1,41 @@
+package com.alberti.joinly.auditoria;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de servicio cuya ejecución debe quedar registrada en {@code log_auditoria}.
+ * <p>
+ * Se captura el estado de la entidad antes y después de la llamada (atributos simples e
+ * identificadores de las relaciones) y se encola para su escritura asíncrona, de modo
+ * que la auditoría no añade escrituras a la transacción de negocio.
+ * <p>
+ * Ejemplo:
+ * <pre>{@code
+ * @Auditable(accion = "PAGO_LIBERADO", entidad = Pago.class, idParametro = "idPago")
+ * public Pago liberarPago(Long idPago) { ... }
+ * }</pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Auditable {
+
+    /** Acción registrada (p. ej. {@code CAMBIO_CREDENCIALES}). */
+    String accion();
+
+    /** Entidad JPA afectada por la operación. */
+    Class<?> entidad();
+
+    /**
+     * Nombre del parámetro que contiene el ID de la entidad. Si se deja vacío,
+     * el ID se obtiene de la entidad devuelta por el método (operaciones de creación).
+     */
+    String idParametro() default "";
+
+    /** Atributos que no deben copiarse al registro (datos sensibles). */
+    String[] excluir() default {};
+}
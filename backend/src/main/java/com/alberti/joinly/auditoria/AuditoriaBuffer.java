@@ -0,0 +1,330 @@
+package com.alberti.joinly.auditoria;
+
+import com.alberti.joinly.config.AuditoriaProperties;
+import com.alberti.joinly.config.AuditoriaProperties.ModoSaturacion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffer en memoria y escritor en segundo plano de los registros de auditoría.
+ * <p>
+ * Los productores (hilos de negocio) solo hacen un {@code offer} sobre un buffer
+ * circular acotado; un hilo virtual lo vacía periódicamente e inserta los registros
+ * en {@code log_auditoria} mediante lotes JDBC.
+ * <p>
+ * <b>Contrapresión:</b> cuando la ocupación supera {@code umbral-saturacion}:
+ * <ul>
+ *   <li>{@code SPILL}: el escritor vuelca los lotes a un fichero JSONL (mucho más rápido
+ *       que la base de datos) y los reinyecta cuando la cola se ha vaciado</li>
+ *   <li>{@code MUESTREO}: los productores conservan una de cada {@code tasa-muestreo} entradas</li>
+ * </ul>
+ * Si aun así el buffer está lleno, la entrada se descarta y se contabiliza: la auditoría
+ * nunca bloquea la transacción de negocio.
+ */
+@Slf4j
+@Component
+public class AuditoriaBuffer implements SmartLifecycle {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO log_auditoria
+                (id_usuario, accion, entidad, id_entidad, datos_anteriores, datos_nuevos, ip, user_agent, fecha)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String FICHERO_SPILL = "auditoria-pendiente.jsonl";
+    private static final String FICHERO_REINYECCION = "auditoria-reinyectando.jsonl";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final AuditoriaProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArrayBlockingQueue<EntradaAuditoria> cola;
+    private final int umbral;
+    private final Path ficheroSpill;
+    private final Path ficheroReinyeccion;
+    private final AtomicLong secuenciaMuestreo = new AtomicLong();
+
+    private final Counter escritas;
+    private final Counter descartadas;
+    private final Counter muestreadas;
+    private final Counter volcadas;
+
+    private volatile boolean activo;
+    private Thread escritor;
+
+    public AuditoriaBuffer(AuditoriaProperties properties,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cola = new ArrayBlockingQueue<>(properties.getCapacidad());
+        this.umbral = (int) (properties.getCapacidad() * properties.getUmbralSaturacion());
+        var directorio = Paths.get(properties.getDirectorioSpill());
+        this.ficheroSpill = directorio.resolve(FICHERO_SPILL);
+        this.ficheroReinyeccion = directorio.resolve(FICHERO_REINYECCION);
+
+        Gauge.builder("joinly.auditoria.cola", cola, ArrayBlockingQueue::size)
+                .description("Registros de auditoría pendientes de escribir")
+                .register(meterRegistry);
+        this.escritas = meterRegistry.counter("joinly.auditoria.registros", "resultado", "escrito");
+        this.descartadas = meterRegistry.counter("joinly.auditoria.registros", "resultado", "descartado");
+        this.muestreadas = meterRegistry.counter("joinly.auditoria.registros", "resultado", "muestreado");
+        this.volcadas = meterRegistry.counter("joinly.auditoria.registros", "resultado", "volcado_disco");
+    }
+
+    /**
+     * Encola un registro sin bloquear. Nunca lanza excepciones al llamante.
+     *
+     * @param entrada Registro a escribir
+     */
+    public void registrar(EntradaAuditoria entrada) {
+        if (properties.getModoSaturacion() == ModoSaturacion.MUESTREO
+                && cola.size() >= umbral
+                && secuenciaMuestreo.incrementAndGet() % properties.getTasaMuestreo() != 0) {
+            muestreadas.increment();
+            return;
+        }
+        if (!cola.offer(entrada)) {
+            descartadas.increment();
+            log.warn("Buffer de auditoría lleno, registro descartado: {} {}#{}",
+                    entrada.accion(), entrada.entidad(), entrada.idEntidad());
+        }
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+        escritor = Thread.ofVirtual().name("auditoria-writer").start(this::bucleEscritura);
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        if (escritor == null) {
+            return;
+        }
+        try {
+            escritor.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    private void bucleEscritura() {
+        var lote = new ArrayList<EntradaAuditoria>(properties.getTamanoLote());
+        while (activo || !cola.isEmpty()) {
+            try {
+                var primera = cola.poll(properties.getIntervaloFlushMs(), TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    reinyectarDesdeDisco();
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, properties.getTamanoLote() - 1);
+
+                if (properties.getModoSaturacion() == ModoSaturacion.SPILL && cola.size() >= umbral) {
+                    volcarADisco(lote);
+                } else if (!persistir(lote)) {
+                    if (properties.getModoSaturacion() == ModoSaturacion.SPILL) {
+                        volcarADisco(lote);
+                    } else {
+                        descartadas.increment(lote.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de auditoría: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private boolean persistir(List<EntradaAuditoria> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, lote, lote.size(), this::asignarParametros));
+            escritas.increment(lote.size());
+            return true;
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Error escribiendo lote de {} registros de auditoría: {}", lote.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void asignarParametros(PreparedStatement ps, EntradaAuditoria entrada) throws SQLException {
+        if (entrada.idUsuario() != null) {
+            ps.setLong(1, entrada.idUsuario());
+        } else {
+            ps.setNull(1, Types.BIGINT);
+        }
+        ps.setString(2, entrada.accion());
+        ps.setString(3, entrada.entidad());
+        if (entrada.idEntidad() != null) {
+            ps.setLong(4, entrada.idEntidad());
+        } else {
+            ps.setNull(4, Types.BIGINT);
+        }
+        ps.setString(5, aJson(entrada.datosAnteriores()));
+        ps.setString(6, aJson(entrada.datosNuevos()));
+        ps.setString(7, entrada.ip());
+        ps.setString(8, entrada.userAgent());
+        ps.setObject(9, entrada.fecha());
+    }
+
+    private void volcarADisco(List<EntradaAuditoria> lote) {
+        try {
+            Files.createDirectories(ficheroSpill.getParent());
+            var lineas = new ArrayList<String>(lote.size());
+            for (var entrada : lote) {
+                lineas.add(OBJECT_MAPPER.writeValueAsString(entrada));
+            }
+            Files.write(ficheroSpill, lineas, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            volcadas.increment(lote.size());
+        } catch (IOException e) {
+            descartadas.increment(lote.size());
+            log.error("No se pudo volcar a disco un lote de {} registros de auditoría: {}", lote.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reinyecta en la base de datos los registros volcados a disco, solo cuando la
+     * cola en memoria se ha vaciado por debajo de la mitad del umbral.
+     * <p>
+     * El fichero solo se borra cuando todos sus registros están en la base de datos. Si un
+     * lote falla, se reescribe con ese lote y los que quedaban por leer, y se reintenta en
+     * el siguiente ciclo sin actividad; los lotes ya escritos no se repiten salvo que el
+     * proceso muera entre la escritura y la reescritura (entrega al menos una vez).
+     */
+    private void reinyectarDesdeDisco() {
+        if (cola.size() > umbral / 2) {
+            return;
+        }
+        try {
+            // Un fichero de reinyección previo indica una reinyección interrumpida o fallida: se retoma
+            if (!Files.exists(ficheroReinyeccion)) {
+                if (!Files.exists(ficheroSpill)) {
+                    return;
+                }
+                Files.move(ficheroSpill, ficheroReinyeccion, StandardCopyOption.ATOMIC_MOVE);
+            }
+            var pendientes = ficheroReinyeccion.resolveSibling(FICHERO_REINYECCION + ".tmp");
+            var completa = true;
+            try (var lineas = Files.lines(ficheroReinyeccion, StandardCharsets.UTF_8)) {
+                var iterador = lineas.iterator();
+                var lote = new ArrayList<EntradaAuditoria>(properties.getTamanoLote());
+                var lineasLote = new ArrayList<String>(properties.getTamanoLote());
+                while (iterador.hasNext()) {
+                    var linea = iterador.next();
+                    var entrada = leerLinea(linea);
+                    if (entrada != null) {
+                        lote.add(entrada);
+                        lineasLote.add(linea);
+                    }
+                    if (lote.size() < properties.getTamanoLote() && iterador.hasNext()) {
+                        continue;
+                    }
+                    if (!lote.isEmpty() && !persistir(lote)) {
+                        conservarPendientes(pendientes, lineasLote, iterador);
+                        completa = false;
+                        break;
+                    }
+                    lote.clear();
+                    lineasLote.clear();
+                }
+            }
+            if (completa) {
+                Files.delete(ficheroReinyeccion);
+                log.info("Registros de auditoría volcados a disco reinyectados en la base de datos");
+            } else {
+                Files.move(pendientes, ficheroReinyeccion, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                log.warn("Reinyección de auditoría interrumpida; los registros pendientes siguen en {}",
+                        ficheroReinyeccion);
+            }
+        } catch (IOException e) {
+            log.error("Error reinyectando registros de auditoría desde disco: {}", e.getMessage());
+        }
+    }
+
+    /** Una línea ilegible no puede reinyectarse nunca: se descarta en lugar de bloquear el fichero. */
+    private EntradaAuditoria leerLinea(String linea) {
+        try {
+            return OBJECT_MAPPER.readValue(linea, EntradaAuditoria.class);
+        } catch (JsonProcessingException e) {
+            descartadas.increment();
+            log.error("Registro de auditoría ilegible en {}, descartado: {}", ficheroReinyeccion, e.getMessage());
+            return null;
+        }
+    }
+
+    private void conservarPendientes(Path destino, List<String> loteFallido, Iterator<String> resto)
+            throws IOException {
+        try (var escritor = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            for (var linea : loteFallido) {
+                escritor.write(linea);
+                escritor.newLine();
+            }
+            while (resto.hasNext()) {
+                escritor.write(resto.next());
+                escritor.newLine();
+            }
+        }
+    }
+
+    private String aJson(Map<String, Object> datos) {
+        if (datos == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudieron serializar datos de auditoría: {}", e.getMessage());
+            return null;
+        }
+    }
+}
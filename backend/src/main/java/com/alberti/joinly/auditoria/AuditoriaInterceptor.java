@@ -0,0 +1,30 @@
+package com.alberti.joinly.auditoria;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * Interceptor AOP que delega en {@link AuditoriaRegistrador} los métodos anotados con {@link Auditable}.
+ * <p>
+ * El registrador se resuelve de forma perezosa para que el advisor pueda crearse
+ * como bean de infraestructura sin forzar la inicialización temprana de JPA.
+ */
+public class AuditoriaInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<AuditoriaRegistrador> registrador;
+
+    public AuditoriaInterceptor(ObjectProvider<AuditoriaRegistrador> registrador) {
+        this.registrador = registrador;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        var auditable = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), Auditable.class);
+        if (auditable == null) {
+            return invocation.proceed();
+        }
+        return registrador.getObject().auditar(invocation, auditable);
+    }
+}
@@ -0,0 +1,205 @@
+package com.alberti.joinly.auditoria;
+
+import com.alberti.joinly.config.AuditoriaProperties;
+import com.alberti.joinly.security.UserPrincipal;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ejecuta los métodos anotados con {@link Auditable} capturando el estado de la entidad
+ * antes y después de la operación.
+ * <p>
+ * La captura se hace dentro de la misma transacción y del mismo contexto de persistencia
+ * que la operación de negocio, por lo que la instantánea posterior se obtiene de la caché
+ * de primer nivel sin consultas adicionales. El registro resultante se entrega al
+ * {@link AuditoriaBuffer} solo cuando la transacción confirma.
+ */
+@Slf4j
+@Component
+public class AuditoriaRegistrador {
+
+    private static final int MAX_USER_AGENT = 500;
+
+    private final AuditoriaProperties properties;
+    private final AuditoriaBuffer buffer;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Method, Integer> indicesIdParametro = new ConcurrentHashMap<>();
+
+    private record Ejecucion(Object resultado, Long idEntidad,
+                             Map<String, Object> antes, Map<String, Object> despues) {
+    }
+
+    public AuditoriaRegistrador(AuditoriaProperties properties,
+                                AuditoriaBuffer buffer,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.buffer = buffer;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ejecuta la invocación y registra la auditoría si finaliza correctamente.
+     *
+     * @param invocation Invocación interceptada
+     * @param auditable  Anotación del método
+     * @return Resultado del método de negocio
+     * @throws Throwable La excepción original del método, sin envolver
+     */
+    public Object auditar(MethodInvocation invocation, Auditable auditable) throws Throwable {
+        if (!properties.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        var idParametro = extraerIdParametro(invocation, auditable);
+        var usuario = usuarioActual();
+        var peticion = peticionActual();
+
+        Ejecucion ejecucion;
+        try {
+            ejecucion = transactionTemplate.execute(status -> {
+                var antes = idParametro != null ? capturar(auditable, idParametro) : null;
+                var resultado = proceder(invocation);
+                var idEntidad = idParametro != null ? idParametro : identificador(auditable, resultado);
+                var despues = idEntidad != null ? capturar(auditable, idEntidad) : null;
+                return new Ejecucion(resultado, idEntidad, antes, despues);
+            });
+        } catch (UndeclaredThrowableException e) {
+            throw e.getUndeclaredThrowable();
+        }
+
+        var entrada = new EntradaAuditoria(
+                usuario,
+                auditable.accion(),
+                auditable.entidad().getSimpleName(),
+                ejecucion.idEntidad(),
+                ejecucion.antes(),
+                ejecucion.despues(),
+                peticion != null ? peticion.getRemoteAddr() : null,
+                peticion != null ? truncar(peticion.getHeader("User-Agent")) : null,
+                LocalDateTime.now());
+        encolarTrasCommit(entrada);
+
+        return ejecucion.resultado();
+    }
+
+    private Object proceder(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Si la llamada se anida en una transacción externa, el registro se difiere
+     * hasta su commit para no auditar cambios que acaben revirtiéndose.
+     */
+    private void encolarTrasCommit(EntradaAuditoria entrada) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer.registrar(entrada);
+                }
+            });
+        } else {
+            buffer.registrar(entrada);
+        }
+    }
+
+    /**
+     * Copia los atributos simples de la entidad y los IDs de sus relaciones a un mapa.
+     */
+    private Map<String, Object> capturar(Auditable auditable, Long id) {
+        var entidad = entityManager.find(auditable.entidad(), id);
+        if (entidad == null) {
+            return null;
+        }
+
+        var excluidos = Set.of(auditable.excluir());
+        var persistenceUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        var wrapper = new BeanWrapperImpl(entidad);
+        var datos = new LinkedHashMap<String, Object>();
+
+        for (var atributo : entityManager.getMetamodel().entity(auditable.entidad()).getSingularAttributes()) {
+            var nombre = atributo.getName();
+            if (excluidos.contains(nombre) || !wrapper.isReadableProperty(nombre)) {
+                continue;
+            }
+            var valor = wrapper.getPropertyValue(nombre);
+            if (valor != null && atributo.isAssociation()) {
+                valor = persistenceUtil.getIdentifier(valor);
+            }
+            datos.put(nombre, valor);
+        }
+        return datos;
+    }
+
+    private Long identificador(Auditable auditable, Object resultado) {
+        if (!auditable.entidad().isInstance(resultado)) {
+            return null;
+        }
+        var id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(resultado);
+        return id instanceof Long valor ? valor : null;
+    }
+
+    private Long extraerIdParametro(MethodInvocation invocation, Auditable auditable) {
+        if (auditable.idParametro().isEmpty()) {
+            return null;
+        }
+        var indice = indicesIdParametro.computeIfAbsent(invocation.getMethod(), metodo -> {
+            var parametros = metodo.getParameters();
+            for (int i = 0; i < parametros.length; i++) {
+                if (parametros[i].getName().equals(auditable.idParametro())) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("@Auditable: el método " + metodo.getName()
+                    + " no tiene el parámetro " + auditable.idParametro());
+        });
+        return invocation.getArguments()[indice] instanceof Long id ? id : null;
+    }
+
+    private Long usuarioActual() {
+        var autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion != null && autenticacion.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    private HttpServletRequest peticionActual() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            return atributos.getRequest();
+        }
+        return null;
+    }
+
+    private String truncar(String valor) {
+        return valor != null && valor.length() > MAX_USER_AGENT ? valor.substring(0, MAX_USER_AGENT) : valor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.alberti.joinly.auditoria;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Registro de auditoría pendiente de escribir en {@code log_auditoria}.
+ * <p>
+ * Los datos anteriores y nuevos se guardan como mapas de valores inmutables y se
+ * serializan a JSON en el hilo escritor, fuera de la petición de negocio.
+ */
+public record EntradaAuditoria(
+        Long idUsuario,
+        String accion,
+        String entidad,
+        Long idEntidad,
+        Map<String, Object> datosAnteriores,
+        Map<String, Object> datosNuevos,
+        String ip,
+        String userAgent,
+        LocalDateTime fecha
+) {
+}
@@ -0,0 +1,178 @@
+package com.alberti.joinly.autorizacion;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hechos de autorización en memoria: anfitrión de cada suscripción, administrador de cada
+ * unidad familiar y miembros activos de cada unidad, en estructuras primitivas
+ * ({@link MapaLargos}, {@link MiembrosPorUnidad}).
+ * <p>
+ * Las entradas se cargan bajo demanda. Para que una carga lenta no guarde un valor que un
+ * cambio confirmado ya ha dejado obsoleto, cada cambio incrementa una versión y las cargas
+ * solo se guardan si la versión no ha cambiado desde que empezaron ({@link #version()}).
+ * Cada tabla se vacía entera al llegar a {@code maxEntradas}.
+ */
+public class IndiceAutorizacion {
+
+    /** Valor devuelto cuando el hecho no está en el índice. */
+    public static final long DESCONOCIDO = MapaLargos.AUSENTE;
+
+    private final int maxEntradas;
+    private final MapaLargos anfitriones = new MapaLargos(1024);
+    private final MapaLargos administradores = new MapaLargos(1024);
+    private final MiembrosPorUnidad miembros = new MiembrosPorUnidad(1024);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Solo cambia con el cerrojo de escritura. */
+    private volatile long version;
+
+    public IndiceAutorizacion(int maxEntradas) {
+        this.maxEntradas = maxEntradas;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /** @return Id del anfitrión, o {@link #DESCONOCIDO} */
+    public long anfitrion(long idSuscripcion) {
+        lock.readLock().lock();
+        try {
+            return anfitriones.get(idSuscripcion);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Id del administrador, o {@link #DESCONOCIDO} */
+    public long administrador(long idUnidad) {
+        lock.readLock().lock();
+        try {
+            return administradores.get(idUnidad);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Si el usuario es miembro activo, o {@code null} si los miembros de la unidad
+     * no están en el índice
+     */
+    public Boolean esMiembro(long idUnidad, long idUsuario) {
+        lock.readLock().lock();
+        try {
+            var ids = miembros.get(idUnidad);
+            return ids == null ? null : Arrays.binarySearch(ids, idUsuario) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Cargas ====================
+
+    /**
+     * Guarda el anfitrión leído de la base de datos.
+     *
+     * @param versionLeida {@link #version()} antes de la consulta
+     */
+    public void cargarAnfitrion(long versionLeida, long idSuscripcion, long idAnfitrion) {
+        lock.writeLock().lock();
+        try {
+            if (version != versionLeida) return;
+            if (anfitriones.tamano() >= maxEntradas) anfitriones.limpiar();
+            anfitriones.put(idSuscripcion, idAnfitrion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @param versionLeida {@link #version()} antes de la consulta */
+    public void cargarAdministrador(long versionLeida, long idUnidad, long idAdministrador) {
+        lock.writeLock().lock();
+        try {
+            if (version != versionLeida) return;
+            if (administradores.tamano() >= maxEntradas) administradores.limpiar();
+            administradores.put(idUnidad, idAdministrador);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @param versionLeida {@link #version()} antes de la consulta */
+    public void cargarMiembros(long versionLeida, long idUnidad, long[] idsUsuarios) {
+        var ordenados = idsUsuarios.clone();
+        Arrays.sort(ordenados);
+        lock.writeLock().lock();
+        try {
+            if (version != versionLeida) return;
+            if (miembros.tamano() >= maxEntradas) miembros.limpiar();
+            miembros.put(idUnidad, ordenados);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Cambios confirmados ====================
+
+    public void asignarAnfitrion(long idSuscripcion, long idAnfitrion) {
+        modificar(() -> {
+            if (anfitriones.tamano() >= maxEntradas) anfitriones.limpiar();
+            anfitriones.put(idSuscripcion, idAnfitrion);
+        });
+    }
+
+    public void asignarAdministrador(long idUnidad, long idAdministrador) {
+        modificar(() -> {
+            if (administradores.tamano() >= maxEntradas) administradores.limpiar();
+            administradores.put(idUnidad, idAdministrador);
+        });
+    }
+
+    /** Añade el miembro si la unidad está en el índice; si no, se cargará completa al consultarla. */
+    public void altaMiembro(long idUnidad, long idUsuario) {
+        modificar(() -> miembros.anadir(idUnidad, idUsuario));
+    }
+
+    public void bajaMiembro(long idUnidad, long idUsuario) {
+        modificar(() -> miembros.quitar(idUnidad, idUsuario));
+    }
+
+    /** Descarta todo lo que se sabe de la unidad; se vuelve a cargar en la siguiente consulta. */
+    public void olvidarUnidad(long idUnidad) {
+        modificar(() -> {
+            administradores.remove(idUnidad);
+            miembros.remove(idUnidad);
+        });
+    }
+
+    public void olvidarSuscripcion(long idSuscripcion) {
+        modificar(() -> anfitriones.remove(idSuscripcion));
+    }
+
+    public void limpiar() {
+        modificar(() -> {
+            anfitriones.limpiar();
+            administradores.limpiar();
+            miembros.limpiar();
+        });
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return anfitriones.tamano() + administradores.tamano() + miembros.tamano();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void modificar(Runnable cambio) {
+        lock.writeLock().lock();
+        try {
+            version++;
+            cambio.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.alberti.joinly.autorizacion;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long → long} de direccionamiento abierto con sondeo lineal: dos arrays
+ * primitivos, sin un objeto por entrada como {@code HashMap<Long, Long>}.
+ * <p>
+ * Pensado para identificadores: las claves y los valores deben ser positivos, y
+ * {@link #AUSENTE} indica que no hay valor. El borrado desplaza hacia atrás las entradas
+ * siguientes (sin marcas de borrado), así que las búsquedas no se degradan con el uso.
+ * No es seguro para hilos.
+ */
+final class MapaLargos {
+
+    static final long AUSENTE = 0;
+
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private long[] claves;
+    private long[] valores;
+    private int mascara;
+    private int tamano;
+
+    MapaLargos(int capacidadInicial) {
+        var capacidad = Integer.highestOneBit(Math.max(CAPACIDAD_MINIMA, capacidadInicial) * 2 - 1);
+        reservar(capacidad);
+    }
+
+    long get(long clave) {
+        var i = posicion(clave);
+        return i < 0 ? AUSENTE : valores[i];
+    }
+
+    void put(long clave, long valor) {
+        if (clave <= 0 || valor <= 0) {
+            throw new IllegalArgumentException("Claves y valores deben ser positivos");
+        }
+        var i = indice(clave, mascara);
+        while (claves[i] != AUSENTE) {
+            if (claves[i] == clave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        // Factor de carga máximo 0,75
+        if (++tamano * 4 > claves.length * 3) {
+            redimensionar(claves.length * 2);
+        }
+    }
+
+    void remove(long clave) {
+        var hueco = posicion(clave);
+        if (hueco < 0) return;
+
+        // Cada entrada siguiente del grupo se mueve al hueco si su posición ideal no queda entre ambos
+        var j = hueco;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] == AUSENTE) break;
+            var ideal = indice(claves[j], mascara);
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+        }
+        claves[hueco] = AUSENTE;
+        valores[hueco] = AUSENTE;
+        tamano--;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    void limpiar() {
+        Arrays.fill(claves, AUSENTE);
+        Arrays.fill(valores, AUSENTE);
+        tamano = 0;
+    }
+
+    private int posicion(long clave) {
+        var i = indice(clave, mascara);
+        while (claves[i] != AUSENTE) {
+            if (claves[i] == clave) return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void redimensionar(int capacidad) {
+        var anterioresClaves = claves;
+        var anterioresValores = valores;
+        reservar(capacidad);
+        for (int i = 0; i < anterioresClaves.length; i++) {
+            if (anterioresClaves[i] != AUSENTE) {
+                var j = indice(anterioresClaves[i], mascara);
+                while (claves[j] != AUSENTE) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = anterioresClaves[i];
+                valores[j] = anterioresValores[i];
+            }
+        }
+    }
+
+    private void reservar(int capacidad) {
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        mascara = capacidad - 1;
+    }
+
+    /** Dispersión de Fibonacci: los ids consecutivos no forman grupos contiguos. */
+    static int indice(long clave, int mascara) {
+        var h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
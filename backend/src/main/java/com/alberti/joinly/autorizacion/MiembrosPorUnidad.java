@@ -0,0 +1,138 @@
+package com.alberti.joinly.autorizacion;
+
+import java.util.Arrays;
+
+/**
+ * Unidad familiar → ids de sus miembros activos, como array ordenado de {@code long}
+ * (búsqueda binaria). Un grupo tiene pocos miembros, así que copiar el array al añadir
+ * o quitar uno es más barato y compacto que un {@code Set<Long>}.
+ * <p>
+ * Misma tabla de direccionamiento abierto que {@link MapaLargos}. Los arrays guardados
+ * no se modifican nunca. No es seguro para hilos.
+ */
+final class MiembrosPorUnidad {
+
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private long[] unidades;
+    private long[][] miembros;
+    private int mascara;
+    private int tamano;
+
+    MiembrosPorUnidad(int capacidadInicial) {
+        var capacidad = Integer.highestOneBit(Math.max(CAPACIDAD_MINIMA, capacidadInicial) * 2 - 1);
+        reservar(capacidad);
+    }
+
+    /** @return Miembros ordenados, o {@code null} si la unidad no está cargada */
+    long[] get(long idUnidad) {
+        var i = posicion(idUnidad);
+        return i < 0 ? null : miembros[i];
+    }
+
+    /** @param ordenados Ids de los miembros en orden ascendente */
+    void put(long idUnidad, long[] ordenados) {
+        var i = MapaLargos.indice(idUnidad, mascara);
+        while (unidades[i] != MapaLargos.AUSENTE) {
+            if (unidades[i] == idUnidad) {
+                miembros[i] = ordenados;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        unidades[i] = idUnidad;
+        miembros[i] = ordenados;
+        if (++tamano * 4 > unidades.length * 3) {
+            redimensionar(unidades.length * 2);
+        }
+    }
+
+    /** Añade un miembro si la unidad está cargada. */
+    void anadir(long idUnidad, long idUsuario) {
+        var i = posicion(idUnidad);
+        if (i < 0) return;
+        var actuales = miembros[i];
+        var pos = Arrays.binarySearch(actuales, idUsuario);
+        if (pos >= 0) return;
+        var insercion = -pos - 1;
+        var nuevos = new long[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevos, 0, insercion);
+        nuevos[insercion] = idUsuario;
+        System.arraycopy(actuales, insercion, nuevos, insercion + 1, actuales.length - insercion);
+        miembros[i] = nuevos;
+    }
+
+    /** Quita un miembro si la unidad está cargada. */
+    void quitar(long idUnidad, long idUsuario) {
+        var i = posicion(idUnidad);
+        if (i < 0) return;
+        var actuales = miembros[i];
+        var pos = Arrays.binarySearch(actuales, idUsuario);
+        if (pos < 0) return;
+        var nuevos = new long[actuales.length - 1];
+        System.arraycopy(actuales, 0, nuevos, 0, pos);
+        System.arraycopy(actuales, pos + 1, nuevos, pos, actuales.length - pos - 1);
+        miembros[i] = nuevos;
+    }
+
+    void remove(long idUnidad) {
+        var hueco = posicion(idUnidad);
+        if (hueco < 0) return;
+
+        var j = hueco;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (unidades[j] == MapaLargos.AUSENTE) break;
+            var ideal = MapaLargos.indice(unidades[j], mascara);
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                unidades[hueco] = unidades[j];
+                miembros[hueco] = miembros[j];
+                hueco = j;
+            }
+        }
+        unidades[hueco] = MapaLargos.AUSENTE;
+        miembros[hueco] = null;
+        tamano--;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    void limpiar() {
+        Arrays.fill(unidades, MapaLargos.AUSENTE);
+        Arrays.fill(miembros, null);
+        tamano = 0;
+    }
+
+    private int posicion(long idUnidad) {
+        var i = MapaLargos.indice(idUnidad, mascara);
+        while (unidades[i] != MapaLargos.AUSENTE) {
+            if (unidades[i] == idUnidad) return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void redimensionar(int capacidad) {
+        var anterioresUnidades = unidades;
+        var anterioresMiembros = miembros;
+        reservar(capacidad);
+        for (int i = 0; i < anterioresUnidades.length; i++) {
+            if (anterioresUnidades[i] != MapaLargos.AUSENTE) {
+                var j = MapaLargos.indice(anterioresUnidades[i], mascara);
+                while (unidades[j] != MapaLargos.AUSENTE) {
+                    j = (j + 1) & mascara;
+                }
+                unidades[j] = anterioresUnidades[i];
+                miembros[j] = anterioresMiembros[i];
+            }
+        }
+    }
+
+    private void reservar(int capacidad) {
+        unidades = new long[capacidad];
+        miembros = new long[capacidad][];
+        mascara = capacidad - 1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.alberti.joinly.basedatos;
+
+/**
+ * Clases de tráfico a la base de datos, cada una con su propio compartimento de conexiones.
+ * - LECTURA: peticiones de usuario en transacciones de solo lectura (o sin transacción)
+ * - ESCRITURA: peticiones de usuario en transacciones de escritura
+ * - LOTE: todo lo que no atiende a una petición (jobs, sincronizaciones, arranque)
+ * - EXPORTACION: descargas sin paginar, que leen durante minutos en un hilo asíncrono
+ */
+public enum ClaseTrafico {
+    LECTURA,
+    ESCRITURA,
+    LOTE,
+    EXPORTACION
+}
@@ -0,0 +1,186 @@
+package com.alberti.joinly.basedatos;
+
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compartimentos (bulkheads) de acceso a la base de datos por {@link ClaseTrafico}.
+ * <p>
+ * Con hilos virtuales, una ráfaga de peticiones crea miles de hilos que esperan todos en el
+ * pool de Hikari y fallan a la vez al agotar su {@code connection-timeout}. Aquí cada conexión
+ * física necesita antes un permiso de un semáforo justo de su clase; la suma de permisos
+ * ({@code joinly.bd.compartimentos.*.permisos}) no debería superar el tamaño del pool, de modo
+ * que la espera ocurre aquí, con un límite propio de cada clase
+ * ({@code joinly.bd.compartimentos.*.espera-max-ms}), y al agotarlo la petición recibe un 503
+ * ({@link ServicioSaturadoException}) en lugar de seguir esperando.
+ * <p>
+ * La clase se decide al pedir la conexión ({@link CompartimentosDataSource} va detrás de un
+ * {@code LazyConnectionDataSourceProxy}, así que ya se conoce la transacción):
+ * <ul>
+ *   <li>Sin petición HTTP en curso ({@code @Scheduled}, listeners de arranque, hilos propios): {@code LOTE}.
+ *       Con pocos permisos, un job nocturno nunca ocupa la capacidad reservada a los usuarios.</li>
+ *   <li>En una petición, {@code ESCRITURA} si la transacción no es de solo lectura y {@code LECTURA} si no.</li>
+ *   <li>Las exportaciones declaradas con {@link #exportacion}: {@code EXPORTACION}. Se escriben en un
+ *       hilo asíncrono sin petición, pero no son un job: no deben esperar detrás de los lotes un
+ *       minuto, ni ocupar durante toda la descarga un permiso de las lecturas interactivas.</li>
+ * </ul>
+ * Los hilos lanzados para atender una petición pueden declararse interactivos con {@link #interactivo}.
+ * Un hilo que ya tiene un permiso no espera por otro (p. ej. una transacción {@code REQUIRES_NEW}
+ * anidada), para no bloquearse a sí mismo.
+ * <p>
+ * Métricas por clase: {@code joinly.bd.compartimento.en-uso}, {@code joinly.bd.compartimento.cola},
+ * {@code joinly.bd.compartimento.espera} y {@code joinly.bd.compartimento.rechazos}.
+ */
+@Component
+@Slf4j
+public class CompartimentosBd {
+
+    private static final ScopedValue<Boolean> INTERACTIVO = ScopedValue.newInstance();
+    private static final ScopedValue<Boolean> EXPORTACION = ScopedValue.newInstance();
+
+    private final Map<ClaseTrafico, Compartimento> compartimentos = new EnumMap<>(ClaseTrafico.class);
+    /** Permisos que tiene el hilo actual, para no esperar por un segundo permiso. */
+    private final ThreadLocal<int[]> permisosDelHilo = ThreadLocal.withInitial(() -> new int[1]);
+
+    private record Compartimento(ClaseTrafico clase, int permisos, Semaphore semaforo, Duration esperaMax,
+                                 Timer espera, Counter rechazos) {
+    }
+
+    public CompartimentosBd(
+            @Value("${joinly.bd.compartimentos.lectura.permisos:5}") int permisosLectura,
+            @Value("${joinly.bd.compartimentos.lectura.espera-max-ms:500}") long esperaLecturaMs,
+            @Value("${joinly.bd.compartimentos.escritura.permisos:3}") int permisosEscritura,
+            @Value("${joinly.bd.compartimentos.escritura.espera-max-ms:1000}") long esperaEscrituraMs,
+            @Value("${joinly.bd.compartimentos.lote.permisos:2}") int permisosLote,
+            @Value("${joinly.bd.compartimentos.lote.espera-max-ms:60000}") long esperaLoteMs,
+            @Value("${joinly.bd.compartimentos.exportacion.permisos:1}") int permisosExportacion,
+            @Value("${joinly.bd.compartimentos.exportacion.espera-max-ms:5000}") long esperaExportacionMs,
+            MeterRegistry meterRegistry) {
+        registrar(ClaseTrafico.LECTURA, permisosLectura, esperaLecturaMs, meterRegistry);
+        registrar(ClaseTrafico.ESCRITURA, permisosEscritura, esperaEscrituraMs, meterRegistry);
+        registrar(ClaseTrafico.LOTE, permisosLote, esperaLoteMs, meterRegistry);
+        registrar(ClaseTrafico.EXPORTACION, permisosExportacion, esperaExportacionMs, meterRegistry);
+        log.info("Compartimentos de base de datos: lectura {}, escritura {}, lote {}, exportación {} conexiones",
+                permisosLectura, permisosEscritura, permisosLote, permisosExportacion);
+    }
+
+    private void registrar(ClaseTrafico clase, int permisos, long esperaMaxMs, MeterRegistry meterRegistry) {
+        if (permisos < 1) {
+            throw new IllegalArgumentException("El compartimento " + clase + " necesita al menos un permiso");
+        }
+        var semaforo = new Semaphore(permisos, true);
+        var etiqueta = clase.name().toLowerCase();
+        Gauge.builder("joinly.bd.compartimento.en-uso", semaforo, s -> permisos - s.availablePermits())
+                .description("Conexiones en uso por la clase de tráfico")
+                .tag("clase", etiqueta)
+                .register(meterRegistry);
+        Gauge.builder("joinly.bd.compartimento.cola", semaforo, Semaphore::getQueueLength)
+                .description("Hilos esperando una conexión de la clase de tráfico")
+                .tag("clase", etiqueta)
+                .register(meterRegistry);
+        var espera = Timer.builder("joinly.bd.compartimento.espera")
+                .description("Espera hasta obtener permiso para una conexión")
+                .tag("clase", etiqueta)
+                .register(meterRegistry);
+        var rechazos = meterRegistry.counter("joinly.bd.compartimento.rechazos", "clase", etiqueta);
+        compartimentos.put(clase, new Compartimento(clase, permisos, semaforo, Duration.ofMillis(esperaMaxMs),
+                espera, rechazos));
+    }
+
+    /**
+     * Ejecuta {@code tarea} como tráfico interactivo aunque no haya petición HTTP en el hilo
+     * (secciones paralelas de una misma petición).
+     */
+    public static <T> Callable<T> interactivo(Callable<T> tarea) {
+        return () -> ScopedValue.where(INTERACTIVO, Boolean.TRUE).call(tarea::call);
+    }
+
+    /**
+     * Ejecuta {@code tarea} como tráfico de exportación (escritura de una descarga en el hilo
+     * asíncrono de la respuesta).
+     */
+    public static <T> Callable<T> exportacion(Callable<T> tarea) {
+        return () -> ScopedValue.where(EXPORTACION, Boolean.TRUE).call(tarea::call);
+    }
+
+    /** Clase de tráfico del hilo actual, según se describe en la clase. */
+    public ClaseTrafico claseActual() {
+        if (EXPORTACION.isBound() && EXPORTACION.get()) {
+            return ClaseTrafico.EXPORTACION;
+        }
+        var interactivo = (INTERACTIVO.isBound() && INTERACTIVO.get())
+                || RequestContextHolder.getRequestAttributes() != null;
+        if (!interactivo) {
+            return ClaseTrafico.LOTE;
+        }
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? ClaseTrafico.ESCRITURA
+                : ClaseTrafico.LECTURA;
+    }
+
+    /**
+     * Obtiene un permiso para una conexión de la clase actual, esperando como máximo lo configurado.
+     *
+     * @return Clase del permiso obtenido, o {@code null} si el hilo ya tenía uno y no ha esperado
+     * @throws ServicioSaturadoException si no hay permiso dentro del plazo
+     */
+    public ClaseTrafico adquirir() {
+        var propios = permisosDelHilo.get();
+        if (propios[0] > 0) {
+            propios[0]++;
+            return null;
+        }
+        var compartimento = compartimentos.get(claseActual());
+        var inicio = System.nanoTime();
+        boolean concedido;
+        try {
+            concedido = compartimento.semaforo().tryAcquire(compartimento.esperaMax().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException("Interrumpido mientras esperaba una conexión a la base de datos", 1);
+        } finally {
+            compartimento.espera().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        if (!concedido) {
+            compartimento.rechazos().increment();
+            throw new ServicioSaturadoException(
+                    "El servidor está atendiendo demasiadas peticiones. Inténtalo de nuevo en unos segundos", 1);
+        }
+        propios[0] = 1;
+        return compartimento.clase();
+    }
+
+    /**
+     * Devuelve el permiso obtenido con {@link #adquirir()}.
+     *
+     * @param clase Valor que devolvió {@link #adquirir()}
+     */
+    public void liberar(ClaseTrafico clase) {
+        var propios = permisosDelHilo.get();
+        propios[0] = Math.max(0, propios[0] - 1);
+        if (clase != null) {
+            compartimentos.get(clase).semaforo().release();
+        }
+    }
+
+    /** Permisos disponibles de una clase. */
+    public int disponibles(ClaseTrafico clase) {
+        return compartimentos.get(clase).semaforo().availablePermits();
+    }
+}
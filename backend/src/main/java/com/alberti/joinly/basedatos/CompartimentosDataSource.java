@@ -0,0 +1,83 @@
+package com.alberti.joinly.basedatos;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} que pide permiso a {@link CompartimentosBd} antes de cada conexión física
+ * y lo devuelve al cerrarla.
+ * <p>
+ * Debe ir detrás de un {@code LazyConnectionDataSourceProxy}: así la conexión se pide al
+ * ejecutar la primera sentencia, cuando ya se sabe si la transacción es de solo lectura, y una
+ * transacción que no llega a consultar nada no ocupa permiso.
+ */
+public class CompartimentosDataSource extends DelegatingDataSource {
+
+    private final Supplier<CompartimentosBd> compartimentos;
+
+    /**
+     * @param compartimentos Se resuelve en la primera conexión, no al crear el DataSource
+     */
+    public CompartimentosDataSource(DataSource destino, Supplier<CompartimentosBd> compartimentos) {
+        super(destino);
+        this.compartimentos = compartimentos;
+    }
+
+    /** Los compartimentos sobre {@code pool}, detrás de un {@code LazyConnectionDataSourceProxy}. */
+    public static DataSource envolver(DataSource pool, Supplier<CompartimentosBd> compartimentos) {
+        return new LazyConnectionDataSourceProxy(new CompartimentosDataSource(pool, compartimentos));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conPermiso(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conPermiso(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+
+    private Connection conPermiso(Apertura apertura) throws SQLException {
+        var gestor = compartimentos.get();
+        var clase = gestor.adquirir();
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            gestor.liberar(clase);
+            throw e;
+        }
+        var liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            if (liberada.compareAndSet(false, true)) {
+                                gestor.liberar(clase);
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.alberti.joinly.basedatos;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} de lectura/escritura: su destino es la primaria y {@link EnrutadorLecturas}
+ * decide en cada conexión si se usa la réplica en su lugar.
+ * <p>
+ * Como {@link CompartimentosDataSource}, debe ir detrás de un {@code LazyConnectionDataSourceProxy}
+ * para que la transacción ya esté iniciada cuando se pide la conexión.
+ */
+public class EnrutadoDataSource extends DelegatingDataSource {
+
+    private final Supplier<EnrutadorLecturas> enrutador;
+
+    /**
+     * @param enrutador Se resuelve en la primera conexión, no al crear el DataSource
+     */
+    public EnrutadoDataSource(DataSource primaria, Supplier<EnrutadorLecturas> enrutador) {
+        super(primaria);
+        this.enrutador = enrutador;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return enrutador.get().conectar(obtainTargetDataSource());
+    }
+
+    /** Con credenciales explícitas (herramientas de administración) siempre a la primaria. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return obtainTargetDataSource().getConnection(username, password);
+    }
+}
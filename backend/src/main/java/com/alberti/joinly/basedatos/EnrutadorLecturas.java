@@ -0,0 +1,149 @@
+package com.alberti.joinly.basedatos;
+
+import com.alberti.joinly.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decide si cada conexión física va a la primaria o a la réplica de lectura ({@code joinly.bd.replica.*}).
+ * <p>
+ * Van a la réplica las transacciones {@code @Transactional(readOnly = true)}, que son la mayoría
+ * de los servicios, salvo que el usuario haya escrito hace poco ({@link LecturasPropias}), que la
+ * lectura se haga dentro de {@link #enPrimaria} (quien sabe que acaba de confirmarse algo que la
+ * réplica quizá no tiene aún), o que la réplica no dé conexión en {@code connection-timeout-ms};
+ * en esos casos se lee de la primaria.
+ * Las escrituras y los accesos sin transacción van siempre a la primaria.
+ * <p>
+ * La decisión se toma en {@link EnrutadoDataSource}, detrás del {@code LazyConnectionDataSourceProxy}
+ * de {@link CompartimentosDataSource#envolver}, cuando ya se conoce la transacción. El pool de la
+ * réplica publica las métricas de Hikari con {@code pool=joinly-replica}, y cada decisión cuenta en
+ * {@code joinly.bd.enrutado} por destino y motivo.
+ */
+@Component
+@Slf4j
+public class EnrutadorLecturas implements DisposableBean {
+
+    static final String POOL_REPLICA = "joinly-replica";
+
+    private static final ScopedValue<Boolean> PRIMARIA = ScopedValue.newInstance();
+
+    /** {@code null} si no hay réplica configurada. */
+    private final DataSource replica;
+    private final LecturasPropias lecturasPropias;
+    private final Counter escrituras;
+    private final Counter lecturasReplica;
+    private final Counter lecturasPropiasPrimaria;
+    private final Counter lecturasForzadas;
+    private final Counter respaldos;
+
+    @Autowired
+    public EnrutadorLecturas(
+            ReplicaProperties properties,
+            @Value("${spring.datasource.driver-class-name:}") String driverClassName,
+            MeterRegistry meterRegistry) {
+        this(crearPool(properties, driverClassName, meterRegistry),
+                new LecturasPropias(Duration.ofMillis(properties.getLecturasPropiasMs())),
+                meterRegistry);
+    }
+
+    EnrutadorLecturas(DataSource replica, LecturasPropias lecturasPropias, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lecturasPropias = lecturasPropias;
+        this.escrituras = meterRegistry.counter("joinly.bd.enrutado", "destino", "primaria", "motivo", "escritura");
+        this.lecturasPropiasPrimaria = meterRegistry.counter("joinly.bd.enrutado", "destino", "primaria", "motivo", "lecturas_propias");
+        this.lecturasForzadas = meterRegistry.counter("joinly.bd.enrutado", "destino", "primaria", "motivo", "forzada");
+        this.respaldos = meterRegistry.counter("joinly.bd.enrutado", "destino", "primaria", "motivo", "replica_no_disponible");
+        this.lecturasReplica = meterRegistry.counter("joinly.bd.enrutado", "destino", "replica", "motivo", "lectura");
+    }
+
+    private static DataSource crearPool(ReplicaProperties properties, String driverClassName, MeterRegistry meterRegistry) {
+        if (!StringUtils.hasText(properties.getUrl())) {
+            return null;
+        }
+        var pool = new HikariDataSource();
+        pool.setPoolName(POOL_REPLICA);
+        pool.setJdbcUrl(properties.getUrl());
+        pool.setUsername(properties.getUsername());
+        pool.setPassword(properties.getPassword());
+        if (StringUtils.hasText(driverClassName)) {
+            pool.setDriverClassName(driverClassName);
+        }
+        pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+        pool.setConnectionTimeout(properties.getConnectionTimeoutMs());
+        pool.setReadOnly(true);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        log.info("Lecturas de solo lectura enrutadas a la réplica ({} conexiones)", properties.getMaximumPoolSize());
+        return pool;
+    }
+
+    /**
+     * Ejecuta {@code lectura} leyendo de la primaria aunque sea de solo lectura, p. ej. al
+     * consultar justo después de un aviso de {@code afterCommit}, que la réplica puede no haber
+     * recibido todavía.
+     */
+    public static <T> T enPrimaria(Supplier<T> lectura) {
+        return ScopedValue.where(PRIMARIA, Boolean.TRUE).call(lectura::get);
+    }
+
+    public boolean tieneReplica() {
+        return replica != null;
+    }
+
+    /**
+     * Abre la conexión física para la transacción actual.
+     *
+     * @param primaria Pool de {@code spring.datasource}
+     */
+    public Connection conectar(DataSource primaria) throws SQLException {
+        if (replica == null) {
+            return primaria.getConnection();
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                lecturasPropias.registrarEscritura();
+            }
+            escrituras.increment();
+            return primaria.getConnection();
+        }
+        if (PRIMARIA.isBound() && PRIMARIA.get()) {
+            lecturasForzadas.increment();
+            return primaria.getConnection();
+        }
+        if (lecturasPropias.debeLeerDePrimaria()) {
+            lecturasPropiasPrimaria.increment();
+            return primaria.getConnection();
+        }
+        try {
+            var conexion = replica.getConnection();
+            lecturasReplica.increment();
+            return conexion;
+        } catch (SQLException e) {
+            // Hikari ya registra la caída del pool; aquí basta con la métrica
+            log.debug("Réplica no disponible, leyendo de la primaria: {}", e.getMessage());
+            respaldos.increment();
+            return primaria.getConnection();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (replica instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+}
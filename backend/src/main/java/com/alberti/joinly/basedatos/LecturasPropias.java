@@ -0,0 +1,93 @@
+package com.alberti.joinly.basedatos;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Lectura de las propias escrituras: tras confirmar una escritura, las lecturas del mismo
+ * usuario van a la primaria durante una ventana, para no ver datos anteriores por el retraso
+ * de la réplica.
+ * <p>
+ * El usuario es el de {@code SecurityContextHolder}; sin usuario autenticado no se aplica. El
+ * estado es local a cada nodo: una petición atendida por otro nodo puede leer de la réplica.
+ */
+public class LecturasPropias {
+
+    private static final int MAX_USUARIOS = 100_000;
+
+    private final long ventanaNanos;
+    private final LongSupplier reloj;
+    /** Usuario → instante ({@code nanoTime}) hasta el que lee de la primaria. */
+    private final ConcurrentHashMap<String, Long> hasta = new ConcurrentHashMap<>();
+
+    public LecturasPropias(Duration ventana) {
+        this(ventana, System::nanoTime);
+    }
+
+    LecturasPropias(Duration ventana, LongSupplier reloj) {
+        this.ventanaNanos = ventana.toNanos();
+        this.reloj = reloj;
+    }
+
+    /**
+     * Anota una escritura del usuario actual. La ventana empieza ya y, si hay transacción,
+     * vuelve a empezar al confirmarla.
+     */
+    public void registrarEscritura() {
+        if (ventanaNanos <= 0) return;
+        var usuario = usuarioActual();
+        if (usuario == null) return;
+
+        marcar(usuario);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    marcar(usuario);
+                }
+            });
+        }
+    }
+
+    /** Indica si el usuario actual ha escrito hace menos de la ventana. */
+    public boolean debeLeerDePrimaria() {
+        if (ventanaNanos <= 0) return false;
+        var usuario = usuarioActual();
+        if (usuario == null) return false;
+
+        var limite = hasta.get(usuario);
+        if (limite == null) return false;
+        if (reloj.getAsLong() - limite >= 0) {
+            hasta.remove(usuario, limite);
+            return false;
+        }
+        return true;
+    }
+
+    int tamano() {
+        return hasta.size();
+    }
+
+    private void marcar(String usuario) {
+        var ahora = reloj.getAsLong();
+        hasta.put(usuario, ahora + ventanaNanos);
+        if (hasta.size() > MAX_USUARIOS) {
+            hasta.values().removeIf(limite -> ahora - limite >= 0);
+        }
+    }
+
+    private static String usuarioActual() {
+        var autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || !autenticacion.isAuthenticated()
+                || autenticacion instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return autenticacion.getName();
+    }
+}
@@ -0,0 +1,180 @@
+package com.alberti.joinly.busqueda;
+
+import com.alberti.joinly.entities.enums.EstadoUsuario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Índice de búsqueda por nombre de los usuarios activos, usado por el autocompletado
+ * de {@code /api/v1/usuarios/buscar} en lugar de {@code LIKE '%texto%'} sobre {@code usuario}.
+ * <p>
+ * Se carga completo al arrancar y se mantiene al día de dos formas:
+ * <ul>
+ *   <li>Las escrituras de este nodo notifican el cambio al confirmar su transacción
+ *       ({@link #registrarCambio}), de modo que el propio usuario ve su cambio al instante.</li>
+ *   <li>Cada {@code joinly.busqueda.intervalo-sincronizacion-ms} se leen las filas con
+ *       {@code updated_at} posterior a la última marca, con un solape para desfases de reloj,
+ *       lo que incorpora los cambios hechos en otros nodos.</li>
+ * </ul>
+ * Mientras no está cargado ({@link #estaCargado()}), los llamantes deben buscar en la base
+ * de datos: el índice vacío no distingue "sin resultados" de "aún no disponible".
+ * <p>
+ * Las consultas usan SQL nativo porque la restricción {@code estado <> 'ELIMINADO'} de la
+ * entidad ocultaría las bajas, que también deben salir del índice.
+ */
+@Service
+@Slf4j
+public class BusquedaUsuarios {
+
+    private static final Duration SOLAPE = Duration.ofMinutes(1);
+    private static final int TAMANO_LOTE = 5_000;
+
+    private static final String SQL_CARGA = """
+            SELECT id_usuario, nombre FROM usuario
+            WHERE estado = 'ACTIVO' AND id_usuario > ?
+            ORDER BY id_usuario
+            LIMIT ?""";
+
+    private static final String SQL_CAMBIOS = """
+            SELECT id_usuario, nombre, estado, updated_at FROM usuario
+            WHERE updated_at >= ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxResultados;
+    private final IndiceTrigramas indice = new IndiceTrigramas();
+
+    private volatile LocalDateTime ultimaModificacion;
+    private volatile boolean cargado;
+
+    private record Cambio(long idUsuario, String nombre, EstadoUsuario estado, Timestamp actualizado) {
+    }
+
+    public BusquedaUsuarios(
+            JdbcTemplate jdbcTemplate,
+            @Value("${joinly.busqueda.usuarios.max-resultados:20}") int maxResultados) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxResultados = maxResultados;
+    }
+
+    /**
+     * Identificadores de usuarios activos cuyo nombre contiene el texto, por relevancia
+     * (empieza por el texto, alguna palabra empieza por el texto, lo contiene).
+     *
+     * @return Como mucho {@code joinly.busqueda.usuarios.max-resultados} identificadores
+     */
+    public List<Long> buscar(String texto) {
+        return indice.buscar(texto, maxResultados);
+    }
+
+    /**
+     * Página de los usuarios activos cuyo nombre contiene el texto, en el mismo orden de
+     * relevancia, con el número total real de coincidencias.
+     */
+    public IndiceTrigramas.Pagina buscarPagina(String texto, int desde, int tamano) {
+        return indice.buscarPagina(texto, desde, tamano);
+    }
+
+    public int getMaxResultados() {
+        return maxResultados;
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * Aplica al índice el estado de un usuario cuando confirme la transacción en curso
+     * (o inmediatamente si no hay ninguna).
+     */
+    public void registrarCambio(Long idUsuario, String nombre, EstadoUsuario estado) {
+        if (idUsuario == null) return;
+        Runnable aplicar = () -> aplicar(idUsuario, nombre, estado);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+
+    private void aplicar(long idUsuario, String nombre, EstadoUsuario estado) {
+        if (estado == EstadoUsuario.ACTIVO) {
+            indice.indexar(idUsuario, nombre);
+        } else {
+            indice.eliminar(idUsuario);
+        }
+    }
+
+    // ==================== Carga y sincronización ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        try {
+            var inicio = System.nanoTime();
+            // La marca se toma antes de leer: lo modificado durante la carga se repasa en la siguiente sincronización
+            ultimaModificacion = LocalDateTime.now();
+            long ultimoId = 0;
+            int leidos;
+            do {
+                var lote = jdbcTemplate.query(SQL_CARGA,
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, ultimoId, TAMANO_LOTE);
+                for (var fila : lote) {
+                    ultimoId = (Long) fila[0];
+                    indice.indexar(ultimoId, (String) fila[1]);
+                }
+                leidos = lote.size();
+            } while (leidos == TAMANO_LOTE);
+
+            cargado = true;
+            log.info("Índice de búsqueda de usuarios cargado: {} usuarios en {} ms",
+                    indice.tamano(), Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        } catch (DataAccessException e) {
+            log.warn("No se pudo cargar el índice de búsqueda de usuarios: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${joinly.busqueda.intervalo-sincronizacion-ms:5000}",
+            fixedDelayString = "${joinly.busqueda.intervalo-sincronizacion-ms:5000}")
+    public void sincronizar() {
+        if (!cargado) {
+            cargarAlArrancar();
+            return;
+        }
+        try {
+            var desde = ultimaModificacion.minus(SOLAPE);
+            var marca = ultimaModificacion;
+            var cambios = jdbcTemplate.query(SQL_CAMBIOS, (rs, i) -> new Cambio(
+                    rs.getLong("id_usuario"),
+                    rs.getString("nombre"),
+                    EstadoUsuario.valueOf(rs.getString("estado")),
+                    rs.getTimestamp("updated_at")), Timestamp.valueOf(desde));
+            for (var cambio : cambios) {
+                aplicar(cambio.idUsuario(), cambio.nombre(), cambio.estado());
+                if (cambio.actualizado() != null && cambio.actualizado().toLocalDateTime().isAfter(marca)) {
+                    marca = cambio.actualizado().toLocalDateTime();
+                }
+            }
+            ultimaModificacion = marca;
+        } catch (DataAccessException e) {
+            log.warn("No se pudo sincronizar el índice de búsqueda de usuarios: {}", e.getMessage());
+        }
+    }
+}
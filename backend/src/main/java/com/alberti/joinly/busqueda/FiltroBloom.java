@@ -0,0 +1,120 @@
+package com.alberti.joinly.busqueda;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para hilos y sin bloqueos.
+ * <p>
+ * {@link #puedeContener} nunca da falsos negativos: si devuelve {@code false}, el valor no se ha
+ * añadido. Un {@code true} puede ser un falso positivo con probabilidad cercana a la configurada
+ * mientras no se superen los elementos previstos; {@link #tasaFalsosPositivosEstimada()} la
+ * calcula a partir de la proporción real de bits activos.
+ * <p>
+ * Las {@code k} posiciones se derivan de dos hashes de 64 bits (Kirsch-Mitzenmacher).
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private final long capacidad;
+    private final AtomicLong bitsActivos = new AtomicLong();
+    private final AtomicLong insertados = new AtomicLong();
+
+    /**
+     * @param capacidad Elementos distintos previstos
+     * @param fpp       Probabilidad de falso positivo deseada con esa cantidad de elementos
+     */
+    public FiltroBloom(long capacidad, double fpp) {
+        if (capacidad < 1 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Capacidad positiva y fpp entre 0 y 1");
+        }
+        var ln2 = Math.log(2);
+        var m = (long) Math.ceil(-capacidad * Math.log(fpp) / (ln2 * ln2));
+        var palabras = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palabras);
+        this.numBits = (long) palabras * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacidad * ln2));
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Añade un valor.
+     *
+     * @return {@code true} si ha activado algún bit, es decir, si el valor no estaba ya (salvo colisión)
+     */
+    public boolean agregar(String valor) {
+        var h1 = hash(valor);
+        var h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        var nuevo = false;
+        for (int i = 0; i < numHashes; i++) {
+            var posicion = Long.remainderUnsigned(h1 + i * h2, numBits);
+            var indice = (int) (posicion >>> 6);
+            var mascara = 1L << posicion;
+            var anterior = bits.getAndUpdate(indice, palabra -> palabra | mascara);
+            if ((anterior & mascara) == 0) {
+                bitsActivos.incrementAndGet();
+                nuevo = true;
+            }
+        }
+        if (nuevo) {
+            insertados.incrementAndGet();
+        }
+        return nuevo;
+    }
+
+    public boolean puedeContener(String valor) {
+        var h1 = hash(valor);
+        var h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            var posicion = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Probabilidad de falso positivo con la ocupación actual: (bits activos / bits)^k. */
+    public double tasaFalsosPositivosEstimada() {
+        return Math.pow((double) bitsActivos.get() / numBits, numHashes);
+    }
+
+    /** Elementos distintos añadidos (aproximado: un valor que solo colisiona no cuenta). */
+    public long getInsertados() {
+        return insertados.get();
+    }
+
+    public long getCapacidad() {
+        return capacidad;
+    }
+
+    public long getBytes() {
+        return numBits / 8;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /** FNV-1a de 64 bits sobre los caracteres, con mezcla final para repartir los bits. */
+    private static long hash(String valor) {
+        var h = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mezclar(h);
+    }
+
+    /** Finalizador de MurmurHash3 (fmix64). */
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
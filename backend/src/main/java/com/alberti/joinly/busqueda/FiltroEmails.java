@@ -0,0 +1,207 @@
+package com.alberti.joinly.busqueda;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Filtro de Bloom de los emails registrados, para responder sin consultar la base de datos
+ * a {@code /api/v1/auth/check-email} y al registro cuando el email es nuevo, que es el caso
+ * habitual (se consulta en cada pulsación del formulario).
+ * <p>
+ * {@link #existe} solo llega a MySQL cuando el filtro dice que el email <i>puede</i> existir.
+ * Como un filtro de Bloom no admite borrados, incluye también los usuarios eliminados: eso
+ * solo añade falsos positivos, que se resuelven en la base de datos.
+ * <p>
+ * Se mantiene al día igual que {@link BusquedaUsuarios}:
+ * <ul>
+ *   <li>Cada alta de este nodo se añade antes del {@code INSERT} ({@link FiltroEmailsListener}).</li>
+ *   <li>Cada {@code joinly.busqueda.intervalo-sincronizacion-ms} se añaden las filas con
+ *       {@code updated_at} reciente, lo que incorpora las altas de otros nodos.</li>
+ * </ul>
+ * Mientras no está cargado, o si se supera la capacidad prevista (se reconstruye con el doble),
+ * las consultas van a la base de datos como antes. Hasta la siguiente sincronización, otro nodo
+ * puede ver como disponible un email recién registrado; el registro lo detecta igualmente por
+ * la restricción {@code UNIQUE} de {@code usuario.email}.
+ */
+@Service
+@Slf4j
+public class FiltroEmails {
+
+    private static final Duration SOLAPE = Duration.ofMinutes(1);
+    private static final int TAMANO_LOTE = 5_000;
+    private static final long CAPACIDAD_MINIMA = 10_000;
+
+    private static final String SQL_CARGA = """
+            SELECT id_usuario, email FROM usuario
+            WHERE id_usuario > ?
+            ORDER BY id_usuario
+            LIMIT ?""";
+
+    private static final String SQL_CAMBIOS = """
+            SELECT email, updated_at FROM usuario
+            WHERE updated_at >= ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double fpp;
+    private final Counter negativos;
+    private final Counter positivos;
+    private final Counter falsosPositivos;
+
+    private volatile FiltroBloom filtro;
+    /** Filtro en construcción; las altas que lleguen mientras se carga se añaden a ambos. */
+    private volatile FiltroBloom construyendo;
+    private volatile LocalDateTime ultimaModificacion;
+
+    private record Cambio(String email, Timestamp actualizado) {
+    }
+
+    public FiltroEmails(
+            JdbcTemplate jdbcTemplate,
+            @Value("${joinly.busqueda.emails.fpp:0.01}") double fpp,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fpp = fpp;
+
+        Gauge.builder("joinly.emails.filtro.memoria", this, f -> f.filtro != null ? f.filtro.getBytes() : 0)
+                .description("Memoria ocupada por el filtro de Bloom de emails")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("joinly.emails.filtro.falsos-positivos", this,
+                        f -> f.filtro != null ? f.filtro.tasaFalsosPositivosEstimada() : 0)
+                .description("Probabilidad estimada de falso positivo con la ocupación actual")
+                .register(meterRegistry);
+        this.negativos = meterRegistry.counter("joinly.emails.filtro.consultas", "resultado", "negativo");
+        this.positivos = meterRegistry.counter("joinly.emails.filtro.consultas", "resultado", "positivo");
+        this.falsosPositivos = meterRegistry.counter("joinly.emails.filtro.consultas", "resultado", "falso_positivo");
+    }
+
+    /**
+     * Indica si el email está registrado, consultando {@code enBaseDeDatos} solo si el filtro
+     * no puede descartarlo.
+     */
+    public boolean existe(String email, Predicate<String> enBaseDeDatos) {
+        var actual = filtro;
+        if (actual != null && !actual.puedeContener(normalizar(email))) {
+            negativos.increment();
+            return false;
+        }
+        var existe = enBaseDeDatos.test(email);
+        if (actual != null) {
+            (existe ? positivos : falsosPositivos).increment();
+        }
+        return existe;
+    }
+
+    /**
+     * Añade un email al filtro. Puede llamarse antes de confirmar la transacción:
+     * un alta que luego se deshace solo deja un falso positivo.
+     */
+    public void registrar(String email) {
+        if (email == null) return;
+        var normalizado = normalizar(email);
+        // Primero el que se construye: si ya se ha publicado, filtro apunta a él (se asigna antes de vaciarlo)
+        var nuevo = construyendo;
+        if (nuevo != null) {
+            nuevo.agregar(normalizado);
+        }
+        var actual = filtro;
+        if (actual != null && actual != nuevo) {
+            actual.agregar(normalizado);
+        }
+    }
+
+    public boolean estaCargado() {
+        return filtro != null;
+    }
+
+    static String normalizar(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ==================== Carga y sincronización ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        construir(null);
+    }
+
+    @Scheduled(
+            initialDelayString = "${joinly.busqueda.intervalo-sincronizacion-ms:5000}",
+            fixedDelayString = "${joinly.busqueda.intervalo-sincronizacion-ms:5000}")
+    public void sincronizar() {
+        var actual = filtro;
+        if (actual == null || actual.getInsertados() > actual.getCapacidad()) {
+            construir(actual);
+            return;
+        }
+        try {
+            var desde = ultimaModificacion.minus(SOLAPE);
+            var marca = ultimaModificacion;
+            var cambios = jdbcTemplate.query(SQL_CAMBIOS,
+                    (rs, i) -> new Cambio(rs.getString("email"), rs.getTimestamp("updated_at")),
+                    Timestamp.valueOf(desde));
+            for (var cambio : cambios) {
+                actual.agregar(normalizar(cambio.email()));
+                if (cambio.actualizado() != null && cambio.actualizado().toLocalDateTime().isAfter(marca)) {
+                    marca = cambio.actualizado().toLocalDateTime();
+                }
+            }
+            ultimaModificacion = marca;
+        } catch (DataAccessException e) {
+            log.warn("No se pudo sincronizar el filtro de emails: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Crea un filtro nuevo recorriendo {@code usuario} por lotes y lo publica al terminar.
+     * Mientras tanto se sigue usando el anterior (o la base de datos, si no había).
+     */
+    private synchronized void construir(FiltroBloom anterior) {
+        try {
+            var inicio = System.nanoTime();
+            var total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM usuario", Long.class);
+            var capacidad = Math.max(CAPACIDAD_MINIMA, 2 * Math.max(total != null ? total : 0,
+                    anterior != null ? anterior.getInsertados() : 0));
+            var nuevo = new FiltroBloom(capacidad, fpp);
+            construyendo = nuevo;
+            // La marca se toma antes de leer: lo insertado durante la carga se repasa en la siguiente sincronización
+            var marca = LocalDateTime.now();
+            long ultimoId = 0;
+            int leidos;
+            do {
+                var lote = jdbcTemplate.query(SQL_CARGA,
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, ultimoId, TAMANO_LOTE);
+                for (var fila : lote) {
+                    ultimoId = (Long) fila[0];
+                    nuevo.agregar(normalizar((String) fila[1]));
+                }
+                leidos = lote.size();
+            } while (leidos == TAMANO_LOTE);
+
+            ultimaModificacion = marca;
+            filtro = nuevo;
+            construyendo = null;
+            log.info("Filtro de emails cargado: {} emails, {} KB, {} hashes, en {} ms",
+                    nuevo.getInsertados(), nuevo.getBytes() / 1024, nuevo.getNumHashes(),
+                    Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        } catch (DataAccessException e) {
+            construyendo = null;
+            log.warn("No se pudo cargar el filtro de emails: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.alberti.joinly.busqueda;
+
+import com.alberti.joinly.entities.usuario.Usuario;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Añade al {@link FiltroEmails} el email de cada usuario antes de insertarlo, sea cual sea
+ * el camino del alta ({@code AuthService.register}, {@code UsuarioService.registrar}...).
+ * Hibernate obtiene el listener del contexto de Spring.
+ */
+@Component
+@RequiredArgsConstructor
+public class FiltroEmailsListener {
+
+    private final FiltroEmails filtroEmails;
+
+    @PrePersist
+    public void antesDeInsertar(Usuario usuario) {
+        filtroEmails.registrar(usuario.getEmail());
+    }
+}
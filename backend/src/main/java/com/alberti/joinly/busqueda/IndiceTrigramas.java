@@ -0,0 +1,407 @@
+package com.alberti.joinly.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido de trigramas en memoria para búsquedas por subcadena sobre nombres.
+ * <p>
+ * Cada nombre se normaliza (minúsculas, sin acentos ni signos) y se descompone en trigramas
+ * con las palabras precedidas de dos espacios, de modo que {@code "  m"} y {@code " ma"}
+ * marcan el inicio de una palabra. Cada trigrama apunta a una lista ordenada de huecos
+ * ({@code int}); como los huecos se asignan siempre crecientes, insertar es añadir al final.
+ * <p>
+ * Una búsqueda recorre la intersección de las listas de sus trigramas empezando por la más
+ * corta y verifica los candidatos contra el nombre. Los resultados se agrupan por niveles:
+ * <ol>
+ *   <li>el nombre empieza por el texto,</li>
+ *   <li>alguna palabra del nombre empieza por el texto,</li>
+ *   <li>el nombre contiene el texto (solo con 3 o más caracteres).</li>
+ * </ol>
+ * El recorrido se detiene en cuanto el límite queda cubierto por los niveles superiores, de
+ * modo que el coste depende del límite y no del número total de coincidencias. Dentro de cada
+ * nivel se devuelven los primeros encontrados (en orden de alta en el índice) ordenados
+ * alfabéticamente.
+ * <p>
+ * Lecturas concurrentes y escrituras exclusivas mediante un {@link ReadWriteLock}. Los huecos
+ * de entradas eliminadas o renombradas se recuperan compactando cuando superan a los vivos.
+ */
+public class IndiceTrigramas {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> huecoPorId = new HashMap<>();
+    private final Map<Long, Lista> listas = new HashMap<>();
+    private long[] idPorHueco = new long[CAPACIDAD_INICIAL];
+    private String[] nombrePorHueco = new String[CAPACIDAD_INICIAL];
+    private int siguienteHueco;
+
+    /** Resultado candidato durante la ordenación. */
+    private record Coincidencia(long id, String nombre, int nivel) {
+    }
+
+    /**
+     * Página de resultados en orden de relevancia y número total de coincidencias.
+     */
+    public record Pagina(List<Long> ids, int total) {
+    }
+
+    private static final Comparator<Coincidencia> ORDEN = Comparator
+            .comparingInt(Coincidencia::nivel)
+            .thenComparing(Coincidencia::nombre)
+            .thenComparingLong(Coincidencia::id);
+
+    // ==================== Escritura ====================
+
+    /**
+     * Añade o reemplaza la entrada de un identificador.
+     */
+    public void indexar(long id, String nombre) {
+        var normalizado = normalizar(nombre);
+        lock.writeLock().lock();
+        try {
+            var actual = huecoPorId.get(id);
+            if (actual != null) {
+                if (normalizado.equals(nombrePorHueco[actual])) {
+                    return;
+                }
+                quitar(actual);
+            }
+            if (normalizado.isEmpty()) {
+                return;
+            }
+            var hueco = reservarHueco(id, normalizado);
+            for (var trigrama : trigramas(normalizado, true)) {
+                listas.computeIfAbsent(trigrama, t -> new Lista()).anadir(hueco);
+            }
+            compactarSiHaceFalta();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina la entrada de un identificador, si existe.
+     */
+    public void eliminar(long id) {
+        lock.writeLock().lock();
+        try {
+            var hueco = huecoPorId.get(id);
+            if (hueco != null) {
+                quitar(hueco);
+                compactarSiHaceFalta();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return huecoPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Búsqueda ====================
+
+    /**
+     * Busca nombres que contengan el texto y devuelve sus identificadores por relevancia.
+     *
+     * @param texto  Texto buscado; se normaliza igual que los nombres
+     * @param limite Número máximo de resultados
+     * @return Identificadores ordenados (nunca más de {@code limite})
+     */
+    public List<Long> buscar(String texto, int limite) {
+        var consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        var inicioPalabra = " " + consulta;
+        var empiezan = new ArrayList<Coincidencia>();
+        var palabraEmpieza = new ArrayList<Coincidencia>();
+        var contienen = new ArrayList<Coincidencia>();
+
+        lock.readLock().lock();
+        try {
+            // Niveles 1 y 2: alguna palabra empieza por el texto. Se para en cuanto el nivel 1 está completo.
+            recorrer(trigramas(consulta, true), hueco -> {
+                var nombre = nombrePorHueco[hueco];
+                if (nombre == null) return true;
+                if (nombre.startsWith(consulta)) {
+                    empiezan.add(new Coincidencia(idPorHueco[hueco], nombre, 0));
+                    return empiezan.size() < limite;
+                }
+                if (palabraEmpieza.size() < limite && nombre.contains(inicioPalabra)) {
+                    palabraEmpieza.add(new Coincidencia(idPorHueco[hueco], nombre, 1));
+                }
+                return true;
+            });
+
+            // Nivel 3: contiene el texto en mitad de una palabra
+            int faltan = limite - empiezan.size() - palabraEmpieza.size();
+            if (faltan > 0 && consulta.length() >= 3) {
+                recorrer(trigramas(consulta, false), hueco -> {
+                    var nombre = nombrePorHueco[hueco];
+                    if (nombre == null || nombre.startsWith(consulta) || nombre.contains(inicioPalabra)) return true;
+                    if (nombre.contains(consulta)) {
+                        contienen.add(new Coincidencia(idPorHueco[hueco], nombre, 2));
+                    }
+                    return contienen.size() < faltan;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return Stream.of(empiezan, palabraEmpieza, contienen)
+                .flatMap(nivel -> nivel.stream().sorted(ORDEN))
+                .limit(limite)
+                .map(Coincidencia::id)
+                .toList();
+    }
+
+    /**
+     * Devuelve la página {@code [desde, desde + tamano)} de todas las coincidencias y su
+     * número total.
+     * <p>
+     * A diferencia de {@link #buscar}, recorre todas las coincidencias sin parar al cubrir el
+     * límite: el orden (nivel, nombre, id) es global, de modo que las páginas son estables
+     * entre sí, y el total es real. Solo se conservan en memoria las {@code desde + tamano}
+     * primeras, con un montículo acotado.
+     */
+    public Pagina buscarPagina(String texto, int desde, int tamano) {
+        var consulta = normalizar(texto);
+        if (consulta.isEmpty() || tamano <= 0 || desde < 0) {
+            return new Pagina(List.of(), 0);
+        }
+        var inicioPalabra = " " + consulta;
+        var limite = desde + tamano;
+        var mejores = new PriorityQueue<Coincidencia>(ORDEN.reversed());
+        var total = new int[1];
+
+        lock.readLock().lock();
+        try {
+            recorrer(trigramas(consulta, true), hueco -> {
+                var nombre = nombrePorHueco[hueco];
+                if (nombre == null) return true;
+                if (nombre.startsWith(consulta)) {
+                    acotar(mejores, new Coincidencia(idPorHueco[hueco], nombre, 0), limite);
+                    total[0]++;
+                } else if (nombre.contains(inicioPalabra)) {
+                    acotar(mejores, new Coincidencia(idPorHueco[hueco], nombre, 1), limite);
+                    total[0]++;
+                }
+                return true;
+            });
+            if (consulta.length() >= 3) {
+                recorrer(trigramas(consulta, false), hueco -> {
+                    var nombre = nombrePorHueco[hueco];
+                    if (nombre == null || nombre.startsWith(consulta) || nombre.contains(inicioPalabra)) return true;
+                    if (nombre.contains(consulta)) {
+                        acotar(mejores, new Coincidencia(idPorHueco[hueco], nombre, 2), limite);
+                        total[0]++;
+                    }
+                    return true;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        var ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(ORDEN);
+        var ids = ordenadas.stream()
+                .skip(desde)
+                .map(Coincidencia::id)
+                .toList();
+        return new Pagina(ids, total[0]);
+    }
+
+    private static void acotar(PriorityQueue<Coincidencia> mejores, Coincidencia coincidencia, int limite) {
+        if (mejores.size() < limite) {
+            mejores.add(coincidencia);
+        } else if (ORDEN.compare(coincidencia, mejores.peek()) < 0) {
+            mejores.poll();
+            mejores.add(coincidencia);
+        }
+    }
+
+    /**
+     * Visita en orden de hueco los elementos comunes a las listas de los trigramas, recorriendo
+     * la más corta y buscando en las demás con búsqueda exponencial desde la última posición.
+     * La visita se detiene cuando el visitante devuelve {@code false}.
+     */
+    private void recorrer(List<Long> trigramas, IntPredicate visitante) {
+        if (trigramas.isEmpty()) {
+            return;
+        }
+        var seleccionadas = new Lista[trigramas.size()];
+        for (int i = 0; i < seleccionadas.length; i++) {
+            var lista = listas.get(trigramas.get(i));
+            if (lista == null || lista.tamano == 0) {
+                return;
+            }
+            seleccionadas[i] = lista;
+        }
+        Arrays.sort(seleccionadas, Comparator.comparingInt(l -> l.tamano));
+
+        var base = seleccionadas[0];
+        var posiciones = new int[seleccionadas.length];
+        for (int i = 0; i < base.tamano; i++) {
+            int hueco = base.huecos[i];
+            boolean enTodas = true;
+            for (int j = 1; j < seleccionadas.length && enTodas; j++) {
+                var otra = seleccionadas[j];
+                int posicion = otra.primeraPosicionDesde(posiciones[j], hueco);
+                if (posicion == otra.tamano) {
+                    return;
+                }
+                posiciones[j] = posicion;
+                enTodas = otra.huecos[posicion] == hueco;
+            }
+            if (enTodas && !visitante.test(hueco)) {
+                return;
+            }
+        }
+    }
+
+    // ==================== Mantenimiento interno ====================
+
+    private int reservarHueco(long id, String normalizado) {
+        if (siguienteHueco == idPorHueco.length) {
+            idPorHueco = Arrays.copyOf(idPorHueco, idPorHueco.length * 2);
+            nombrePorHueco = Arrays.copyOf(nombrePorHueco, nombrePorHueco.length * 2);
+        }
+        int hueco = siguienteHueco++;
+        idPorHueco[hueco] = id;
+        nombrePorHueco[hueco] = normalizado;
+        huecoPorId.put(id, hueco);
+        return hueco;
+    }
+
+    private void quitar(int hueco) {
+        var nombre = nombrePorHueco[hueco];
+        for (var trigrama : trigramas(nombre, true)) {
+            var lista = listas.get(trigrama);
+            if (lista != null && lista.quitar(hueco) && lista.tamano == 0) {
+                listas.remove(trigrama);
+            }
+        }
+        huecoPorId.remove(idPorHueco[hueco]);
+        nombrePorHueco[hueco] = null;
+    }
+
+    /**
+     * Reconstruye el índice con huecos consecutivos cuando hay más huecos libres que ocupados.
+     */
+    private void compactarSiHaceFalta() {
+        int libres = siguienteHueco - huecoPorId.size();
+        if (libres <= CAPACIDAD_INICIAL || libres <= huecoPorId.size()) {
+            return;
+        }
+        var ids = idPorHueco;
+        var nombres = nombrePorHueco;
+        int ocupados = siguienteHueco;
+
+        huecoPorId.clear();
+        listas.clear();
+        idPorHueco = new long[Math.max(CAPACIDAD_INICIAL, ocupados - libres)];
+        nombrePorHueco = new String[idPorHueco.length];
+        siguienteHueco = 0;
+
+        for (int i = 0; i < ocupados; i++) {
+            if (nombres[i] == null) continue;
+            var hueco = reservarHueco(ids[i], nombres[i]);
+            for (var trigrama : trigramas(nombres[i], true)) {
+                listas.computeIfAbsent(trigrama, t -> new Lista()).anadir(hueco);
+            }
+        }
+    }
+
+    // ==================== Normalización y trigramas ====================
+
+    /**
+     * Minúsculas, sin acentos y con un único espacio entre palabras.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        var sinAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Trigramas distintos de un texto normalizado, con cada palabra precedida de dos espacios.
+     *
+     * @param conInicio Si se incluyen los trigramas del inicio de la primera palabra
+     *                  ({@code "  a"}, {@code " ab"}); sin ellos, el texto puede aparecer
+     *                  en mitad de una palabra
+     */
+    static List<Long> trigramas(String normalizado, boolean conInicio) {
+        var palabras = normalizado.split(" ");
+        var texto = (conInicio ? "  " : "") + String.join("  ", palabras);
+        var resultado = new LinkedHashSet<Long>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado.add(((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2));
+        }
+        return List.copyOf(resultado);
+    }
+
+    /** Lista ordenada y creciente de huecos. */
+    private static final class Lista {
+
+        private int[] huecos = new int[4];
+        private int tamano;
+
+        void anadir(int hueco) {
+            if (tamano > 0 && huecos[tamano - 1] == hueco) return;
+            if (tamano == huecos.length) {
+                huecos = Arrays.copyOf(huecos, tamano * 2);
+            }
+            huecos[tamano++] = hueco;
+        }
+
+        /** Primera posición {@code >= desde} cuyo hueco es mayor o igual que {@code valor}. */
+        int primeraPosicionDesde(int desde, int valor) {
+            int bajo = desde;
+            int alto = desde;
+            int paso = 1;
+            while (alto < tamano && huecos[alto] < valor) {
+                bajo = alto + 1;
+                alto += paso;
+                paso <<= 1;
+            }
+            int posicion = Arrays.binarySearch(huecos, bajo, Math.min(alto + 1, tamano), valor);
+            return posicion >= 0 ? posicion : -posicion - 1;
+        }
+
+        boolean quitar(int hueco) {
+            int posicion = Arrays.binarySearch(huecos, 0, tamano, hueco);
+            if (posicion < 0) return false;
+            System.arraycopy(huecos, posicion + 1, huecos, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+    }
+}
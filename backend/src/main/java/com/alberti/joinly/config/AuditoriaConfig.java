@@ -0,0 +1,31 @@
+package com.alberti.joinly.config;
+
+import com.alberti.joinly.auditoria.Auditable;
+import com.alberti.joinly.auditoria.AuditoriaInterceptor;
+import com.alberti.joinly.auditoria.AuditoriaRegistrador;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Registra el advisor AOP que intercepta los métodos anotados con {@link Auditable}.
+ * <p>
+ * Se declara como bean de infraestructura (igual que los advisors de transacciones y
+ * seguridad de método) para que lo aplique el auto-proxy de Spring sin necesidad de AspectJ.
+ */
+@Configuration(proxyBeanMethods = false)
+public class AuditoriaConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor auditoriaAdvisor(ObjectProvider<AuditoriaRegistrador> registrador) {
+        return new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Auditable.class),
+                new AuditoriaInterceptor(registrador));
+    }
+}
@@ -0,0 +1,37 @@
+package com.alberti.joinly.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propiedades del subsistema de auditoría ({@code joinly.auditoria.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "joinly.auditoria")
+@Getter
+@Setter
+public class AuditoriaProperties {
+
+    /**
+     * Comportamiento cuando la cola supera el umbral de saturación.
+     * <ul>
+     *   <li>{@code SPILL}: el escritor vuelca los lotes a disco y los reinyecta al recuperarse</li>
+     *   <li>{@code MUESTREO}: solo se conserva una de cada {@code tasaMuestreo} entradas</li>
+     * </ul>
+     */
+    public enum ModoSaturacion {
+        SPILL,
+        MUESTREO
+    }
+
+    private boolean enabled = true;
+    private int capacidad = 8192;
+    private int tamanoLote = 200;
+    private long intervaloFlushMs = 500;
+    private double umbralSaturacion = 0.8;
+    private ModoSaturacion modoSaturacion = ModoSaturacion.SPILL;
+    private int tasaMuestreo = 10;
+    private String directorioSpill = "data/auditoria";
+}
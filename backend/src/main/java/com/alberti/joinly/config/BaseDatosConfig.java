@@ -0,0 +1,47 @@
+package com.alberti.joinly.config;
+
+import com.alberti.joinly.basedatos.CompartimentosBd;
+import com.alberti.joinly.basedatos.CompartimentosDataSource;
+import com.alberti.joinly.basedatos.EnrutadoDataSource;
+import com.alberti.joinly.basedatos.EnrutadorLecturas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el {@link DataSource} autoconfigurado (Hikari) con los compartimentos de
+ * {@link CompartimentosBd} y el enrutado a la réplica de {@link EnrutadorLecturas}, detrás de un
+ * {@link LazyConnectionDataSourceProxy} (ver {@link CompartimentosDataSource#envolver}):
+ * {@code Lazy → Compartimentos → Enrutado → Hikari primaria}. Sin réplica configurada, el
+ * enrutado deja pasar todo a la primaria.
+ * <p>
+ * Se hace con un post-procesador en lugar de declarar otro {@code DataSource} para conservar
+ * la configuración {@code spring.datasource.*} y las métricas de Hikari, que lo localizan
+ * desenvolviendo los {@code DelegatingDataSource}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BaseDatosConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static BeanPostProcessor compartimentosDataSourcePostProcessor(
+            ObjectProvider<CompartimentosBd> compartimentos, ObjectProvider<EnrutadorLecturas> enrutador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                    var enrutado = new EnrutadoDataSource(dataSource, enrutador::getObject);
+                    return CompartimentosDataSource.envolver(enrutado, compartimentos::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.alberti.joinly.config;
+
+import com.alberti.joinly.storage.BlobStore;
+import com.alberti.joinly.storage.LocalBlobStore;
+import com.alberti.joinly.storage.S3BlobStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Selecciona la implementación de {@link BlobStore} según {@code joinly.storage.backend}.
+ * <p>
+ * La propiedad se lee al crear el bean y no con {@code @ConditionalOnProperty}: Spring AOT
+ * evalúa las condiciones al compilar, y con {@code spring.aot.enabled} el backend quedaría fijado
+ * al valor del build sin mirar {@code STORAGE_BACKEND}. Un valor desconocido impide arrancar.
+ */
+@Configuration
+public class BlobStorageConfig {
+
+    @Bean
+    public BlobStore blobStore(BlobStorageProperties properties, FileStorageProperties avatarProperties) {
+        return switch (properties.getBackend()) {
+            case "local" -> new LocalBlobStore(Paths.get(avatarProperties.getLocation()));
+            case "s3" -> s3BlobStore(properties);
+            default -> throw new IllegalStateException(
+                    "joinly.storage.backend no válido: '" + properties.getBackend() + "' (local o s3)");
+        };
+    }
+
+    private static BlobStore s3BlobStore(BlobStorageProperties properties) {
+        var s3 = properties.getS3();
+        var builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .forcePathStyle(s3.isPathStyle());
+
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        if (StringUtils.hasText(s3.getAccessKey())) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey())));
+        }
+
+        return new S3BlobStore(
+                builder.build(),
+                s3.getBucket(),
+                s3.getPrefix(),
+                s3.getPartSize(),
+                Paths.get(properties.getCacheLocation()),
+                properties.getCacheMaxBytes(),
+                properties.getCacheRevalidation());
+    }
+}
@@ -0,0 +1,44 @@
+package com.alberti.joinly.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Propiedades del backend de almacenamiento de ficheros ({@code joinly.storage.*}).
+ * <p>
+ * {@code joinly.storage.backend} selecciona la implementación de
+ * {@link com.alberti.joinly.storage.BlobStore}: {@code local} (por defecto) o {@code s3}.
+ */
+@Component
+@ConfigurationProperties(prefix = "joinly.storage")
+@Getter
+@Setter
+public class BlobStorageProperties {
+    private String backend = "local";
+    /** Directorio de la caché local de lectura cuando el backend es remoto. */
+    private String cacheLocation = "uploads/cache/avatars";
+    /** Tamaño máximo de la caché local; se eliminan primero las copias usadas hace más tiempo. */
+    private long cacheMaxBytes = 268435456;
+    /** Antigüedad a partir de la cual una copia local se comprueba contra el ETag remoto. */
+    private Duration cacheRevalidation = Duration.ofSeconds(60);
+    private S3 s3 = new S3();
+
+    @Getter
+    @Setter
+    public static class S3 {
+        private String bucket = "joinly";
+        private String region = "eu-west-1";
+        /** Endpoint alternativo (MinIO, LocalStack...). Vacío para AWS. */
+        private String endpoint;
+        private String accessKey;
+        private String secretKey;
+        private String prefix = "avatars/";
+        private boolean pathStyle = false;
+        /** Tamaño de cada parte en subidas multiparte (mínimo 5MB en S3). */
+        private int partSize = 5242880;
+    }
+}
@@ -0,0 +1,62 @@
+package com.alberti.joinly.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * En producción, springdoc y {@link OpenApiConfig} se crean con la primera petición a
+ * /v3/api-docs o Swagger UI en lugar de durante el arranque.
+ * <p>
+ * La documentación no la usa ningún cliente de la API, y sus beans (escaneo de
+ * controladores, modelos de OpenAPI, recursos de Swagger UI) solo añaden tiempo hasta que
+ * /actuator/health responde. Se dejan fuera los post-procesadores y los beans de
+ * infraestructura, que Spring necesita crear antes del resto.
+ */
+@Configuration
+@Profile("prod")
+public class DocumentacionPerezosaConfig {
+
+    private static final String PAQUETE_SPRINGDOC = "org.springdoc.";
+
+    @Bean
+    public static BeanFactoryPostProcessor documentacionPerezosa() {
+        return beanFactory -> {
+            for (var nombre : beanFactory.getBeanDefinitionNames()) {
+                var definicion = beanFactory.getBeanDefinition(nombre);
+                if (esDocumentacion(definicion) && !esInfraestructura(definicion, beanFactory.getType(nombre, false))) {
+                    definicion.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    static boolean esDocumentacion(BeanDefinition definicion) {
+        var origen = origen(definicion);
+        return origen != null
+                && (origen.startsWith(PAQUETE_SPRINGDOC) || origen.equals(OpenApiConfig.class.getName()));
+    }
+
+    private static boolean esInfraestructura(BeanDefinition definicion, Class<?> tipo) {
+        return definicion.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE
+                || (tipo != null && (BeanPostProcessor.class.isAssignableFrom(tipo)
+                        || BeanFactoryPostProcessor.class.isAssignableFrom(tipo)));
+    }
+
+    /**
+     * Clase que declara el bean: la del método @Bean si lo hay, si no la propia clase del bean.
+     * En las clases @Configuration se usan los metadatos, porque a estas alturas su nombre de
+     * clase ya es el de la subclase CGLIB.
+     */
+    private static String origen(BeanDefinition definicion) {
+        if (definicion instanceof AnnotatedBeanDefinition anotada) {
+            var metodo = anotada.getFactoryMethodMetadata();
+            return metodo != null ? metodo.getDeclaringClassName() : anotada.getMetadata().getClassName();
+        }
+        return definicion.getBeanClassName();
+    }
+}
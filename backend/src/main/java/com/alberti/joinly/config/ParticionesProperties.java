@@ -0,0 +1,31 @@
+package com.alberti.joinly.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propiedades del mantenimiento de particiones mensuales ({@code joinly.particiones.*}).
+ * <p>
+ * La retención de {@code notificacion} se toma de {@code joinly.jobs.dias-limpiar-notificaciones}.
+ */
+@Component
+@ConfigurationProperties(prefix = "joinly.particiones")
+@Getter
+@Setter
+public class ParticionesProperties {
+
+    private boolean enabled = true;
+
+    /** Meses futuros que deben existir siempre como particiones propias. */
+    private int mesesAdelantados = 3;
+
+    /** Días que se conservan los registros de {@code log_auditoria} en la base de datos. */
+    private int diasRetencionAuditoria = 365;
+
+    /** Si es {@code true}, cada partición se exporta a un fichero comprimido antes de eliminarse. */
+    private boolean archivar = true;
+
+    private String directorioArchivo = "data/archivo";
+}
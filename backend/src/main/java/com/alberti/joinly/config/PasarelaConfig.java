@@ -0,0 +1,30 @@
+package com.alberti.joinly.config;
+
+import com.alberti.joinly.pasarela.PasarelaHttp;
+import com.alberti.joinly.pasarela.PasarelaPago;
+import com.alberti.joinly.pasarela.PasarelaSimulada;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selecciona la implementación de {@link PasarelaPago} según {@code joinly.pasarela.tipo}.
+ * <p>
+ * La propiedad se lee al crear el bean y no con {@code @ConditionalOnProperty}: Spring AOT
+ * evalúa las condiciones al compilar, y con {@code spring.aot.enabled} un build hecho con la
+ * pasarela simulada la mantendría en producción aunque {@code PASARELA_TIPO=http}. Un valor
+ * desconocido impide arrancar.
+ */
+@Configuration
+public class PasarelaConfig {
+
+    @Bean
+    public PasarelaPago pasarelaPago(PasarelaProperties properties, MeterRegistry meterRegistry) {
+        return switch (properties.getTipo()) {
+            case "simulada" -> new PasarelaSimulada();
+            case "http" -> new PasarelaHttp(properties, meterRegistry);
+            default -> throw new IllegalStateException(
+                    "joinly.pasarela.tipo no válido: '" + properties.getTipo() + "' (simulada o http)");
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.alberti.joinly.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propiedades de la pasarela de pagos ({@code joinly.pasarela.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "joinly.pasarela")
+@Getter
+@Setter
+public class PasarelaProperties {
+
+    /** {@code simulada} (aprueba todo, sin llamadas externas) o {@code http}. */
+    private String tipo = "simulada";
+
+    /** URL base de la API de la pasarela (solo {@code http}). */
+    private String url = "";
+
+    private String apiKey = "";
+
+    private long connectTimeoutMs = 2000;
+
+    /** Tiempo máximo de cada llamada, desde que se envía hasta recibir la respuesta. */
+    private long timeoutMs = 10000;
+
+    /** Llamadas simultáneas a la pasarela; por encima se rechazan sin esperar. */
+    private int maxConcurrentes = 50;
+
+    /** Fallos seguidos (errores de red, timeouts o 5xx) que abren el circuito. */
+    private int umbralFallos = 5;
+
+    /** Tiempo que el circuito permanece abierto antes de dejar pasar una llamada de prueba. */
+    private long aperturaMs = 30000;
+
+    /**
+     * Antigüedad a partir de la cual un pago PENDIENTE (resultado del cobro en duda) se
+     * concilia preguntando a la pasarela. Debe superar {@link #timeoutMs}.
+     */
+    private long conciliarTrasMs = 300000;
+}
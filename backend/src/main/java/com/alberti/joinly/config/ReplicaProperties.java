@@ -0,0 +1,36 @@
+package com.alberti.joinly.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propiedades de la réplica de lectura ({@code joinly.bd.replica.*}).
+ * <p>
+ * Sin {@code url}, todo el tráfico va a {@code spring.datasource} como hasta ahora.
+ */
+@Component
+@ConfigurationProperties(prefix = "joinly.bd.replica")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    /** URL JDBC de la réplica; vacía desactiva el enrutado de lecturas. */
+    private String url = "";
+
+    private String username = "";
+
+    private String password = "";
+
+    private int maximumPoolSize = 10;
+
+    /** Espera máxima por una conexión de la réplica antes de leer de la primaria. */
+    private long connectionTimeoutMs = 1000;
+
+    /**
+     * Tiempo durante el que un usuario lee de la primaria después de confirmar una escritura,
+     * para ver sus propios cambios aunque la réplica vaya con retraso. 0 lo desactiva.
+     */
+    private long lecturasPropiasMs = 2000;
+}
@@ -3,7 +3,9 @@ package com.alberti.joinly.config;
 import com.alberti.joinly.security.CustomUserDetailsService;
 import com.alberti.joinly.security.JwtAccessDeniedHandler;
 import com.alberti.joinly.security.JwtAuthenticationEntryPoint;
+import com.alberti.joinly.security.IdempotenciaFilter;
 import com.alberti.joinly.security.JwtAuthenticationFilter;
+import com.alberti.joinly.security.LimiteAutenticacionFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,7 +19,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -33,7 +34,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
  *   <li>Autenticación JWT stateless</li>
  *   <li>Configuración CORS para el frontend Angular</li>
  *   <li>Definición de endpoints públicos vs privados</li>
- *   <li>Codificación de contraseñas con BCrypt</li>
+ *   <li>Codificación de contraseñas ({@link com.alberti.joinly.security.CodificadorContrasenas})</li>
  *   <li>Manejo de errores de autenticación y autorización</li>
  * </ul>
  *
@@ -48,10 +49,13 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LimiteAutenticacionFilter limiteAutenticacionFilter;
+    private final IdempotenciaFilter idempotenciaFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
     private final CustomUserDetailsService userDetailsService;
     private final CorsProperties corsProperties;
+    private final PasswordEncoder passwordEncoder;
 
     /**
      * Rutas públicas que no requieren autenticación.
@@ -79,6 +83,7 @@ public class SecurityConfig {
      *   <li>Autenticación stateless sin sesiones</li>
      *   <li>CORS habilitado con configuración personalizada</li>
      *   <li>Filtro JWT antes del filtro de autenticación por usuario/password</li>
+     *   <li>Límite de intentos de login/registro antes del filtro JWT</li>
      * </ul>
      *
      * @param http Builder de configuración HTTP
@@ -122,6 +127,12 @@ public class SecurityConfig {
                 
                 // Añadir filtro JWT antes del filtro de autenticación por defecto
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Limitar login/registro antes de cualquier otro trabajo (BCrypt, carga de usuario)
+                .addFilterBefore(limiteAutenticacionFilter, JwtAuthenticationFilter.class)
+
+                // Responder los reintentos con Idempotency-Key (necesita el usuario autenticado)
+                .addFilterAfter(idempotenciaFilter, JwtAuthenticationFilter.class)
                 
                 // Configurar manejo de excepciones
                 .exceptionHandling(exceptions -> exceptions
@@ -174,14 +185,16 @@ public class SecurityConfig {
     }
 
     /**
-     * Configura el proveedor de autenticación con BCrypt para contraseñas.
+     * Configura el proveedor de autenticación con el codificador de contraseñas de la aplicación.
      *
      * @return Proveedor de autenticación configurado
      */
     @Bean
     public AuthenticationProvider authenticationProvider() {
         var authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Recalcula en el login los hashes con otro algoritmo o coste que los configurados
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -196,18 +209,4 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-
-    /**
-     * Configura el codificador de contraseñas BCrypt.
-     * <p>
-     * BCrypt es un algoritmo de hashing diseñado específicamente para contraseñas,
-     * con factor de trabajo configurable para resistir ataques de fuerza bruta.
-     * El strength por defecto es 10 (2^10 = 1024 iteraciones).
-     *
-     * @return PasswordEncoder BCrypt
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
@@ -1,34 +1,27 @@
 package com.alberti.joinly.config;
 
+import com.alberti.joinly.storage.BlobStore;
+import com.alberti.joinly.storage.BlobStoreResourceResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    private final FileStorageProperties fileStorageProperties;
+    private final BlobStore blobStore;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String location = Paths.get(fileStorageProperties.getLocation())
-            .toAbsolutePath()
-            .toUri()
-            .toString();
-
-        // Asegurar que la ubicación termina con /
-        if (!location.endsWith("/")) {
-            location += "/";
-        }
-
+        // Los avatares se resuelven a través del BlobStore (disco local o caché de S3)
         registry.addResourceHandler("/uploads/avatars/**")
-            .addResourceLocations(location)
-            .setCacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic());
+            .setCacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
+            .resourceChain(false)
+            .addResolver(new BlobStoreResourceResolver(blobStore));
     }
 }
@@ -0,0 +1,145 @@
+package com.alberti.joinly.contabilidad;
+
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import com.alberti.joinly.entities.enums.CuentaContable;
+import com.alberti.joinly.entities.enums.TipoMovimientoContable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Escribe el libro contable de pagos: cada {@link Asiento} se inserta en
+ * {@code movimiento_contable} y se suma a cuatro saldos, el total y el del mes del anfitrión y
+ * de la suscripción. Todo en la transacción de quien lo llama, así que los saldos nunca se
+ * separan de los movimientos que los explican.
+ * <p>
+ * Los saldos se actualizan con {@code UPDATE ... SET x = x + ?}, sin leerlos antes: dos pagos
+ * simultáneos del mismo anfitrión no se pisan. La primera vez que aparece una fila se inserta
+ * y, si otro nodo se adelanta, se repite el {@code UPDATE} (igual que en
+ * {@link com.alberti.joinly.invitaciones.GeneradorCodigosInvitacion}). Las filas se tocan
+ * siempre en el mismo orden para no provocar interbloqueos.
+ */
+@Component
+@RequiredArgsConstructor
+public class LibroContable {
+
+    private static final String SQL_MOVIMIENTO = """
+            INSERT INTO movimiento_contable (id_pago, id_suscripcion, id_anfitrion, tipo,
+                cuenta_origen, cuenta_destino, monto, moneda, fecha)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String IMPORTES = """
+            cobrado = cobrado + ?, retenido = retenido + ?, disputado = disputado + ?,
+            liberado = liberado + ?, reembolsado = reembolsado + ?""";
+
+    private static final String SQL_SUMAR_SALDO = "UPDATE saldo_contable SET " + IMPORTES
+            + ", updated_at = ? WHERE ambito = ? AND id_ambito = ? AND moneda = ?";
+    private static final String SQL_CREAR_SALDO = """
+            INSERT INTO saldo_contable (cobrado, retenido, disputado, liberado, reembolsado,
+                updated_at, ambito, id_ambito, moneda)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String SQL_SUMAR_MENSUAL = "UPDATE saldo_contable_mensual SET " + IMPORTES
+            + " WHERE ambito = ? AND id_ambito = ? AND periodo = ? AND moneda = ?";
+    private static final String SQL_CREAR_MENSUAL = """
+            INSERT INTO saldo_contable_mensual (cobrado, retenido, disputado, liberado, reembolsado,
+                ambito, id_ambito, periodo, moneda)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Movimiento de {@code monto} de la cuenta {@code origen} a {@code destino} por un pago.
+     */
+    public record Asiento(
+            Long idPago,
+            Long idSuscripcion,
+            Long idAnfitrion,
+            String moneda,
+            TipoMovimientoContable tipo,
+            CuentaContable origen,
+            CuentaContable destino,
+            BigDecimal monto,
+            LocalDateTime fecha) {
+
+        public Asiento {
+            if (origen == destino) {
+                throw new IllegalArgumentException("Un movimiento no puede tener la misma cuenta de origen y destino");
+            }
+            if (monto.signum() <= 0) {
+                throw new IllegalArgumentException("El monto de un movimiento debe ser positivo: " + monto);
+            }
+        }
+    }
+
+    /**
+     * Registra el movimiento y actualiza los saldos. Debe llamarse dentro de una transacción.
+     */
+    public void registrar(Asiento asiento) {
+        jdbcTemplate.update(SQL_MOVIMIENTO, asiento.idPago(), asiento.idSuscripcion(), asiento.idAnfitrion(),
+                asiento.tipo().name(), asiento.origen().name(), asiento.destino().name(),
+                asiento.monto(), asiento.moneda(), Timestamp.valueOf(asiento.fecha()));
+
+        var importes = importes(asiento);
+        var periodo = Date.valueOf(asiento.fecha().toLocalDate().withDayOfMonth(1));
+        var ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        sumar(SQL_SUMAR_SALDO, SQL_CREAR_SALDO, importes,
+                ahora, AmbitoSaldo.ANFITRION.name(), asiento.idAnfitrion(), asiento.moneda());
+        sumar(SQL_SUMAR_MENSUAL, SQL_CREAR_MENSUAL, importes,
+                AmbitoSaldo.ANFITRION.name(), asiento.idAnfitrion(), periodo, asiento.moneda());
+        sumar(SQL_SUMAR_SALDO, SQL_CREAR_SALDO, importes,
+                ahora, AmbitoSaldo.SUSCRIPCION.name(), asiento.idSuscripcion(), asiento.moneda());
+        sumar(SQL_SUMAR_MENSUAL, SQL_CREAR_MENSUAL, importes,
+                AmbitoSaldo.SUSCRIPCION.name(), asiento.idSuscripcion(), periodo, asiento.moneda());
+    }
+
+    /**
+     * Variación de cobrado, retenido, disputado, liberado y reembolsado que produce el asiento.
+     * La cuenta PASARELA no tiene saldo: lo que sale de ella cuenta como cobrado.
+     */
+    static BigDecimal[] importes(Asiento asiento) {
+        var importes = new BigDecimal[5];
+        Arrays.fill(importes, BigDecimal.ZERO);
+        if (asiento.origen() == CuentaContable.PASARELA) {
+            importes[0] = asiento.monto();
+        } else {
+            importes[columna(asiento.origen())] = asiento.monto().negate();
+        }
+        importes[columna(asiento.destino())] = asiento.monto();
+        return importes;
+    }
+
+    private static int columna(CuentaContable cuenta) {
+        return switch (cuenta) {
+            case RETENIDO -> 1;
+            case DISPUTADO -> 2;
+            case LIBERADO -> 3;
+            case REEMBOLSADO -> 4;
+            case PASARELA -> throw new IllegalArgumentException("La pasarela no puede ser cuenta de destino");
+        };
+    }
+
+    private void sumar(String sqlSumar, String sqlCrear, BigDecimal[] importes, Object... clave) {
+        var argumentos = new Object[importes.length + clave.length];
+        System.arraycopy(importes, 0, argumentos, 0, importes.length);
+        System.arraycopy(clave, 0, argumentos, importes.length, clave.length);
+
+        if (jdbcTemplate.update(sqlSumar, argumentos) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(sqlCrear, argumentos);
+        } catch (DuplicateKeyException e) {
+            // Otra transacción ha creado la fila entre el UPDATE y el INSERT
+            jdbcTemplate.update(sqlSumar, argumentos);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
  *   <li>Registro de nuevos usuarios</li>
  *   <li>Inicio de sesión (login)</li>
  *   <li>Renovación de tokens JWT</li>
+ *   <li>Cierre de sesión</li>
  *   <li>Verificación de email</li>
  * </ul>
  * <p>
@@ -165,6 +166,35 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Cierra la sesión asociada a un refresh token.
+     * <p>
+     * Invalida el refresh token y todos los de su sesión, y deja de aceptar
+     * los access tokens emitidos para ella aunque no hayan expirado.
+     *
+     * @param request DTO con el refresh token de la sesión
+     * @return 204 No Content
+     */
+    @PostMapping("/logout")
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca el refresh token y los access tokens de la sesión"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Sesión cerrada"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Refresh token no proporcionado"
+            )
+    })
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Verifica el email de un usuario.
      * <p>
@@ -0,0 +1,59 @@
+package com.alberti.joinly.controllers;
+
+import com.alberti.joinly.dto.configuracion.ConfiguracionResponse;
+import com.alberti.joinly.dto.configuracion.UpdateConfiguracionRequest;
+import com.alberti.joinly.security.CurrentUser;
+import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.services.ConfiguracionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/configuracion")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Configuración", description = "API de administración de parámetros de configuración en caliente")
+@SecurityRequirement(name = "bearerAuth")
+public class ConfiguracionController {
+
+    private final ConfiguracionService configuracionService;
+
+    @GetMapping
+    @Operation(summary = "Listar parámetros modificables")
+    public ResponseEntity<List<ConfiguracionResponse>> listar() {
+        var configuraciones = configuracionService.listarModificables()
+                .stream()
+                .map(ConfiguracionResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(configuraciones);
+    }
+
+    @PutMapping("/{clave}")
+    @Operation(
+            summary = "Modificar un parámetro",
+            description = "El nuevo valor se aplica en todas las instancias en el siguiente ciclo de refresco")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Parámetro actualizado"),
+            @ApiResponse(responseCode = "404", description = "Parámetro no encontrado"),
+            @ApiResponse(responseCode = "422", description = "Parámetro no modificable o valor de tipo incorrecto")
+    })
+    public ResponseEntity<ConfiguracionResponse> actualizar(
+            @CurrentUser UserPrincipal currentUser,
+            @PathVariable String clave,
+            @Valid @RequestBody UpdateConfiguracionRequest request) {
+
+        var configuracion = configuracionService.actualizar(clave, request.valor(), currentUser.getId());
+        return ResponseEntity.ok(ConfiguracionResponse.fromEntity(configuracion));
+    }
+}
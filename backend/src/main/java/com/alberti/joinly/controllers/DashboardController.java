@@ -0,0 +1,43 @@
+package com.alberti.joinly.controllers;
+
+import com.alberti.joinly.dto.dashboard.DashboardResponse;
+import com.alberti.joinly.security.CurrentUser;
+import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.services.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Dashboard", description = "API para cargar la pantalla de inicio en una sola petición")
+@SecurityRequirement(name = "bearerAuth")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    @Operation(
+            summary = "Obtener datos de la pantalla de inicio",
+            description = "Devuelve en una sola respuesta las tarjetas de grupos, las plazas ocupadas, " +
+                    "las suscripciones como anfitrión, el contador de notificaciones y las solicitudes pendientes. " +
+                    "Las secciones se consultan en paralelo; las que fallan o superan el tiempo máximo llegan " +
+                    "a null y se enumeran en seccionesIncompletas.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Datos de la pantalla de inicio, posiblemente parciales",
+                    content = @Content(schema = @Schema(implementation = DashboardResponse.class)))
+    })
+    public ResponseEntity<DashboardResponse> obtenerDashboard(@CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(dashboardService.obtenerDashboard(currentUser.getId()));
+    }
+}
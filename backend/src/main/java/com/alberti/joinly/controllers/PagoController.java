@@ -1,11 +1,18 @@
 package com.alberti.joinly.controllers;
 
+import com.alberti.joinly.basedatos.CompartimentosBd;
 import com.alberti.joinly.dto.pago.CreatePagoRequest;
+import com.alberti.joinly.dto.pago.ExtractoMensualResponse;
 import com.alberti.joinly.dto.pago.PagoResponse;
 import com.alberti.joinly.dto.pago.ReembolsoRequest;
+import com.alberti.joinly.dto.pago.SaldoResponse;
 import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.exportacion.FormatoExportacion;
+import com.alberti.joinly.exportacion.LimiteExportaciones;
 import com.alberti.joinly.security.CurrentUser;
 import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.services.CobroService;
+import com.alberti.joinly.services.LibroContableService;
 import com.alberti.joinly.services.PagoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,18 +20,32 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/pagos")
@@ -33,28 +54,36 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class PagoController {
 
+    private static final int BUFER_GZIP = 64 * 1024;
+
     private final PagoService pagoService;
+    private final CobroService cobroService;
+    private final LibroContableService libroContableService;
+    private final LimiteExportaciones limiteExportaciones;
 
     @PostMapping
     @Operation(summary = "Procesar un nuevo pago", description = "Procesa el pago de una plaza de suscripción")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Pago procesado exitosamente"),
+            @ApiResponse(responseCode = "202", description = "Cobro pendiente de confirmar por la pasarela (estado PENDIENTE)"),
             @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
             @ApiResponse(responseCode = "404", description = "Plaza o método de pago no encontrado"),
-            @ApiResponse(responseCode = "422", description = "Violación de regla de negocio")
+            @ApiResponse(responseCode = "422", description = "Violación de regla de negocio o pago rechazado"),
+            @ApiResponse(responseCode = "503", description = "Pasarela de pagos no disponible")
     })
     public ResponseEntity<PagoResponse> procesarPago(
             @CurrentUser UserPrincipal currentUser,
             @Valid @RequestBody CreatePagoRequest request) {
 
-        var pago = pagoService.procesarPago(
+        var pago = cobroService.procesarPago(
                 currentUser.getId(),
                 request.idPlaza(),
                 request.idMetodoPago(),
                 request.monto()
         );
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(PagoResponse.fromEntity(pago));
+        var estado = pago.getEstado() == EstadoPago.PENDIENTE ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(estado).body(PagoResponse.fromEntity(pago));
     }
 
     @GetMapping("/{id}")
@@ -121,6 +150,129 @@ public class PagoController {
         return ResponseEntity.ok(pagos);
     }
 
+    @GetMapping("/mis-pagos/exportar")
+    @Operation(
+            summary = "Exportar mis pagos",
+            description = """
+                    Descarga todos los pagos del usuario en CSV o JSON, sin paginar, con los mismos filtros que /mis-pagos.
+                    
+                    El fichero se escribe a medida que se leen los pagos, así que puede tener cualquier tamaño.
+                    Se comprime con gzip si la petición lo admite (cabecera Accept-Encoding).
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Fichero con los pagos que cumplen los criterios")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarMisPagos(
+            @CurrentUser UserPrincipal currentUser,
+            HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @Parameter(description = "Formato del fichero") @RequestParam(defaultValue = "CSV") FormatoExportacion formato,
+            @Parameter(description = "Estado del pago (opcional)") @RequestParam(required = false) EstadoPago estado,
+            @Parameter(description = "Fecha inicio del rango (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate fechaDesde,
+            @Parameter(description = "Fecha fin del rango (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate fechaHasta) {
+
+        var idUsuario = currentUser.getId();
+        return limitada(request, idUsuario, formato, "pagos", acceptEncoding, salida ->
+                pagoService.exportarPagosUsuario(idUsuario, estado, fechaDesde, fechaHasta, formato, salida));
+    }
+
+    @GetMapping("/suscripcion/{idSuscripcion}/exportar")
+    @Operation(summary = "Exportar los pagos de una suscripción",
+            description = "Igual que /mis-pagos/exportar para todos los pagos de la suscripción. Solo para su anfitrión")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Fichero con los pagos que cumplen los criterios"),
+            @ApiResponse(responseCode = "403", description = "No eres el anfitrión de la suscripción"),
+            @ApiResponse(responseCode = "404", description = "Suscripción no encontrada")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarPagosSuscripcion(
+            @CurrentUser UserPrincipal currentUser,
+            HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @Parameter(description = "ID de la suscripción") @PathVariable Long idSuscripcion,
+            @Parameter(description = "Formato del fichero") @RequestParam(defaultValue = "CSV") FormatoExportacion formato,
+            @Parameter(description = "Estado del pago (opcional)") @RequestParam(required = false) EstadoPago estado,
+            @Parameter(description = "Fecha inicio del rango (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate fechaDesde,
+            @Parameter(description = "Fecha fin del rango (formato: YYYY-MM-DD)") @RequestParam(required = false) LocalDate fechaHasta) {
+
+        pagoService.verificarExportacionSuscripcion(idSuscripcion, currentUser.getId());
+        return limitada(request, currentUser.getId(), formato, "pagos-suscripcion-" + idSuscripcion, acceptEncoding,
+                salida -> pagoService.exportarPagosSuscripcion(idSuscripcion, estado, fechaDesde, fechaHasta, formato, salida));
+    }
+
+    @GetMapping("/saldo")
+    @Operation(summary = "Obtener mi saldo como anfitrión",
+            description = "Cobrado, retenido, disputado, liberado y reembolsado de todas mis suscripciones, por moneda")
+    public ResponseEntity<List<SaldoResponse>> obtenerMiSaldo(@CurrentUser UserPrincipal currentUser) {
+        var saldos = libroContableService.obtenerSaldosAnfitrion(currentUser.getId())
+                .stream()
+                .map(SaldoResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(saldos);
+    }
+
+    @GetMapping("/extracto")
+    @Operation(summary = "Obtener mi extracto mensual como anfitrión",
+            description = "Movimientos agregados por mes entre desde y hasta (formato: YYYY-MM), ambos incluidos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Meses con movimientos"),
+            @ApiResponse(responseCode = "422", description = "Rango de meses no válido")
+    })
+    public ResponseEntity<List<ExtractoMensualResponse>> obtenerMiExtracto(
+            @CurrentUser UserPrincipal currentUser,
+            @Parameter(description = "Mes inicial (formato: YYYY-MM)") @RequestParam YearMonth desde,
+            @Parameter(description = "Mes final (formato: YYYY-MM)") @RequestParam YearMonth hasta) {
+
+        var extracto = libroContableService.obtenerExtractoAnfitrion(currentUser.getId(), desde, hasta)
+                .stream()
+                .map(ExtractoMensualResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(extracto);
+    }
+
+    @GetMapping("/suscripcion/{idSuscripcion}/saldo")
+    @Operation(summary = "Obtener el saldo de una suscripción", description = "Solo para su anfitrión")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Saldos por moneda"),
+            @ApiResponse(responseCode = "403", description = "No eres el anfitrión de la suscripción"),
+            @ApiResponse(responseCode = "404", description = "Suscripción no encontrada")
+    })
+    public ResponseEntity<List<SaldoResponse>> obtenerSaldoSuscripcion(
+            @CurrentUser UserPrincipal currentUser,
+            @Parameter(description = "ID de la suscripción") @PathVariable Long idSuscripcion) {
+
+        var saldos = libroContableService.obtenerSaldosSuscripcion(idSuscripcion, currentUser.getId())
+                .stream()
+                .map(SaldoResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(saldos);
+    }
+
+    @GetMapping("/suscripcion/{idSuscripcion}/extracto")
+    @Operation(summary = "Obtener el extracto mensual de una suscripción", description = "Solo para su anfitrión")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Meses con movimientos"),
+            @ApiResponse(responseCode = "403", description = "No eres el anfitrión de la suscripción"),
+            @ApiResponse(responseCode = "404", description = "Suscripción no encontrada"),
+            @ApiResponse(responseCode = "422", description = "Rango de meses no válido")
+    })
+    public ResponseEntity<List<ExtractoMensualResponse>> obtenerExtractoSuscripcion(
+            @CurrentUser UserPrincipal currentUser,
+            @Parameter(description = "ID de la suscripción") @PathVariable Long idSuscripcion,
+            @Parameter(description = "Mes inicial (formato: YYYY-MM)") @RequestParam YearMonth desde,
+            @Parameter(description = "Mes final (formato: YYYY-MM)") @RequestParam YearMonth hasta) {
+
+        var extracto = libroContableService.obtenerExtractoSuscripcion(idSuscripcion, currentUser.getId(), desde, hasta)
+                .stream()
+                .map(ExtractoMensualResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(extracto);
+    }
+
     @PostMapping("/{id}/liberar")
     @PreAuthorize("hasAnyRole('AGENTE', 'ADMIN')")
     @Operation(summary = "Liberar un pago retenido", description = "Solo para administradores o agentes")
@@ -140,12 +292,87 @@ public class PagoController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Reembolso procesado"),
             @ApiResponse(responseCode = "404", description = "Pago no encontrado"),
-            @ApiResponse(responseCode = "422", description = "Monto excede el disponible para reembolso")
+            @ApiResponse(responseCode = "422", description = "Monto excede el disponible para reembolso"),
+            @ApiResponse(responseCode = "503", description = "Pasarela no disponible o resultado en duda; repetir con el mismo importe")
     })
     public ResponseEntity<PagoResponse> procesarReembolso(
             @Valid @RequestBody ReembolsoRequest request) {
 
-        var pago = pagoService.procesarReembolso(request.idPago(), request.monto(), request.motivo());
+        var pago = cobroService.reembolsar(request.idPago(), request.monto(), request.motivo());
         return ResponseEntity.ok(PagoResponse.fromEntity(pago));
     }
+
+    /**
+     * Reserva la exportación del usuario (como mucho {@code joinly.exportacion.max-por-usuario}
+     * a la vez, 422 si no) y devuelve la descarga, escrita en el compartimento de conexiones de
+     * exportación.
+     * <p>
+     * La reserva se libera al terminar de escribir o, si el cuerpo no llega a ejecutarse, al
+     * terminar la petición asíncrona por cualquier vía (ejecutor que rechaza la tarea, timeout,
+     * cliente desconectado) o al fallar la construcción de la respuesta. Solo la primera de
+     * ellas la libera.
+     */
+    private ResponseEntity<StreamingResponseBody> limitada(HttpServletRequest request, Long idUsuario,
+            FormatoExportacion formato, String nombre, String acceptEncoding, StreamingResponseBody exportacion) {
+        limiteExportaciones.reservar(idUsuario);
+        var liberada = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberada.compareAndSet(false, true)) {
+                limiteExportaciones.liberar(idUsuario);
+            }
+        };
+        try {
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(LimiteExportaciones.class.getName(),
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest peticion, Callable<T> tarea) {
+                            liberar.run();
+                        }
+                    });
+            return exportacion(formato, nombre, acceptEncoding, salida -> {
+                try {
+                    CompartimentosBd.exportacion(() -> {
+                        exportacion.writeTo(salida);
+                        return null;
+                    }).call();
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    liberar.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            liberar.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Respuesta de descarga cuyo cuerpo escribe {@code exportacion} en un hilo aparte (virtual)
+     * una vez liberado el de la petición, comprimido con gzip si el cliente lo acepta.
+     */
+    private static ResponseEntity<StreamingResponseBody> exportacion(
+            FormatoExportacion formato, String nombre, String acceptEncoding, StreamingResponseBody exportacion) {
+        var gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        var fichero = ContentDisposition.attachment()
+                .filename(nombre + "-" + LocalDate.now() + "." + formato.getExtension())
+                .build();
+
+        var respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getTipoContenido()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, fichero.toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return respuesta.body(exportacion);
+        }
+        return respuesta
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(salida -> {
+                    var comprimida = new GZIPOutputStream(salida, BUFER_GZIP);
+                    exportacion.writeTo(comprimida);
+                    comprimida.finish();
+                });
+    }
 }
@@ -4,6 +4,7 @@ import com.alberti.joinly.dto.servicio.CreateServicioRequest;
 import com.alberti.joinly.dto.servicio.ServicioResponse;
 import com.alberti.joinly.dto.servicio.UpdateServicioRequest;
 import com.alberti.joinly.entities.enums.CategoriaServicio;
+import com.alberti.joinly.json.CacheRespuestasJson;
 import com.alberti.joinly.services.ServicioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,8 +22,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Controlador REST para la gestión del catálogo de servicios de suscripción.
  * <p>
@@ -34,6 +33,8 @@ import java.util.List;
  *   <li>Lectura (GET): Público para todos los usuarios</li>
  *   <li>Escritura (POST/PUT/DELETE): Solo administradores</li>
  * </ul>
+ * Los listados se sirven ya serializados desde {@link CacheRespuestasJson} mientras no cambie
+ * la versión del catálogo, con ETag para que los clientes puedan revalidar con 304.
  *
  * @author Joinly Team
  * @version 1.0
@@ -47,6 +48,7 @@ import java.util.List;
 public class ServicioController {
 
     private final ServicioService servicioService;
+    private final CacheRespuestasJson cacheRespuestasJson;
 
     @GetMapping
     @Operation(
@@ -59,13 +61,14 @@ public class ServicioController {
                     description = "Lista de servicios obtenida exitosamente",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = ServicioResponse.class))))
     })
-    public ResponseEntity<List<ServicioResponse>> listarServicios() {
-        var servicios = servicioService.listarServiciosActivos()
-                .stream()
-                .map(ServicioResponse::fromEntity)
-                .toList();
-
-        return ResponseEntity.ok(servicios);
+    public ResponseEntity<byte[]> listarServicios() {
+        var version = servicioService.obtenerVersionCatalogo();
+        return cacheRespuestasJson.obtener("servicios", version, () ->
+                        servicioService.listarServiciosActivos()
+                                .stream()
+                                .map(ServicioResponse::fromEntity)
+                                .toList())
+                .comoRespuesta();
     }
 
     @GetMapping("/{id}")
@@ -105,17 +108,18 @@ public class ServicioController {
                     description = "Categoría inválida",
                     content = @Content)
     })
-    public ResponseEntity<List<ServicioResponse>> listarPorCategoria(
+    public ResponseEntity<byte[]> listarPorCategoria(
             @Parameter(description = "Categoría del servicio", required = true,
                     schema = @Schema(implementation = CategoriaServicio.class))
             @PathVariable CategoriaServicio categoria) {
 
-        var servicios = servicioService.listarPorCategoria(categoria)
-                .stream()
-                .map(ServicioResponse::fromEntity)
-                .toList();
-
-        return ResponseEntity.ok(servicios);
+        var version = servicioService.obtenerVersionCatalogo();
+        return cacheRespuestasJson.obtener("servicios:" + categoria, version, () ->
+                        servicioService.listarPorCategoria(categoria)
+                                .stream()
+                                .map(ServicioResponse::fromEntity)
+                                .toList())
+                .comoRespuesta();
     }
 
     @PostMapping
@@ -6,6 +6,7 @@ import com.alberti.joinly.dto.suscripcion.SuscripcionDetalleResponse;
 import com.alberti.joinly.dto.suscripcion.SuscripcionResponse;
 import com.alberti.joinly.dto.suscripcion.SuscripcionSummary;
 import com.alberti.joinly.entities.enums.EstadoSuscripcion;
+import com.alberti.joinly.entities.suscripcion.Suscripcion;
 import com.alberti.joinly.repositories.CredencialRepository;
 import com.alberti.joinly.repositories.SolicitudRepository;
 import com.alberti.joinly.security.CurrentUser;
@@ -131,9 +132,11 @@ public class SuscripcionController {
         var plazasOcupadasList = suscripcionService.listarPlazasOcupadasDeSuscripcion(id);
         
         // Verificar si el usuario actual es miembro de la suscripción
-        boolean esMiembro = plazasOcupadasList.stream()
-                .anyMatch(plaza -> plaza.getUsuario() != null && 
-                         plaza.getUsuario().getId().equals(currentUser.getId()));
+        var plazaMiembro = plazasOcupadasList.stream()
+                .filter(plaza -> plaza.getUsuario() != null && 
+                         plaza.getUsuario().getId().equals(currentUser.getId()))
+                .findFirst();
+        boolean esMiembro = plazaMiembro.isPresent();
         
         String usuarioDesencriptado = null;
         String contrasenaDesencriptada = null;
@@ -165,7 +168,7 @@ public class SuscripcionController {
                 contrasenaDesencriptada,
                 plazasOcupadasList,
                 solicitudes,
-                esMiembro
+                plazaMiembro.map(plaza -> suscripcionService.calcularCuotaPlaza(suscripcion, plaza)).orElse(null)
         ));
     }
 
@@ -216,9 +219,11 @@ public class SuscripcionController {
     public ResponseEntity<List<SuscripcionSummary>> listarMisSuscripcionesComoAnfitrion(
             @CurrentUser UserPrincipal currentUser) {
 
-        var suscripciones = suscripcionService.listarSuscripcionesDeAnfitrion(currentUser.getId())
-                .stream()
-                .map(s -> SuscripcionSummary.fromEntity(s, suscripcionService.contarPlazasOcupadas(s.getId())))
+        var propias = suscripcionService.listarSuscripcionesDeAnfitrion(currentUser.getId());
+        var ocupadas = suscripcionService.contarPlazasOcupadasPorSuscripcion(
+                propias.stream().map(Suscripcion::getId).toList());
+        var suscripciones = propias.stream()
+                .map(s -> SuscripcionSummary.fromEntity(s, ocupadas.getOrDefault(s.getId(), 0L)))
                 .toList();
 
         return ResponseEntity.ok(suscripciones);
@@ -7,7 +7,9 @@ import com.alberti.joinly.dto.soporte.TicketSoporteResponse;
 import com.alberti.joinly.security.CurrentUser;
 import com.alberti.joinly.security.UserPrincipal;
 import com.alberti.joinly.services.TicketSoporteService;
+import com.alberti.joinly.soporte.EsperaMensajesTicket;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -32,6 +34,7 @@ import java.util.List;
 public class TicketSoporteController {
 
     private final TicketSoporteService ticketService;
+    private final EsperaMensajesTicket esperaMensajes;
 
     @PostMapping
     @Operation(summary = "Crear ticket de soporte", description = "Crea un nuevo ticket de incidencia")
@@ -127,12 +130,19 @@ public class TicketSoporteController {
     }
 
     @GetMapping("/{id}/mensajes")
-    @Operation(summary = "Obtener mensajes de un ticket")
+    @Operation(summary = "Obtener mensajes de un ticket",
+            description = "Con afterId devuelve solo los mensajes posteriores a ese. Con esperaMs, si no hay " +
+                    "mensajes nuevos la petición espera a que llegue uno (long-poll), como mucho el tiempo " +
+                    "indicado o el máximo configurado; al vencer responde con una lista vacía.")
     public ResponseEntity<List<MensajeTicketResponse>> obtenerMensajes(
             @PathVariable Long id,
-            @CurrentUser UserPrincipal currentUser) {
+            @CurrentUser UserPrincipal currentUser,
+            @Parameter(description = "ID del último mensaje recibido")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Milisegundos a esperar si no hay mensajes nuevos")
+            @RequestParam(defaultValue = "0") long esperaMs) {
 
-        var mensajes = ticketService.obtenerMensajes(id, currentUser.getId())
+        var mensajes = esperaMensajes.obtenerMensajes(id, currentUser, afterId, esperaMs)
                 .stream()
                 .map(MensajeTicketResponse::fromEntity)
                 .toList();
@@ -93,16 +93,17 @@ public class UsuarioController {
     @GetMapping("/buscar")
     @Operation(
             summary = "Buscar usuarios por nombre",
-            description = "Busca usuarios por nombre con paginación. " +
-                    "Parámetros: page (número de página, base 0), size (elementos por página), " +
-                    "sort (campo,dirección ej: nombre,asc)"
+            description = "Busca usuarios activos cuyo nombre contiene el texto, sin distinguir " +
+                    "mayúsculas ni acentos. Los resultados se ordenan por relevancia (primero los que " +
+                    "empiezan por el texto) y se limitan a joinly.busqueda.usuarios.max-resultados. " +
+                    "Parámetros: page (número de página, base 0), size (elementos por página)"
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Página de usuarios encontrados")
     })
     public ResponseEntity<Page<UsuarioResponse>> buscarPorNombre(
             @Parameter(description = "Nombre a buscar") @RequestParam String nombre,
-            @PageableDefault(size = 10, sort = "nombre") Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable) {
 
         var usuarios = usuarioService.buscarPorNombrePaginado(nombre, pageable)
                 .map(UsuarioResponse::fromEntity);
@@ -0,0 +1,151 @@
+package com.alberti.joinly.dinero;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Importe en céntimos con su moneda (código ISO 4217).
+ * <p>
+ * Las columnas de importe son {@code DECIMAL(10,2)}, así que toda moneda se maneja con dos
+ * decimales. Las operaciones son aritmética exacta de {@code long}: no redondean, no crean
+ * {@link BigDecimal} y lanzan {@link ArithmeticException} si desbordan. Solo se convierte a
+ * {@code BigDecimal} en los bordes, al leer de una entidad ({@link #de}) o escribir en ella
+ * ({@link #aDecimal}). Operar con monedas distintas lanza {@link IllegalArgumentException}.
+ * <p>
+ * En JSON es {@code {"importe": 12.50, "moneda": "EUR"}}.
+ */
+@JsonPropertyOrder({"importe", "moneda"})
+public record Dinero(@JsonIgnore long centimos, String moneda) implements Comparable<Dinero> {
+
+    public static final int DECIMALES = 2;
+    private static final long CENTIMOS_POR_UNIDAD = 100;
+
+    public Dinero {
+        Objects.requireNonNull(moneda, "La moneda es obligatoria");
+        if (moneda.length() != 3) {
+            throw new IllegalArgumentException("Código de moneda no válido: " + moneda);
+        }
+    }
+
+    public static Dinero deCentimos(long centimos, String moneda) {
+        return new Dinero(centimos, moneda);
+    }
+
+    public static Dinero cero(String moneda) {
+        return new Dinero(0, moneda);
+    }
+
+    /**
+     * Convierte un importe decimal. Falla con {@link ArithmeticException} si tiene más de dos
+     * decimales distintos de cero: nunca redondea.
+     */
+    @JsonCreator
+    public static Dinero de(@JsonProperty("importe") BigDecimal importe, @JsonProperty("moneda") String moneda) {
+        Objects.requireNonNull(importe, "El importe es obligatorio");
+        return new Dinero(importe.movePointRight(DECIMALES).longValueExact(), moneda);
+    }
+
+    /** El importe como {@code BigDecimal} con dos decimales, para guardarlo en una entidad. */
+    public BigDecimal aDecimal() {
+        return BigDecimal.valueOf(centimos, DECIMALES);
+    }
+
+    /** El importe con dos decimales y punto, sin moneda: {@code 12.50}, {@code -0.05}. */
+    @JsonProperty("importe")
+    @JsonRawValue
+    public String importe() {
+        var unidades = Math.absExact(centimos / CENTIMOS_POR_UNIDAD);
+        var resto = Math.abs(centimos % CENTIMOS_POR_UNIDAD);
+        return (centimos < 0 ? "-" : "") + unidades + (resto < 10 ? ".0" : ".") + resto;
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return new Dinero(Math.addExact(centimos, mismaMoneda(otro).centimos), moneda);
+    }
+
+    public Dinero restar(Dinero otro) {
+        return new Dinero(Math.subtractExact(centimos, mismaMoneda(otro).centimos), moneda);
+    }
+
+    public Dinero multiplicar(long factor) {
+        return new Dinero(Math.multiplyExact(centimos, factor), moneda);
+    }
+
+    /**
+     * Reparte el importe en {@code partes} cuotas que suman exactamente el total. Las cuotas
+     * difieren como mucho en un céntimo: los céntimos que sobran de la división van, uno a
+     * uno, a las primeras cuotas.
+     * <p>
+     * Ejemplo: 10.00 entre 3 son 3.34, 3.33 y 3.33.
+     */
+    public Dinero[] repartir(int partes) {
+        if (partes <= 0) {
+            throw new IllegalArgumentException("El número de partes debe ser positivo: " + partes);
+        }
+        var base = Math.floorDiv(centimos, partes);
+        var sobrantes = Math.floorMod(centimos, partes);
+        var cuotas = new Dinero[partes];
+        for (var i = 0; i < partes; i++) {
+            cuotas[i] = new Dinero(i < sobrantes ? base + 1 : base, moneda);
+        }
+        return cuotas;
+    }
+
+    /**
+     * La mayor de las cuotas de {@link #repartir}, sin crear el array: lo que paga la primera
+     * parte del reparto.
+     */
+    public Dinero cuotaMaxima(int partes) {
+        return cuota(partes, 0);
+    }
+
+    /**
+     * La cuota {@code indice} (desde 0) de {@link #repartir}, sin crear el array. Cobrar a cada
+     * parte su cuota suma exactamente el total.
+     */
+    public Dinero cuota(int partes, int indice) {
+        if (partes <= 0) {
+            throw new IllegalArgumentException("El número de partes debe ser positivo: " + partes);
+        }
+        if (indice < 0 || indice >= partes) {
+            throw new IllegalArgumentException("Cuota " + indice + " fuera del reparto en " + partes + " partes");
+        }
+        var base = Math.floorDiv(centimos, partes);
+        return new Dinero(indice < Math.floorMod(centimos, partes) ? base + 1 : base, moneda);
+    }
+
+    public boolean esCero() {
+        return centimos == 0;
+    }
+
+    public boolean esPositivo() {
+        return centimos > 0;
+    }
+
+    public boolean esMayorQue(Dinero otro) {
+        return compareTo(otro) > 0;
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centimos, mismaMoneda(otro).centimos);
+    }
+
+    @Override
+    public String toString() {
+        return importe() + " " + moneda;
+    }
+
+    private Dinero mismaMoneda(Dinero otro) {
+        if (!moneda.equals(otro.moneda)) {
+            throw new IllegalArgumentException("No se pueden operar importes en " + moneda + " y " + otro.moneda);
+        }
+        return otro;
+    }
+}
@@ -0,0 +1,27 @@
+package com.alberti.joinly.dto.configuracion;
+
+import com.alberti.joinly.entities.enums.TipoConfiguracion;
+import com.alberti.joinly.entities.sistema.Configuracion;
+
+import java.time.LocalDateTime;
+
+public record ConfiguracionResponse(
+        String clave,
+        String valor,
+        TipoConfiguracion tipo,
+        String descripcion,
+        String categoria,
+        Boolean modificable,
+        LocalDateTime updatedAt) {
+
+    public static ConfiguracionResponse fromEntity(Configuracion configuracion) {
+        return new ConfiguracionResponse(
+                configuracion.getClave(),
+                configuracion.getValor(),
+                configuracion.getTipo(),
+                configuracion.getDescripcion(),
+                configuracion.getCategoria(),
+                configuracion.getModificable(),
+                configuracion.getUpdatedAt());
+    }
+}
@@ -0,0 +1,11 @@
+package com.alberti.joinly.dto.configuracion;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO para modificar el valor de un parámetro de configuración.
+ */
+public record UpdateConfiguracionRequest(
+        @NotBlank(message = "El valor es obligatorio")
+        String valor
+) {}
@@ -0,0 +1,9 @@
+package com.alberti.joinly.dto.configuracion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Huella de la tabla configuracion: número de filas y última modificación.
+ * Si cambia cualquiera de los dos valores, la caché en memoria debe recargarse.
+ */
+public record VersionConfiguracion(Long total, LocalDateTime ultimaModificacion) {}
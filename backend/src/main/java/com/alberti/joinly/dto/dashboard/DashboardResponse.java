@@ -0,0 +1,45 @@
+package com.alberti.joinly.dto.dashboard;
+
+import com.alberti.joinly.dto.solicitud.SolicitudResponse;
+import com.alberti.joinly.dto.suscripcion.PlazaResponse;
+import com.alberti.joinly.dto.suscripcion.SuscripcionSummary;
+import com.alberti.joinly.dto.unidad.UnidadFamiliarCardDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Datos de la pantalla de inicio en una sola respuesta.
+ * <p>
+ * Cada sección se obtiene por separado; si una falla o supera el tiempo máximo, llega a
+ * {@code null} y su nombre se incluye en {@code seccionesIncompletas}, de modo que el cliente
+ * puede pedirla con su endpoint individual.
+ *
+ * @param grupos                 Tarjetas de los grupos del usuario ({@code /unidades/miembro/cards})
+ * @param plazas                 Plazas ocupadas por el usuario ({@code /suscripciones/mis-plazas})
+ * @param suscripcionesAnfitrion Suscripciones de las que es anfitrión ({@code /suscripciones/anfitrion})
+ * @param notificacionesNoLeidas Notificaciones sin leer ({@code /notificaciones/contador})
+ * @param solicitudesPendientes  Solicitudes pendientes de sus grupos y suscripciones
+ * @param seccionesIncompletas   Secciones que no se han podido obtener
+ */
+@Schema(description = "Datos agregados de la pantalla de inicio")
+public record DashboardResponse(
+        @Schema(description = "Tarjetas de los grupos del usuario")
+        List<UnidadFamiliarCardDTO> grupos,
+
+        @Schema(description = "Plazas ocupadas por el usuario")
+        List<PlazaResponse> plazas,
+
+        @Schema(description = "Suscripciones de las que el usuario es anfitrión")
+        List<SuscripcionSummary> suscripcionesAnfitrion,
+
+        @Schema(description = "Número de notificaciones sin leer", example = "3")
+        Long notificacionesNoLeidas,
+
+        @Schema(description = "Solicitudes pendientes de los grupos que administra y de las suscripciones que aloja")
+        List<SolicitudResponse> solicitudesPendientes,
+
+        @Schema(description = "Secciones no disponibles en esta respuesta (a null)", example = "[\"plazas\"]")
+        List<String> seccionesIncompletas
+) {
+}
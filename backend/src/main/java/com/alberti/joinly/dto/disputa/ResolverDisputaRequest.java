@@ -1,6 +1,7 @@
 package com.alberti.joinly.dto.disputa;
 
 import com.alberti.joinly.entities.enums.ResolucionDisputa;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
@@ -15,6 +16,7 @@ public record ResolverDisputaRequest(
         ResolucionDisputa resolucion,
 
         @PositiveOrZero(message = "El monto debe ser cero o positivo")
+        @Digits(integer = 8, fraction = 2, message = "El monto debe tener máximo 8 dígitos enteros y 2 decimales")
         BigDecimal montoResuelto,
 
         @Size(max = 2000, message = "Las notas no pueden exceder 2000 caracteres")
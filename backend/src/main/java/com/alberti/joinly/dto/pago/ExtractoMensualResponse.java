@@ -0,0 +1,33 @@
+package com.alberti.joinly.dto.pago;
+
+import com.alberti.joinly.entities.pago.SaldoContableMensual;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * DTO de respuesta con los movimientos de un mes, agregados por cuenta.
+ * {@code cobrado}, {@code liberado} y {@code reembolsado} son lo que entró en cada cuenta en
+ * el mes; {@code retenido} y {@code disputado}, la variación de su saldo (puede ser negativa).
+ */
+public record ExtractoMensualResponse(
+        YearMonth periodo,
+        String moneda,
+        BigDecimal cobrado,
+        BigDecimal retenido,
+        BigDecimal disputado,
+        BigDecimal liberado,
+        BigDecimal reembolsado
+) {
+    public static ExtractoMensualResponse fromEntity(SaldoContableMensual mes) {
+        return new ExtractoMensualResponse(
+                YearMonth.from(mes.getPeriodo()),
+                mes.getMoneda(),
+                mes.getCobrado(),
+                mes.getRetenido(),
+                mes.getDisputado(),
+                mes.getLiberado(),
+                mes.getReembolsado()
+        );
+    }
+}
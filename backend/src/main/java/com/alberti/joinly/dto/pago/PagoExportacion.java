@@ -0,0 +1,28 @@
+package com.alberti.joinly.dto.pago;
+
+import com.alberti.joinly.entities.enums.EstadoPago;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de pagos. Se construye directamente en la consulta
+ * ({@code SELECT new ...}), sin cargar entidades, para poder recorrer millones de pagos con
+ * memoria constante.
+ */
+public record PagoExportacion(
+        Long id,
+        LocalDateTime fechaPago,
+        Long idUsuario,
+        Long idSuscripcion,
+        String nombreServicio,
+        BigDecimal monto,
+        String moneda,
+        BigDecimal montoReembolsado,
+        EstadoPago estado,
+        LocalDate cicloInicio,
+        LocalDate cicloFin,
+        LocalDateTime fechaLiberacion,
+        String referenciaExterna
+) {}
@@ -1,5 +1,6 @@
 package com.alberti.joinly.dto.pago;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
@@ -14,6 +15,7 @@ public record ReembolsoRequest(
 
         @NotNull(message = "El monto a reembolsar es obligatorio")
         @Positive(message = "El monto debe ser positivo")
+        @Digits(integer = 8, fraction = 2, message = "El monto debe tener máximo 8 dígitos enteros y 2 decimales")
         BigDecimal monto,
 
         String motivo
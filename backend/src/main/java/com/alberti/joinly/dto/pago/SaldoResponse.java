@@ -0,0 +1,34 @@
+package com.alberti.joinly.dto.pago;
+
+import com.alberti.joinly.entities.pago.SaldoContable;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de respuesta con el saldo acumulado de un anfitrión o de una suscripción en una moneda.
+ *
+ * @param cobrado     Total cobrado desde la pasarela
+ * @param retenido    Cobrado y pendiente de liberar
+ * @param disputado   Retenido con una disputa abierta
+ * @param liberado    Entregado al anfitrión
+ * @param reembolsado Devuelto a los usuarios
+ */
+public record SaldoResponse(
+        String moneda,
+        BigDecimal cobrado,
+        BigDecimal retenido,
+        BigDecimal disputado,
+        BigDecimal liberado,
+        BigDecimal reembolsado
+) {
+    public static SaldoResponse fromEntity(SaldoContable saldo) {
+        return new SaldoResponse(
+                saldo.getMoneda(),
+                saldo.getCobrado(),
+                saldo.getRetenido(),
+                saldo.getDisputado(),
+                saldo.getLiberado(),
+                saldo.getReembolsado()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.alberti.joinly.dto.servicio;
+
+/**
+ * Huella de la tabla servicio: número de filas, último id y suma de las versiones de fila.
+ * Si cambia cualquiera de los tres valores, las respuestas del catálogo en caché dejan de valer.
+ * <p>
+ * Cada actualización suma uno a la versión de su fila y cada alta sube el último id, así que
+ * ninguna escritura deja la huella igual. No depende de la hora: con {@code MAX(updated_at)},
+ * dos cambios en el mismo segundo, o uno que confirma después de otro más reciente, no la movían.
+ */
+public record VersionCatalogo(Long total, Long ultimoId, Long sumaVersiones) {}
@@ -0,0 +1,6 @@
+package com.alberti.joinly.dto.soporte;
+
+/**
+ * Número de tickets activos (ABIERTO o EN_PROCESO) asignados a un agente.
+ */
+public record CargaAgente(Long idAgente, Long tickets) {}
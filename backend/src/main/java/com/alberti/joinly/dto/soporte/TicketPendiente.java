@@ -0,0 +1,10 @@
+package com.alberti.joinly.dto.soporte;
+
+import com.alberti.joinly.entities.enums.PrioridadTicket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos mínimos de un ticket sin asignar para ordenarlo en la cola de despacho.
+ */
+public record TicketPendiente(Long idTicket, PrioridadTicket prioridad, LocalDateTime fechaApertura) {}
@@ -0,0 +1,6 @@
+package com.alberti.joinly.dto.suscripcion;
+
+/**
+ * Número de plazas ocupadas de una suscripción.
+ */
+public record PlazasOcupadas(Long idSuscripcion, Long ocupadas) {}
@@ -165,7 +165,8 @@ public record SuscripcionDetalleResponse(
             List<Plaza> plazasOcupadasList,
             List<Solicitud> solicitudes) {
         return fromEntity(suscripcion, plazasDisponibles, plazasOcupadas, 
-                usuarioDesencriptado, contrasenaDesencriptada, plazasOcupadasList, solicitudes, true);
+                usuarioDesencriptado, contrasenaDesencriptada, plazasOcupadasList, solicitudes,
+                suscripcion.getPrecioPorPlaza());
     }
 
     public static SuscripcionDetalleResponse fromEntity(
@@ -176,14 +177,14 @@ public record SuscripcionDetalleResponse(
             String contrasenaDesencriptada,
             List<Plaza> plazasOcupadasList,
             List<Solicitud> solicitudes,
-            boolean esMiembro) {
+            BigDecimal cuotaMiembro) {
 
         // Formatear fechas
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
 
-        // Construir información de pago solo si es miembro
-        PagoDTO pago = esMiembro ? new PagoDTO(
-                suscripcion.getPrecioPorPlaza(),
+        // Construir información de pago solo si es miembro (cuotaMiembro es null si no lo es)
+        PagoDTO pago = cuotaMiembro != null ? new PagoDTO(
+                cuotaMiembro,
                 EstadoPago.PENDIENTE,
                 suscripcion.getFechaRenovacion().format(formatter)
         ) : null;
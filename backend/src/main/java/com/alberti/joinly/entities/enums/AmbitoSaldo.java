@@ -0,0 +1,9 @@
+package com.alberti.joinly.entities.enums;
+
+/**
+ * Agrupación de los saldos del libro contable: por anfitrión o por suscripción.
+ */
+public enum AmbitoSaldo {
+    ANFITRION,
+    SUSCRIPCION
+}
@@ -0,0 +1,17 @@
+package com.alberti.joinly.entities.enums;
+
+/**
+ * Cuentas del libro contable de pagos. Cada movimiento pasa un importe de una cuenta a otra.
+ * - PASARELA: origen del dinero cobrado (externa, no tiene saldo propio)
+ * - RETENIDO: cobrado y pendiente de liberar al anfitrión
+ * - DISPUTADO: retenido con una disputa abierta
+ * - LIBERADO: entregado al anfitrión
+ * - REEMBOLSADO: devuelto al usuario
+ */
+public enum CuentaContable {
+    PASARELA,
+    RETENIDO,
+    DISPUTADO,
+    LIBERADO,
+    REEMBOLSADO
+}
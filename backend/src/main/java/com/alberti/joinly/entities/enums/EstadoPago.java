@@ -2,6 +2,8 @@ package com.alberti.joinly.entities.enums;
 
 /**
  * Estado de un pago en el sistema.
+ * - PENDIENTE: cobro enviado a la pasarela sin resultado confirmado (se concilia después)
+ * - FALLIDO: la pasarela rechazó el cobro o no llegó a hacerse; no bloquea un nuevo intento
  * - RETENIDO: pago capturado pero no liberado al anfitrión
  * - LIBERADO: pago entregado al anfitrión
  * - DISPUTADO: existe una disputa activa sobre este pago
@@ -0,0 +1,17 @@
+package com.alberti.joinly.entities.enums;
+
+/**
+ * Hecho que origina un movimiento del libro contable.
+ * - RETENCION: cobro confirmado por la pasarela (PASARELA → RETENIDO)
+ * - LIBERACION: pago liberado al anfitrión (RETENIDO → LIBERADO)
+ * - DISPUTA: disputa abierta sobre el pago (RETENIDO → DISPUTADO)
+ * - CIERRE_DISPUTA: disputa cerrada sin reembolso total (DISPUTADO → RETENIDO)
+ * - REEMBOLSO: devolución total o parcial al usuario (cuenta del pago → REEMBOLSADO)
+ */
+public enum TipoMovimientoContable {
+    RETENCION,
+    LIBERACION,
+    DISPUTA,
+    CIERRE_DISPUTA,
+    REEMBOLSO
+}
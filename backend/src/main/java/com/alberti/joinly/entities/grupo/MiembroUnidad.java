@@ -1,5 +1,6 @@
 package com.alberti.joinly.entities.grupo;
 
+import com.alberti.joinly.entities.base.BaseEntity;
 import com.alberti.joinly.entities.enums.EstadoMiembro;
 import com.alberti.joinly.entities.enums.RolMiembro;
 import com.alberti.joinly.entities.usuario.Usuario;
@@ -26,8 +27,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @ToString(exclude = { "usuario", "unidad" })
-@EqualsAndHashCode(onlyExplicitlyIncluded = true)
-public class MiembroUnidad {
+@EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
+public class MiembroUnidad extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "solicitud", indexes = {
-        @Index(name = "idx_solicitud_solicitante_estado", columnList = "id_solicitante, estado"),
+        @Index(name = "idx_solicitud_solicitante_fecha", columnList = "id_solicitante, fecha_solicitud"),
+        @Index(name = "idx_solicitud_solicitante_estado_fecha", columnList = "id_solicitante, estado, fecha_solicitud"),
         @Index(name = "idx_solicitud_unidad_estado", columnList = "id_unidad, estado"),
         @Index(name = "idx_solicitud_suscripcion_estado", columnList = "id_suscripcion, estado"),
         @Index(name = "idx_solicitud_fecha", columnList = "fecha_solicitud")
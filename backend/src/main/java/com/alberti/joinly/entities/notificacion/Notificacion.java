@@ -1,6 +1,7 @@
 package com.alberti.joinly.entities.notificacion;
 
 import com.alberti.joinly.entities.enums.TipoNotificacion;
+import com.alberti.joinly.entities.sistema.Secuencia;
 import com.alberti.joinly.entities.usuario.Usuario;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -30,7 +31,9 @@ import java.time.LocalDateTime;
 public class Notificacion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notificacion_id")
+    @TableGenerator(name = "notificacion_id", table = Secuencia.TABLA, pkColumnName = Secuencia.COLUMNA_NOMBRE,
+            valueColumnName = Secuencia.COLUMNA_VALOR, pkColumnValue = "notificacion", allocationSize = Secuencia.BLOQUE_IDS)
     @Column(name = "id_notificacion")
     @EqualsAndHashCode.Include
     private Long id;
@@ -1,6 +1,7 @@
 package com.alberti.joinly.entities.pago;
 
 import com.alberti.joinly.entities.enums.EstadoDisputa;
+import com.alberti.joinly.entities.enums.EstadoPago;
 import com.alberti.joinly.entities.enums.MotivoDisputa;
 import com.alberti.joinly.entities.enums.ResolucionDisputa;
 import com.alberti.joinly.entities.soporte.TicketSoporte;
@@ -60,6 +61,14 @@ public class Disputa {
     @Column(name = "evidencia_urls", columnDefinition = "JSON")
     private String evidenciaUrls;
 
+    /**
+     * Estado del pago al abrir la disputa. Si se resuelve sin reembolso, el pago vuelve a él.
+     * {@code null} en las disputas abiertas antes de guardarlo.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_pago_anterior", length = 20, updatable = false)
+    private EstadoPago estadoPagoAnterior;
+
     @Column(name = "fecha_apertura", nullable = false, updatable = false)
     private LocalDateTime fechaApertura;
 
@@ -0,0 +1,32 @@
+package com.alberti.joinly.entities.pago;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Importes acumulados por cuenta de {@link SaldoContable} y {@link SaldoContableMensual}.
+ * {@code cobrado} suma todo lo que ha entrado desde la pasarela; el resto es el saldo de cada
+ * cuenta (entradas menos salidas).
+ */
+@MappedSuperclass
+@Getter
+public abstract class ImportesContables {
+
+    @Column(name = "cobrado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal cobrado = BigDecimal.ZERO;
+
+    @Column(name = "retenido", nullable = false, precision = 14, scale = 2)
+    private BigDecimal retenido = BigDecimal.ZERO;
+
+    @Column(name = "disputado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal disputado = BigDecimal.ZERO;
+
+    @Column(name = "liberado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal liberado = BigDecimal.ZERO;
+
+    @Column(name = "reembolsado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal reembolsado = BigDecimal.ZERO;
+}
@@ -0,0 +1,82 @@
+package com.alberti.joinly.entities.pago;
+
+import com.alberti.joinly.entities.enums.CuentaContable;
+import com.alberti.joinly.entities.enums.TipoMovimientoContable;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del libro contable de pagos (partida doble): {@code monto} sale de
+ * {@code cuenta_origen} y entra en {@code cuenta_destino}.
+ * - Solo se insertan filas, nunca se modifican ni se borran
+ * - id_suscripcion e id_anfitrion se guardan tal como eran al registrar el movimiento, para
+ *   que un cambio de anfitrión no reescriba saldos pasados
+ * - Se escribe por JDBC desde {@link com.alberti.joinly.contabilidad.LibroContable}, junto con
+ *   los saldos de {@link SaldoContable} y {@link SaldoContableMensual}
+ */
+@Entity
+@Immutable
+@Table(name = "movimiento_contable", indexes = {
+        @Index(name = "idx_movimiento_pago", columnList = "id_pago"),
+        @Index(name = "idx_movimiento_anfitrion_fecha", columnList = "id_anfitrion, fecha")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = {"pago"})
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class MovimientoContable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_movimiento")
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_pago", nullable = false)
+    @NotNull
+    private Pago pago;
+
+    @NotNull
+    @Column(name = "id_suscripcion", nullable = false)
+    private Long idSuscripcion;
+
+    @NotNull
+    @Column(name = "id_anfitrion", nullable = false)
+    private Long idAnfitrion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 20)
+    @NotNull
+    private TipoMovimientoContable tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cuenta_origen", nullable = false, length = 20)
+    @NotNull
+    private CuentaContable cuentaOrigen;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cuenta_destino", nullable = false, length = 20)
+    @NotNull
+    private CuentaContable cuentaDestino;
+
+    @Column(name = "monto", nullable = false, precision = 10, scale = 2)
+    @NotNull
+    private BigDecimal monto;
+
+    @Size(min = 3, max = 3)
+    @Column(name = "moneda", nullable = false, length = 3, columnDefinition = "CHAR(3)")
+    private String moneda;
+
+    @NotNull
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+}
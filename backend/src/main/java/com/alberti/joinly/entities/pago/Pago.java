@@ -1,6 +1,8 @@
 package com.alberti.joinly.entities.pago;
 
+import com.alberti.joinly.dinero.Dinero;
 import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.sistema.Secuencia;
 import com.alberti.joinly.entities.suscripcion.Plaza;
 import com.alberti.joinly.entities.suscripcion.Suscripcion;
 import com.alberti.joinly.entities.usuario.MetodoPagoUsuario;
@@ -26,9 +28,11 @@ import java.util.List;
  */
 @Entity
 @Table(name = "pago", indexes = {
-        @Index(name = "idx_pago_usuario_estado", columnList = "id_usuario, estado"),
+        @Index(name = "idx_pago_usuario_fecha", columnList = "id_usuario, fecha_pago"),
+        @Index(name = "idx_pago_usuario_estado_fecha", columnList = "id_usuario, estado, fecha_pago"),
         @Index(name = "idx_pago_plaza", columnList = "id_plaza"),
         @Index(name = "idx_pago_suscripcion_ciclo", columnList = "id_suscripcion, ciclo_inicio"),
+        @Index(name = "idx_pago_suscripcion_fecha", columnList = "id_suscripcion, fecha_pago"),
         @Index(name = "idx_pago_estado_retencion", columnList = "estado, fecha_retencion_hasta"),
         @Index(name = "idx_pago_referencia", columnList = "referencia_externa")
 })
@@ -43,7 +47,9 @@ import java.util.List;
 public class Pago {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pago_id")
+    @TableGenerator(name = "pago_id", table = Secuencia.TABLA, pkColumnName = Secuencia.COLUMNA_NOMBRE,
+            valueColumnName = Secuencia.COLUMNA_VALOR, pkColumnValue = "pago", allocationSize = Secuencia.BLOQUE_IDS)
     @Column(name = "id_pago")
     @EqualsAndHashCode.Include
     private Long id;
@@ -81,6 +87,10 @@ public class Pago {
     @Builder.Default
     private BigDecimal montoReembolsado = BigDecimal.ZERO;
 
+    /** Reembolso enviado a la pasarela y aún sin confirmar; {@code null} si no hay ninguno. */
+    @Column(name = "monto_reembolso_en_curso", precision = 10, scale = 2)
+    private BigDecimal montoReembolsoEnCurso;
+
     @Column(name = "fecha_pago", nullable = false, updatable = false)
     private LocalDateTime fechaPago;
 
@@ -118,6 +128,21 @@ public class Pago {
     @Builder.Default
     private List<Disputa> disputas = new ArrayList<>();
 
+    /** {@code monto} como {@link Dinero}. */
+    public Dinero getImporte() {
+        return Dinero.de(monto, moneda);
+    }
+
+    /** {@code montoReembolsado} como {@link Dinero}. */
+    public Dinero getImporteReembolsado() {
+        return Dinero.de(montoReembolsado, moneda);
+    }
+
+    /** Lo que todavía se puede reembolsar o liberar: monto menos lo ya reembolsado. */
+    public Dinero getImportePendiente() {
+        return getImporte().restar(getImporteReembolsado());
+    }
+
     @PrePersist
     protected void onCreate() {
         if (fechaPago == null) {
@@ -0,0 +1,47 @@
+package com.alberti.joinly.entities.pago;
+
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo acumulado de un anfitrión o de una suscripción en una moneda, desde el primer
+ * movimiento. Se actualiza por incrementos en la misma transacción que cada
+ * {@link MovimientoContable}, así que consultarlo no recorre el historial de pagos.
+ */
+@Entity
+@Immutable
+@Table(name = "saldo_contable", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_saldo_ambito", columnNames = {"ambito", "id_ambito", "moneda"})
+})
+@Getter
+@NoArgsConstructor
+@ToString(callSuper = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
+public class SaldoContable extends ImportesContables {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_saldo")
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ambito", nullable = false, length = 20)
+    @NotNull
+    private AmbitoSaldo ambito;
+
+    @NotNull
+    @Column(name = "id_ambito", nullable = false)
+    private Long idAmbito;
+
+    @Column(name = "moneda", nullable = false, length = 3, columnDefinition = "CHAR(3)")
+    private String moneda;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.alberti.joinly.entities.pago;
+
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Movimientos de un mes de un anfitrión o de una suscripción, agregados por cuenta
+ * (variación del saldo en el mes). Un extracto de N meses lee N filas.
+ * - periodo: primer día del mes del movimiento
+ */
+@Entity
+@Immutable
+@Table(name = "saldo_contable_mensual", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_saldo_mensual_ambito",
+                columnNames = {"ambito", "id_ambito", "periodo", "moneda"})
+})
+@Getter
+@NoArgsConstructor
+@ToString(callSuper = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
+public class SaldoContableMensual extends ImportesContables {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_saldo_mensual")
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ambito", nullable = false, length = 20)
+    @NotNull
+    private AmbitoSaldo ambito;
+
+    @NotNull
+    @Column(name = "id_ambito", nullable = false)
+    private Long idAmbito;
+
+    @NotNull
+    @Column(name = "periodo", nullable = false)
+    private LocalDate periodo;
+
+    @Column(name = "moneda", nullable = false, length = 3, columnDefinition = "CHAR(3)")
+    private String moneda;
+}
@@ -33,6 +33,7 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class LogAuditoria {
 
+    // IDENTITY: AuditoriaBuffer inserta por JDBC en lotes y deja el id al AUTO_INCREMENT
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id_log")
@@ -0,0 +1,64 @@
+package com.alberti.joinly.entities.sistema;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una petición con cabecera {@code Idempotency-Key}, para devolverla
+ * tal cual cuando el cliente reintenta la misma petición.
+ * <p>
+ * Mientras la petición original se está procesando, {@code estado_http} es nulo y
+ * {@code expira_en} marca hasta cuándo se considera viva la reserva; al completarse pasa a
+ * ser el final de su TTL. Se lee y escribe por JDBC desde
+ * {@link com.alberti.joinly.security.AlmacenIdempotencia}.
+ */
+@Entity
+@Table(name = "respuesta_idempotente", indexes = {
+        @Index(name = "idx_idempotente_expira", columnList = "expira_en")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = {"cuerpo"})
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RespuestaIdempotente {
+
+    /** Id del usuario y clave enviada por el cliente: {@code <idUsuario>:<clave>}. */
+    @Id
+    @Size(max = 300)
+    @Column(name = "clave", length = 300)
+    @EqualsAndHashCode.Include
+    private String clave;
+
+    /** SHA-256 en hexadecimal del método, la ruta y el cuerpo de la petición original. */
+    @NotNull
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+
+    @Column(name = "estado_http")
+    private Integer estadoHttp;
+
+    @Column(name = "tipo_contenido")
+    private String tipoContenido;
+
+    /** Cabeceras propias de la respuesta ({@code Location}...), como objeto JSON nombre → valores. */
+    @Column(name = "cabeceras", columnDefinition = "TEXT")
+    private String cabeceras;
+
+    @Column(name = "cuerpo", columnDefinition = "MEDIUMBLOB")
+    private byte[] cuerpo;
+
+    @NotNull
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,43 @@
+package com.alberti.joinly.entities.sistema;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+/**
+ * Contadores con nombre que se reservan por bloques con un {@code UPDATE} atómico.
+ * Valores actuales:
+ * - 'codigo_invitacion': números ya reservados para códigos de invitación
+ * - 'plaza', 'notificacion', 'pago', 'mensaje_ticket': ids de esas tablas, reservados de
+ *   {@link #BLOQUE_IDS} en {@link #BLOQUE_IDS} por el {@code @TableGenerator} de cada entidad
+ *   (con IDENTITY Hibernate no puede agrupar los INSERT en lotes JDBC)
+ */
+@Entity
+@Table(name = Secuencia.TABLA)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Secuencia {
+
+    public static final String TABLA = "secuencia";
+    public static final String COLUMNA_NOMBRE = "nombre";
+    public static final String COLUMNA_VALOR = "valor";
+
+    /** Ids que reserva cada nodo por consulta; igual que {@code hibernate.jdbc.batch_size}. */
+    public static final int BLOQUE_IDS = 50;
+
+    @Id
+    @Size(max = 50)
+    @Column(name = "nombre", length = 50)
+    @EqualsAndHashCode.Include
+    private String nombre;
+
+    @NotNull
+    @Column(name = "valor", nullable = false)
+    private Long valor;
+}
@@ -1,5 +1,6 @@
 package com.alberti.joinly.entities.soporte;
 
+import com.alberti.joinly.entities.sistema.Secuencia;
 import com.alberti.joinly.entities.usuario.Usuario;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -26,7 +27,9 @@ import java.time.LocalDateTime;
 public class MensajeTicket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "mensaje_ticket_id")
+    @TableGenerator(name = "mensaje_ticket_id", table = Secuencia.TABLA, pkColumnName = Secuencia.COLUMNA_NOMBRE,
+            valueColumnName = Secuencia.COLUMNA_VALOR, pkColumnValue = "mensaje_ticket", allocationSize = Secuencia.BLOQUE_IDS)
     @Column(name = "id_mensaje")
     @EqualsAndHashCode.Include
     private Long id;
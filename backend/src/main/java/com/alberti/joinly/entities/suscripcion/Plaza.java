@@ -2,6 +2,7 @@ package com.alberti.joinly.entities.suscripcion;
 
 import com.alberti.joinly.entities.enums.EstadoPlaza;
 import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.sistema.Secuencia;
 import com.alberti.joinly.entities.usuario.Usuario;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -40,7 +41,9 @@ import java.util.List;
 public class Plaza {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "plaza_id")
+    @TableGenerator(name = "plaza_id", table = Secuencia.TABLA, pkColumnName = Secuencia.COLUMNA_NOMBRE,
+            valueColumnName = Secuencia.COLUMNA_VALOR, pkColumnValue = "plaza", allocationSize = Secuencia.BLOQUE_IDS)
     @Column(name = "id_plaza")
     @EqualsAndHashCode.Include
     private Long id;
@@ -74,6 +74,11 @@ public class Servicio extends BaseEntity {
     @Builder.Default
     private Boolean activo = true;
 
+    /** Se incrementa en cada escritura; forma parte de la versión del catálogo (VersionCatalogo). */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // ==================== RELACIONES ====================
 
     @OneToMany(mappedBy = "servicio", fetch = FetchType.LAZY)
@@ -15,11 +15,15 @@ import java.time.LocalDateTime;
  * - Los tokens de recuperación expiran en 1 hora
  * - Los refresh tokens expiran en 30 días
  * - Al usar un token, marcar usado = true (no borrar, para auditoría)
+ * - Los refresh tokens se guardan como hash SHA-256 y rotan en cada renovación;
+ *   todos los de una misma sesión comparten {@code familia}
  */
 @Entity
 @Table(name = "token", indexes = {
         @Index(name = "idx_token_usuario_tipo", columnList = "id_usuario, tipo, usado"),
-        @Index(name = "idx_token_expiracion", columnList = "fecha_expiracion")
+        @Index(name = "idx_token_expiracion", columnList = "fecha_expiracion"),
+        @Index(name = "idx_token_familia", columnList = "familia"),
+        @Index(name = "idx_token_revocacion", columnList = "fecha_revocacion")
 })
 @Getter
 @Setter
@@ -62,6 +66,17 @@ public class Token {
     @Builder.Default
     private Boolean usado = false;
 
+    /**
+     * Identificador de la sesión a la que pertenece el refresh token.
+     * Se propaga a los access tokens como claim {@code sid}.
+     */
+    @Size(max = 36)
+    @Column(name = "familia", length = 36)
+    private String familia;
+
+    @Column(name = "fecha_revocacion")
+    private LocalDateTime fechaRevocacion;
+
     @Size(max = 45)
     @Column(name = "ip_creacion", length = 45)
     private String ipCreacion;
@@ -1,5 +1,6 @@
 package com.alberti.joinly.entities.usuario;
 
+import com.alberti.joinly.busqueda.FiltroEmailsListener;
 import com.alberti.joinly.entities.base.BaseEntity;
 import com.alberti.joinly.entities.enums.EstadoUsuario;
 import com.alberti.joinly.entities.enums.RolUsuario;
@@ -34,9 +35,11 @@ import java.util.List;
 @Entity
 @Table(name = "usuario", indexes = {
         @Index(name = "idx_usuario_estado_registro", columnList = "estado, fecha_registro"),
-        @Index(name = "idx_usuario_es_agente", columnList = "es_agente_soporte")
+        @Index(name = "idx_usuario_es_agente", columnList = "es_agente_soporte"),
+        @Index(name = "idx_usuario_updated_at", columnList = "updated_at")
 })
 @SQLRestriction("estado <> 'ELIMINADO'")
+@EntityListeners(FiltroEmailsListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
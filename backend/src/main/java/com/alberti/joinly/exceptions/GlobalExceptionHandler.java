@@ -4,6 +4,7 @@ import com.alberti.joinly.dto.common.ApiErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -26,6 +27,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  *   <tr><td>LimiteAlcanzadoException</td><td>422</td><td>Límite del sistema alcanzado</td></tr>
  *   <tr><td>NoPlazasDisponiblesException</td><td>422</td><td>No hay plazas disponibles</td></tr>
  *   <tr><td>ValidationException</td><td>400</td><td>Datos de entrada inválidos</td></tr>
+ *   <tr><td>ServicioSaturadoException</td><td>503</td><td>Recurso interno saturado</td></tr>
  * </table>
  *
  * @author Joinly Team
@@ -181,10 +183,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ApiErrorResponse> handleServicioSaturado(
+            ServicioSaturadoException ex,
+            HttpServletRequest request) {
+
+        log.warn("Servicio saturado: {}", ex.getMessage());
+        var response = new ApiErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleGenericException(
             Exception ex, 
             HttpServletRequest request) {
+
+        // La saturación detectada al pedir una conexión puede llegar envuelta por JPA o Hibernate
+        for (var causa = ex.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ServicioSaturadoException saturado) {
+                return handleServicioSaturado(saturado, request);
+            }
+        }
         
         log.error("Error interno no controlado: ", ex);
         var response = new ApiErrorResponse(
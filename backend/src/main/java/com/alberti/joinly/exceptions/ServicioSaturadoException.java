@@ -0,0 +1,20 @@
+package com.alberti.joinly.exceptions;
+
+/**
+ * Excepción lanzada cuando un recurso interno limitado (p. ej. el ejecutor de hashes de
+ * contraseñas) está al máximo y la petición se rechaza en lugar de encolarse sin límite.
+ * Se traduce en un 503 con {@code Retry-After}.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
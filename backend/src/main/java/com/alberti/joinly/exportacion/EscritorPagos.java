@@ -0,0 +1,147 @@
+package com.alberti.joinly.exportacion;
+
+import com.alberti.joinly.dto.pago.PagoExportacion;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Escribe pagos en CSV o JSON a medida que se leen: solo hay en memoria la fila actual y el
+ * búfer de salida, así que el consumo no depende del número de filas.
+ * <p>
+ * El CSV sigue RFC 4180 (separador coma, comillas dobles cuando hace falta) y antepone un
+ * apóstrofo a los textos que empiezan por {@code = + - @} para que una hoja de cálculo no
+ * los interprete como fórmulas. El JSON es un array de objetos.
+ */
+public final class EscritorPagos {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFER = 64 * 1024;
+
+    private static final String[] COLUMNAS = {
+            "id", "fechaPago", "idUsuario", "idSuscripcion", "servicio", "monto", "moneda",
+            "montoReembolsado", "estado", "cicloInicio", "cicloFin", "fechaLiberacion", "referenciaExterna"
+    };
+
+    private EscritorPagos() {
+    }
+
+    /**
+     * Escribe todos los pagos en {@code salida}, sin cerrarla.
+     *
+     * @return Filas escritas
+     */
+    public static long escribir(FormatoExportacion formato, Stream<PagoExportacion> pagos, OutputStream salida)
+            throws IOException {
+        var escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), BUFER);
+        var filas = switch (formato) {
+            case CSV -> escribirCsv(pagos.iterator(), escritor);
+            case JSON -> escribirJson(pagos.iterator(), escritor);
+        };
+        escritor.flush();
+        return filas;
+    }
+
+    private static long escribirCsv(Iterator<PagoExportacion> pagos, Writer escritor) throws IOException {
+        escritor.write(String.join(",", COLUMNAS));
+        escritor.write("\r\n");
+        var filas = 0L;
+        while (pagos.hasNext()) {
+            var p = pagos.next();
+            escritor.write(String.valueOf(p.id()));
+            campo(escritor, p.fechaPago());
+            campo(escritor, p.idUsuario());
+            campo(escritor, p.idSuscripcion());
+            campo(escritor, p.nombreServicio());
+            campo(escritor, importe(p.monto()));
+            campo(escritor, p.moneda());
+            campo(escritor, importe(p.montoReembolsado()));
+            campo(escritor, p.estado());
+            campo(escritor, p.cicloInicio());
+            campo(escritor, p.cicloFin());
+            campo(escritor, p.fechaLiberacion());
+            campo(escritor, p.referenciaExterna());
+            escritor.write("\r\n");
+            filas++;
+        }
+        return filas;
+    }
+
+    private static void campo(Writer escritor, Object valor) throws IOException {
+        escritor.write(',');
+        if (valor == null) {
+            return;
+        }
+        var texto = valor instanceof BigDecimal importe ? importe.toPlainString() : valor.toString();
+        if (valor instanceof String && !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            texto = "'" + texto;
+        }
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            escritor.write('"');
+            escritor.write(texto.replace("\"", "\"\""));
+            escritor.write('"');
+        } else {
+            escritor.write(texto);
+        }
+    }
+
+    private static long escribirJson(Iterator<PagoExportacion> pagos, Writer escritor) throws IOException {
+        var filas = 0L;
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(escritor)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            while (pagos.hasNext()) {
+                var p = pagos.next();
+                json.writeStartObject();
+                json.writeNumberField(COLUMNAS[0], p.id());
+                texto(json, COLUMNAS[1], p.fechaPago());
+                numero(json, COLUMNAS[2], p.idUsuario());
+                numero(json, COLUMNAS[3], p.idSuscripcion());
+                texto(json, COLUMNAS[4], p.nombreServicio());
+                json.writeFieldName(COLUMNAS[5]);
+                json.writeNumber(importe(p.monto()));
+                texto(json, COLUMNAS[6], p.moneda());
+                json.writeFieldName(COLUMNAS[7]);
+                json.writeNumber(importe(p.montoReembolsado()));
+                texto(json, COLUMNAS[8], p.estado());
+                texto(json, COLUMNAS[9], p.cicloInicio());
+                texto(json, COLUMNAS[10], p.cicloFin());
+                texto(json, COLUMNAS[11], p.fechaLiberacion());
+                texto(json, COLUMNAS[12], p.referenciaExterna());
+                json.writeEndObject();
+                filas++;
+            }
+            json.writeEndArray();
+        }
+        return filas;
+    }
+
+    private static void texto(JsonGenerator json, String nombre, Object valor) throws IOException {
+        if (valor == null) {
+            json.writeNullField(nombre);
+        } else {
+            json.writeStringField(nombre, valor.toString());
+        }
+    }
+
+    private static void numero(JsonGenerator json, String nombre, Long valor) throws IOException {
+        if (valor == null) {
+            json.writeNullField(nombre);
+        } else {
+            json.writeNumberField(nombre, valor);
+        }
+    }
+
+    private static BigDecimal importe(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,18 @@
+package com.alberti.joinly.exportacion;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formatos de exportación de pagos.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FormatoExportacion {
+
+    CSV("text/csv;charset=UTF-8", "csv"),
+    JSON("application/json", "json");
+
+    private final String tipoContenido;
+    private final String extension;
+}
@@ -0,0 +1,57 @@
+package com.alberti.joinly.exportacion;
+
+import com.alberti.joinly.exceptions.LimiteAlcanzadoException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exportaciones en curso por usuario en este nodo.
+ * <p>
+ * Una exportación ocupa una conexión del compartimento {@code EXPORTACION} mientras dura la
+ * descarga, que puede ser de minutos. Sin este límite, un usuario que lanza varias a la vez
+ * (o un cliente que reintenta sin cancelar la anterior) ocuparía él solo todo el compartimento.
+ * Se reserva en el hilo de la petición, antes de empezar la respuesta, para poder rechazarla
+ * con un error normal; quien reserva debe liberar también si la respuesta asíncrona no llega a
+ * escribirse.
+ */
+@Component
+public class LimiteExportaciones {
+
+    private final int maxPorUsuario;
+    private final ConcurrentHashMap<Long, Integer> enCurso = new ConcurrentHashMap<>();
+
+    public LimiteExportaciones(@Value("${joinly.exportacion.max-por-usuario:1}") int maxPorUsuario) {
+        this.maxPorUsuario = maxPorUsuario;
+    }
+
+    /**
+     * Reserva una exportación del usuario; se devuelve con {@link #liberar} al terminar.
+     *
+     * @throws LimiteAlcanzadoException si ya tiene {@code joinly.exportacion.max-por-usuario} en curso
+     */
+    public void reservar(Long idUsuario) {
+        var reservada = new boolean[1];
+        enCurso.compute(idUsuario, (id, actuales) -> {
+            var n = actuales == null ? 0 : actuales;
+            if (n >= maxPorUsuario) {
+                return actuales;
+            }
+            reservada[0] = true;
+            return n + 1;
+        });
+        if (!reservada[0]) {
+            throw new LimiteAlcanzadoException("exportaciones simultáneas", maxPorUsuario);
+        }
+    }
+
+    public void liberar(Long idUsuario) {
+        enCurso.computeIfPresent(idUsuario, (id, actuales) -> actuales > 1 ? actuales - 1 : null);
+    }
+
+    /** Exportaciones en curso del usuario. */
+    public int enCurso(Long idUsuario) {
+        return enCurso.getOrDefault(idUsuario, 0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.alberti.joinly.invitaciones;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché acotada de código de invitación a id de unidad familiar, en orden de uso (LRU).
+ * <p>
+ * Solo guarda el id: quien la consulta carga la unidad por clave primaria y comprueba que
+ * el código sigue coincidiendo, así que una entrada obsoleta nunca devuelve otra unidad.
+ * Los códigos que no existen no se guardan, para que no se pueda llenar con intentos al azar.
+ */
+@Component
+public class CacheCodigosInvitacion {
+
+    private final int maxEntradas;
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    /** Protege {@link #entradas}: en orden de acceso, incluso {@code get} la modifica. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Long> entradas;
+
+    public CacheCodigosInvitacion(
+            @Value("${joinly.invitaciones.cache.max-entradas:10000}") int maxEntradas,
+            MeterRegistry meterRegistry) {
+        this.maxEntradas = maxEntradas;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > CacheCodigosInvitacion.this.maxEntradas;
+            }
+        };
+        Gauge.builder("joinly.invitaciones.cache.tamano", this, CacheCodigosInvitacion::tamano)
+                .description("Códigos de invitación en la caché")
+                .register(meterRegistry);
+        this.aciertos = meterRegistry.counter("joinly.invitaciones.cache.consultas", "resultado", "acierto");
+        this.fallos = meterRegistry.counter("joinly.invitaciones.cache.consultas", "resultado", "fallo");
+    }
+
+    /** Id de la unidad con ese código (ya normalizado), o {@code null} si no está en la caché. */
+    public Long buscar(String codigo) {
+        Long id;
+        lock.lock();
+        try {
+            id = entradas.get(codigo);
+        } finally {
+            lock.unlock();
+        }
+        (id != null ? aciertos : fallos).increment();
+        return id;
+    }
+
+    public void guardar(String codigo, Long idUnidad) {
+        if (maxEntradas <= 0) return;
+        lock.lock();
+        try {
+            entradas.put(codigo, idUnidad);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidar(String codigo) {
+        lock.lock();
+        try {
+            entradas.remove(codigo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
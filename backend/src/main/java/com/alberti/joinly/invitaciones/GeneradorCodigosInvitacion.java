@@ -0,0 +1,114 @@
+package com.alberti.joinly.invitaciones;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Genera los códigos de invitación de las unidades familiares sin consultar si ya existen.
+ * <p>
+ * Cada código es la imagen por {@link PermutacionCodigos} del siguiente valor de la secuencia
+ * {@value #SECUENCIA} de la tabla {@code secuencia}, así que dos unidades nunca reciben el mismo
+ * código. Los valores se reservan por bloques de {@code joinly.invitaciones.tamano-bloque} con
+ * un {@code UPDATE} atómico, de modo que varios nodos no se solapan y la mayoría de las altas no
+ * tocan la tabla; los valores de un bloque sin agotar al reiniciar simplemente no se usan.
+ * <p>
+ * La clave de la permutación es {@code joinly.invitaciones.clave} (Base64) o, si no se
+ * define, una derivada de {@code jwt.secret-key}. Cambiarla no invalida los códigos existentes,
+ * pero puede generar uno ya asignado: la restricción {@code UNIQUE} de
+ * {@code unidad_familiar.codigo_invitacion} lo rechaza igual que con los códigos aleatorios anteriores.
+ */
+@Component
+@Slf4j
+public class GeneradorCodigosInvitacion {
+
+    static final String SECUENCIA = "codigo_invitacion";
+
+    private static final String SQL_RESERVAR = "UPDATE secuencia SET valor = valor + ? WHERE nombre = ?";
+    private static final String SQL_CREAR = "INSERT INTO secuencia (nombre, valor) VALUES (?, 0)";
+    private static final String SQL_VALOR = "SELECT valor FROM secuencia WHERE nombre = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PermutacionCodigos permutacion;
+    private final int tamanoBloque;
+
+    /** Protege {@link #siguiente} y {@link #finBloque}. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private long siguiente;
+    private long finBloque;
+
+    public GeneradorCodigosInvitacion(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${joinly.invitaciones.clave:}") String clave,
+            @Value("${jwt.secret-key}") String claveJwt,
+            @Value("${joinly.invitaciones.tamano-bloque:50}") int tamanoBloque) {
+        this.jdbcTemplate = jdbcTemplate;
+        // La reserva se confirma aunque el alta que la pide se deshaga
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.permutacion = new PermutacionCodigos(clave.isBlank()
+                ? derivarClave(claveJwt)
+                : Base64.getDecoder().decode(clave));
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+    }
+
+    /** Siguiente código de invitación, distinto de todos los generados antes. */
+    public String generar() {
+        long valor;
+        lock.lock();
+        try {
+            if (siguiente >= finBloque) {
+                reservarBloque();
+            }
+            valor = siguiente++;
+        } finally {
+            lock.unlock();
+        }
+        return permutacion.codificar(valor);
+    }
+
+    private void reservarBloque() {
+        var fin = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(SQL_RESERVAR, tamanoBloque, SECUENCIA) == 0) {
+                try {
+                    jdbcTemplate.update(SQL_CREAR, SECUENCIA);
+                } catch (DuplicateKeyException e) {
+                    // Otro nodo la ha creado a la vez
+                }
+                jdbcTemplate.update(SQL_RESERVAR, tamanoBloque, SECUENCIA);
+            }
+            return jdbcTemplate.queryForObject(SQL_VALOR, Long.class, SECUENCIA);
+        });
+        if (fin == null || fin > PermutacionCodigos.TAMANO) {
+            throw new IllegalStateException("Secuencia de códigos de invitación agotada");
+        }
+        siguiente = fin - tamanoBloque;
+        finBloque = fin;
+        log.debug("Reservado bloque de códigos de invitación [{}, {})", siguiente, finBloque);
+    }
+
+    /** HMAC del secreto JWT con una etiqueta propia, para no reutilizar la misma clave en dos usos. */
+    private static byte[] derivarClave(String claveJwt) {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(claveJwt.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal("codigos-invitacion".getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+}
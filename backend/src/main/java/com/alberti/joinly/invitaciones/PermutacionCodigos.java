@@ -0,0 +1,123 @@
+package com.alberti.joinly.invitaciones;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Permutación con clave de los números {@code [0, 36^12)} sobre los códigos de invitación de
+ * {@value #LONGITUD} caracteres alfanuméricos (cifrado que preserva el formato).
+ * <p>
+ * Es una red de Feistel equilibrada de {@value #RONDAS} rondas: el número se divide en dos
+ * mitades en base {@code 36^6} y en cada ronda se suma a una mitad, módulo {@code 36^6}, un
+ * HMAC-SHA256 de la otra. Al ser una biyección, números distintos dan siempre códigos
+ * distintos, y sin la clave el código de un número no permite deducir el de los siguientes.
+ */
+public class PermutacionCodigos {
+
+    static final String ALFABETO = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    public static final int LONGITUD = 12;
+    static final int RONDAS = 8;
+
+    private static final long MITAD = potencia(ALFABETO.length(), LONGITUD / 2);
+    /** Números distintos que admite la permutación: {@code 36^12}, que cabe en un {@code long}. */
+    public static final long TAMANO = MITAD * MITAD;
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final SecretKeySpec clave;
+
+    public PermutacionCodigos(byte[] clave) {
+        if (clave == null || clave.length < 16) {
+            throw new IllegalArgumentException("La clave de los códigos de invitación debe tener al menos 16 bytes");
+        }
+        this.clave = new SecretKeySpec(Arrays.copyOf(clave, clave.length), ALGORITMO);
+    }
+
+    /** Código de invitación del número {@code n}, que debe estar en {@code [0, TAMANO)}. */
+    public String codificar(long n) {
+        if (n < 0 || n >= TAMANO) {
+            throw new IllegalArgumentException("Número fuera del rango de códigos: " + n);
+        }
+        var mac = crearMac();
+        long izquierda = n / MITAD;
+        long derecha = n % MITAD;
+        for (int ronda = 0; ronda < RONDAS; ronda++) {
+            var siguiente = Math.floorMod(izquierda + funcionRonda(mac, ronda, derecha), MITAD);
+            izquierda = derecha;
+            derecha = siguiente;
+        }
+        return aTexto(izquierda * MITAD + derecha);
+    }
+
+    /** Número del que procede un código; inversa de {@link #codificar}. */
+    long invertir(String codigo) {
+        var mac = crearMac();
+        var valor = aNumero(codigo);
+        long izquierda = valor / MITAD;
+        long derecha = valor % MITAD;
+        for (int ronda = RONDAS - 1; ronda >= 0; ronda--) {
+            var anterior = Math.floorMod(derecha - funcionRonda(mac, ronda, izquierda), MITAD);
+            derecha = izquierda;
+            izquierda = anterior;
+        }
+        return izquierda * MITAD + derecha;
+    }
+
+    private long funcionRonda(Mac mac, int ronda, long mitad) {
+        mac.update((byte) ronda);
+        for (int i = 56; i >= 0; i -= 8) {
+            mac.update((byte) (mitad >>> i));
+        }
+        var hash = mac.doFinal();
+        long valor = 0;
+        for (int i = 0; i < 8; i++) {
+            valor = (valor << 8) | (hash[i] & 0xFF);
+        }
+        return Long.remainderUnsigned(valor, MITAD);
+    }
+
+    /** {@link Mac} no es seguro entre hilos; crear uno por código es despreciable frente al INSERT. */
+    private Mac crearMac() {
+        try {
+            var mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+
+    private static String aTexto(long valor) {
+        var caracteres = new char[LONGITUD];
+        for (int i = LONGITUD - 1; i >= 0; i--) {
+            caracteres[i] = ALFABETO.charAt((int) (valor % ALFABETO.length()));
+            valor /= ALFABETO.length();
+        }
+        return new String(caracteres);
+    }
+
+    private static long aNumero(String codigo) {
+        if (codigo.length() != LONGITUD) {
+            throw new IllegalArgumentException("Código de invitación con longitud incorrecta: " + codigo);
+        }
+        long valor = 0;
+        for (int i = 0; i < LONGITUD; i++) {
+            var digito = ALFABETO.indexOf(codigo.charAt(i));
+            if (digito < 0) {
+                throw new IllegalArgumentException("Carácter no válido en el código de invitación: " + codigo);
+            }
+            valor = valor * ALFABETO.length() + digito;
+        }
+        return valor;
+    }
+
+    private static long potencia(long base, int exponente) {
+        long resultado = 1;
+        for (int i = 0; i < exponente; i++) {
+            resultado *= base;
+        }
+        return resultado;
+    }
+}
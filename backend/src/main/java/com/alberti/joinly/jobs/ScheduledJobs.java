@@ -1,7 +1,12 @@
 package com.alberti.joinly.jobs;
 
+import com.alberti.joinly.config.ParticionesProperties;
+import com.alberti.joinly.particiones.ParticionService;
+import com.alberti.joinly.particiones.ParticionService.TablaParticionada;
 import com.alberti.joinly.repositories.SuscripcionRepository;
 import com.alberti.joinly.repositories.TokenRepository;
+import com.alberti.joinly.services.CobroService;
+import com.alberti.joinly.services.ConfiguracionService;
 import com.alberti.joinly.services.NotificacionService;
 import com.alberti.joinly.services.PagoService;
 import lombok.RequiredArgsConstructor;
@@ -20,11 +25,17 @@ import java.time.format.DateTimeFormatter;
  * <p>
  * Ejecuta procesos automáticos de mantenimiento y negocio:
  * <ul>
+ *   <li>Mantenimiento de particiones de auditoría y notificaciones (diario a las 01:00)</li>
  *   <li>Limpieza de tokens expirados (diario a las 02:00)</li>
  *   <li>Liberación de pagos retenidos (diario a las 03:00)</li>
+ *   <li>Conciliación con la pasarela de los cobros en duda (cada minuto)</li>
  *   <li>Notificación de renovaciones próximas (diario a las 09:00)</li>
- *   <li>Limpieza de notificaciones antiguas (semanal)</li>
+ *   <li>Limpieza de notificaciones antiguas sin particionar (semanal)</li>
  * </ul>
+ * <p>
+ * Los parámetros {@code joinly.jobs.*} actúan como valores por defecto; si existen las
+ * claves equivalentes en la tabla {@code configuracion}, se usan esas y pueden cambiarse
+ * sin reiniciar. {@code jobs_pausados} detiene todos los jobs durante una incidencia.
  */
 @Component
 @RequiredArgsConstructor
@@ -43,7 +54,35 @@ public class ScheduledJobs {
     private final TokenRepository tokenRepository;
     private final SuscripcionRepository suscripcionRepository;
     private final PagoService pagoService;
+    private final CobroService cobroService;
     private final NotificacionService notificacionService;
+    private final ParticionService particionService;
+    private final ParticionesProperties particionesProperties;
+    private final ConfiguracionService configuracionService;
+
+    /**
+     * Crea las particiones mensuales futuras y purga (archivando si procede) las que
+     * superan la retención. Sin transacción: cada ALTER TABLE confirma por sí mismo.
+     * Ejecuta diariamente a las 01:00.
+     */
+    @Scheduled(cron = "0 0 1 * * *")
+    public void mantenerParticiones() {
+        if (!jobsActivos()) return;
+
+        log.info("Iniciando mantenimiento de particiones");
+        mantenerParticion(TablaParticionada.LOG_AUDITORIA, particionesProperties.getDiasRetencionAuditoria());
+        mantenerParticion(TablaParticionada.NOTIFICACION, diasRetencionNotificaciones());
+    }
+
+    private void mantenerParticion(TablaParticionada tabla, int diasRetencion) {
+        try {
+            var resultado = particionService.mantener(tabla, diasRetencion);
+            log.info("Particiones de {}: {} creadas, {} eliminadas",
+                    tabla.getNombre(), resultado.creadas(), resultado.eliminadas());
+        } catch (Exception e) {
+            log.error("Error en el mantenimiento de particiones de {}: {}", tabla.getNombre(), e.getMessage());
+        }
+    }
 
     /**
      * Elimina tokens expirados de la base de datos.
@@ -52,7 +91,7 @@ public class ScheduledJobs {
     @Scheduled(cron = "0 0 2 * * *")
     @Transactional
     public void limpiarTokensExpirados() {
-        if (!jobsEnabled) return;
+        if (!jobsActivos()) return;
 
         log.info("Iniciando limpieza de tokens expirados");
         var ahora = LocalDateTime.now();
@@ -68,7 +107,7 @@ public class ScheduledJobs {
     @Scheduled(cron = "0 0 3 * * *")
     @Transactional
     public void liberarPagosRetenidos() {
-        if (!jobsEnabled) return;
+        if (!jobsActivos()) return;
 
         log.info("Iniciando liberación automática de pagos");
 
@@ -89,6 +128,20 @@ public class ScheduledJobs {
         log.info("Liberación de pagos completada: {} liberados, {} errores", liberados, errores);
     }
 
+    /**
+     * Resuelve los pagos PENDIENTES cuyo cobro quedó en duda (timeout o error de la pasarela)
+     * preguntando a la pasarela. Sin transacción: cada pago se confirma o rechaza en la suya.
+     */
+    @Scheduled(fixedDelayString = "${joinly.jobs.intervalo-conciliacion-pagos-ms:60000}")
+    public void conciliarPagosPendientes() {
+        if (!jobsActivos()) return;
+
+        var resueltos = cobroService.conciliarPendientes();
+        if (resueltos > 0) {
+            log.info("Conciliación de pagos completada: {} pagos resueltos", resueltos);
+        }
+    }
+
     /**
      * Envía notificaciones a usuarios cuyas suscripciones se renuevan pronto.
      * Ejecuta diariamente a las 09:00.
@@ -96,12 +149,13 @@ public class ScheduledJobs {
     @Scheduled(cron = "0 0 9 * * *")
     @Transactional
     public void notificarRenovacionesProximas() {
-        if (!jobsEnabled) return;
+        if (!jobsActivos()) return;
 
         log.info("Iniciando notificación de renovaciones próximas");
 
         var hoy = LocalDate.now();
-        var fechaLimite = hoy.plusDays(diasAvisoRenovacion);
+        var fechaLimite = hoy.plusDays(configuracionService.getInt(
+                ConfiguracionService.JOBS_DIAS_AVISO_RENOVACION, diasAvisoRenovacion));
         var suscripciones = suscripcionRepository.findSuscripcionesProximasARenovar(
                 hoy,
                 fechaLimite
@@ -141,16 +195,18 @@ public class ScheduledJobs {
     }
 
     /**
-     * Limpia notificaciones antiguas ya leídas.
+     * Limpia notificaciones antiguas ya leídas cuando la tabla no está particionada;
+     * en caso contrario la purga ya la hace {@link #mantenerParticiones()}.
      * Ejecuta semanalmente los domingos a las 04:00.
      */
     @Scheduled(cron = "0 0 4 * * SUN")
     @Transactional
     public void limpiarNotificacionesAntiguas() {
-        if (!jobsEnabled) return;
+        if (!jobsActivos()) return;
+        if (particionService.estaParticionada(TablaParticionada.NOTIFICACION)) return;
 
         log.info("Iniciando limpieza de notificaciones antiguas");
-        var eliminadas = notificacionService.limpiarNotificacionesAntiguas(diasLimpiarNotificaciones);
+        var eliminadas = notificacionService.limpiarNotificacionesAntiguas(diasRetencionNotificaciones());
         log.info("Limpieza de notificaciones completada: {} eliminadas", eliminadas);
     }
 
@@ -160,10 +216,19 @@ public class ScheduledJobs {
      */
     @Scheduled(fixedRate = 3600000)
     public void healthCheck() {
-        if (!jobsEnabled) {
-            log.debug("Jobs deshabilitados en configuración");
+        if (!jobsActivos()) {
+            log.debug("Jobs deshabilitados o pausados en configuración");
             return;
         }
         log.debug("Sistema de jobs activo - Health check OK");
     }
+
+    private boolean jobsActivos() {
+        return jobsEnabled && !configuracionService.getBoolean(ConfiguracionService.JOBS_PAUSADOS, false);
+    }
+
+    private int diasRetencionNotificaciones() {
+        return configuracionService.getInt(
+                ConfiguracionService.JOBS_DIAS_LIMPIAR_NOTIFICACIONES, diasLimpiarNotificaciones);
+    }
 }
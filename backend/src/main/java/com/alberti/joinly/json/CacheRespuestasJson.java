@@ -0,0 +1,74 @@
+package com.alberti.joinly.json;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas JSON que no dependen del usuario (catálogo de servicios), serializadas una sola
+ * vez por versión de los datos.
+ * <p>
+ * Por cada clave se guardan los bytes de la última versión servida y su ETag. Mientras la
+ * versión no cambie, se devuelven esos bytes sin consultar las entidades ni volver a
+ * serializar, y el ETag permite responder 304 a quien ya los tiene. La versión la calcula el
+ * llamante (por ejemplo, número de filas y última modificación de la tabla) y solo se compara
+ * por igualdad; debe leerse antes que el contenido, de modo que un cambio entre ambas
+ * lecturas solo provoque una serialización de más en la siguiente petición.
+ * <p>
+ * Se serializa con el {@link JsonMapper} de Spring MVC, así que los bytes son los mismos que
+ * produciría devolver el objeto desde el controlador.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheRespuestasJson {
+
+    private final JsonMapper jsonMapper;
+    private final Map<String, RespuestaJson> respuestas = new ConcurrentHashMap<>();
+
+    /**
+     * Cuerpo ya serializado de una respuesta, con la versión de la que procede.
+     */
+    public record RespuestaJson(Object version, byte[] cuerpo, String etag) {
+
+        /** 200 con el cuerpo y su ETag; Spring MVC la convierte en 304 si coincide con If-None-Match. */
+        public ResponseEntity<byte[]> comoRespuesta() {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .body(cuerpo);
+        }
+    }
+
+    /**
+     * Devuelve la respuesta de {@code clave} para {@code version}, serializando
+     * {@code contenido} solo si no está ya en caché para esa versión.
+     */
+    public RespuestaJson obtener(String clave, Object version, Supplier<?> contenido) {
+        var actual = respuestas.get(clave);
+        if (actual != null && actual.version().equals(version)) {
+            return actual;
+        }
+        var cuerpo = jsonMapper.writeValueAsBytes(contenido.get());
+        var nueva = new RespuestaJson(version, cuerpo, etag(cuerpo));
+        respuestas.put(clave, nueva);
+        return nueva;
+    }
+
+    private static String etag(byte[] cuerpo) {
+        try {
+            var resumen = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "\"" + HexFormat.of().formatHex(resumen, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
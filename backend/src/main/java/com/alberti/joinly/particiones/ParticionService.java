@@ -0,0 +1,285 @@
+package com.alberti.joinly.particiones;
+
+import com.alberti.joinly.config.ParticionesProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantenimiento de las tablas particionadas mensualmente por rango (ver migración V7).
+ * <p>
+ * Para cada tabla gestionada:
+ * <ul>
+ *   <li>Divide la partición {@code pmax} para que existan siempre
+ *       {@code mesesAdelantados} particiones mensuales por delante del mes actual.</li>
+ *   <li>Elimina con {@code DROP PARTITION} las particiones cuyo límite superior ya
+ *       queda fuera de la ventana de retención, exportándolas antes a
+ *       {@code <directorioArchivo>/<tabla>/<tabla>-<particion>.jsonl.gz} si el archivado está activo.</li>
+ * </ul>
+ * Solo actúa sobre MySQL y sobre tablas que realmente estén particionadas; en H2 o en
+ * una base sin la migración aplicada, {@link #estaParticionada(TablaParticionada)} devuelve
+ * {@code false} y los llamantes deben recurrir al borrado por filas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParticionService {
+
+    /** Valor de {@code TO_DAYS('1970-01-01')} en MySQL. */
+    private static final long TO_DAYS_EPOCH = 719_528L;
+
+    private static final String PARTICION_MAXIMA = "pmax";
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("p[a-z0-9_]+");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParticionesProperties properties;
+
+    private volatile Boolean mySql;
+
+    /**
+     * Tablas particionadas por el esquema. Los nombres son constantes y nunca
+     * proceden de entrada de usuario, por lo que pueden concatenarse en el DDL.
+     */
+    public enum TablaParticionada {
+        LOG_AUDITORIA("log_auditoria"),
+        NOTIFICACION("notificacion");
+
+        private final String nombre;
+
+        TablaParticionada(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    /**
+     * Partición existente. {@code limiteSuperior} es exclusivo y vale {@code null} para {@code pmax}.
+     */
+    record Particion(String nombre, LocalDate limiteSuperior) {
+    }
+
+    /**
+     * Resultado del mantenimiento de una tabla.
+     */
+    public record ResultadoMantenimiento(int creadas, int eliminadas) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepararParticionesAlArrancar() {
+        if (!properties.isEnabled()) return;
+
+        for (var tabla : TablaParticionada.values()) {
+            try {
+                crearParticionesFuturas(tabla);
+            } catch (RuntimeException e) {
+                log.error("No se pudieron preparar las particiones de {}: {}", tabla.getNombre(), e.getMessage());
+            }
+        }
+    }
+
+    public boolean estaParticionada(TablaParticionada tabla) {
+        return properties.isEnabled() && !listarParticiones(tabla).isEmpty();
+    }
+
+    /**
+     * Crea las particiones futuras y purga las que superan la retención.
+     *
+     * @param diasRetencion días de datos que deben conservarse en la tabla
+     */
+    public ResultadoMantenimiento mantener(TablaParticionada tabla, int diasRetencion) {
+        if (!estaParticionada(tabla)) {
+            return new ResultadoMantenimiento(0, 0);
+        }
+        var creadas = crearParticionesFuturas(tabla);
+        var eliminadas = purgarParticionesAntiguas(tabla, diasRetencion);
+        return new ResultadoMantenimiento(creadas, eliminadas);
+    }
+
+    /**
+     * Divide {@code pmax} en las particiones mensuales que falten entre el último límite y
+     * {@code mesesAdelantados} meses por delante del actual, en una sola sentencia.
+     * <p>
+     * V7 crea {@code p_inicial} con un límite fijo (2026-11-01), porque MySQL solo admite
+     * literales en la definición de particiones y una migración aplicada no puede cambiar.
+     * Si se aplica más tarde, todo lo posterior a ese límite queda en {@code pmax} y aquí se
+     * reparte por meses: con un único {@code REORGANIZE} las filas se copian una sola vez,
+     * en lugar de una vez por cada mes del hueco.
+     */
+    int crearParticionesFuturas(TablaParticionada tabla) {
+        var particiones = listarParticiones(tabla);
+        var limite = particiones.stream()
+                .map(Particion::limiteSuperior)
+                .filter(Objects::nonNull)
+                .reduce((a, b) -> b)
+                .orElse(null);
+        if (limite == null) return 0;
+
+        var objetivo = LocalDate.now().withDayOfMonth(1).plusMonths(properties.getMesesAdelantados() + 1L);
+        var nuevas = new StringBuilder();
+        var creadas = 0;
+
+        while (limite.isBefore(objetivo)) {
+            var siguiente = limite.plusMonths(1);
+            nuevas.append("PARTITION ").append(limite.format(FORMATO_NOMBRE))
+                    .append(" VALUES LESS THAN (TO_DAYS('").append(siguiente).append("')), ");
+            limite = siguiente;
+            creadas++;
+        }
+
+        if (creadas > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + tabla.getNombre()
+                    + " REORGANIZE PARTITION " + PARTICION_MAXIMA + " INTO ("
+                    + nuevas
+                    + "PARTITION " + PARTICION_MAXIMA + " VALUES LESS THAN MAXVALUE)");
+            log.info("Creadas {} particiones en {} (hasta {})", creadas, tabla.getNombre(), limite);
+        }
+        return creadas;
+    }
+
+    int purgarParticionesAntiguas(TablaParticionada tabla, int diasRetencion) {
+        var corte = LocalDate.now().minusDays(diasRetencion);
+        var eliminadas = 0;
+
+        for (var particion : listarParticiones(tabla)) {
+            // Solo particiones completas: todas sus filas son anteriores al corte
+            if (particion.limiteSuperior() == null || particion.limiteSuperior().isAfter(corte)) {
+                continue;
+            }
+            if (properties.isArchivar()) {
+                archivar(tabla, particion);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + tabla.getNombre() + " DROP PARTITION " + particion.nombre());
+            log.info("Eliminada la partición {} de {} (datos anteriores a {})",
+                    particion.nombre(), tabla.getNombre(), particion.limiteSuperior());
+            eliminadas++;
+        }
+        return eliminadas;
+    }
+
+    /**
+     * Exporta una partición a JSON Lines comprimido. El resultado se lee en streaming
+     * y se escribe en un fichero temporal que se renombra al terminar, de modo que
+     * un archivo existente siempre está completo. Si la exportación falla se lanza
+     * la excepción y la partición no se elimina.
+     */
+    private void archivar(TablaParticionada tabla, Particion particion) {
+        var directorio = Paths.get(properties.getDirectorioArchivo(), tabla.getNombre()).toAbsolutePath().normalize();
+        var destino = directorio.resolve(tabla.getNombre() + "-" + particion.nombre() + ".jsonl.gz");
+        var sql = "SELECT * FROM " + tabla.getNombre() + " PARTITION (" + particion.nombre() + ")";
+
+        try {
+            Files.createDirectories(directorio);
+            var temporal = Files.createTempFile(directorio, particion.nombre(), ".tmp");
+            long filas;
+            try (Writer writer = new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporal)), StandardCharsets.UTF_8)) {
+                filas = exportar(sql, writer);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporal);
+                throw e;
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archivadas {} filas de {}.{} en {}", filas, tabla.getNombre(), particion.nombre(), destino);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo archivar la partición " + particion.nombre(), e);
+        }
+    }
+
+    private long exportar(String sql, Writer writer) {
+        var mapper = new ColumnMapRowMapper();
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Con Connector/J, Integer.MIN_VALUE activa la lectura fila a fila
+                ps.setFetchSize(Integer.MIN_VALUE);
+                try (var rs = ps.executeQuery()) {
+                    long filas = 0;
+                    while (rs.next()) {
+                        Map<String, Object> fila = mapper.mapRow(rs, (int) filas);
+                        writer.write(OBJECT_MAPPER.writeValueAsString(fila));
+                        writer.write('\n');
+                        filas++;
+                    }
+                    return filas;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    List<Particion> listarParticiones(TablaParticionada tabla) {
+        if (!esMySql()) return List.of();
+
+        return jdbcTemplate.query("""
+                        SELECT PARTITION_NAME, PARTITION_DESCRIPTION
+                        FROM information_schema.PARTITIONS
+                        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                        ORDER BY PARTITION_ORDINAL_POSITION
+                        """,
+                (rs, i) -> new Particion(
+                        validarNombre(rs.getString("PARTITION_NAME")),
+                        limiteDesdeDescripcion(rs.getString("PARTITION_DESCRIPTION"))),
+                tabla.getNombre());
+    }
+
+    private boolean esMySql() {
+        var actual = mySql;
+        if (actual == null) {
+            var producto = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName());
+            actual = producto != null && producto.toLowerCase().contains("mysql");
+            mySql = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Convierte la descripción de la partición (valor de {@code TO_DAYS}) en fecha.
+     */
+    static LocalDate limiteDesdeDescripcion(String descripcion) {
+        if (descripcion == null || "MAXVALUE".equalsIgnoreCase(descripcion.trim())) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(Long.parseLong(descripcion.trim()) - TO_DAYS_EPOCH);
+    }
+
+    private static String validarNombre(String nombre) {
+        if (nombre == null || !NOMBRE_VALIDO.matcher(nombre).matches()) {
+            throw new IllegalStateException("Nombre de partición inesperado: " + nombre);
+        }
+        return nombre;
+    }
+}
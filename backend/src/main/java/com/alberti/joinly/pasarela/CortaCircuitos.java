@@ -0,0 +1,82 @@
+package com.alberti.joinly.pasarela;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Corte de circuito por fallos consecutivos.
+ * <ul>
+ *   <li>CERRADO: pasan todas las llamadas; {@code umbralFallos} fallos seguidos lo abren.</li>
+ *   <li>ABIERTO: se rechazan sin llamar durante {@code apertura}.</li>
+ *   <li>SEMIABIERTO: pasado ese tiempo se deja pasar una única llamada de prueba; si va bien
+ *       se cierra y si falla vuelve a abrirse.</li>
+ * </ul>
+ */
+final class CortaCircuitos {
+
+    enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final int umbralFallos;
+    private final long aperturaNanos;
+    private final LongSupplier reloj;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHasta;
+    private boolean pruebaEnCurso;
+
+    CortaCircuitos(int umbralFallos, Duration apertura) {
+        this(umbralFallos, apertura, System::nanoTime);
+    }
+
+    CortaCircuitos(int umbralFallos, Duration apertura, LongSupplier reloj) {
+        this.umbralFallos = umbralFallos;
+        this.aperturaNanos = apertura.toNanos();
+        this.reloj = reloj;
+    }
+
+    /**
+     * Indica si la llamada puede hacerse. Cada llamada permitida debe informar después de
+     * su resultado con {@link #exito()} o {@link #fallo()}.
+     */
+    synchronized boolean permitir() {
+        return switch (estado) {
+            case CERRADO -> true;
+            case ABIERTO -> {
+                if (reloj.getAsLong() - abiertoHasta < 0) yield false;
+                estado = Estado.SEMIABIERTO;
+                pruebaEnCurso = true;
+                yield true;
+            }
+            case SEMIABIERTO -> {
+                if (pruebaEnCurso) yield false;
+                pruebaEnCurso = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void exito() {
+        estado = Estado.CERRADO;
+        fallosSeguidos = 0;
+        pruebaEnCurso = false;
+    }
+
+    synchronized void fallo() {
+        pruebaEnCurso = false;
+        if (estado == Estado.SEMIABIERTO || ++fallosSeguidos >= umbralFallos) {
+            estado = Estado.ABIERTO;
+            abiertoHasta = reloj.getAsLong() + aperturaNanos;
+            fallosSeguidos = 0;
+        }
+    }
+
+    synchronized Estado estado() {
+        return estado;
+    }
+
+    /** Nanosegundos hasta que se admita una llamada de prueba (0 si no está abierto). */
+    synchronized long esperaRestante() {
+        return estado == Estado.ABIERTO ? Math.max(0, abiertoHasta - reloj.getAsLong()) : 0;
+    }
+}
@@ -0,0 +1,203 @@
+package com.alberti.joinly.pasarela;
+
+import com.alberti.joinly.config.PasarelaProperties;
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente de la API HTTP de la pasarela ({@code joinly.pasarela.tipo=http}).
+ * <p>
+ * Usa {@link HttpClient#sendAsync}: ningún hilo queda bloqueado en la red mientras la pasarela
+ * responde. Cada llamada tiene un plazo ({@code timeout-ms}), como mucho {@code max-concurrentes}
+ * pueden estar en curso (las demás se rechazan al momento) y un {@link CortaCircuitos} deja de
+ * llamar durante {@code apertura-ms} tras {@code umbral-fallos} fallos seguidos, para no
+ * acumular peticiones esperando a una pasarela caída.
+ * <p>
+ * API esperada:
+ * <ul>
+ *   <li>{@code POST /cobros} y {@code POST /reembolsos} con cabecera {@code Idempotency-Key}:
+ *       2xx o 402 con {@code {"estado": "APROBADO"|"RECHAZADO", "referencia", "motivo"}}</li>
+ *   <li>{@code GET /cobros/{clave}}: el mismo cuerpo, o 404 si no existe</li>
+ * </ul>
+ * Solo rechazan un cobro las respuestas definitivas: un 402 con su motivo y, en los
+ * {@code POST}, un 400 o 422 (la petición no es válida y no se ha cobrado). Cualquier otra
+ * respuesta no dice nada del cobro: un 401/403 es un problema de credenciales de Joinly y un
+ * 429 un límite de la pasarela, así que el futuro falla y el resultado queda en duda, como con
+ * un timeout o un error de red. En {@code GET /cobros/{clave}} esto es crítico: tomar un 401
+ * por un rechazo marcaría FALLIDO un pago cobrado, y el usuario podría pagar otra vez. Los 5xx
+ * y los 429 cuentan además como fallo del circuito.
+ */
+@Slf4j
+public class PasarelaHttp implements PasarelaPago {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int PAGO_REQUERIDO = 402;
+    private static final int NO_ENCONTRADO = 404;
+    private static final int DEMASIADAS_PETICIONES = 429;
+
+    /** 4xx de un {@code POST} que garantizan que no se ha cobrado. */
+    private static final Set<Integer> PETICION_NO_VALIDA = Set.of(400, 422);
+
+    private final HttpClient cliente;
+    private final URI base;
+    private final String apiKey;
+    private final Duration timeout;
+    private final Semaphore concurrentes;
+    private final CortaCircuitos circuito;
+
+    private final Timer duracion;
+    private final Counter rechazadasCircuito;
+    private final Counter rechazadasConcurrencia;
+
+    public PasarelaHttp(PasarelaProperties properties, MeterRegistry meterRegistry) {
+        this.cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+        this.base = URI.create(properties.getUrl().endsWith("/") ? properties.getUrl() : properties.getUrl() + "/");
+        this.apiKey = properties.getApiKey();
+        this.timeout = Duration.ofMillis(properties.getTimeoutMs());
+        this.concurrentes = new Semaphore(properties.getMaxConcurrentes());
+        this.circuito = new CortaCircuitos(properties.getUmbralFallos(), Duration.ofMillis(properties.getAperturaMs()));
+
+        this.duracion = Timer.builder("joinly.pasarela.llamadas")
+                .description("Duración de las llamadas a la pasarela de pagos")
+                .register(meterRegistry);
+        this.rechazadasCircuito = meterRegistry.counter("joinly.pasarela.rechazadas", "motivo", "circuito_abierto");
+        this.rechazadasConcurrencia = meterRegistry.counter("joinly.pasarela.rechazadas", "motivo", "concurrencia");
+        Gauge.builder("joinly.pasarela.circuito.abierto", circuito, c -> c.estado() == CortaCircuitos.Estado.CERRADO ? 0 : 1)
+                .description("1 si el circuito de la pasarela está abierto o en prueba")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Resultado> cobrar(Cobro cobro) {
+        var cuerpo = new LinkedHashMap<String, Object>();
+        cuerpo.put("tokenMetodoPago", cobro.tokenMetodoPago());
+        cuerpo.put("monto", cobro.monto());
+        cuerpo.put("moneda", cobro.moneda());
+        return enviar(post("cobros", cuerpo, cobro.claveIdempotencia()))
+                .thenApply(respuesta -> resultado(respuesta, true));
+    }
+
+    @Override
+    public CompletableFuture<Resultado> reembolsar(String referencia, BigDecimal monto, String claveIdempotencia) {
+        var cuerpo = new LinkedHashMap<String, Object>();
+        cuerpo.put("referencia", referencia);
+        cuerpo.put("monto", monto);
+        return enviar(post("reembolsos", cuerpo, claveIdempotencia))
+                .thenApply(respuesta -> resultado(respuesta, true));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Resultado>> consultar(String claveIdempotencia) {
+        var peticion = peticion("cobros/" + URLEncoder.encode(claveIdempotencia, StandardCharsets.UTF_8))
+                .GET()
+                .build();
+        return enviar(peticion).thenApply(respuesta -> respuesta.statusCode() == NO_ENCONTRADO
+                ? Optional.empty()
+                : Optional.of(resultado(respuesta, false)));
+    }
+
+    private HttpRequest post(String ruta, Map<String, Object> cuerpo, String claveIdempotencia) {
+        try {
+            return peticion(ruta)
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", claveIdempotencia)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(cuerpo)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Authorization", "Bearer " + apiKey);
+    }
+
+    private CompletableFuture<HttpResponse<String>> enviar(HttpRequest peticion) {
+        if (!concurrentes.tryAcquire()) {
+            rechazadasConcurrencia.increment();
+            return CompletableFuture.failedFuture(
+                    new ServicioSaturadoException("Demasiados pagos en curso. Vuelve a intentarlo en unos segundos", 1));
+        }
+        if (!circuito.permitir()) {
+            concurrentes.release();
+            rechazadasCircuito.increment();
+            var segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(circuito.esperaRestante()));
+            return CompletableFuture.failedFuture(
+                    new ServicioSaturadoException("La pasarela de pagos no está disponible", segundos));
+        }
+
+        var inicio = System.nanoTime();
+        return cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((respuesta, error) -> {
+                    concurrentes.release();
+                    duracion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    if (error != null || respuesta.statusCode() >= 500
+                            || respuesta.statusCode() == DEMASIADAS_PETICIONES) {
+                        circuito.fallo();
+                        log.warn("Fallo en la pasarela de pagos ({}): {}", peticion.uri().getPath(),
+                                error != null ? error.toString() : "HTTP " + respuesta.statusCode());
+                    } else {
+                        circuito.exito();
+                    }
+                })
+                .thenApply(respuesta -> {
+                    if (respuesta.statusCode() >= 500) {
+                        throw new IllegalStateException("La pasarela respondió HTTP " + respuesta.statusCode());
+                    }
+                    return respuesta;
+                });
+    }
+
+    /**
+     * @param rechazoPorPeticion Si un 400/422 es un rechazo definitivo (en los {@code POST})
+     * @throws IllegalStateException si la respuesta no dice si se cobró
+     */
+    private static Resultado resultado(HttpResponse<String> respuesta, boolean rechazoPorPeticion) {
+        var estado = respuesta.statusCode();
+        if (rechazoPorPeticion && PETICION_NO_VALIDA.contains(estado)) {
+            return Resultado.rechazado("La pasarela rechazó la petición (HTTP " + estado + ")");
+        }
+        if (estado >= 300 && estado != PAGO_REQUERIDO) {
+            throw new IllegalStateException("La pasarela respondió HTTP " + estado + " sin resultado del cobro");
+        }
+        JsonNode json;
+        try {
+            json = OBJECT_MAPPER.readTree(respuesta.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Respuesta de la pasarela no válida", e);
+        }
+        if (estado != PAGO_REQUERIDO && "APROBADO".equals(json.path("estado").asText())) {
+            return Resultado.aprobado(json.path("referencia").asText(null));
+        }
+        return Resultado.rechazado(json.path("motivo").asText("Rechazado por la pasarela"));
+    }
+}
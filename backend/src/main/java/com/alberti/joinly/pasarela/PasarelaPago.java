@@ -0,0 +1,61 @@
+package com.alberti.joinly.pasarela;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puerto hacia la pasarela de pagos externa. Implementaciones disponibles:
+ * <ul>
+ *   <li>{@link PasarelaSimulada}: aprueba todo al momento (por defecto, desarrollo y tests)</li>
+ *   <li>{@link PasarelaHttp}: cliente HTTP no bloqueante con timeouts, límite de llamadas
+ *       concurrentes y corte de circuito</li>
+ * </ul>
+ * <p>
+ * Las llamadas devuelven un {@link CompletableFuture} y no deben hacerse dentro de una
+ * transacción: la latencia de la pasarela no debe retener conexiones de la base de datos.
+ * <p>
+ * Si la llamada ni siquiera se envía (circuito abierto o demasiadas llamadas en curso), el
+ * futuro falla con {@link com.alberti.joinly.exceptions.ServicioSaturadoException}: no se ha
+ * cobrado nada. Cualquier otro fallo (timeout, error de red o 5xx) deja el resultado en duda;
+ * la clave de idempotencia permite preguntarlo después con {@link #consultar(String)}.
+ */
+public interface PasarelaPago {
+
+    /**
+     * @param claveIdempotencia Identifica el cobro en la pasarela; repetirlo no cobra dos veces
+     * @param tokenMetodoPago   Token del método de pago guardado en la pasarela
+     */
+    record Cobro(String claveIdempotencia, String tokenMetodoPago, BigDecimal monto, String moneda) {
+    }
+
+    /**
+     * @param referencia Referencia de la operación en la pasarela (si se aprobó)
+     * @param motivo     Motivo del rechazo (si no se aprobó)
+     */
+    record Resultado(boolean aprobado, String referencia, String motivo) {
+
+        public static Resultado aprobado(String referencia) {
+            return new Resultado(true, referencia, null);
+        }
+
+        public static Resultado rechazado(String motivo) {
+            return new Resultado(false, null, motivo);
+        }
+    }
+
+    CompletableFuture<Resultado> cobrar(Cobro cobro);
+
+    /**
+     * @param referencia        Referencia del cobro original
+     * @param claveIdempotencia Identifica el reembolso en la pasarela
+     */
+    CompletableFuture<Resultado> reembolsar(String referencia, BigDecimal monto, String claveIdempotencia);
+
+    /**
+     * Resultado de un cobro ya enviado.
+     *
+     * @return Vacío si la pasarela no tiene ningún cobro con esa clave
+     */
+    CompletableFuture<Optional<Resultado>> consultar(String claveIdempotencia);
+}
@@ -0,0 +1,35 @@
+package com.alberti.joinly.pasarela;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pasarela que aprueba todos los cobros y reembolsos al momento, sin llamadas externas.
+ * Es la implementación por defecto ({@code joinly.pasarela.tipo=simulada}).
+ */
+@Slf4j
+public class PasarelaSimulada implements PasarelaPago {
+
+    @Override
+    public CompletableFuture<Resultado> cobrar(Cobro cobro) {
+        return CompletableFuture.completedFuture(Resultado.aprobado(referencia(cobro.claveIdempotencia())));
+    }
+
+    @Override
+    public CompletableFuture<Resultado> reembolsar(String referencia, BigDecimal monto, String claveIdempotencia) {
+        log.debug("Simulando reembolso en pasarela: ref={}, monto={}", referencia, monto);
+        return CompletableFuture.completedFuture(Resultado.aprobado("REF_" + System.currentTimeMillis()));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Resultado>> consultar(String claveIdempotencia) {
+        return CompletableFuture.completedFuture(Optional.of(Resultado.aprobado(referencia(claveIdempotencia))));
+    }
+
+    private static String referencia(String claveIdempotencia) {
+        return "PAY_" + System.currentTimeMillis() + "_" + claveIdempotencia;
+    }
+}
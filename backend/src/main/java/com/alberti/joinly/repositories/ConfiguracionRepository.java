@@ -1,5 +1,6 @@
 package com.alberti.joinly.repositories;
 
+import com.alberti.joinly.dto.configuracion.VersionConfiguracion;
 import com.alberti.joinly.entities.sistema.Configuracion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -20,4 +21,10 @@ public interface ConfiguracionRepository extends JpaRepository<Configuracion, St
 
     @Query("SELECT c FROM Configuracion c WHERE c.modificable = true ORDER BY c.categoria, c.clave")
     List<Configuracion> findConfiguracionesModificables();
+
+    @Query("""
+            SELECT new com.alberti.joinly.dto.configuracion.VersionConfiguracion(COUNT(c), MAX(c.updatedAt))
+            FROM Configuracion c
+            """)
+    VersionConfiguracion obtenerVersion();
 }
@@ -4,7 +4,9 @@ import com.alberti.joinly.entities.enums.EstadoDisputa;
 import com.alberti.joinly.entities.pago.Disputa;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,6 +17,14 @@ import java.util.Optional;
 @Repository
 public interface DisputaRepository extends JpaRepository<Disputa, Long> {
 
+    /**
+     * Bloquea la fila de la disputa: dos agentes que la resuelven a la vez no deben aplicar
+     * la resolución (y el reembolso) dos veces.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Disputa d WHERE d.id = :id")
+    Optional<Disputa> findByIdParaActualizar(@Param("id") Long id);
+
     @Query("""
             SELECT d FROM Disputa d
             JOIN FETCH d.pago p
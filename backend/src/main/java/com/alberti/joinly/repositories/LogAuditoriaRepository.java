@@ -35,6 +35,50 @@ public interface LogAuditoriaRepository extends JpaRepository<LogAuditoria, Long
     @Query("SELECT l FROM LogAuditoria l WHERE l.accion = :accion ORDER BY l.fecha DESC")
     Page<LogAuditoria> findLogsPorAccion(@Param("accion") String accion, Pageable pageable);
 
+    /*
+     * Consultas por rango semiabierto [desde, hasta): en MySQL la tabla está
+     * particionada por mes sobre fecha y solo se leen las particiones del rango.
+     */
+
+    @Query("""
+            SELECT l FROM LogAuditoria l
+            WHERE l.usuario.id = :idUsuario
+            AND l.fecha >= :desde AND l.fecha < :hasta
+            ORDER BY l.fecha DESC
+            """)
+    Page<LogAuditoria> findLogsPorUsuarioEntre(
+            @Param("idUsuario") Long idUsuario,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            Pageable pageable);
+
+    @Query("""
+            SELECT l FROM LogAuditoria l
+            WHERE l.entidad = :entidad AND l.idEntidad = :idEntidad
+            AND l.fecha >= :desde AND l.fecha < :hasta
+            ORDER BY l.fecha DESC
+            """)
+    List<LogAuditoria> findLogsPorEntidadEntre(
+            @Param("entidad") String entidad,
+            @Param("idEntidad") Long idEntidad,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta);
+
+    @Query("""
+            SELECT l FROM LogAuditoria l
+            WHERE l.accion = :accion
+            AND l.fecha >= :desde AND l.fecha < :hasta
+            ORDER BY l.fecha DESC
+            """)
+    Page<LogAuditoria> findLogsPorAccionEntre(
+            @Param("accion") String accion,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            Pageable pageable);
+
+    /**
+     * Borrado por filas. Solo se usa cuando la tabla no está particionada (H2, entornos sin V7).
+     */
     @Modifying
     @Query("DELETE FROM LogAuditoria l WHERE l.fecha < :fecha")
     int eliminarLogsAnterioresA(@Param("fecha") LocalDateTime fecha);
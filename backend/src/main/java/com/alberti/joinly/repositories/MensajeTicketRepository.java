@@ -8,7 +8,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MensajeTicketRepository extends JpaRepository<MensajeTicket, Long> {
@@ -24,6 +26,29 @@ public interface MensajeTicketRepository extends JpaRepository<MensajeTicket, Lo
             @Param("idTicket") Long idTicket,
             @Param("incluirInternos") boolean incluirInternos);
 
+    /**
+     * Mensajes posteriores a uno dado (carga incremental). La cota {@code fechaMensaje >= :desdeFecha}
+     * permite recorrer {@code idx_mensaje_ticket_fecha} solo desde la posición del último mensaje visto;
+     * {@code id > :afterId} descarta los que comparten fecha con él.
+     */
+    @Query("""
+            SELECT m FROM MensajeTicket m
+            JOIN FETCH m.autor
+            WHERE m.ticket.id = :idTicket
+            AND m.fechaMensaje >= :desdeFecha
+            AND m.id > :afterId
+            AND (:incluirInternos = true OR m.esInterno = false)
+            ORDER BY m.fechaMensaje ASC, m.id ASC
+            """)
+    List<MensajeTicket> findMensajesPorTicketPosteriores(
+            @Param("idTicket") Long idTicket,
+            @Param("afterId") Long afterId,
+            @Param("desdeFecha") LocalDateTime desdeFecha,
+            @Param("incluirInternos") boolean incluirInternos);
+
+    @Query("SELECT m.fechaMensaje FROM MensajeTicket m WHERE m.id = :idMensaje AND m.ticket.id = :idTicket")
+    Optional<LocalDateTime> findFechaMensaje(@Param("idTicket") Long idTicket, @Param("idMensaje") Long idMensaje);
+
     @Query("""
             SELECT m FROM MensajeTicket m
             JOIN FETCH m.autor
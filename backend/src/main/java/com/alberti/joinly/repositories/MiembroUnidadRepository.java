@@ -33,4 +33,7 @@ public interface MiembroUnidadRepository extends JpaRepository<MiembroUnidad, Lo
 
     @Query("SELECT COUNT(m) FROM MiembroUnidad m WHERE m.usuario.id = :idUsuario AND m.estado = 'ACTIVO'")
     long contarGruposActivosDelUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Query("SELECT m.usuario.id FROM MiembroUnidad m WHERE m.unidad.id = :idUnidad AND m.estado = 'ACTIVO'")
+    List<Long> findIdsUsuariosActivosByUnidadId(@Param("idUnidad") Long idUnidad);
 }
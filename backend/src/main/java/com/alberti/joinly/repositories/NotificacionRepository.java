@@ -23,6 +23,41 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
             """)
     Page<Notificacion> findNotificacionesPorUsuario(@Param("idUsuario") Long idUsuario, Pageable pageable);
 
+    /*
+     * Variantes acotadas por fecha de creación: en MySQL la tabla está particionada
+     * por mes sobre fecha_creacion y el límite inferior permite descartar particiones.
+     */
+
+    @Query("""
+            SELECT n FROM Notificacion n
+            WHERE n.usuario.id = :idUsuario
+            AND n.fechaCreacion >= :desde
+            ORDER BY n.fechaCreacion DESC
+            """)
+    Page<Notificacion> findNotificacionesPorUsuarioDesde(
+            @Param("idUsuario") Long idUsuario,
+            @Param("desde") LocalDateTime desde,
+            Pageable pageable);
+
+    @Query("""
+            SELECT n FROM Notificacion n
+            WHERE n.usuario.id = :idUsuario
+            AND n.fechaLectura IS NULL
+            AND n.fechaCreacion >= :desde
+            ORDER BY n.fechaCreacion DESC
+            """)
+    List<Notificacion> findNotificacionesNoLeidasPorUsuarioDesde(
+            @Param("idUsuario") Long idUsuario,
+            @Param("desde") LocalDateTime desde);
+
+    @Query("""
+            SELECT COUNT(n) FROM Notificacion n
+            WHERE n.usuario.id = :idUsuario
+            AND n.fechaLectura IS NULL
+            AND n.fechaCreacion >= :desde
+            """)
+    long contarNoLeidasPorUsuarioDesde(@Param("idUsuario") Long idUsuario, @Param("desde") LocalDateTime desde);
+
     @Query("""
             SELECT n FROM Notificacion n
             WHERE n.usuario.id = :idUsuario
@@ -44,6 +79,9 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
 
     List<Notificacion> findByUsuarioIdAndTipoOrderByFechaCreacionDesc(Long idUsuario, TipoNotificacion tipo);
 
+    /**
+     * Borrado por filas. Solo se usa cuando la tabla no está particionada (H2, entornos sin V7).
+     */
     @Modifying
     @Query("DELETE FROM Notificacion n WHERE n.fechaCreacion < :fecha AND n.fechaLectura IS NOT NULL")
     int eliminarNotificacionesAntiguasLeidas(@Param("fecha") LocalDateTime fecha);
@@ -1,12 +1,19 @@
 package com.alberti.joinly.repositories;
 
+import com.alberti.joinly.dto.pago.PagoExportacion;
 import com.alberti.joinly.entities.enums.EstadoPago;
 import com.alberti.joinly.entities.pago.Pago;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,47 +21,47 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Los listados con filtros opcionales se construyen con
+ * {@link com.alberti.joinly.repositories.specifications.PagoSpecifications}.
+ */
 @Repository
-public interface PagoRepository extends JpaRepository<Pago, Long> {
-
-    @Query("""
-            SELECT p FROM Pago p
-            JOIN FETCH p.plaza pl
-            JOIN FETCH pl.suscripcion s
-            JOIN FETCH s.servicio
-            WHERE p.usuario.id = :idUsuario
-            ORDER BY p.fechaPago DESC
-            """)
-    Page<Pago> findPagosConDetallesPorUsuario(@Param("idUsuario") Long idUsuario, Pageable pageable);
+public interface PagoRepository extends JpaRepository<Pago, Long>, JpaSpecificationExecutor<Pago> {
 
     /**
-     * Busca pagos de un usuario con filtros opcionales de estado y rango de fechas.
-     * Soporta paginación y ordenación dinámica.
-     * 
-     * @param idUsuario ID del usuario
-     * @param estado Estado del pago (puede ser null para todos los estados)
-     * @param fechaDesde Fecha inicio del rango (puede ser null)
-     * @param fechaHasta Fecha fin del rango (puede ser null)
-     * @param pageable Configuración de paginación y ordenación
-     * @return Página de pagos que cumplen los criterios
+     * Con este tamaño de lectura el driver de MySQL entrega las filas una a una en lugar de
+     * cargar el resultado completo en memoria. Mientras el resultado está abierto la conexión
+     * no admite otras consultas.
      */
+    String LECTURA_POR_FILAS = "-2147483648";
+
+    String SELECT_EXPORTACION = """
+            SELECT new com.alberti.joinly.dto.pago.PagoExportacion(
+                p.id, p.fechaPago, p.usuario.id, s.id, sv.nombre, p.monto, p.moneda, p.montoReembolsado,
+                p.estado, p.cicloInicio, p.cicloFin, p.fechaLiberacion, p.referenciaExterna)
+            FROM Pago p
+            JOIN p.suscripcion s
+            JOIN s.servicio sv
+            """;
+
+    String FILTROS_EXPORTACION = """
+            AND (:estado IS NULL OR p.estado = :estado)
+            AND (:desde IS NULL OR p.fechaPago >= :desde)
+            AND (:hasta IS NULL OR p.fechaPago < :hasta)
+            ORDER BY p.fechaPago, p.id
+            """;
+
     @Query("""
             SELECT p FROM Pago p
             JOIN FETCH p.plaza pl
             JOIN FETCH pl.suscripcion s
             JOIN FETCH s.servicio
             WHERE p.usuario.id = :idUsuario
-            AND (:estado IS NULL OR p.estado = :estado)
-            AND (:fechaDesde IS NULL OR CAST(p.fechaPago AS LocalDate) >= :fechaDesde)
-            AND (:fechaHasta IS NULL OR CAST(p.fechaPago AS LocalDate) <= :fechaHasta)
+            ORDER BY p.fechaPago DESC
             """)
-    Page<Pago> findPagosConDetallesPorUsuarioWithFilters(
-            @Param("idUsuario") Long idUsuario,
-            @Param("estado") EstadoPago estado,
-            @Param("fechaDesde") LocalDate fechaDesde,
-            @Param("fechaHasta") LocalDate fechaHasta,
-            Pageable pageable);
+    Page<Pago> findPagosConDetallesPorUsuario(@Param("idUsuario") Long idUsuario, Pageable pageable);
 
     @Query("""
             SELECT p FROM Pago p
@@ -87,6 +94,16 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
             """)
     Optional<Pago> findByIdConDetalles(@Param("id") Long id);
 
+    /**
+     * Bloquea la fila del pago para que sus cambios de estado se serialicen: cada transición
+     * ve el estado que dejó la anterior y los movimientos del libro contable no se duplican.
+     * Debe ser la primera lectura del pago en la transacción; si ya está en el contexto de
+     * persistencia, se devuelve esa instancia sin refrescar su estado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pago p WHERE p.id = :id")
+    Optional<Pago> findByIdParaActualizar(@Param("id") Long id);
+
     @Query("""
             SELECT SUM(p.monto) FROM Pago p
             WHERE p.suscripcion.id = :idSuscripcion
@@ -114,5 +131,35 @@ public interface PagoRepository extends JpaRepository<Pago, Long> {
     @Query("SELECT COUNT(p) FROM Pago p WHERE p.plaza.id = :idPlaza AND p.estado = 'PENDIENTE'")
     long contarPagosPendientesPorPlaza(@Param("idPlaza") Long idPlaza);
 
-    boolean existsByPlazaIdAndCicloInicioAndCicloFin(Long idPlaza, LocalDate cicloInicio, LocalDate cicloFin);
+    boolean existsByPlazaIdAndCicloInicioAndCicloFinAndEstadoNot(
+            Long idPlaza, LocalDate cicloInicio, LocalDate cicloFin, EstadoPago estado);
+
+    /**
+     * Pagos de un usuario para exportar, leídos fila a fila. El {@link Stream} debe
+     * consumirse y cerrarse dentro de la transacción.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LECTURA_POR_FILAS),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_EXPORTACION + "WHERE p.usuario.id = :idUsuario\n" + FILTROS_EXPORTACION)
+    Stream<PagoExportacion> streamExportacionUsuario(
+            @Param("idUsuario") Long idUsuario,
+            @Param("estado") EstadoPago estado,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Pagos de una suscripción para exportar; igual que {@link #streamExportacionUsuario}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LECTURA_POR_FILAS),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_EXPORTACION + "WHERE s.id = :idSuscripcion\n" + FILTROS_EXPORTACION)
+    Stream<PagoExportacion> streamExportacionSuscripcion(
+            @Param("idSuscripcion") Long idSuscripcion,
+            @Param("estado") EstadoPago estado,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta);
 }
@@ -1,18 +1,30 @@
 package com.alberti.joinly.repositories;
 
+import com.alberti.joinly.dto.suscripcion.PlazasOcupadas;
 import com.alberti.joinly.entities.enums.EstadoPlaza;
 import com.alberti.joinly.entities.suscripcion.Plaza;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PlazaRepository extends JpaRepository<Plaza, Long> {
 
+    /**
+     * Bloquea la fila de la plaza para serializar los cobros de un mismo ciclo: la comprobación
+     * de que no hay otro pago y su inserción deben hacerse sin que otra transacción se cuele.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Plaza p WHERE p.id = :id")
+    Optional<Plaza> findByIdParaActualizar(@Param("id") Long id);
+
     List<Plaza> findBySuscripcionIdAndEstado(Long idSuscripcion, EstadoPlaza estado);
 
     Optional<Plaza> findBySuscripcionIdAndUsuarioId(Long idSuscripcion, Long idUsuario);
@@ -22,6 +34,15 @@ public interface PlazaRepository extends JpaRepository<Plaza, Long> {
     @Query("SELECT COUNT(p) FROM Plaza p WHERE p.suscripcion.id = :idSuscripcion AND p.estado = 'OCUPADA'")
     long contarPlazasOcupadas(@Param("idSuscripcion") Long idSuscripcion);
 
+    @Query("""
+        SELECT new com.alberti.joinly.dto.suscripcion.PlazasOcupadas(p.suscripcion.id, COUNT(p))
+        FROM Plaza p
+        WHERE p.suscripcion.id IN :idsSuscripcion AND p.estado = 'OCUPADA'
+        GROUP BY p.suscripcion.id
+        """)
+    List<PlazasOcupadas> contarPlazasOcupadasAgrupadasPorSuscripcion(
+            @Param("idsSuscripcion") Collection<Long> idsSuscripcion);
+
     @Query("SELECT COUNT(p) FROM Plaza p WHERE p.suscripcion.id = :idSuscripcion AND p.estado = 'DISPONIBLE'")
     long contarPlazasDisponibles(@Param("idSuscripcion") Long idSuscripcion);
 
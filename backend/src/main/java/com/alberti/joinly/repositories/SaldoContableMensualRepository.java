@@ -0,0 +1,30 @@
+package com.alberti.joinly.repositories;
+
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import com.alberti.joinly.entities.pago.SaldoContableMensual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Solo lectura: las filas las mantiene {@link com.alberti.joinly.contabilidad.LibroContable}.
+ */
+@Repository
+public interface SaldoContableMensualRepository extends JpaRepository<SaldoContableMensual, Long> {
+
+    @Query("""
+            SELECT s FROM SaldoContableMensual s
+            WHERE s.ambito = :ambito AND s.idAmbito = :idAmbito
+            AND s.periodo BETWEEN :desde AND :hasta
+            ORDER BY s.periodo, s.moneda
+            """)
+    List<SaldoContableMensual> findExtracto(
+            @Param("ambito") AmbitoSaldo ambito,
+            @Param("idAmbito") Long idAmbito,
+            @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta);
+}
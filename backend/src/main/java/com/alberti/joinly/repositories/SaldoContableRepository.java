@@ -0,0 +1,17 @@
+package com.alberti.joinly.repositories;
+
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import com.alberti.joinly.entities.pago.SaldoContable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Solo lectura: las filas las mantiene {@link com.alberti.joinly.contabilidad.LibroContable}.
+ */
+@Repository
+public interface SaldoContableRepository extends JpaRepository<SaldoContable, Long> {
+
+    List<SaldoContable> findByAmbitoAndIdAmbitoOrderByMoneda(AmbitoSaldo ambito, Long idAmbito);
+}
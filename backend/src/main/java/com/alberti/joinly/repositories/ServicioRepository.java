@@ -1,5 +1,6 @@
 package com.alberti.joinly.repositories;
 
+import com.alberti.joinly.dto.servicio.VersionCatalogo;
 import com.alberti.joinly.entities.enums.CategoriaServicio;
 import com.alberti.joinly.entities.suscripcion.Servicio;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -21,4 +22,10 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
     List<Servicio> buscarPorNombre(@Param("nombre") String nombre);
 
     Optional<Servicio> findByNombreIgnoreCase(String nombre);
+
+    @Query("""
+            SELECT new com.alberti.joinly.dto.servicio.VersionCatalogo(COUNT(s), MAX(s.id), SUM(s.version))
+            FROM Servicio s
+            """)
+    VersionCatalogo obtenerVersion();
 }
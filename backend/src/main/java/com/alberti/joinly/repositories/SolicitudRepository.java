@@ -5,60 +5,25 @@ import com.alberti.joinly.entities.grupo.Solicitud;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Los listados con filtros opcionales se construyen con
+ * {@link com.alberti.joinly.repositories.specifications.SolicitudSpecifications}.
+ */
 @Repository
-public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
+public interface SolicitudRepository extends JpaRepository<Solicitud, Long>, JpaSpecificationExecutor<Solicitud> {
 
     List<Solicitud> findBySolicitanteIdAndEstado(Long idSolicitante, EstadoSolicitud estado);
 
     Page<Solicitud> findBySolicitanteIdAndEstado(Long idSolicitante, EstadoSolicitud estado, Pageable pageable);
 
-    /**
-     * Busca solicitudes de un usuario con filtros opcionales de estado y rango de fechas.
-     * Soporta paginación y ordenación dinámica.
-     * Usa JOIN FETCH para evitar N+1 queries al serializar las entidades relacionadas.
-     * 
-     * @param idSolicitante ID del usuario solicitante
-     * @param estado Estado de la solicitud (puede ser null para todos los estados)
-     * @param fechaDesde Fecha inicio del rango (puede ser null)
-     * @param fechaHasta Fecha fin del rango (puede ser null)
-     * @param pageable Configuración de paginación y ordenación
-     * @return Página de solicitudes que cumplen los criterios
-     */
-    @Query(value = """
-        SELECT s FROM Solicitud s
-        JOIN FETCH s.solicitante
-        LEFT JOIN FETCH s.unidad u
-        LEFT JOIN FETCH u.administrador
-        LEFT JOIN FETCH s.suscripcion su
-        LEFT JOIN FETCH su.servicio
-        LEFT JOIN FETCH s.aprobador
-        WHERE s.solicitante.id = :idSolicitante
-        AND (:estado IS NULL OR s.estado = :estado)
-        AND (:fechaDesde IS NULL OR CAST(s.fechaSolicitud AS LocalDate) >= :fechaDesde)
-        AND (:fechaHasta IS NULL OR CAST(s.fechaSolicitud AS LocalDate) <= :fechaHasta)
-        """,
-        countQuery = """
-        SELECT COUNT(s) FROM Solicitud s
-        WHERE s.solicitante.id = :idSolicitante
-        AND (:estado IS NULL OR s.estado = :estado)
-        AND (:fechaDesde IS NULL OR CAST(s.fechaSolicitud AS LocalDate) >= :fechaDesde)
-        AND (:fechaHasta IS NULL OR CAST(s.fechaSolicitud AS LocalDate) <= :fechaHasta)
-        """)
-    Page<Solicitud> findBySolicitanteIdWithFilters(
-            @Param("idSolicitante") Long idSolicitante,
-            @Param("estado") EstadoSolicitud estado,
-            @Param("fechaDesde") LocalDate fechaDesde,
-            @Param("fechaHasta") LocalDate fechaHasta,
-            Pageable pageable);
-
     List<Solicitud> findByUnidadIdAndEstado(Long idUnidad, EstadoSolicitud estado);
 
     List<Solicitud> findBySuscripcionIdAndEstado(Long idSuscripcion, EstadoSolicitud estado);
@@ -91,6 +56,19 @@ public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
         """)
     List<Solicitud> findSolicitudesPendientesSuscripcion(@Param("idSuscripcion") Long idSuscripcion);
 
+    // Pendientes de los grupos que administra y de las suscripciones de las que es anfitrión
+    @Query("""
+        SELECT s FROM Solicitud s
+        JOIN FETCH s.solicitante
+        LEFT JOIN FETCH s.unidad u
+        LEFT JOIN FETCH s.suscripcion su
+        LEFT JOIN FETCH su.servicio
+        WHERE s.estado = 'PENDIENTE'
+          AND (u.administrador.id = :idUsuario OR su.anfitrion.id = :idUsuario)
+        ORDER BY s.fechaSolicitud ASC
+        """)
+    List<Solicitud> findSolicitudesPendientesParaResponder(@Param("idUsuario") Long idUsuario);
+
     @Query("""
         SELECT s FROM Solicitud s
         JOIN FETCH s.solicitante
@@ -84,6 +84,9 @@ public interface SuscripcionRepository extends JpaRepository<Suscripcion, Long>
     @Query("SELECT COUNT(s) FROM Suscripcion s WHERE s.unidad.id = :idUnidad AND s.estado = 'ACTIVA'")
     long contarSuscripcionesActivasEnUnidad(@Param("idUnidad") Long idUnidad);
 
+    @Query("SELECT s.anfitrion.id FROM Suscripcion s WHERE s.id = :id")
+    Optional<Long> findIdAnfitrionById(@Param("id") Long id);
+
     /**
      * Busca suscripciones con renovación próxima (entre hoy y fecha límite).
      * Usada por ScheduledJobs para notificar renovaciones cercanas.
@@ -1,11 +1,15 @@
 package com.alberti.joinly.repositories;
 
+import com.alberti.joinly.dto.soporte.CargaAgente;
+import com.alberti.joinly.dto.soporte.TicketPendiente;
 import com.alberti.joinly.entities.enums.EstadoTicket;
 import com.alberti.joinly.entities.enums.PrioridadTicket;
 import com.alberti.joinly.entities.soporte.TicketSoporte;
+import com.alberti.joinly.entities.usuario.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,6 +29,9 @@ public interface TicketSoporteRepository extends JpaRepository<TicketSoporte, Lo
             """)
     Optional<TicketSoporte> findByIdConDetalles(@Param("id") Long id);
 
+    @Query("SELECT t.usuario.id FROM TicketSoporte t WHERE t.id = :id")
+    Optional<Long> findIdUsuarioById(@Param("id") Long id);
+
     @Query("""
             SELECT t FROM TicketSoporte t
             LEFT JOIN FETCH t.agente
@@ -33,19 +40,15 @@ public interface TicketSoporteRepository extends JpaRepository<TicketSoporte, Lo
             """)
     Page<TicketSoporte> findTicketsPorUsuario(@Param("idUsuario") Long idUsuario, Pageable pageable);
 
+    /**
+     * Tickets de un agente en los estados indicados (resuelto con {@code idx_ticket_agente_estado}).
+     * Se devuelven sin ordenar: la ordenación por prioridad se hace en memoria sobre la lista del agente.
+     */
     @Query("""
             SELECT t FROM TicketSoporte t
             JOIN FETCH t.usuario
             WHERE t.agente.id = :idAgente
             AND t.estado IN :estados
-            ORDER BY 
-                CASE t.prioridad 
-                    WHEN 'URGENTE' THEN 1 
-                    WHEN 'ALTA' THEN 2 
-                    WHEN 'MEDIA' THEN 3 
-                    ELSE 4 
-                END,
-                t.fechaApertura ASC
             """)
     List<TicketSoporte> findTicketsAsignadosAgente(
             @Param("idAgente") Long idAgente,
@@ -54,18 +57,43 @@ public interface TicketSoporteRepository extends JpaRepository<TicketSoporte, Lo
     @Query("""
             SELECT t FROM TicketSoporte t
             JOIN FETCH t.usuario
+            WHERE t.id IN :ids
+            """)
+    List<TicketSoporte> findByIdInConUsuario(@Param("ids") List<Long> ids);
+
+    /**
+     * Tickets sin agente pendientes de despacho, para reconstruir la cola en memoria.
+     */
+    @Query("""
+            SELECT new com.alberti.joinly.dto.soporte.TicketPendiente(t.id, t.prioridad, t.fechaApertura)
+            FROM TicketSoporte t
             WHERE t.agente IS NULL
             AND t.estado = 'ABIERTO'
-            ORDER BY 
-                CASE t.prioridad 
-                    WHEN 'URGENTE' THEN 1 
-                    WHEN 'ALTA' THEN 2 
-                    WHEN 'MEDIA' THEN 3 
-                    ELSE 4 
-                END,
-                t.fechaApertura ASC
             """)
-    List<TicketSoporte> findTicketsSinAsignar();
+    List<TicketPendiente> findTicketsPendientesDespacho();
+
+    @Query("""
+            SELECT new com.alberti.joinly.dto.soporte.CargaAgente(t.agente.id, COUNT(t))
+            FROM TicketSoporte t
+            WHERE t.agente IS NOT NULL
+            AND t.estado IN ('ABIERTO', 'EN_PROCESO')
+            GROUP BY t.agente.id
+            """)
+    List<CargaAgente> contarTicketsActivosAgrupadosPorAgente();
+
+    /**
+     * Asigna el ticket solo si sigue sin agente y abierto. Devuelve 0 si otro nodo
+     * o una asignación manual se adelantó.
+     */
+    @Modifying
+    @Query("""
+            UPDATE TicketSoporte t
+            SET t.agente = :agente, t.estado = 'EN_PROCESO'
+            WHERE t.id = :idTicket
+            AND t.agente IS NULL
+            AND t.estado = 'ABIERTO'
+            """)
+    int asignarSiSinAgente(@Param("idTicket") Long idTicket, @Param("agente") Usuario agente);
 
     @Query("""
             SELECT t FROM TicketSoporte t
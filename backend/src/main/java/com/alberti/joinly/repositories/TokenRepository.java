@@ -2,13 +2,16 @@ package com.alberti.joinly.repositories;
 
 import com.alberti.joinly.entities.enums.TipoToken;
 import com.alberti.joinly.entities.usuario.Token;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -43,4 +46,53 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
 
     long countByUsuarioIdAndTipoAndUsadoFalseAndFechaExpiracionAfter(
             Long idUsuario, TipoToken tipo, LocalDateTime fecha);
+
+    /**
+     * Bloquea la fila para que dos renovaciones concurrentes del mismo token
+     * se serialicen y la segunda se detecte como reutilización.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT t FROM Token t
+            JOIN FETCH t.usuario
+            WHERE t.token = :token
+            AND t.tipo = :tipo
+            """)
+    Optional<Token> findByTokenAndTipoParaActualizar(@Param("token") String token, @Param("tipo") TipoToken tipo);
+
+    @Query("""
+            SELECT DISTINCT t.familia FROM Token t
+            WHERE t.usuario.id = :idUsuario
+            AND t.tipo = :tipo
+            AND t.familia IS NOT NULL
+            AND t.fechaRevocacion IS NULL
+            AND t.fechaExpiracion > :ahora
+            """)
+    List<String> findFamiliasActivasPorUsuario(
+            @Param("idUsuario") Long idUsuario,
+            @Param("tipo") TipoToken tipo,
+            @Param("ahora") LocalDateTime ahora);
+
+    // Se vacía el contexto de persistencia para que ningún Token gestionado conserve el estado previo a la revocación
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Token t SET t.fechaRevocacion = :ahora WHERE t.familia = :familia AND t.fechaRevocacion IS NULL")
+    int revocarFamilia(@Param("familia") String familia, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Token t SET t.fechaRevocacion = :ahora
+            WHERE t.usuario.id = :idUsuario
+            AND t.tipo = :tipo
+            AND t.fechaRevocacion IS NULL
+            """)
+    int revocarPorUsuarioYTipo(
+            @Param("idUsuario") Long idUsuario,
+            @Param("tipo") TipoToken tipo,
+            @Param("ahora") LocalDateTime ahora);
+
+    @Query("SELECT MAX(t.fechaRevocacion) FROM Token t")
+    Optional<LocalDateTime> findUltimaRevocacion();
+
+    @Query("SELECT DISTINCT t.familia FROM Token t WHERE t.fechaRevocacion > :desde AND t.familia IS NOT NULL")
+    List<String> findFamiliasRevocadasDesde(@Param("desde") LocalDateTime desde);
 }
@@ -83,6 +83,9 @@ public interface UnidadFamiliarRepository extends JpaRepository<UnidadFamiliar,
     @Query("SELECT COUNT(m) FROM MiembroUnidad m WHERE m.unidad.id = :idUnidad AND m.estado = 'ACTIVO'")
     long contarMiembrosActivos(@Param("idUnidad") Long idUnidad);
 
+    @Query("SELECT uf.administrador.id FROM UnidadFamiliar uf WHERE uf.id = :id")
+    Optional<Long> findIdAdministradorById(@Param("id") Long id);
+
     /**
      * Obtiene los datos resumidos de grupos para tarjetas del dashboard.
      * Query optimizada con proyección directa a DTO evitando N+1.
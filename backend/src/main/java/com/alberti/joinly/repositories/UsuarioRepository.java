@@ -2,6 +2,8 @@ package com.alberti.joinly.repositories;
 
 import com.alberti.joinly.entities.enums.EstadoUsuario;
 import com.alberti.joinly.entities.usuario.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,9 +24,10 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("SELECT u FROM Usuario u WHERE (u.rol = 'AGENTE' OR u.rol = 'ADMIN') AND u.estado = 'ACTIVO'")
     List<Usuario> findAgentesSoporteActivos();
 
+    /**
+     * Búsqueda por nombre en la base de datos, solo mientras el índice en memoria se carga.
+     */
     @Query("SELECT u FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) AND u.estado = :estado")
-    List<Usuario> buscarPorNombreYEstado(@Param("nombre") String nombre, @Param("estado") EstadoUsuario estado);
-
-    @Query("SELECT u FROM Usuario u WHERE LOWER(u.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) AND u.estado = :estado")
-    org.springframework.data.domain.Page<Usuario> buscarPorNombreYEstadoPaginado(@Param("nombre") String nombre, @Param("estado") EstadoUsuario estado, org.springframework.data.domain.Pageable pageable);
+    Page<Usuario> buscarPorNombreYEstadoPaginado(
+            @Param("nombre") String nombre, @Param("estado") EstadoUsuario estado, Pageable pageable);
 }
@@ -0,0 +1,72 @@
+package com.alberti.joinly.repositories.specifications;
+
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.pago.Pago;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Filtros dinámicos sobre {@link Pago}.
+ * <p>
+ * Solo se añaden los predicados de los filtros informados, de modo que cada
+ * combinación genera una consulta distinta con su propio plan, y los rangos de
+ * fecha se expresan sobre la columna sin transformar para que MySQL pueda usar
+ * los índices {@code (id_usuario, fecha_pago)} y {@code (id_usuario, estado, fecha_pago)}.
+ */
+public final class PagoSpecifications {
+
+    private PagoSpecifications() {
+    }
+
+    /**
+     * Pagos de un usuario con filtros opcionales de estado y rango de fechas (ambos días incluidos),
+     * cargando plaza, suscripción y servicio en la misma consulta.
+     */
+    public static Specification<Pago> filtrosUsuario(
+            Long idUsuario,
+            EstadoPago estado,
+            LocalDate fechaDesde,
+            LocalDate fechaHasta) {
+
+        var filtros = new ArrayList<Specification<Pago>>();
+        filtros.add(conDetalles());
+        filtros.add(delUsuario(idUsuario));
+        if (estado != null) filtros.add(conEstado(estado));
+        if (fechaDesde != null) filtros.add(pagadoDesde(fechaDesde));
+        if (fechaHasta != null) filtros.add(pagadoHasta(fechaHasta));
+        return Specification.allOf(filtros);
+    }
+
+    public static Specification<Pago> delUsuario(Long idUsuario) {
+        return (root, query, cb) -> cb.equal(root.get("usuario").get("id"), idUsuario);
+    }
+
+    public static Specification<Pago> conEstado(EstadoPago estado) {
+        return (root, query, cb) -> cb.equal(root.get("estado"), estado);
+    }
+
+    /** {@code fecha_pago >= fechaDesde 00:00}. */
+    public static Specification<Pago> pagadoDesde(LocalDate fechaDesde) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fechaPago"), fechaDesde.atStartOfDay());
+    }
+
+    /** {@code fecha_pago < (fechaHasta + 1 día) 00:00}: incluye todo el día {@code fechaHasta}. */
+    public static Specification<Pago> pagadoHasta(LocalDate fechaHasta) {
+        return (root, query, cb) -> cb.lessThan(root.get("fechaPago"), fechaHasta.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * JOIN FETCH de plaza → suscripción → servicio. No se aplica en la consulta
+     * de conteo de la paginación, donde un fetch no es válido.
+     */
+    public static Specification<Pago> conDetalles() {
+        return (root, query, cb) -> {
+            if (query != null && !Specifications.esConsultaDeConteo(query)) {
+                root.fetch("plaza").fetch("suscripcion").fetch("servicio");
+            }
+            return null;
+        };
+    }
+}
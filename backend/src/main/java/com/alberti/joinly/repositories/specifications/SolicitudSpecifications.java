@@ -0,0 +1,76 @@
+package com.alberti.joinly.repositories.specifications;
+
+import com.alberti.joinly.entities.enums.EstadoSolicitud;
+import com.alberti.joinly.entities.grupo.Solicitud;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Filtros dinámicos sobre {@link Solicitud}.
+ * <p>
+ * Mismo criterio que {@link PagoSpecifications}: predicados solo para los filtros
+ * informados y rangos semiabiertos sobre {@code fecha_solicitud}, compatibles con
+ * los índices {@code (id_solicitante, fecha_solicitud)} y
+ * {@code (id_solicitante, estado, fecha_solicitud)}.
+ */
+public final class SolicitudSpecifications {
+
+    private SolicitudSpecifications() {
+    }
+
+    /**
+     * Solicitudes de un usuario con filtros opcionales de estado y rango de fechas (ambos días incluidos),
+     * cargando las entidades relacionadas que se serializan en la respuesta.
+     */
+    public static Specification<Solicitud> filtrosSolicitante(
+            Long idSolicitante,
+            EstadoSolicitud estado,
+            LocalDate fechaDesde,
+            LocalDate fechaHasta) {
+
+        var filtros = new ArrayList<Specification<Solicitud>>();
+        filtros.add(conDetalles());
+        filtros.add(delSolicitante(idSolicitante));
+        if (estado != null) filtros.add(conEstado(estado));
+        if (fechaDesde != null) filtros.add(solicitadaDesde(fechaDesde));
+        if (fechaHasta != null) filtros.add(solicitadaHasta(fechaHasta));
+        return Specification.allOf(filtros);
+    }
+
+    public static Specification<Solicitud> delSolicitante(Long idSolicitante) {
+        return (root, query, cb) -> cb.equal(root.get("solicitante").get("id"), idSolicitante);
+    }
+
+    public static Specification<Solicitud> conEstado(EstadoSolicitud estado) {
+        return (root, query, cb) -> cb.equal(root.get("estado"), estado);
+    }
+
+    /** {@code fecha_solicitud >= fechaDesde 00:00}. */
+    public static Specification<Solicitud> solicitadaDesde(LocalDate fechaDesde) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fechaSolicitud"), fechaDesde.atStartOfDay());
+    }
+
+    /** {@code fecha_solicitud < (fechaHasta + 1 día) 00:00}: incluye todo el día {@code fechaHasta}. */
+    public static Specification<Solicitud> solicitadaHasta(LocalDate fechaHasta) {
+        return (root, query, cb) -> cb.lessThan(root.get("fechaSolicitud"), fechaHasta.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * JOIN FETCH de solicitante, unidad (con administrador), suscripción (con servicio)
+     * y aprobador, para evitar N+1 al serializar. No se aplica en la consulta de conteo.
+     */
+    public static Specification<Solicitud> conDetalles() {
+        return (root, query, cb) -> {
+            if (query != null && !Specifications.esConsultaDeConteo(query)) {
+                root.fetch("solicitante");
+                root.fetch("unidad", JoinType.LEFT).fetch("administrador", JoinType.LEFT);
+                root.fetch("suscripcion", JoinType.LEFT).fetch("servicio", JoinType.LEFT);
+                root.fetch("aprobador", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
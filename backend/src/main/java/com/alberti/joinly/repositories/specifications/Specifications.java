@@ -0,0 +1,20 @@
+package com.alberti.joinly.repositories.specifications;
+
+import jakarta.persistence.criteria.CriteriaQuery;
+
+/**
+ * Utilidades compartidas por las Specifications del proyecto.
+ */
+final class Specifications {
+
+    private Specifications() {
+    }
+
+    /**
+     * Indica si la consulta es el {@code COUNT} que Spring Data genera para paginar.
+     */
+    static boolean esConsultaDeConteo(CriteriaQuery<?> query) {
+        var tipo = query.getResultType();
+        return tipo == Long.class || tipo == long.class;
+    }
+}
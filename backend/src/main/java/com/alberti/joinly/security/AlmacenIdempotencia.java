@@ -0,0 +1,346 @@
+package com.alberti.joinly.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Respuestas de las peticiones con {@code Idempotency-Key}, usado por {@link IdempotenciaFilter}.
+ * <p>
+ * La tabla {@code respuesta_idempotente} es la fuente de verdad compartida entre nodos; por
+ * delante hay una caché LRU acotada con las respuestas ya completadas, de modo que un reintento
+ * se responde sin tocar la base de datos.
+ * <p>
+ * Antes de procesar una petición nueva se reserva su clave: en memoria con un
+ * {@link CountDownLatch} por clave, para que un duplicado concurrente en el mismo nodo espere a
+ * la respuesta del original en lugar de ejecutarse en paralelo, y en la base de datos con una
+ * fila sin respuesta (la clave primaria impide reservarla dos veces), para los duplicados que
+ * llegan a otro nodo. Una reserva que no se completa en {@code joinly.idempotencia.reserva-max-ms}
+ * (p. ej. el nodo se cayó) puede reclamarla otra petición.
+ * <p>
+ * Las respuestas caducan a los {@code joinly.idempotencia.ttl-horas}; las filas caducadas se
+ * borran periódicamente.
+ */
+@Component
+@Slf4j
+public class AlmacenIdempotencia {
+
+    /** Resultado de intentar reservar una clave. */
+    public enum Resultado {
+        /** La petición es nueva: procesarla y llamar a {@link #completar} o {@link #liberar}. */
+        RESERVADA,
+        /** Ya hay una respuesta: devolverla sin procesar la petición. */
+        GUARDADA,
+        /** La petición original sigue en curso (en otro nodo o más allá de la espera máxima). */
+        EN_CURSO
+    }
+
+    public record RespuestaGuardada(String huella, int estadoHttp, String tipoContenido,
+                                    Map<String, List<String>> cabeceras, byte[] cuerpo, LocalDateTime expiraEn) {
+    }
+
+    public record Reserva(Resultado resultado, RespuestaGuardada respuesta) {
+
+        static final Reserva RESERVADA = new Reserva(Resultado.RESERVADA, null);
+        static final Reserva EN_CURSO = new Reserva(Resultado.EN_CURSO, null);
+
+        static Reserva guardada(RespuestaGuardada respuesta) {
+            return new Reserva(Resultado.GUARDADA, respuesta);
+        }
+    }
+
+    private static final String SQL_RESERVAR = """
+            INSERT INTO respuesta_idempotente (clave, huella, expira_en, created_at) VALUES (?, ?, ?, ?)""";
+    private static final String SQL_BUSCAR = """
+            SELECT huella, estado_http, tipo_contenido, cabeceras, cuerpo, expira_en
+            FROM respuesta_idempotente WHERE clave = ?""";
+    /** Reclama una fila caducada, tanto una reserva abandonada como una respuesta vencida. */
+    private static final String SQL_RECLAMAR = """
+            UPDATE respuesta_idempotente
+            SET huella = ?, estado_http = NULL, tipo_contenido = NULL, cabeceras = NULL, cuerpo = NULL,
+                expira_en = ?, created_at = ?
+            WHERE clave = ? AND expira_en < ?""";
+    private static final String SQL_COMPLETAR = """
+            UPDATE respuesta_idempotente SET estado_http = ?, tipo_contenido = ?, cabeceras = ?, cuerpo = ?, expira_en = ?
+            WHERE clave = ? AND estado_http IS NULL""";
+    private static final String SQL_LIBERAR = """
+            DELETE FROM respuesta_idempotente WHERE clave = ? AND estado_http IS NULL""";
+    private static final String SQL_PURGAR = "DELETE FROM respuesta_idempotente WHERE expira_en < ?";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, List<String>>> CABECERAS = new TypeReference<>() {
+    };
+
+    private static final RowMapper<RespuestaGuardada> MAPPER = (rs, rowNum) -> {
+        var estado = rs.getInt("estado_http");
+        return new RespuestaGuardada(
+                rs.getString("huella"),
+                rs.wasNull() ? 0 : estado,
+                rs.getString("tipo_contenido"),
+                leerCabeceras(rs.getString("cabeceras")),
+                rs.getBytes("cuerpo"),
+                rs.getTimestamp("expira_en").toLocalDateTime());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration reservaMax;
+    private final Duration esperaMax;
+    private final int maxEntradas;
+    private final Clock reloj;
+
+    /** Peticiones en curso en este nodo: los duplicados esperan a que se abra su cerrojo. */
+    private final ConcurrentHashMap<String, CountDownLatch> enCurso = new ConcurrentHashMap<>();
+
+    /** Protege {@link #respuestas}: en orden de acceso, incluso {@code get} la modifica. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, RespuestaGuardada> respuestas;
+
+    private final Counter aciertosMemoria;
+    private final Counter aciertosBd;
+    private final Counter nuevas;
+    private final Counter enCursoRechazadas;
+
+    public AlmacenIdempotencia(
+            JdbcTemplate jdbcTemplate,
+            @Value("${joinly.idempotencia.ttl-horas:24}") long ttlHoras,
+            @Value("${joinly.idempotencia.reserva-max-ms:60000}") long reservaMaxMs,
+            @Value("${joinly.idempotencia.espera-max-ms:10000}") long esperaMaxMs,
+            @Value("${joinly.idempotencia.max-entradas:10000}") int maxEntradas,
+            MeterRegistry meterRegistry) {
+        this(jdbcTemplate, Duration.ofHours(ttlHoras), Duration.ofMillis(reservaMaxMs),
+                Duration.ofMillis(esperaMaxMs), maxEntradas, Clock.systemDefaultZone(), meterRegistry);
+    }
+
+    AlmacenIdempotencia(JdbcTemplate jdbcTemplate, Duration ttl, Duration reservaMax, Duration esperaMax,
+                        int maxEntradas, Clock reloj, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.reservaMax = reservaMax;
+        this.esperaMax = esperaMax;
+        this.maxEntradas = maxEntradas;
+        this.reloj = reloj;
+        this.respuestas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RespuestaGuardada> eldest) {
+                return size() > AlmacenIdempotencia.this.maxEntradas;
+            }
+        };
+
+        Gauge.builder("joinly.idempotencia.cache.tamano", this, AlmacenIdempotencia::tamano)
+                .description("Respuestas idempotentes en la caché en memoria")
+                .register(meterRegistry);
+        this.aciertosMemoria = meterRegistry.counter("joinly.idempotencia.peticiones", "resultado", "repetida_memoria");
+        this.aciertosBd = meterRegistry.counter("joinly.idempotencia.peticiones", "resultado", "repetida_bd");
+        this.nuevas = meterRegistry.counter("joinly.idempotencia.peticiones", "resultado", "nueva");
+        this.enCursoRechazadas = meterRegistry.counter("joinly.idempotencia.peticiones", "resultado", "en_curso");
+    }
+
+    /**
+     * Reserva la clave para procesar la petición, o devuelve la respuesta ya guardada. Si la
+     * misma clave se está procesando en este nodo, espera (como mucho
+     * {@code joinly.idempotencia.espera-max-ms}) a que termine.
+     *
+     * @param huella Huella de la petición, que se guarda con la reserva
+     */
+    public Reserva reservar(String clave, String huella) throws InterruptedException {
+        var limite = System.nanoTime() + esperaMax.toNanos();
+        while (true) {
+            var guardada = enMemoria(clave);
+            if (guardada != null) {
+                aciertosMemoria.increment();
+                return Reserva.guardada(guardada);
+            }
+
+            var cerrojo = new CountDownLatch(1);
+            var anterior = enCurso.putIfAbsent(clave, cerrojo);
+            if (anterior == null) {
+                Reserva reserva;
+                try {
+                    reserva = reservarEnBd(clave, huella);
+                } catch (RuntimeException e) {
+                    abrir(clave, cerrojo);
+                    throw e;
+                }
+                if (reserva.resultado() != Resultado.RESERVADA) {
+                    abrir(clave, cerrojo);
+                }
+                return reserva;
+            }
+
+            var restante = limite - System.nanoTime();
+            if (restante <= 0 || !anterior.await(restante, TimeUnit.NANOSECONDS)) {
+                enCursoRechazadas.increment();
+                return Reserva.EN_CURSO;
+            }
+            // El original terminó: su respuesta ya está en memoria, o se liberó y se puede reservar
+        }
+    }
+
+    /** Guarda la respuesta de una petición reservada y despierta a los duplicados que esperan. */
+    public void completar(String clave, String huella, int estadoHttp, String tipoContenido,
+                          Map<String, List<String>> cabeceras, byte[] cuerpo) {
+        var expiraEn = ahora().plus(ttl);
+        try {
+            jdbcTemplate.update(SQL_COMPLETAR, estadoHttp, tipoContenido, escribirCabeceras(cabeceras), cuerpo,
+                    Timestamp.valueOf(expiraEn), clave);
+            guardarEnMemoria(clave, new RespuestaGuardada(huella, estadoHttp, tipoContenido, Map.copyOf(cabeceras),
+                    cuerpo, expiraEn));
+        } catch (DataAccessException e) {
+            // Un reintento volverá a procesarse cuando caduque la reserva; no se pierde la respuesta actual
+            log.warn("No se pudo guardar la respuesta idempotente {}: {}", clave, e.getMessage());
+        } finally {
+            abrir(clave, enCurso.get(clave));
+        }
+    }
+
+    /** Descarta la reserva sin guardar respuesta, para que un reintento procese la petición. */
+    public void liberar(String clave) {
+        try {
+            jdbcTemplate.update(SQL_LIBERAR, clave);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo liberar la reserva idempotente {}: {}", clave, e.getMessage());
+        } finally {
+            abrir(clave, enCurso.get(clave));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${joinly.idempotencia.intervalo-purga-ms:600000}")
+    public void purgar() {
+        var ahora = ahora();
+        try {
+            var borradas = jdbcTemplate.update(SQL_PURGAR, Timestamp.valueOf(ahora));
+            log.debug("Purgadas {} respuestas idempotentes caducadas", borradas);
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron purgar las respuestas idempotentes: {}", e.getMessage());
+        }
+        lock.lock();
+        try {
+            respuestas.values().removeIf(respuesta -> !respuesta.expiraEn().isAfter(ahora));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int tamano() {
+        lock.lock();
+        try {
+            return respuestas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Reserva reservarEnBd(String clave, String huella) {
+        var ahora = ahora();
+        var expiraReserva = Timestamp.valueOf(ahora.plus(reservaMax));
+        try {
+            jdbcTemplate.update(SQL_RESERVAR, clave, huella, expiraReserva, Timestamp.valueOf(ahora));
+            nuevas.increment();
+            return Reserva.RESERVADA;
+        } catch (DuplicateKeyException e) {
+            // Reservada antes: por este nodo en una petición ya terminada o por otro nodo
+        }
+
+        var existente = jdbcTemplate.query(SQL_BUSCAR, MAPPER, clave).stream().findFirst().orElse(null);
+        if (existente != null && existente.expiraEn().isAfter(ahora)) {
+            if (existente.estadoHttp() == 0) {
+                enCursoRechazadas.increment();
+                return Reserva.EN_CURSO;
+            }
+            aciertosBd.increment();
+            guardarEnMemoria(clave, existente);
+            return Reserva.guardada(existente);
+        }
+
+        var reclamadas = jdbcTemplate.update(SQL_RECLAMAR, huella, expiraReserva, Timestamp.valueOf(ahora),
+                clave, Timestamp.valueOf(ahora));
+        if (reclamadas == 0) {
+            // Otro nodo la reclamó entre la consulta y la actualización
+            enCursoRechazadas.increment();
+            return Reserva.EN_CURSO;
+        }
+        nuevas.increment();
+        return Reserva.RESERVADA;
+    }
+
+    private static String escribirCabeceras(Map<String, List<String>> cabeceras) {
+        if (cabeceras.isEmpty()) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(cabeceras);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar las cabeceras", e);
+        }
+    }
+
+    private static Map<String, List<String>> leerCabeceras(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, CABECERAS);
+        } catch (JsonProcessingException e) {
+            log.warn("Cabeceras idempotentes ilegibles, se repite la respuesta sin ellas: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private RespuestaGuardada enMemoria(String clave) {
+        lock.lock();
+        try {
+            var respuesta = respuestas.get(clave);
+            if (respuesta != null && !respuesta.expiraEn().isAfter(ahora())) {
+                respuestas.remove(clave);
+                return null;
+            }
+            return respuesta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void guardarEnMemoria(String clave, RespuestaGuardada respuesta) {
+        if (maxEntradas <= 0) return;
+        lock.lock();
+        try {
+            respuestas.put(clave, respuesta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abrir(String clave, CountDownLatch cerrojo) {
+        if (cerrojo != null && enCurso.remove(clave, cerrojo)) {
+            cerrojo.countDown();
+        }
+    }
+
+    private LocalDateTime ahora() {
+        return LocalDateTime.now(reloj);
+    }
+}
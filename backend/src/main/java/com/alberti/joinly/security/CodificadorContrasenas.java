@@ -0,0 +1,161 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} de la aplicación: calcula los hashes en un ejecutor propio y acotado.
+ * <p>
+ * Con hilos virtuales nada impide que cientos de peticiones calculen BCrypt a la vez y dejen
+ * sin CPU al resto de endpoints. Aquí el número de hashes simultáneos lo fija
+ * {@code joinly.contrasenas.hilos} (por defecto la mitad de los núcleos) y los que esperan,
+ * {@code joinly.contrasenas.capacidad-cola}; con la cola llena se rechaza al instante con
+ * {@link ServicioSaturadoException} (503) en lugar de acumular latencia. La profundidad de la
+ * cola se publica como {@code joinly.contrasenas.cola}.
+ * <p>
+ * Los hashes llevan el prefijo del algoritmo ({@code {bcrypt}}, {@code {pbkdf2}}); los
+ * anteriores, sin prefijo, se siguen validando como BCrypt. {@link #upgradeEncoding} indica si
+ * un hash no corresponde al algoritmo o coste configurados, y {@link CustomUserDetailsService}
+ * lo recalcula en el siguiente login correcto, de modo que el coste puede ajustarse (en
+ * cualquier sentido) sin forzar cambios de contraseña.
+ */
+@Component
+@Slf4j
+public class CodificadorContrasenas implements PasswordEncoder, DisposableBean {
+
+    static final String BCRYPT = "bcrypt";
+    static final String PBKDF2 = "pbkdf2";
+
+    private final String algoritmo;
+    private final int costeBcrypt;
+    private final DelegatingPasswordEncoder delegado;
+    private final ThreadPoolExecutor ejecutor;
+    private final Counter rechazados;
+    private final Timer espera;
+
+    public CodificadorContrasenas(
+            @Value("${joinly.contrasenas.algoritmo:bcrypt}") String algoritmo,
+            @Value("${joinly.contrasenas.coste-bcrypt:10}") int costeBcrypt,
+            @Value("${joinly.contrasenas.hilos:0}") int hilos,
+            @Value("${joinly.contrasenas.capacidad-cola:64}") int capacidadCola,
+            MeterRegistry meterRegistry) {
+        if (!BCRYPT.equals(algoritmo) && !PBKDF2.equals(algoritmo)) {
+            throw new IllegalArgumentException("Algoritmo de contraseñas no soportado: " + algoritmo);
+        }
+        this.algoritmo = algoritmo;
+        this.costeBcrypt = costeBcrypt;
+
+        var bcrypt = new BCryptPasswordEncoder(costeBcrypt);
+        this.delegado = new DelegatingPasswordEncoder(algoritmo, Map.of(
+                BCRYPT, bcrypt,
+                PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        // Hashes guardados antes de usar prefijos
+        this.delegado.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        var numHilos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        var secuencia = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(numHilos, numHilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    var hilo = new Thread(tarea, "hash-contrasenas-" + secuencia.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("joinly.contrasenas.cola", ejecutor, e -> e.getQueue().size())
+                .description("Hashes de contraseña esperando un hilo libre")
+                .register(meterRegistry);
+        this.rechazados = meterRegistry.counter("joinly.contrasenas.rechazados");
+        this.espera = Timer.builder("joinly.contrasenas.duracion")
+                .description("Tiempo total de un hash de contraseña, incluida la espera en cola")
+                .register(meterRegistry);
+
+        log.info("Hash de contraseñas: {} (coste {}), {} hilos, cola de {}",
+                algoritmo, costeBcrypt, numHilos, capacidadCola);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica si el hash debe recalcularse: otro algoritmo, sin prefijo o, en BCrypt, otro coste.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        var prefijo = "{" + algoritmo + "}";
+        if (!encodedPassword.startsWith(prefijo)) {
+            return true;
+        }
+        if (BCRYPT.equals(algoritmo)) {
+            return costeBcrypt(encodedPassword.substring(prefijo.length())) != costeBcrypt;
+        }
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    /** Coste de un hash BCrypt ({@code $2a$10$...}), o -1 si no tiene ese formato. */
+    static int costeBcrypt(String hash) {
+        if (hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    <T> T ejecutar(Callable<T> tarea) {
+        var inicio = System.nanoTime();
+        try {
+            return ejecutor.submit(tarea).get();
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new ServicioSaturadoException(
+                    "El servidor está procesando demasiados inicios de sesión. Inténtalo de nuevo en unos segundos", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se calculaba el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ejecutor.shutdownNow();
+    }
+}
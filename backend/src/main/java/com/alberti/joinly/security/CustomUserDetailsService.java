@@ -5,6 +5,7 @@ import com.alberti.joinly.repositories.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -24,7 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
@@ -85,4 +86,26 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return UserPrincipal.fromUsuario(usuario);
     }
+
+    /**
+     * Sustituye el hash de la contraseña tras un login correcto cuando
+     * {@link CodificadorContrasenas#upgradeEncoding} indica que usa otro algoritmo o coste.
+     * <p>
+     * Lo invoca {@code DaoAuthenticationProvider} con la contraseña ya codificada.
+     *
+     * @param user        Usuario recién autenticado
+     * @param newPassword Nuevo hash
+     * @return Usuario con el hash actualizado
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var principal = (UserPrincipal) user;
+        var usuario = usuarioRepository.findById(principal.getId())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con ID: " + principal.getId()));
+
+        usuario.setPassword(newPassword);
+        log.debug("Hash de contraseña actualizado para usuario ID: {}", usuario.getId());
+        return UserPrincipal.fromUsuario(usuarioRepository.save(usuario));
+    }
 }
@@ -0,0 +1,266 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.dto.common.ApiErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filtro que hace idempotentes las peticiones que modifican datos cuando el cliente envía la
+ * cabecera {@code Idempotency-Key}: los reintentos de las apps móviles tras un timeout
+ * ({@code POST /pagos}, {@code /suscripciones/{id}/ocupar-plaza}, {@code /solicitudes/...})
+ * reciben la respuesta de la petición original en lugar de repetir el trabajo y fallar con
+ * "ya existe".
+ * <p>
+ * La clave se combina con el id del usuario autenticado, y se guarda junto a una huella
+ * (SHA-256 de método, ruta y cuerpo) de la petición original:
+ * <ul>
+ *   <li>Reintento con la misma huella: se devuelve la respuesta guardada (estado, cuerpo y
+ *       cabeceras propias de la respuesta, como {@code Location}) con la cabecera
+ *       {@code Idempotent-Replayed: true}, sin llegar al controlador.</li>
+ *   <li>Misma clave con otra petición: 422.</li>
+ *   <li>Duplicado mientras el original sigue en curso: espera a su respuesta en este nodo, o
+ *       409 con {@code Retry-After} si se está procesando en otro nodo o tarda demasiado.</li>
+ * </ul>
+ * Solo se guardan las respuestas definitivas (no 5xx ni 429), y como mucho
+ * {@code joinly.idempotencia.max-cuerpo-bytes}; en otro caso la reserva se libera y el
+ * reintento vuelve a procesarse. Sin usuario autenticado, sin cabecera o con un cuerpo mayor
+ * que lo que se examina, la petición pasa sin cambios.
+ * <p>
+ * Solo se atienden peticiones sin cuerpo o con cuerpo JSON. Un {@code multipart/form-data}
+ * (la subida de avatar) se lee de la petición original al resolver sus partes, así que
+ * consumir su principio aquí lo dejaría truncado.
+ * <p>
+ * Se registra después de {@link JwtAuthenticationFilter}.
+ */
+@Component
+@Slf4j
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule());
+
+    private static final Set<String> METODOS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    /**
+     * Cabeceras que forman parte de la respuesta del controlador y se repiten con ella. Las
+     * demás (seguridad, CORS, cookies) las vuelven a poner los filtros en cada petición.
+     */
+    private static final List<String> CABECERAS_GUARDADAS = List.of(
+            HttpHeaders.LOCATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CONTENT_DISPOSITION,
+            HttpHeaders.CONTENT_LANGUAGE);
+    private static final int MAX_CLAVE = 255;
+
+    private final AlmacenIdempotencia almacen;
+    private final boolean habilitado;
+    private final int maxCuerpoRespuesta;
+
+    public IdempotenciaFilter(
+            AlmacenIdempotencia almacen,
+            @Value("${joinly.idempotencia.habilitado:true}") boolean habilitado,
+            @Value("${joinly.idempotencia.max-cuerpo-bytes:65536}") int maxCuerpoRespuesta) {
+        this.almacen = almacen;
+        this.habilitado = habilitado;
+        this.maxCuerpoRespuesta = maxCuerpoRespuesta;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado
+                || !METODOS.contains(request.getMethod())
+                || request.getHeader(CABECERA_CLAVE) == null
+                || request.getServletPath().startsWith("/api/v1/auth/")
+                || !sinCuerpoOJson(request.getContentType());
+    }
+
+    static boolean sinCuerpoOJson(String tipoContenido) {
+        if (tipoContenido == null) {
+            return true;
+        }
+        try {
+            var tipo = MediaType.parseMediaType(tipoContenido);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(tipo) || tipo.getSubtype().endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        var autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion == null || !(autenticacion.getPrincipal() instanceof UserPrincipal usuario)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var valor = request.getHeader(CABECERA_CLAVE).trim();
+        if (valor.isEmpty() || valor.length() > MAX_CLAVE) {
+            responderError(request, response, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA_CLAVE + " debe tener entre 1 y " + MAX_CLAVE + " caracteres");
+            return;
+        }
+
+        var peticion = LimiteAutenticacionFilter.CuerpoEnMemoria.leer(request);
+        if (!peticion.completo()) {
+            log.debug("Cuerpo demasiado grande para {} en {}", CABECERA_CLAVE, request.getRequestURI());
+            filterChain.doFilter(peticion, response);
+            return;
+        }
+
+        var clave = usuario.getId() + ":" + valor;
+        var huella = huella(request, peticion.cuerpo());
+
+        AlmacenIdempotencia.Reserva reserva;
+        try {
+            reserva = almacen.reservar(clave, huella);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responderEnCurso(request, response);
+            return;
+        } catch (DataAccessException e) {
+            // Sin almacén la petición se procesa igual: los servicios siguen rechazando duplicados
+            log.warn("Almacén de idempotencia no disponible: {}", e.getMessage());
+            filterChain.doFilter(peticion, response);
+            return;
+        }
+
+        switch (reserva.resultado()) {
+            case GUARDADA -> {
+                if (!reserva.respuesta().huella().equals(huella)) {
+                    responderError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "La cabecera " + CABECERA_CLAVE + " ya se usó con una petición distinta");
+                } else {
+                    repetir(reserva.respuesta(), response);
+                }
+            }
+            case EN_CURSO -> responderEnCurso(request, response);
+            case RESERVADA -> procesar(clave, huella, peticion, response, filterChain);
+        }
+    }
+
+    private void procesar(String clave, String huella, HttpServletRequest peticion,
+                          HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var respuesta = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(peticion, respuesta);
+        } catch (IOException | ServletException | RuntimeException e) {
+            almacen.liberar(clave);
+            throw e;
+        }
+
+        var estado = respuesta.getStatus();
+        if (esDefinitiva(estado) && respuesta.getContentSize() <= maxCuerpoRespuesta) {
+            almacen.completar(clave, huella, estado, respuesta.getContentType(), cabeceras(respuesta),
+                    respuesta.getContentAsByteArray());
+        } else {
+            almacen.liberar(clave);
+        }
+        respuesta.copyBodyToResponse();
+    }
+
+    private static Map<String, List<String>> cabeceras(HttpServletResponse respuesta) {
+        var cabeceras = new LinkedHashMap<String, List<String>>();
+        for (var nombre : CABECERAS_GUARDADAS) {
+            var valores = respuesta.getHeaders(nombre);
+            if (!valores.isEmpty()) {
+                cabeceras.put(nombre, List.copyOf(valores));
+            }
+        }
+        return cabeceras;
+    }
+
+    /** Los errores transitorios no se guardan: el cliente debe poder reintentar. */
+    private static boolean esDefinitiva(int estado) {
+        return estado < 500 && estado != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static void repetir(AlmacenIdempotencia.RespuestaGuardada guardada, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(guardada.estadoHttp());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        guardada.cabeceras().forEach((nombre, valores) -> valores.forEach(valor -> response.addHeader(nombre, valor)));
+        if (guardada.tipoContenido() != null) {
+            response.setContentType(guardada.tipoContenido());
+        }
+        if (guardada.cuerpo() != null && guardada.cuerpo().length > 0) {
+            response.setContentLength(guardada.cuerpo().length);
+            response.getOutputStream().write(guardada.cuerpo());
+        }
+    }
+
+    private static void responderEnCurso(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        responderError(request, response, HttpStatus.CONFLICT,
+                "Ya se está procesando una petición con la misma " + CABECERA_CLAVE);
+    }
+
+    private static void responderError(HttpServletRequest request, HttpServletResponse response,
+                                       HttpStatus estado, String mensaje) throws IOException {
+        var errorResponse = new ApiErrorResponse(
+                estado.value(),
+                estado.getReasonPhrase(),
+                mensaje,
+                request.getRequestURI()
+        );
+
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String huella(HttpServletRequest request, byte[] cuerpo) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(cuerpo);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -44,6 +44,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final RevocacionSesiones revocacionSesiones;
 
     /**
      * Procesa cada petición HTTP para validar el token JWT.
@@ -85,6 +86,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
 
+                // Rechazar tokens de sesiones cerradas (comprobación en memoria)
+                var idSesion = jwtService.extractSessionId(token);
+                if (idSesion != null && revocacionSesiones.estaRevocada(idSesion)) {
+                    log.debug("Token de una sesión revocada para: {}", userEmail);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
                 // Cargar el usuario desde la base de datos
                 var userDetails = userDetailsService.loadUserByUsername(userEmail);
 
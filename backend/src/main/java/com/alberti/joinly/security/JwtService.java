@@ -15,6 +15,7 @@ import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -38,6 +39,9 @@ import java.util.function.Function;
 @Slf4j
 public class JwtService {
 
+    /** Claim con el identificador de sesión (familia de refresh tokens). */
+    private static final String CLAIM_SESION = "sid";
+
     private final SecretKey secretKey;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
@@ -96,6 +100,18 @@ public class JwtService {
         return generateToken(claims, userDetails, accessTokenExpiration);
     }
 
+    /**
+     * Genera un access token JWT asociado a una sesión, para poder invalidarlo
+     * antes de su expiración si la sesión se revoca.
+     *
+     * @param userDetails Detalles del usuario autenticado
+     * @param idSesion    Identificador de la sesión (familia de refresh tokens)
+     * @return Token JWT firmado como String
+     */
+    public String generateAccessToken(UserDetails userDetails, String idSesion) {
+        return generateToken(Map.of("type", "access", CLAIM_SESION, idSesion), userDetails, accessTokenExpiration);
+    }
+
     /**
      * Genera un refresh token JWT para renovación de sesión.
      *
@@ -106,6 +122,17 @@ public class JwtService {
         return generateToken(Map.of("type", "refresh"), userDetails, refreshTokenExpiration);
     }
 
+    /**
+     * Genera un refresh token JWT asociado a una sesión.
+     *
+     * @param userDetails Detalles del usuario autenticado
+     * @param idSesion    Identificador de la sesión (familia de refresh tokens)
+     * @return Refresh token JWT firmado como String
+     */
+    public String generateRefreshToken(UserDetails userDetails, String idSesion) {
+        return generateToken(Map.of("type", "refresh", CLAIM_SESION, idSesion), userDetails, refreshTokenExpiration);
+    }
+
     /**
      * Genera un token JWT con los parámetros especificados.
      *
@@ -118,6 +145,7 @@ public class JwtService {
         var now = Instant.now();
         return Jwts.builder()
                 .claims(extraClaims)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusMillis(expiration)))
@@ -135,6 +163,16 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Extrae el identificador de sesión del token.
+     *
+     * @param token Token JWT
+     * @return Identificador de sesión, o {@code null} si el token no pertenece a ninguna
+     */
+    public String extractSessionId(String token) {
+        return extractClaim(token, claims -> claims.get(CLAIM_SESION, String.class));
+    }
+
     /**
      * Extrae la fecha de expiración del token.
      *
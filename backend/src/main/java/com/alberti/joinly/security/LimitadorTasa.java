@@ -0,0 +1,216 @@
+package com.alberti.joinly.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de tasa por clave (IP, email...) con semántica de cubeta de tokens.
+ * <p>
+ * Cada clave guarda un único {@code long}: el instante teórico en que su cubeta volvería a estar
+ * llena (algoritmo GCRA). Consumir un token es leerlo, adelantarlo un intervalo y publicarlo con
+ * un {@code compareAndSet}, sin bloqueos en el camino de la petición. Las claves se reparten
+ * en franjas por hash, cada una con su mapa y su contador, para que las escrituras de claves
+ * distintas no compitan por la misma estructura.
+ * <p>
+ * <b>Memoria acotada:</b>
+ * <ul>
+ *   <li>Una clave cuya cubeta ya se ha rellenado equivale a una clave nueva y puede olvidarse.
+ *       Cada cubeta se programa en una rueda temporal en la ranura del instante en que se llenará,
+ *       y {@link #purgar()} recorre solo las ranuras vencidas, sin escanear el mapa.</li>
+ *   <li>Si una franja alcanza su cupo de claves, las claves nuevas comparten la cubeta de
+ *       desbordamiento de la franja: quien rota claves para esquivar el límite acaba limitado en conjunto.</li>
+ * </ul>
+ */
+public class LimitadorTasa {
+
+    /** Marca de una cubeta ya retirada del mapa; quien la encuentre debe volver a buscar la clave. */
+    private static final long RETIRADA = Long.MIN_VALUE;
+    private static final int RANURAS = 64;
+
+    private final long intervaloNanos;
+    private final long ventanaNanos;
+    private final long resolucionNanos;
+    private final int cupoPorFranja;
+    private final Franja[] franjas;
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<Programada>[] rueda = new ConcurrentLinkedQueue[RANURAS];
+    private final LongSupplier reloj;
+    private final long origen;
+
+    private long ultimoTickPurgado = -1;
+
+    private static final class Cubeta {
+        /** Instante (nanos desde {@code origen}) en que la cubeta vuelve a estar llena. */
+        final AtomicLong llenaEn;
+
+        Cubeta(long ahora) {
+            llenaEn = new AtomicLong(ahora);
+        }
+    }
+
+    private static final class Franja {
+        final ConcurrentHashMap<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+        final AtomicInteger tamano = new AtomicInteger();
+        final Cubeta desbordamiento = new Cubeta(0);
+    }
+
+    private record Programada(Franja franja, String clave, Cubeta cubeta) {
+    }
+
+    /**
+     * @param capacidad  Peticiones que se admiten seguidas con la cubeta llena
+     * @param reposicion Tiempo en recuperar un token
+     * @param maxClaves  Claves distintas que se recuerdan como mucho
+     */
+    public LimitadorTasa(int capacidad, Duration reposicion, int maxClaves) {
+        this(capacidad, reposicion, maxClaves, System::nanoTime);
+    }
+
+    LimitadorTasa(int capacidad, Duration reposicion, int maxClaves, LongSupplier reloj) {
+        if (capacidad < 1 || reposicion.isNegative() || reposicion.isZero()) {
+            throw new IllegalArgumentException("Capacidad y reposición deben ser positivas");
+        }
+        this.intervaloNanos = reposicion.toNanos();
+        this.ventanaNanos = Math.multiplyExact(intervaloNanos, (long) capacidad);
+        // Dos ranuras de margen para que una cubeta nunca caiga en una ranura pendiente de purgar
+        this.resolucionNanos = Math.max(1, ventanaNanos / (RANURAS - 2) + 1);
+        var numFranjas = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4);
+        this.franjas = new Franja[numFranjas];
+        for (int i = 0; i < numFranjas; i++) {
+            franjas[i] = new Franja();
+        }
+        this.cupoPorFranja = Math.max(1, maxClaves / numFranjas);
+        for (int i = 0; i < RANURAS; i++) {
+            rueda[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.reloj = reloj;
+        this.origen = reloj.getAsLong();
+    }
+
+    /**
+     * Intenta consumir un token de la clave.
+     *
+     * @return 0 si se admite la petición; si no, nanosegundos hasta que haya un token disponible
+     */
+    public long consumir(String clave) {
+        var franja = franja(clave);
+        while (true) {
+            var ahora = ahora();
+            var cubeta = cubeta(franja, clave, ahora);
+            var llenaEn = cubeta.llenaEn.get();
+            if (llenaEn == RETIRADA) {
+                continue;
+            }
+            var nueva = Math.max(llenaEn, ahora) + intervaloNanos;
+            var espera = nueva - ventanaNanos - ahora;
+            if (espera > 0) {
+                return espera;
+            }
+            if (cubeta.llenaEn.compareAndSet(llenaEn, nueva)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Devuelve a la clave un token consumido, p. ej. cuando el intento resultó legítimo.
+     */
+    public void devolver(String clave) {
+        var franja = franja(clave);
+        var cubeta = franja.cubetas.get(clave);
+        if (cubeta == null) {
+            return;
+        }
+        var ahora = ahora();
+        while (true) {
+            var llenaEn = cubeta.llenaEn.get();
+            if (llenaEn == RETIRADA || llenaEn <= ahora) {
+                return;
+            }
+            if (cubeta.llenaEn.compareAndSet(llenaEn, Math.max(ahora, llenaEn - intervaloNanos))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Olvida las claves cuya cubeta ya está llena. Pensado para llamarse periódicamente desde un
+     * único hilo; no interfiere con {@link #consumir} concurrentes.
+     */
+    public synchronized void purgar() {
+        var ahora = ahora();
+        var tickActual = ahora / resolucionNanos;
+        // Solo ticks completamente vencidos; si hace mucho de la última purga basta una vuelta a la rueda
+        var desde = Math.max(ultimoTickPurgado + 1, tickActual - RANURAS);
+        for (var tick = desde; tick < tickActual; tick++) {
+            var ranura = rueda[(int) (tick % RANURAS)];
+            var pendientes = new ArrayList<Programada>();
+            Programada programada;
+            while ((programada = ranura.poll()) != null) {
+                pendientes.add(programada);
+            }
+            for (var p : pendientes) {
+                var llenaEn = p.cubeta().llenaEn.get();
+                if (llenaEn == RETIRADA) {
+                    continue;
+                }
+                if (llenaEn <= ahora && p.cubeta().llenaEn.compareAndSet(llenaEn, RETIRADA)) {
+                    if (p.franja().cubetas.remove(p.clave(), p.cubeta())) {
+                        p.franja().tamano.decrementAndGet();
+                    }
+                } else {
+                    // Se consumió después de programarla: se reprograma para cuando vuelva a llenarse
+                    programar(p, Math.max(llenaEn, ahora));
+                }
+            }
+        }
+        ultimoTickPurgado = Math.max(ultimoTickPurgado, tickActual - 1);
+    }
+
+    /** Claves recordadas actualmente (sin contar las cubetas de desbordamiento). */
+    public int tamano() {
+        var total = 0;
+        for (var franja : franjas) {
+            total += franja.tamano.get();
+        }
+        return total;
+    }
+
+    private Cubeta cubeta(Franja franja, String clave, long ahora) {
+        var cubeta = franja.cubetas.get(clave);
+        if (cubeta != null) {
+            return cubeta;
+        }
+        if (franja.tamano.get() >= cupoPorFranja) {
+            return franja.desbordamiento;
+        }
+        var nueva = new Cubeta(ahora);
+        var previa = franja.cubetas.putIfAbsent(clave, nueva);
+        if (previa != null) {
+            return previa;
+        }
+        franja.tamano.incrementAndGet();
+        // Tras el primer consumo se llenará en un intervalo; si para entonces sigue en uso, se reprograma
+        programar(new Programada(franja, clave, nueva), ahora + intervaloNanos);
+        return nueva;
+    }
+
+    private void programar(Programada programada, long instante) {
+        rueda[(int) ((instante / resolucionNanos) % RANURAS)].add(programada);
+    }
+
+    private Franja franja(String clave) {
+        var h = clave.hashCode();
+        h ^= h >>> 16;
+        return franjas[h & (franjas.length - 1)];
+    }
+
+    private long ahora() {
+        return reloj.getAsLong() - origen;
+    }
+}
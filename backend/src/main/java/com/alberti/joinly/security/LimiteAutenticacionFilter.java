@@ -0,0 +1,246 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.dto.common.ApiErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que limita la frecuencia de {@code /api/v1/auth/login} y {@code /api/v1/auth/register}.
+ * <p>
+ * Ambos endpoints ejecutan BCrypt, lo más costoso en CPU del backend, y son públicos: sin límite,
+ * una ráfaga de credential stuffing ocupa todos los núcleos. Cada intento consume un token de
+ * dos {@link LimitadorTasa}, uno por IP de origen y otro por email; si cualquiera está vacío se
+ * responde 429 con {@code Retry-After} sin llegar a calcular ningún hash, de modo que el
+ * rechazo cuesta microsegundos y el tráfico legítimo conserva su latencia.
+ * <p>
+ * Un login con éxito (2xx) devuelve sus tokens: solo los fallos agotan el cupo, y un usuario
+ * que entra a la primera no se ve afectado por los intentos fallidos de otros detrás de la misma IP.
+ * Los registros no los devuelven nunca: cada alta con éxito cuesta un hash y crea una cuenta, y
+ * es justo lo que haría un script que dé de alta cuentas en masa.
+ * <p>
+ * La IP es la del cliente resuelta por Tomcat a partir de {@code X-Forwarded-For} cuando la
+ * petición llega desde un proxy de confianza ({@code server.forward-headers-strategy=native});
+ * sin ello, detrás de nginx todas las peticiones compartirían la IP del proxy.
+ * <p>
+ * Se registra antes de {@link JwtAuthenticationFilter}.
+ */
+@Component
+@Slf4j
+public class LimiteAutenticacionFilter extends OncePerRequestFilter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule());
+
+    /** Tamaño máximo del cuerpo que se examina para extraer el email. */
+    private static final int MAX_CUERPO = 16 * 1024;
+
+    private final boolean habilitado;
+    private final LimitadorTasa porIp;
+    private final LimitadorTasa porEmail;
+
+    public LimiteAutenticacionFilter(
+            @Value("${joinly.limite-auth.habilitado:true}") boolean habilitado,
+            @Value("${joinly.limite-auth.ip.capacidad:20}") int capacidadIp,
+            @Value("${joinly.limite-auth.ip.reposicion-ms:3000}") long reposicionIpMs,
+            @Value("${joinly.limite-auth.email.capacidad:5}") int capacidadEmail,
+            @Value("${joinly.limite-auth.email.reposicion-ms:60000}") long reposicionEmailMs,
+            @Value("${joinly.limite-auth.max-claves:100000}") int maxClaves) {
+        this.habilitado = habilitado;
+        this.porIp = new LimitadorTasa(capacidadIp, Duration.ofMillis(reposicionIpMs), maxClaves);
+        this.porEmail = new LimitadorTasa(capacidadEmail, Duration.ofMillis(reposicionEmailMs), maxClaves);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        var path = request.getServletPath();
+        return !habilitado
+                || !"POST".equals(request.getMethod())
+                || !(path.equals("/api/v1/auth/login") || path.equals("/api/v1/auth/register"));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        var ip = "ip:" + request.getRemoteAddr();
+        var espera = porIp.consumir(ip);
+        if (espera > 0) {
+            rechazar(request, response, espera);
+            return;
+        }
+
+        var peticion = CuerpoEnMemoria.leer(request);
+        var email = peticion.completo ? extraerEmail(peticion.cuerpo) : null;
+        if (email != null) {
+            espera = porEmail.consumir(email);
+            if (espera > 0) {
+                porIp.devolver(ip);
+                rechazar(request, response, espera);
+                return;
+            }
+        }
+
+        filterChain.doFilter(peticion, response);
+
+        if (esLogin(request) && response.getStatus() >= 200 && response.getStatus() < 300) {
+            porIp.devolver(ip);
+            if (email != null) {
+                porEmail.devolver(email);
+            }
+        }
+    }
+
+    private static boolean esLogin(HttpServletRequest request) {
+        return request.getServletPath().equals("/api/v1/auth/login");
+    }
+
+    @Scheduled(fixedDelayString = "${joinly.limite-auth.intervalo-purga-ms:10000}")
+    public void purgar() {
+        porIp.purgar();
+        porEmail.purgar();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, long esperaNanos)
+            throws IOException {
+        var segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Demasiados intentos de autenticación desde {} en {}", request.getRemoteAddr(), request.getServletPath());
+
+        var errorResponse = new ApiErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Demasiados intentos. Vuelve a intentarlo en " + segundos + " segundos",
+                request.getRequestURI()
+        );
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String extraerEmail(byte[] cuerpo) {
+        try {
+            var email = OBJECT_MAPPER.readTree(cuerpo).path("email");
+            return email.isTextual() && !email.asText().isBlank()
+                    ? "email:" + email.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException e) {
+            // JSON inválido: lo rechazará la validación del controlador; basta el límite por IP
+            return null;
+        }
+    }
+
+    /**
+     * Petición con el principio del cuerpo ya leído, para poder examinarlo en un filtro y que
+     * el controlador lo vuelva a leer completo. También la usa {@link IdempotenciaFilter}.
+     */
+    static final class CuerpoEnMemoria extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+        private final boolean completo;
+
+        private CuerpoEnMemoria(HttpServletRequest request, byte[] cuerpo, boolean completo) {
+            super(request);
+            this.cuerpo = cuerpo;
+            this.completo = completo;
+        }
+
+        /**
+         * Lee hasta {@link #MAX_CUERPO} bytes; si el cuerpo es mayor, el resto se sirve
+         * después desde el flujo original.
+         */
+        static CuerpoEnMemoria leer(HttpServletRequest request) throws IOException {
+            var cuerpo = request.getInputStream().readNBytes(MAX_CUERPO);
+            return new CuerpoEnMemoria(request, cuerpo, cuerpo.length < MAX_CUERPO);
+        }
+
+        byte[] cuerpo() {
+            return cuerpo;
+        }
+
+        /** Indica si {@link #cuerpo()} es el cuerpo completo y no solo su principio. */
+        boolean completo() {
+            return completo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            InputStream entrada = new ByteArrayInputStream(cuerpo);
+            if (!completo) {
+                entrada = new SequenceInputStream(entrada, super.getInputStream());
+            }
+            var flujo = entrada;
+            return new ServletInputStream() {
+                private boolean terminado;
+
+                @Override
+                public int read() throws IOException {
+                    var b = flujo.read();
+                    terminado = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    var leidos = flujo.read(b, off, len);
+                    terminado = leidos < 0;
+                    return leidos;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return terminado;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            var charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.config.JwtProperties;
+import com.alberti.joinly.repositories.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Réplica en memoria de las sesiones revocadas, consultada por
+ * {@link JwtAuthenticationFilter} en cada petición sin acceder a la base de datos.
+ * <p>
+ * Una sesión solo necesita recordarse mientras pueda existir un access token suyo
+ * sin expirar, por lo que cada entrada caduca tras {@code jwt.access-token-expiration}.
+ * <p>
+ * Las revocaciones hechas en otros nodos se incorporan con un sondeo periódico de
+ * {@code MAX(fecha_revocacion)}: solo cuando avanza se cargan las familias revocadas
+ * desde la última marca, con un solape que cubre desfases de reloj entre nodos y
+ * transacciones confirmadas después de fijar su fecha.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevocacionSesiones {
+
+    private static final Duration SOLAPE = Duration.ofMinutes(1);
+
+    private final TokenRepository tokenRepository;
+    private final JwtProperties jwtProperties;
+
+    /** Identificador de sesión → instante (epoch ms) a partir del cual puede olvidarse. */
+    private final Map<String, Long> revocadas = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime ultimaRevocacion;
+
+    public boolean estaRevocada(String idSesion) {
+        var caduca = revocadas.get(idSesion);
+        return caduca != null && caduca > System.currentTimeMillis();
+    }
+
+    public void revocar(String idSesion) {
+        revocadas.put(idSesion, System.currentTimeMillis() + jwtProperties.accessTokenExpiration());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        sincronizar();
+    }
+
+    @Scheduled(
+            initialDelayString = "${joinly.seguridad.intervalo-revocaciones-ms:5000}",
+            fixedDelayString = "${joinly.seguridad.intervalo-revocaciones-ms:5000}")
+    public void sincronizar() {
+        try {
+            var ultima = tokenRepository.findUltimaRevocacion().orElse(null);
+            var marca = ultimaRevocacion;
+
+            if (ultima != null && (marca == null || ultima.isAfter(marca))) {
+                var desde = marca != null
+                        ? marca.minus(SOLAPE)
+                        : LocalDateTime.now().minus(Duration.ofMillis(jwtProperties.accessTokenExpiration()));
+                var familias = tokenRepository.findFamiliasRevocadasDesde(desde);
+                familias.forEach(this::revocar);
+                ultimaRevocacion = ultima;
+                log.debug("Sincronizadas {} sesiones revocadas", familias.size());
+            }
+
+            var ahora = System.currentTimeMillis();
+            revocadas.values().removeIf(caduca -> caduca <= ahora);
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron sincronizar las sesiones revocadas: {}", e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.busqueda.BusquedaUsuarios;
+import com.alberti.joinly.busqueda.FiltroEmails;
 import com.alberti.joinly.dto.auth.AuthResponse;
 import com.alberti.joinly.dto.auth.CambiarContrasenaRequest;
 import com.alberti.joinly.dto.auth.LoginRequest;
@@ -10,6 +12,7 @@ import com.alberti.joinly.entities.usuario.Usuario;
 import com.alberti.joinly.exceptions.BusinessException;
 import com.alberti.joinly.exceptions.DuplicateResourceException;
 import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
 import com.alberti.joinly.exceptions.UnauthorizedException;
 import com.alberti.joinly.repositories.UsuarioRepository;
 import com.alberti.joinly.security.JwtService;
@@ -19,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
@@ -36,7 +40,8 @@ import java.time.LocalDateTime;
  *   <li>Registro de nuevos usuarios con validación de email único</li>
  *   <li>Autenticación de usuarios con credenciales (email/password)</li>
  *   <li>Generación de tokens JWT (access y refresh)</li>
- *   <li>Renovación de tokens mediante refresh token</li>
+ *   <li>Renovación de tokens mediante refresh token con rotación</li>
+ *   <li>Cierre de sesión (revocación de refresh tokens)</li>
  *   <li>Actualización del último acceso del usuario</li>
  * </ul>
  *
@@ -53,13 +58,16 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final FiltroEmails filtroEmails;
 
     /**
      * Registra un nuevo usuario en el sistema.
      * <p>
      * El proceso de registro incluye:
      * <ol>
-     *   <li>Validación de que el email no esté en uso</li>
+     *   <li>Validación de que el email no esté en uso ({@link FiltroEmails} y, si hace falta, base de datos)</li>
      *   <li>Encriptación de la contraseña con BCrypt</li>
      *   <li>Creación del usuario con estado ACTIVO</li>
      *   <li>Generación de tokens JWT para acceso inmediato</li>
@@ -74,7 +82,7 @@ public class AuthService {
         log.info("Intento de registro para email: {}", request.email());
 
         // Verificar que el email no esté en uso
-        if (usuarioRepository.existsByEmail(request.email())) {
+        if (filtroEmails.existe(request.email(), usuarioRepository::existsByEmail)) {
             log.warn("Intento de registro con email duplicado: {}", request.email());
             throw new DuplicateResourceException("Ya existe un usuario registrado con el email: " + request.email());
         }
@@ -91,14 +99,13 @@ public class AuthService {
                 .build();
 
         var usuarioGuardado = usuarioRepository.save(usuario);
+        busquedaUsuarios.registrarCambio(usuarioGuardado.getId(), usuarioGuardado.getNombre(), usuarioGuardado.getEstado());
         log.info("Usuario registrado exitosamente: {} (ID: {})", usuarioGuardado.getEmail(), usuarioGuardado.getId());
 
         // Generar tokens
-        var userPrincipal = UserPrincipal.fromUsuario(usuarioGuardado);
-        var accessToken = jwtService.generateAccessToken(userPrincipal);
-        var refreshToken = jwtService.generateRefreshToken(userPrincipal);
+        var tokens = refreshTokenService.iniciarSesion(usuarioGuardado);
 
-        return buildAuthResponse(usuarioGuardado, accessToken, refreshToken, "Usuario registrado exitosamente");
+        return buildAuthResponse(usuarioGuardado, tokens, "Usuario registrado exitosamente");
     }
 
     /**
@@ -116,6 +123,7 @@ public class AuthService {
      * @return {@link AuthResponse} con los datos del usuario y tokens JWT
      * @throws UnauthorizedException Si las credenciales son inválidas
      * @throws BusinessException Si la cuenta está deshabilitada o bloqueada
+     * @throws ServicioSaturadoException Si el ejecutor de hashes de contraseñas está lleno
      */
     @Transactional
     public AuthResponse login(LoginRequest request) {
@@ -142,12 +150,11 @@ public class AuthService {
             usuarioRepository.save(usuario);
 
             // Generar tokens
-            var accessToken = jwtService.generateAccessToken(userPrincipal);
-            var refreshToken = jwtService.generateRefreshToken(userPrincipal);
+            var tokens = refreshTokenService.iniciarSesion(usuario);
 
             log.info("Login exitoso para usuario: {} (ID: {})", userPrincipal.getEmail(), userPrincipal.getId());
 
-            return buildAuthResponse(usuario, accessToken, refreshToken, "Inicio de sesión exitoso");
+            return buildAuthResponse(usuario, tokens, "Inicio de sesión exitoso");
 
         } catch (BadCredentialsException e) {
             log.warn("Credenciales inválidas para email: {}", request.email());
@@ -158,6 +165,13 @@ public class AuthService {
         } catch (LockedException e) {
             log.warn("Cuenta bloqueada: {}", request.email());
             throw new BusinessException("Tu cuenta ha sido bloqueada. Contacta con soporte.");
+        } catch (InternalAuthenticationServiceException e) {
+            // El hash de comprobación de un email inexistente también pasa por el ejecutor acotado
+            if (e.getCause() instanceof ServicioSaturadoException saturado) {
+                throw saturado;
+            }
+            log.error("Error de autenticación para {}: {}", request.email(), e.getMessage());
+            throw new UnauthorizedException("Error de autenticación");
         } catch (AuthenticationException e) {
             log.error("Error de autenticación para {}: {}", request.email(), e.getMessage());
             throw new UnauthorizedException("Error de autenticación");
@@ -172,13 +186,17 @@ public class AuthService {
      *   <li>El token debe ser un refresh token válido</li>
      *   <li>El token no debe haber expirado</li>
      *   <li>El usuario asociado debe existir y estar activo</li>
+     *   <li>El token debe estar registrado, sin usar y con la sesión abierta</li>
      * </ul>
+     * El refresh token presentado queda invalidado y se devuelve uno nuevo. Si se
+     * presenta un token ya rotado, se revoca la sesión completa; esa revocación debe
+     * confirmarse aunque la petición falle, de ahí {@code noRollbackFor}.
      *
      * @param request DTO con el refresh token
      * @return {@link AuthResponse} con los nuevos tokens JWT
-     * @throws UnauthorizedException Si el refresh token es inválido o expirado
+     * @throws UnauthorizedException Si el refresh token es inválido, expirado o reutilizado
      */
-    @Transactional
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         var refreshToken = request.refreshToken();
         log.debug("Intento de renovación de token");
@@ -211,14 +229,26 @@ public class AuthService {
             throw new UnauthorizedException("La cuenta del usuario no está activa");
         }
 
-        // Generar nuevos tokens
-        var userPrincipal = UserPrincipal.fromUsuario(usuario);
-        var newAccessToken = jwtService.generateAccessToken(userPrincipal);
-        var newRefreshToken = jwtService.generateRefreshToken(userPrincipal);
+        // Rotar el refresh token (detecta reutilización)
+        var tokens = refreshTokenService.rotar(refreshToken, usuario);
 
         log.info("Tokens renovados para usuario: {} (ID: {})", email, usuario.getId());
 
-        return buildAuthResponse(usuario, newAccessToken, newRefreshToken, "Tokens renovados exitosamente");
+        return buildAuthResponse(usuario, tokens, "Tokens renovados exitosamente");
+    }
+
+    /**
+     * Cierra la sesión asociada al refresh token.
+     * <p>
+     * Revoca todos los refresh tokens de la sesión y, a través de
+     * {@link com.alberti.joinly.security.RevocacionSesiones}, sus access tokens vigentes.
+     * Es idempotente: un token desconocido o ya revocado no produce error.
+     *
+     * @param request DTO con el refresh token de la sesión
+     */
+    @Transactional
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenService.cerrarSesion(request.refreshToken());
     }
 
     /**
@@ -285,10 +315,13 @@ public class AuthService {
         usuario.setPassword(passwordEncoder.encode(request.getNuevaContrasena()));
         usuarioRepository.save(usuario);
 
+        // Cerrar todas las sesiones, también la actual: el cliente debe volver a iniciar sesión
+        refreshTokenService.cerrarTodasLasSesiones(userId);
+
         log.info("Contraseña cambiada exitosamente para usuario: {} (ID: {})", usuario.getEmail(), userId);
     }
 
-    private AuthResponse buildAuthResponse(Usuario usuario, String accessToken, String refreshToken, String mensaje) {
+    private AuthResponse buildAuthResponse(Usuario usuario, RefreshTokenService.TokensEmitidos tokens, String mensaje) {
         return AuthResponse.builder()
                 .id(usuario.getId())
                 .nombre(usuario.getNombre())
@@ -299,10 +332,10 @@ public class AuthService {
                 .fechaRegistro(usuario.getFechaRegistro())
                 .fechaUltimoAcceso(usuario.getFechaUltimoAcceso())
                 .avatar(usuario.getAvatar())
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .accessToken(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .tokenType("Bearer")
-                .expiresIn(jwtService.getRemainingValidity(accessToken))
+                .expiresIn(jwtService.getRemainingValidity(tokens.accessToken()))
                 .mensaje(mensaje)
                 .build();
     }
@@ -0,0 +1,272 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.autorizacion.IndiceAutorizacion;
+import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.exceptions.UnauthorizedException;
+import com.alberti.joinly.repositories.MiembroUnidadRepository;
+import com.alberti.joinly.repositories.SuscripcionRepository;
+import com.alberti.joinly.repositories.UnidadFamiliarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Comprobaciones de pertenencia y propiedad (anfitrión de una suscripción, administrador o
+ * miembro activo de una unidad familiar) resueltas en memoria con {@link IndiceAutorizacion}
+ * en lugar de una consulta por comprobación.
+ * <p>
+ * El índice se rellena bajo demanda con consultas que solo leen ids, y se mantiene así:
+ * <ul>
+ *   <li>Los servicios que dan de alta o de baja miembros, crean grupos o suscripciones o eliminan
+ *       grupos lo notifican con los métodos {@code registrar*}, que se aplican al confirmar la
+ *       transacción. Mientras una transacción tenga cambios pendientes, lo que lea no se guarda
+ *       en el índice, porque podría incluir datos que acaben deshaciéndose.</li>
+ *   <li>Cada {@code joinly.autorizacion.intervalo-sincronizacion-ms} se descartan las unidades con
+ *       filas de {@code unidad_familiar} o {@code miembro_unidad} modificadas desde la última marca
+ *       (con un solape para desfases de reloj), lo que incorpora los cambios de otros nodos.</li>
+ * </ul>
+ * El anfitrión de una suscripción y el administrador de un grupo no cambian después de crearse;
+ * si algún día se pueden transferir, hay que notificarlo con {@link #registrarAnfitrion} o
+ * {@link #registrarAdministrador}.
+ */
+@Service
+@Slf4j
+public class AutorizacionService {
+
+    private static final Duration SOLAPE = Duration.ofMinutes(1);
+
+    private static final String SQL_CAMBIOS = """
+            SELECT id_unidad, updated_at FROM miembro_unidad WHERE updated_at >= ?
+            UNION ALL
+            SELECT id_unidad, updated_at FROM unidad_familiar WHERE updated_at >= ?""";
+
+    /** Recurso de la transacción en curso que indica que tiene cambios pendientes de aplicar. */
+    private final Object cambiosPendientes = new Object();
+
+    private final SuscripcionRepository suscripcionRepository;
+    private final UnidadFamiliarRepository unidadFamiliarRepository;
+    private final MiembroUnidadRepository miembroUnidadRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndiceAutorizacion indice;
+
+    private final Counter aciertosAnfitrion;
+    private final Counter fallosAnfitrion;
+    private final Counter aciertosAdministrador;
+    private final Counter fallosAdministrador;
+    private final Counter aciertosMiembro;
+    private final Counter fallosMiembro;
+
+    private volatile LocalDateTime ultimaModificacion = LocalDateTime.now();
+
+    public AutorizacionService(
+            SuscripcionRepository suscripcionRepository,
+            UnidadFamiliarRepository unidadFamiliarRepository,
+            MiembroUnidadRepository miembroUnidadRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${joinly.autorizacion.max-entradas:100000}") int maxEntradas,
+            MeterRegistry meterRegistry) {
+        this.suscripcionRepository = suscripcionRepository;
+        this.unidadFamiliarRepository = unidadFamiliarRepository;
+        this.miembroUnidadRepository = miembroUnidadRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.indice = new IndiceAutorizacion(maxEntradas);
+
+        Gauge.builder("joinly.autorizacion.entradas", indice, IndiceAutorizacion::tamano)
+                .description("Suscripciones y unidades familiares en el índice de autorización")
+                .register(meterRegistry);
+        this.aciertosAnfitrion = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "anfitrion", "resultado", "acierto");
+        this.fallosAnfitrion = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "anfitrion", "resultado", "fallo");
+        this.aciertosAdministrador = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "administrador", "resultado", "acierto");
+        this.fallosAdministrador = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "administrador", "resultado", "fallo");
+        this.aciertosMiembro = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "miembro", "resultado", "acierto");
+        this.fallosMiembro = meterRegistry.counter("joinly.autorizacion.consultas", "hecho", "miembro", "resultado", "fallo");
+    }
+
+    // ==================== Consultas ====================
+
+    public boolean esAnfitrion(Long idSuscripcion, Long idUsuario) {
+        return idUsuario != null && idUsuario.equals(anfitrionDe(idSuscripcion));
+    }
+
+    /**
+     * @param mensaje Mensaje de la excepción si el usuario no es el anfitrión
+     * @throws ResourceNotFoundException si la suscripción no existe
+     * @throws UnauthorizedException si el usuario no es el anfitrión
+     */
+    public void verificarAnfitrion(Long idSuscripcion, Long idUsuario, String mensaje) {
+        var anfitrion = anfitrionDe(idSuscripcion);
+        if (anfitrion == null) {
+            throw new ResourceNotFoundException("Suscripción", "id", idSuscripcion);
+        }
+        if (!anfitrion.equals(idUsuario)) {
+            throw new UnauthorizedException(mensaje);
+        }
+    }
+
+    public boolean esAdministrador(Long idUnidad, Long idUsuario) {
+        return idUsuario != null && idUsuario.equals(administradorDe(idUnidad));
+    }
+
+    /**
+     * @param mensaje Mensaje de la excepción si el usuario no es el administrador
+     * @throws ResourceNotFoundException si la unidad familiar no existe
+     * @throws UnauthorizedException si el usuario no es el administrador
+     */
+    public void verificarAdministrador(Long idUnidad, Long idUsuario, String mensaje) {
+        var administrador = administradorDe(idUnidad);
+        if (administrador == null) {
+            throw new ResourceNotFoundException("Unidad familiar", "id", idUnidad);
+        }
+        if (!administrador.equals(idUsuario)) {
+            throw new UnauthorizedException(mensaje);
+        }
+    }
+
+    public boolean esMiembroActivo(Long idUnidad, Long idUsuario) {
+        if (idUnidad == null || idUsuario == null) return false;
+
+        var cacheado = indice.esMiembro(idUnidad, idUsuario);
+        if (cacheado != null) {
+            aciertosMiembro.increment();
+            return cacheado;
+        }
+        fallosMiembro.increment();
+        var version = indice.version();
+        var ids = miembroUnidadRepository.findIdsUsuariosActivosByUnidadId(idUnidad);
+        if (sinCambiosPendientes()) {
+            indice.cargarMiembros(version, idUnidad, ids.stream().mapToLong(Long::longValue).toArray());
+        }
+        return ids.contains(idUsuario);
+    }
+
+    private Long anfitrionDe(Long idSuscripcion) {
+        if (idSuscripcion == null) return null;
+
+        var cacheado = indice.anfitrion(idSuscripcion);
+        if (cacheado != IndiceAutorizacion.DESCONOCIDO) {
+            aciertosAnfitrion.increment();
+            return cacheado;
+        }
+        fallosAnfitrion.increment();
+        var version = indice.version();
+        var anfitrion = suscripcionRepository.findIdAnfitrionById(idSuscripcion).orElse(null);
+        if (anfitrion != null && sinCambiosPendientes()) {
+            indice.cargarAnfitrion(version, idSuscripcion, anfitrion);
+        }
+        return anfitrion;
+    }
+
+    private Long administradorDe(Long idUnidad) {
+        if (idUnidad == null) return null;
+
+        var cacheado = indice.administrador(idUnidad);
+        if (cacheado != IndiceAutorizacion.DESCONOCIDO) {
+            aciertosAdministrador.increment();
+            return cacheado;
+        }
+        fallosAdministrador.increment();
+        var version = indice.version();
+        var administrador = unidadFamiliarRepository.findIdAdministradorById(idUnidad).orElse(null);
+        if (administrador != null && sinCambiosPendientes()) {
+            indice.cargarAdministrador(version, idUnidad, administrador);
+        }
+        return administrador;
+    }
+
+    // ==================== Cambios ====================
+
+    public void registrarAnfitrion(Long idSuscripcion, Long idAnfitrion) {
+        alConfirmar(() -> indice.asignarAnfitrion(idSuscripcion, idAnfitrion));
+    }
+
+    public void registrarAdministrador(Long idUnidad, Long idAdministrador) {
+        alConfirmar(() -> indice.asignarAdministrador(idUnidad, idAdministrador));
+    }
+
+    public void registrarAltaMiembro(Long idUnidad, Long idUsuario) {
+        alConfirmar(() -> indice.altaMiembro(idUnidad, idUsuario));
+    }
+
+    public void registrarBajaMiembro(Long idUnidad, Long idUsuario) {
+        alConfirmar(() -> indice.bajaMiembro(idUnidad, idUsuario));
+    }
+
+    /** La unidad deja de existir para las consultas (borrado lógico). */
+    public void registrarBajaUnidad(Long idUnidad) {
+        alConfirmar(() -> indice.olvidarUnidad(idUnidad));
+    }
+
+    /**
+     * Aplica el cambio al confirmar la transacción en curso (o inmediatamente si no hay
+     * ninguna) y, hasta entonces, marca la transacción como con cambios pendientes.
+     */
+    private void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        if (!TransactionSynchronizationManager.hasResource(cambiosPendientes)) {
+            TransactionSynchronizationManager.bindResource(cambiosPendientes, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(cambiosPendientes);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(cambiosPendientes, Boolean.TRUE);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(cambiosPendientes);
+                }
+            });
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+
+    private boolean sinCambiosPendientes() {
+        return !TransactionSynchronizationManager.hasResource(cambiosPendientes);
+    }
+
+    // ==================== Sincronización ====================
+
+    @Scheduled(
+            initialDelayString = "${joinly.autorizacion.intervalo-sincronizacion-ms:5000}",
+            fixedDelayString = "${joinly.autorizacion.intervalo-sincronizacion-ms:5000}")
+    public void sincronizar() {
+        try {
+            var desde = Timestamp.valueOf(ultimaModificacion.minus(SOLAPE));
+            var marca = new LocalDateTime[]{ultimaModificacion};
+            jdbcTemplate.query(SQL_CAMBIOS, rs -> {
+                indice.olvidarUnidad(rs.getLong("id_unidad"));
+                var actualizado = rs.getTimestamp("updated_at");
+                if (actualizado != null && actualizado.toLocalDateTime().isAfter(marca[0])) {
+                    marca[0] = actualizado.toLocalDateTime();
+                }
+            }, desde, desde);
+            ultimaModificacion = marca[0];
+        } catch (DataAccessException e) {
+            log.warn("No se pudo sincronizar el índice de autorización: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.config.PasarelaProperties;
+import com.alberti.joinly.dinero.Dinero;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import com.alberti.joinly.pasarela.PasarelaPago;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Cobro de pagos a través de la {@link PasarelaPago}, sin mantener abierta ninguna transacción
+ * mientras se espera a la pasarela (por eso esta clase no es {@code @Transactional}):
+ * <ol>
+ *   <li>{@link PagoService#reservarPago}: valida y registra el pago PENDIENTE (transacción corta)</li>
+ *   <li>Llamada a la pasarela, sin conexión de base de datos</li>
+ *   <li>{@link PagoService#confirmarPago} o {@link PagoService#rechazarPago} (transacción corta)</li>
+ * </ol>
+ * Si el resultado del cobro queda en duda (timeout o error de la pasarela), el pago se
+ * devuelve PENDIENTE y {@link #conciliarPendientes()} lo resuelve más tarde preguntando a la
+ * pasarela por su clave de idempotencia.
+ * <p>
+ * Los reembolsos ({@link #reembolsar}) siguen los mismos pasos con
+ * {@link PagoService#reservarReembolso}, {@link PagoService#confirmarReembolso} y
+ * {@link PagoService#revertirReembolso}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CobroService {
+
+    private final PagoService pagoService;
+    private final PasarelaPago pasarelaPago;
+    private final PasarelaProperties pasarelaProperties;
+
+    /**
+     * Procesa un nuevo pago para una plaza de suscripción.
+     *
+     * @param idUsuario     ID del usuario que paga
+     * @param idPlaza       ID de la plaza
+     * @param idMetodoPago  ID del método de pago a usar
+     * @param monto         Monto a cobrar
+     * @return Pago RETENIDO, o PENDIENTE si el resultado del cobro está en duda
+     * @throws BusinessException si la pasarela rechaza el cobro
+     * @throws ServicioSaturadoException si la pasarela no está disponible (no se ha cobrado)
+     */
+    public Pago procesarPago(Long idUsuario, Long idPlaza, Long idMetodoPago, BigDecimal monto) {
+        log.info("Procesando pago: usuario={}, plaza={}, monto={}", idUsuario, idPlaza, monto);
+
+        var pago = pagoService.reservarPago(idUsuario, idPlaza, idMetodoPago, monto);
+        var cobro = new PasarelaPago.Cobro(claveIdempotencia(pago.getId()),
+                pago.getMetodoPago().getTokenPasarela(), pago.getMonto(), pago.getMoneda());
+
+        PasarelaPago.Resultado resultado;
+        try {
+            resultado = esperar(pasarelaPago.cobrar(cobro));
+        } catch (ServicioSaturadoException e) {
+            pagoService.rechazarPago(pago.getId(), "Pasarela de pagos no disponible");
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Resultado del cobro del pago {} en duda, queda PENDIENTE: {}", pago.getId(), e.toString());
+            return detalles(pago.getId());
+        }
+
+        if (!resultado.aprobado()) {
+            pagoService.rechazarPago(pago.getId(), resultado.motivo());
+            throw new BusinessException("El pago ha sido rechazado: " + resultado.motivo());
+        }
+        return pagoService.confirmarPago(pago.getId(), resultado.referencia());
+    }
+
+    /**
+     * Resuelve los pagos PENDIENTES más antiguos que {@code joinly.pasarela.conciliar-tras-ms}
+     * según lo que responda la pasarela: confirmados si se cobraron, FALLIDOS si se rechazaron
+     * o nunca llegaron. Los que la pasarela no puede responder ahora se reintentan después.
+     *
+     * @return Pagos resueltos
+     */
+    public int conciliarPendientes() {
+        var hasta = LocalDateTime.now().minus(Duration.ofMillis(pasarelaProperties.getConciliarTrasMs()));
+        var resueltos = 0;
+        for (var pago : pagoService.obtenerPagosPendientesDeConciliar(hasta)) {
+            try {
+                var resultado = esperar(pasarelaPago.consultar(claveIdempotencia(pago.getId())));
+                if (resultado.isEmpty()) {
+                    pagoService.rechazarPago(pago.getId(), "El cobro no llegó a la pasarela");
+                } else if (resultado.get().aprobado()) {
+                    pagoService.confirmarPago(pago.getId(), resultado.get().referencia());
+                } else {
+                    pagoService.rechazarPago(pago.getId(), resultado.get().motivo());
+                }
+                resueltos++;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo conciliar el pago {}: {}", pago.getId(), e.toString());
+            }
+        }
+        return resueltos;
+    }
+
+    /**
+     * Reembolsa total o parcialmente un pago.
+     *
+     * @return Pago con el reembolso aplicado
+     * @throws BusinessException si el importe excede el disponible o la pasarela rechaza el reembolso
+     * @throws ServicioSaturadoException si la pasarela no está disponible o el resultado quedó en duda
+     */
+    public Pago reembolsar(Long idPago, BigDecimal monto, String motivo) {
+        log.info("Procesando reembolso: pago={}, monto={}", idPago, monto);
+
+        var pago = pagoService.reservarReembolso(idPago, monto);
+        enviarReembolso(pago);
+        return pagoService.confirmarReembolso(idPago, motivo);
+    }
+
+    /**
+     * Envía a la pasarela el reembolso en curso de {@code pago} (ya reservado con
+     * {@link PagoService#reservarReembolso}), sin transacción abierta. Si la pasarela lo
+     * rechaza o no llega a enviarse, deshace la reserva y lanza la excepción.
+     * <p>
+     * Si el resultado queda en duda, el reembolso sigue en curso (el pago no se libera ni admite
+     * otro reembolso) y se pide repetirlo: con el mismo importe se envía con la misma clave de
+     * idempotencia, así que la pasarela no reembolsa dos veces.
+     */
+    public void enviarReembolso(Pago pago) {
+        PasarelaPago.Resultado resultado;
+        try {
+            resultado = esperar(pasarelaPago.reembolsar(pago.getReferenciaExterna(),
+                    pago.getMontoReembolsoEnCurso(), claveReembolso(pago)));
+        } catch (ServicioSaturadoException e) {
+            pagoService.revertirReembolso(pago.getId());
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Resultado del reembolso del pago {} en duda, queda en curso: {}", pago.getId(), e.toString());
+            throw new ServicioSaturadoException(
+                    "No se ha podido confirmar el reembolso con la pasarela. Repítelo con el mismo importe", 30);
+        }
+
+        if (!resultado.aprobado()) {
+            pagoService.revertirReembolso(pago.getId());
+            throw new BusinessException("La pasarela rechazó el reembolso: " + resultado.motivo());
+        }
+    }
+
+    /** Clave con la que la pasarela identifica el cobro de un pago; reintentarlo no cobra dos veces. */
+    static String claveIdempotencia(Long idPago) {
+        return "pago-" + idPago;
+    }
+
+    /** Clave del reembolso en curso: el pago y lo reembolsado en total tras él. */
+    static String claveReembolso(Pago pago) {
+        var total = pago.getImporteReembolsado().sumar(Dinero.de(pago.getMontoReembolsoEnCurso(), pago.getMoneda()));
+        return "reembolso-" + pago.getId() + "-" + total.importe();
+    }
+
+    private Pago detalles(Long idPago) {
+        return pagoService.buscarPorIdConDetalles(idPago)
+                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
+    }
+
+    /**
+     * Espera al resultado (el plazo lo pone la propia pasarela) y desenvuelve la excepción.
+     */
+    private static <T> T esperar(Future<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.dto.configuracion.VersionConfiguracion;
+import com.alberti.joinly.entities.enums.TipoConfiguracion;
+import com.alberti.joinly.entities.sistema.Configuracion;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.repositories.ConfiguracionRepository;
+import com.alberti.joinly.repositories.UsuarioRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración de negocio modificable en caliente, respaldada por la tabla {@code configuracion}.
+ * <p>
+ * Las lecturas no acceden a la base de datos: se resuelven contra una instantánea
+ * inmutable publicada en un campo volátil, con los valores ya convertidos a su tipo.
+ * Cada {@code joinly.configuracion.intervalo-refresco-ms} se comprueba la huella de la
+ * tabla (número de filas y última modificación) con una única consulta agregada y,
+ * solo si ha cambiado, se recarga completa y se publica una nueva instantánea.
+ * <p>
+ * Si una clave no existe o su valor no es del tipo pedido, se devuelve el valor
+ * por defecto indicado por el llamante (normalmente la propiedad de Spring equivalente).
+ * <p>
+ * Los getters no son transaccionales a propósito: se llaman en caminos calientes y una
+ * transacción supondría un permiso del compartimento y una conexión por cada lectura del mapa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConfiguracionService {
+
+    public static final String MAX_SUSCRIPCIONES_GRUPO = "max_suscripciones_grupo";
+    public static final String DIAS_RETENCION_PAGO = "dias_retencion_pago";
+    public static final String JOBS_PAUSADOS = "jobs_pausados";
+    public static final String JOBS_DIAS_AVISO_RENOVACION = "jobs_dias_aviso_renovacion";
+    public static final String JOBS_DIAS_LIMPIAR_NOTIFICACIONES = "jobs_dias_limpiar_notificaciones";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ConfiguracionRepository configuracionRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    private volatile Instantanea instantanea = Instantanea.VACIA;
+
+    /**
+     * Valor de un parámetro convertido una sola vez al construir la instantánea.
+     * {@code entero}, {@code decimal} y {@code booleano} son {@code null} si no aplican.
+     */
+    record Valor(String texto, Long entero, BigDecimal decimal, Boolean booleano) {
+
+        static Valor de(Configuracion configuracion) {
+            var texto = configuracion.getValor().trim();
+            BigDecimal decimal = null;
+            Long entero = null;
+            Boolean booleano = null;
+
+            if (configuracion.getTipo() == TipoConfiguracion.NUMBER) {
+                try {
+                    decimal = new BigDecimal(texto);
+                    entero = decimal.stripTrailingZeros().scale() <= 0 ? decimal.longValueExact() : null;
+                } catch (ArithmeticException | NumberFormatException e) {
+                    log.warn("Valor numérico inválido en configuración {}: '{}'", configuracion.getClave(), texto);
+                }
+            } else if (configuracion.getTipo() == TipoConfiguracion.BOOLEAN) {
+                if ("true".equalsIgnoreCase(texto) || "false".equalsIgnoreCase(texto)) {
+                    booleano = Boolean.parseBoolean(texto);
+                } else {
+                    log.warn("Valor booleano inválido en configuración {}: '{}'", configuracion.getClave(), texto);
+                }
+            }
+            return new Valor(texto, entero, decimal, booleano);
+        }
+    }
+
+    record Instantanea(Map<String, Valor> valores, VersionConfiguracion version) {
+
+        static final Instantanea VACIA = new Instantanea(Map.of(), null);
+    }
+
+    // ==================== Lectura tipada ====================
+
+    public int getInt(String clave, int porDefecto) {
+        var valor = instantanea.valores().get(clave);
+        if (valor == null || valor.entero() == null
+                || valor.entero() < Integer.MIN_VALUE || valor.entero() > Integer.MAX_VALUE) {
+            return porDefecto;
+        }
+        return valor.entero().intValue();
+    }
+
+    public long getLong(String clave, long porDefecto) {
+        var valor = instantanea.valores().get(clave);
+        return valor == null || valor.entero() == null ? porDefecto : valor.entero();
+    }
+
+    public BigDecimal getDecimal(String clave, BigDecimal porDefecto) {
+        var valor = instantanea.valores().get(clave);
+        return valor == null || valor.decimal() == null ? porDefecto : valor.decimal();
+    }
+
+    public boolean getBoolean(String clave, boolean porDefecto) {
+        var valor = instantanea.valores().get(clave);
+        return valor == null || valor.booleano() == null ? porDefecto : valor.booleano();
+    }
+
+    public String getString(String clave, String porDefecto) {
+        var valor = instantanea.valores().get(clave);
+        return valor == null ? porDefecto : valor.texto();
+    }
+
+    // ==================== Administración ====================
+
+    @Transactional(readOnly = true)
+    public List<Configuracion> listarModificables() {
+        return configuracionRepository.findConfiguracionesModificables();
+    }
+
+    /**
+     * Modifica el valor de un parámetro validándolo contra su tipo.
+     * La nueva instantánea se publica al confirmar la transacción.
+     *
+     * @throws ResourceNotFoundException si la clave no existe
+     * @throws BusinessException         si el parámetro no es modificable o el valor no es del tipo declarado
+     */
+    @Transactional
+    public Configuracion actualizar(String clave, String valor, Long idUsuario) {
+        var configuracion = configuracionRepository.findById(clave)
+                .orElseThrow(() -> new ResourceNotFoundException("Configuracion", "clave", clave));
+
+        if (!Boolean.TRUE.equals(configuracion.getModificable())) {
+            throw new BusinessException("El parámetro " + clave + " no es modificable");
+        }
+        validarTipo(configuracion.getTipo(), valor.trim());
+
+        configuracion.setValor(valor.trim());
+        configuracion.setUpdatedBy(usuarioRepository.getReferenceById(idUsuario));
+        var guardada = configuracionRepository.save(configuracion);
+
+        log.info("Configuración {} actualizada por el usuario {}", clave, idUsuario);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recargar();
+                }
+            });
+        }
+        return guardada;
+    }
+
+    private static void validarTipo(TipoConfiguracion tipo, String valor) {
+        switch (tipo) {
+            case NUMBER -> {
+                try {
+                    new BigDecimal(valor);
+                } catch (NumberFormatException e) {
+                    throw new BusinessException("El valor debe ser numérico");
+                }
+            }
+            case BOOLEAN -> {
+                if (!"true".equalsIgnoreCase(valor) && !"false".equalsIgnoreCase(valor)) {
+                    throw new BusinessException("El valor debe ser true o false");
+                }
+            }
+            case JSON -> {
+                try {
+                    OBJECT_MAPPER.readTree(valor);
+                } catch (JsonProcessingException e) {
+                    throw new BusinessException("El valor debe ser un JSON válido");
+                }
+            }
+            case STRING -> {
+                // Cualquier texto no vacío es válido
+            }
+        }
+    }
+
+    // ==================== Refresco ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        recargar();
+    }
+
+    /**
+     * Comprueba la huella de la tabla y recarga solo si ha cambiado.
+     */
+    @Scheduled(
+            initialDelayString = "${joinly.configuracion.intervalo-refresco-ms:10000}",
+            fixedDelayString = "${joinly.configuracion.intervalo-refresco-ms:10000}")
+    public void refrescarSiHaCambiado() {
+        try {
+            var version = configuracionRepository.obtenerVersion();
+            if (!version.equals(instantanea.version())) {
+                recargar();
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudo comprobar la versión de la configuración: {}", e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    void recargar() {
+        try {
+            // La versión se lee antes que las filas: si cambia entre medias, el siguiente ciclo recarga de nuevo
+            var version = configuracionRepository.obtenerVersion();
+            var valores = new HashMap<String, Valor>();
+            for (var configuracion : configuracionRepository.findAll()) {
+                valores.put(configuracion.getClave(), Valor.de(configuracion));
+            }
+            instantanea = new Instantanea(Map.copyOf(valores), version);
+            log.info("Configuración cargada: {} parámetros", valores.size());
+        } catch (DataAccessException e) {
+            log.warn("No se pudo cargar la configuración, se mantiene la anterior: {}", e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.auditoria.Auditable;
 import com.alberti.joinly.dto.credencial.CredencialRequest;
 import com.alberti.joinly.entities.enums.EstadoPlaza;
 import com.alberti.joinly.entities.suscripcion.Credencial;
@@ -45,6 +46,7 @@ public class CredencialService {
     private final PlazaRepository plazaRepository;
     private final UsuarioRepository usuarioRepository;
     private final EncryptionService encryptionService;
+    private final AutorizacionService autorizacionService;
 
     /**
      * Obtiene las credenciales visibles de una suscripción para un usuario autorizado.
@@ -79,6 +81,7 @@ public class CredencialService {
      * @return Credencial creada
      */
     @Transactional
+    @Auditable(accion = "CREAR_CREDENCIAL", entidad = Credencial.class, excluir = "valorEncriptado")
     public Credencial crearCredencial(Long idSuscripcion, Long idAnfitrion, CredencialRequest request) {
         log.info("Creando credencial para suscripción {} por usuario {}", idSuscripcion, idAnfitrion);
 
@@ -107,6 +110,8 @@ public class CredencialService {
      * Actualiza una credencial existente, guardando el valor anterior en historial.
      */
     @Transactional
+    @Auditable(accion = "CAMBIO_CREDENCIALES", entidad = Credencial.class,
+            idParametro = "idCredencial", excluir = "valorEncriptado")
     public Credencial actualizarCredencial(Long idCredencial, Long idAnfitrion, CredencialRequest request, String ip) {
         log.info("Actualizando credencial {} por usuario {}", idCredencial, idAnfitrion);
 
@@ -142,6 +147,8 @@ public class CredencialService {
      * Elimina una credencial.
      */
     @Transactional
+    @Auditable(accion = "ELIMINAR_CREDENCIAL", entidad = Credencial.class,
+            idParametro = "idCredencial", excluir = "valorEncriptado")
     public void eliminarCredencial(Long idCredencial, Long idAnfitrion) {
         log.info("Eliminando credencial {} por usuario {}", idCredencial, idAnfitrion);
 
@@ -163,11 +170,7 @@ public class CredencialService {
     }
 
     private void verificarEsAnfitrion(Long idSuscripcion, Long idUsuario) {
-        var suscripcion = suscripcionRepository.findById(idSuscripcion)
-                .orElseThrow(() -> new ResourceNotFoundException("Suscripción", "id", idSuscripcion));
-
-        if (!suscripcion.getAnfitrion().getId().equals(idUsuario)) {
-            throw new UnauthorizedException("Solo el anfitrión puede gestionar las credenciales");
-        }
+        autorizacionService.verificarAnfitrion(idSuscripcion, idUsuario,
+                "Solo el anfitrión puede gestionar las credenciales");
     }
 }
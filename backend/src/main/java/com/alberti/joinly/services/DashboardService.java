@@ -0,0 +1,172 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.basedatos.CompartimentosBd;
+import com.alberti.joinly.dto.dashboard.DashboardResponse;
+import com.alberti.joinly.dto.solicitud.SolicitudResponse;
+import com.alberti.joinly.dto.suscripcion.PlazaResponse;
+import com.alberti.joinly.dto.suscripcion.SuscripcionSummary;
+import com.alberti.joinly.entities.suscripcion.Suscripcion;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Compone la pantalla de inicio consultando sus secciones en paralelo.
+ * <p>
+ * Cada sección se ejecuta en su propio hilo virtual y en su propia transacción de solo lectura
+ * (por eso esta clase no es {@code @Transactional}), y el DTO se construye dentro de ella para
+ * que las relaciones perezosas estén disponibles. Todas comparten el plazo
+ * {@code joinly.dashboard.timeout-ms}, contado desde el inicio de la petición: la que no termina
+ * a tiempo se interrumpe, su transacción caduca con el mismo plazo y la respuesta sale sin ella
+ * (ver {@link DashboardResponse#seccionesIncompletas()}). Un error en una sección tampoco
+ * afecta a las demás.
+ * <p>
+ * Como mucho {@code joinly.dashboard.paralelismo} secciones de una misma petición tienen
+ * conexión a la vez: cada una ocupa un permiso del compartimento de lectura
+ * ({@link CompartimentosBd}), y con todas a la vez unas pocas pantallas de inicio simultáneas
+ * dejarían sin conexión al resto de lecturas.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    static final String GRUPOS = "grupos";
+    static final String PLAZAS = "plazas";
+    static final String SUSCRIPCIONES_ANFITRION = "suscripcionesAnfitrion";
+    static final String NOTIFICACIONES = "notificacionesNoLeidas";
+    static final String SOLICITUDES = "solicitudesPendientes";
+
+    /** Mismo tamaño de página que {@code /unidades/miembro/cards} por defecto. */
+    private static final int MAX_GRUPOS = 50;
+
+    private final UnidadFamiliarService unidadFamiliarService;
+    private final SuscripcionService suscripcionService;
+    private final NotificacionService notificacionService;
+    private final SolicitudService solicitudService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int paralelismo;
+
+    public DashboardService(
+            UnidadFamiliarService unidadFamiliarService,
+            SuscripcionService suscripcionService,
+            NotificacionService notificacionService,
+            SolicitudService solicitudService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${joinly.dashboard.timeout-ms:2000}") long timeoutMs,
+            @Value("${joinly.dashboard.paralelismo:2}") int paralelismo) {
+        this.unidadFamiliarService = unidadFamiliarService;
+        this.suscripcionService = suscripcionService;
+        this.notificacionService = notificacionService;
+        this.solicitudService = solicitudService;
+        this.meterRegistry = meterRegistry;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.paralelismo = Math.max(1, paralelismo);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Limita también las consultas de una sección que ya se ha dado por perdida
+        this.transactionTemplate.setTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+    }
+
+    /**
+     * Obtiene todas las secciones de la pantalla de inicio del usuario.
+     *
+     * @param idUsuario ID del usuario autenticado
+     * @return Secciones obtenidas dentro del plazo; el resto a {@code null}
+     */
+    public DashboardResponse obtenerDashboard(Long idUsuario) {
+        var limite = System.nanoTime() + timeout.toNanos();
+        var hilos = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-", 0).factory());
+        var turnos = new Semaphore(paralelismo);
+        // Las secciones se leen con el usuario de la petición, para que EnrutadorLecturas le
+        // aplique la lectura de sus propias escrituras (un grupo recién creado no se pierde)
+        var contexto = SecurityContextHolder.getContext();
+        try {
+            var grupos = hilos.submit(enTransaccion(contexto, turnos, () -> unidadFamiliarService
+                    .obtenerGruposCardDelUsuario(idUsuario, PageRequest.of(0, MAX_GRUPOS))
+                    .getContent()));
+            var plazas = hilos.submit(enTransaccion(contexto, turnos, () -> suscripcionService
+                    .listarPlazasOcupadasPorUsuario(idUsuario).stream()
+                    .map(PlazaResponse::fromEntity)
+                    .toList()));
+            var suscripciones = hilos.submit(enTransaccion(contexto, turnos, () -> {
+                var propias = suscripcionService.listarSuscripcionesDeAnfitrion(idUsuario);
+                var ocupadas = suscripcionService.contarPlazasOcupadasPorSuscripcion(
+                        propias.stream().map(Suscripcion::getId).toList());
+                return propias.stream()
+                        .map(s -> SuscripcionSummary.fromEntity(s, ocupadas.getOrDefault(s.getId(), 0L)))
+                        .toList();
+            }));
+            var notificaciones = hilos.submit(enTransaccion(contexto, turnos, () -> notificacionService.contarNoLeidas(idUsuario)));
+            var solicitudes = hilos.submit(enTransaccion(contexto, turnos, () -> solicitudService
+                    .listarSolicitudesPendientesParaResponder(idUsuario).stream()
+                    .map(SolicitudResponse::fromEntity)
+                    .toList()));
+
+            var incompletas = new ArrayList<String>();
+            return new DashboardResponse(
+                    esperar(GRUPOS, grupos, limite, incompletas),
+                    esperar(PLAZAS, plazas, limite, incompletas),
+                    esperar(SUSCRIPCIONES_ANFITRION, suscripciones, limite, incompletas),
+                    esperar(NOTIFICACIONES, notificaciones, limite, incompletas),
+                    esperar(SOLICITUDES, solicitudes, limite, incompletas),
+                    List.copyOf(incompletas));
+        } finally {
+            // Sin esperar a las secciones interrumpidas: no retienen la respuesta
+            hilos.shutdownNow();
+        }
+    }
+
+    private <T> Callable<T> enTransaccion(SecurityContext contexto, Semaphore turnos, Supplier<T> seccion) {
+        // Sin petición HTTP en el hilo, los compartimentos de BD lo tratarían como tráfico de lote
+        Callable<T> consulta = new DelegatingSecurityContextCallable<>(
+                CompartimentosBd.interactivo(() -> transactionTemplate.execute(status -> seccion.get())), contexto);
+        return () -> {
+            // La espera por turno cuenta dentro del plazo: si se agota, la cancelación la interrumpe
+            turnos.acquire();
+            try {
+                return consulta.call();
+            } finally {
+                turnos.release();
+            }
+        };
+    }
+
+    private <T> T esperar(String seccion, Future<T> futuro, long limite, List<String> incompletas) {
+        try {
+            return futuro.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            log.warn("Dashboard: la sección {} no ha terminado en {} ms", seccion, timeout.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Dashboard: error al obtener la sección {}", seccion, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+        }
+        incompletas.add(seccion);
+        meterRegistry.counter("joinly.dashboard.secciones.incompletas", "seccion", seccion).increment();
+        return null;
+    }
+}
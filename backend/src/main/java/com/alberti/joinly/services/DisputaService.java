@@ -1,23 +1,31 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.auditoria.Auditable;
 import com.alberti.joinly.dto.disputa.CreateDisputaRequest;
 import com.alberti.joinly.dto.disputa.ResolverDisputaRequest;
 import com.alberti.joinly.entities.enums.EstadoDisputa;
+import com.alberti.joinly.entities.enums.CuentaContable;
 import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.enums.ResolucionDisputa;
 import com.alberti.joinly.entities.pago.Disputa;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.usuario.Usuario;
 import com.alberti.joinly.exceptions.BusinessException;
 import com.alberti.joinly.exceptions.ResourceNotFoundException;
 import com.alberti.joinly.exceptions.UnauthorizedException;
 import com.alberti.joinly.repositories.DisputaRepository;
 import com.alberti.joinly.repositories.PagoRepository;
 import com.alberti.joinly.repositories.UsuarioRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -37,7 +45,6 @@ import java.util.Optional;
  * </ol>
  */
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 @Slf4j
 public class DisputaService {
@@ -46,7 +53,29 @@ public class DisputaService {
     private final PagoRepository pagoRepository;
     private final UsuarioRepository usuarioRepository;
     private final PagoService pagoService;
+    private final CobroService cobroService;
     private final NotificacionService notificacionService;
+    private final LibroContableService libroContableService;
+    private final TransactionTemplate transactionTemplate;
+
+    public DisputaService(
+            DisputaRepository disputaRepository,
+            PagoRepository pagoRepository,
+            UsuarioRepository usuarioRepository,
+            PagoService pagoService,
+            CobroService cobroService,
+            NotificacionService notificacionService,
+            LibroContableService libroContableService,
+            PlatformTransactionManager transactionManager) {
+        this.disputaRepository = disputaRepository;
+        this.pagoRepository = pagoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.pagoService = pagoService;
+        this.cobroService = cobroService;
+        this.notificacionService = notificacionService;
+        this.libroContableService = libroContableService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     public Optional<Disputa> buscarPorId(Long id) {
         return disputaRepository.findById(id);
@@ -76,7 +105,7 @@ public class DisputaService {
      * Condiciones:
      * <ul>
      *   <li>El pago debe pertenecer al usuario</li>
-     *   <li>El pago no puede estar ya liberado</li>
+     *   <li>El pago debe tener los fondos retenidos (RETENIDO o REEMBOLSO_PARCIAL)</li>
      *   <li>No puede haber otra disputa activa sobre el mismo pago</li>
      * </ul>
      *
@@ -85,10 +114,12 @@ public class DisputaService {
      * @return Disputa creada
      */
     @Transactional
+    @Auditable(accion = "DISPUTA_ABIERTA", entidad = Disputa.class)
     public Disputa abrirDisputa(Long idReclamante, CreateDisputaRequest request) {
         log.info("Abriendo disputa: usuario={}, pago={}", idReclamante, request.idPago());
 
-        var pago = pagoRepository.findById(request.idPago())
+        // Bloqueado para que dos disputas simultáneas del mismo pago no pasen ambas la comprobación
+        var pago = pagoRepository.findByIdParaActualizar(request.idPago())
                 .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", request.idPago()));
 
         // Validar que el pago pertenece al usuario
@@ -96,10 +127,13 @@ public class DisputaService {
             throw new UnauthorizedException("No puedes disputar un pago que no es tuyo");
         }
 
-        // Validar que el pago no esté liberado
+        // Validar que el pago no esté liberado ni sin cobrar
         if (pago.getEstado() == EstadoPago.LIBERADO) {
             throw new BusinessException("No se puede disputar un pago ya liberado");
         }
+        if (LibroContableService.cuentaDeFondos(pago.getEstado()) != CuentaContable.RETENIDO) {
+            throw new BusinessException("No se puede disputar un pago en estado " + pago.getEstado());
+        }
 
         // Validar que no haya disputa activa
         var existeDisputaActiva = disputaRepository.existsByPagoIdAndEstadoIn(
@@ -123,7 +157,7 @@ public class DisputaService {
                 .build();
 
         // Marcar el pago como disputado
-        pagoService.marcarComoDisputado(request.idPago());
+        disputa.setEstadoPagoAnterior(pagoService.marcarComoDisputado(request.idPago()));
 
         var disputaGuardada = disputaRepository.save(disputa);
 
@@ -135,6 +169,7 @@ public class DisputaService {
      * Asigna un agente de soporte a una disputa y la pasa a revisión.
      */
     @Transactional
+    @Auditable(accion = "DISPUTA_ASIGNADA", entidad = Disputa.class, idParametro = "idDisputa")
     public Disputa asignarAgente(Long idDisputa, Long idAgente) {
         log.info("Asignando agente {} a disputa {}", idAgente, idDisputa);
 
@@ -162,56 +197,86 @@ public class DisputaService {
      * <ul>
      *   <li>FAVOR_USUARIO / REEMBOLSO_TOTAL: Reembolso completo</li>
      *   <li>REEMBOLSO_PARCIAL: Reembolso del monto especificado</li>
-     *   <li>FAVOR_ANFITRION: Se libera el pago normalmente</li>
+     *   <li>FAVOR_ANFITRION: El pago vuelve al estado anterior a la disputa y se libera normalmente</li>
      * </ul>
+     * Como en {@link CobroService#reembolsar}, el reembolso se envía a la pasarela sin ninguna
+     * transacción abierta: se valida la disputa y se reserva el reembolso en una transacción
+     * corta, se llama a la pasarela y se resuelve la disputa en otra. Si la pasarela rechaza el
+     * reembolso, la disputa sigue abierta.
      *
      * @param idDisputa ID de la disputa
      * @param idAgente  ID del agente que resuelve
      * @param request   Datos de la resolución
      * @return Disputa resuelta
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Auditable(accion = "DISPUTA_RESUELTA", entidad = Disputa.class, idParametro = "idDisputa")
     public Disputa resolverDisputa(Long idDisputa, Long idAgente, ResolverDisputaRequest request) {
         log.info("Resolviendo disputa {}: resolución={}", idDisputa, request.resolucion());
 
-        var disputa = disputaRepository.findByIdConDetalles(idDisputa)
-                .orElseThrow(() -> new ResourceNotFoundException("Disputa", "id", idDisputa));
-
-        if (disputa.getEstado() == EstadoDisputa.RESUELTA || disputa.getEstado() == EstadoDisputa.CERRADA) {
-            throw new BusinessException("La disputa ya está resuelta");
+        var reembolso = transactionTemplate.execute(status -> prepararResolucion(idDisputa, idAgente, request));
+        if (reembolso != null) {
+            cobroService.enviarReembolso(reembolso);
         }
+        var disputaResuelta = transactionTemplate.execute(status -> aplicarResolucion(idDisputa, idAgente, request));
 
-        var agente = usuarioRepository.findById(idAgente)
-                .orElseThrow(() -> new ResourceNotFoundException("Agente", "id", idAgente));
+        log.info("Disputa {} resuelta con resolución: {}", idDisputa, request.resolucion());
+        return disputaResuelta;
+    }
 
-        if (agente.getRol() != com.alberti.joinly.entities.enums.RolUsuario.AGENTE 
-                && agente.getRol() != com.alberti.joinly.entities.enums.RolUsuario.ADMIN) {
-            throw new UnauthorizedException("Solo agentes de soporte pueden resolver disputas");
+    /**
+     * Comprueba que la disputa se puede resolver y, si la resolución reembolsa, reserva el
+     * reembolso.
+     *
+     * @return Pago con el reembolso reservado, o {@code null} si la resolución no reembolsa
+     */
+    private Pago prepararResolucion(Long idDisputa, Long idAgente, ResolverDisputaRequest request) {
+        var disputa = bloquearPendiente(idDisputa);
+        verificarAgente(idAgente);
+
+        var monto = montoReembolso(request, disputa.getPago());
+        if (monto == null) {
+            return null;
+        }
+        if (LibroContableService.cuentaDeFondos(estadoPagoAnterior(disputa)) != CuentaContable.RETENIDO) {
+            throw new BusinessException("El pago disputado no llegó a cobrarse: no hay nada que reembolsar");
         }
+        return pagoService.reservarReembolso(disputa.getPago().getId(), monto);
+    }
 
-        disputa.setAgenteResolutor(agente);
+    private Disputa aplicarResolucion(Long idDisputa, Long idAgente, ResolverDisputaRequest request) {
+        // Disputa y pago bloqueados antes de leer su estado; el pago antes de cargarlo, para que
+        // la consulta con detalles no lo traiga sin bloquear
+        var bloqueada = bloquearPendiente(idDisputa);
+        pagoRepository.findByIdParaActualizar(bloqueada.getPago().getId());
+        var disputa = disputaRepository.findByIdConDetalles(idDisputa)
+                .orElseThrow(() -> new ResourceNotFoundException("Disputa", "id", idDisputa));
+
+        disputa.setAgenteResolutor(verificarAgente(idAgente));
         disputa.setResolucion(request.resolucion());
         disputa.setNotasResolucion(request.notasResolucion());
         disputa.setFechaResolucion(LocalDateTime.now());
         disputa.setEstado(EstadoDisputa.RESUELTA);
 
         var pago = disputa.getPago();
+        var monto = montoReembolso(request, pago);
 
         // Aplicar resolución
-        switch (request.resolucion()) {
-            case FAVOR_USUARIO, REEMBOLSO_TOTAL -> {
-                disputa.setMontoResuelto(pago.getMonto());
-                pagoService.procesarReembolso(pago.getId(), pago.getMonto(), "Disputa resuelta a favor del usuario");
-            }
-            case REEMBOLSO_PARCIAL -> {
-                var monto = request.montoResuelto() != null ? request.montoResuelto() : pago.getMonto();
-                disputa.setMontoResuelto(monto);
-                pagoService.procesarReembolso(pago.getId(), monto, "Reembolso parcial por disputa");
-            }
-            case FAVOR_ANFITRION -> {
-                disputa.setMontoResuelto(java.math.BigDecimal.ZERO);
-                // Restaurar estado del pago para liberación normal
-                pago.setEstado(EstadoPago.RETENIDO);
+        if (monto != null) {
+            disputa.setMontoResuelto(monto);
+            pagoService.confirmarReembolso(pago.getId(), request.resolucion() == ResolucionDisputa.REEMBOLSO_PARCIAL
+                    ? "Reembolso parcial por disputa"
+                    : "Disputa resuelta a favor del usuario");
+        } else {
+            disputa.setMontoResuelto(BigDecimal.ZERO);
+            // Restaurar estado del pago para liberación normal; solo vuelven a retenidos los
+            // fondos que la disputa llegó a mover
+            if (pago.getEstado() == EstadoPago.DISPUTADO) {
+                var estadoAnterior = estadoPagoAnterior(disputa);
+                if (LibroContableService.cuentaDeFondos(estadoAnterior) == CuentaContable.RETENIDO) {
+                    libroContableService.registrarCierreDisputa(pago);
+                }
+                pago.setEstado(estadoAnterior);
                 pagoRepository.save(pago);
             }
         }
@@ -227,8 +292,51 @@ public class DisputaService {
                 "/mis-disputas/" + idDisputa,
                 null
         );
-
-        log.info("Disputa {} resuelta con resolución: {}", idDisputa, request.resolucion());
         return disputaResuelta;
     }
+
+    private Disputa bloquearPendiente(Long idDisputa) {
+        var disputa = disputaRepository.findByIdParaActualizar(idDisputa)
+                .orElseThrow(() -> new ResourceNotFoundException("Disputa", "id", idDisputa));
+        if (disputa.getEstado() == EstadoDisputa.RESUELTA || disputa.getEstado() == EstadoDisputa.CERRADA) {
+            throw new BusinessException("La disputa ya está resuelta");
+        }
+        return disputa;
+    }
+
+    private Usuario verificarAgente(Long idAgente) {
+        var agente = usuarioRepository.findById(idAgente)
+                .orElseThrow(() -> new ResourceNotFoundException("Agente", "id", idAgente));
+
+        if (agente.getRol() != com.alberti.joinly.entities.enums.RolUsuario.AGENTE 
+                && agente.getRol() != com.alberti.joinly.entities.enums.RolUsuario.ADMIN) {
+            throw new UnauthorizedException("Solo agentes de soporte pueden resolver disputas");
+        }
+        return agente;
+    }
+
+    /**
+     * Estado del pago al abrir la disputa. Las disputas anteriores a guardarlo lo deducen del
+     * pago: sin referencia de la pasarela no llegó a cobrarse y vuelve a PENDIENTE, para que
+     * la conciliación lo confirme o lo rechace.
+     */
+    private static EstadoPago estadoPagoAnterior(Disputa disputa) {
+        if (disputa.getEstadoPagoAnterior() != null) {
+            return disputa.getEstadoPagoAnterior();
+        }
+        var pago = disputa.getPago();
+        if (pago.getReferenciaExterna() == null) {
+            return EstadoPago.PENDIENTE;
+        }
+        return pago.getMontoReembolsado().signum() > 0 ? EstadoPago.REEMBOLSO_PARCIAL : EstadoPago.RETENIDO;
+    }
+
+    /** Importe que reembolsa la resolución, o {@code null} si no reembolsa (FAVOR_ANFITRION). */
+    private static BigDecimal montoReembolso(ResolverDisputaRequest request, Pago pago) {
+        return switch (request.resolucion()) {
+            case FAVOR_USUARIO, REEMBOLSO_TOTAL -> pago.getMonto();
+            case REEMBOLSO_PARCIAL -> request.montoResuelto() != null ? request.montoResuelto() : pago.getMonto();
+            case FAVOR_ANFITRION -> null;
+        };
+    }
 }
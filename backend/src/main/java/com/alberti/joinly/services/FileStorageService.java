@@ -1,6 +1,7 @@
 package com.alberti.joinly.services;
 
 import com.alberti.joinly.config.FileStorageProperties;
+import com.alberti.joinly.storage.BlobStore;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -9,9 +10,9 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.UUID;
@@ -22,24 +23,24 @@ import java.util.UUID;
 public class FileStorageService {
 
     private final FileStorageProperties properties;
+    private final BlobStore blobStore;
 
     public String saveAvatar(MultipartFile file) throws IOException {
         log.info("Guardando avatar: nombre={}, tamaño={}", file.getOriginalFilename(), file.getSize());
         validateFile(file);
 
-        Path uploadPath = Paths.get(properties.getLocation());
-        if (!Files.exists(uploadPath)) {
-            log.info("Creando directorio de avatares: {}", uploadPath.toAbsolutePath());
-            Files.createDirectories(uploadPath);
-        }
-
-        String extension = getFileExtension(file.getOriginalFilename());
-        String filename = UUID.randomUUID().toString() + "." + extension;
-        Path targetPath = uploadPath.resolve(filename);
+        // La imagen se recodifica: PNG se mantiene como PNG y el resto (JPEG, WebP) pasa a JPEG,
+        // que es lo que ImageIO sabe escribir. La extensión y el Content-Type son los del resultado.
+        String formato = "image/png".equals(file.getContentType()) ? "png" : "jpg";
+        String contentType = "png".equals(formato) ? "image/png" : "image/jpeg";
+        String filename = UUID.randomUUID().toString() + "." + formato;
 
         log.info("Procesando imagen: {} -> {}", file.getOriginalFilename(), filename);
 
         BufferedImage originalImage = ImageIO.read(file.getInputStream());
+        if (originalImage == null) {
+            throw new IllegalArgumentException("No se pudo leer la imagen");
+        }
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
         log.info("Dimensiones originales: {}x{}", originalWidth, originalHeight);
@@ -48,7 +49,11 @@ public class FileStorageService {
             properties.getResizeDimension(),
             properties.getResizeDimension());
 
-        ImageIO.write(resizedImage, extension, targetPath.toFile());
+        var buffer = new ByteArrayOutputStream();
+        if (!ImageIO.write(resizedImage, formato, buffer)) {
+            throw new IOException("No hay codificador de imágenes para " + formato);
+        }
+        blobStore.put(filename, new ByteArrayInputStream(buffer.toByteArray()), contentType);
 
         String avatarPath = properties.getLocation() + "/" + filename;
         log.info("Avatar guardado exitosamente: {}", avatarPath);
@@ -57,15 +62,10 @@ public class FileStorageService {
     }
 
     public void deleteAvatar(String avatarUrl) {
-        try {
-            // Convertir URL (/uploads/avatars/file.jpg) a ruta de sistema
-            String filename = Paths.get(avatarUrl).getFileName().toString();
-            Path path = Paths.get(properties.getLocation()).resolve(filename);
-            log.info("Eliminando avatar: {}", path);
-            Files.deleteIfExists(path);
-        } catch (IOException e) {
-            log.error("Error al eliminar avatar {}: {}", avatarUrl, e.getMessage());
-        }
+        // Convertir URL (/uploads/avatars/file.jpg) a clave de almacenamiento
+        String filename = Paths.get(avatarUrl).getFileName().toString();
+        log.info("Eliminando avatar: {}", filename);
+        blobStore.delete(filename);
     }
 
     private void validateFile(MultipartFile file) {
@@ -92,13 +92,6 @@ public class FileStorageService {
         }
     }
 
-    private String getFileExtension(String filename) {
-        if (filename == null || !filename.contains(".")) {
-            return "jpg";
-        }
-        return filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
-    }
-
     private BufferedImage resizeImage(BufferedImage original, int width, int height) {
         int originalWidth = original.getWidth();
         int originalHeight = original.getHeight();
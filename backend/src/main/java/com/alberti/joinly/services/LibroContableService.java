@@ -0,0 +1,160 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.contabilidad.LibroContable;
+import com.alberti.joinly.entities.enums.AmbitoSaldo;
+import com.alberti.joinly.entities.enums.CuentaContable;
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.enums.TipoMovimientoContable;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.pago.SaldoContable;
+import com.alberti.joinly.entities.pago.SaldoContableMensual;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.repositories.SaldoContableMensualRepository;
+import com.alberti.joinly.repositories.SaldoContableRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Libro contable de los pagos: un movimiento por cada cambio de cuenta del dinero de un pago
+ * (cobro retenido, liberación, disputa, reembolso) y saldos por anfitrión y por suscripción
+ * que se mantienen al escribirlos (ver {@link LibroContable}).
+ * <p>
+ * Los métodos {@code registrar*} los llaman {@link PagoService} y {@link DisputaService} en
+ * la misma transacción que cambia el estado del pago. Las consultas de saldo leen una fila por
+ * moneda y los extractos una por mes, sin recorrer la tabla de pagos.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class LibroContableService {
+
+    private final LibroContable libroContable;
+    private final SaldoContableRepository saldoContableRepository;
+    private final SaldoContableMensualRepository saldoContableMensualRepository;
+    private final AutorizacionService autorizacionService;
+
+    /** Cobro confirmado por la pasarela: el monto queda retenido. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRetencion(Pago pago) {
+        registrar(pago, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA, CuentaContable.RETENIDO,
+                pago.getMonto());
+    }
+
+    /** Pago liberado al anfitrión: se libera lo que no se haya reembolsado. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarLiberacion(Pago pago) {
+        registrar(pago, TipoMovimientoContable.LIBERACION, CuentaContable.RETENIDO, CuentaContable.LIBERADO,
+                pendiente(pago));
+    }
+
+    /**
+     * Disputa abierta sobre un pago que estaba en {@code estadoAnterior}. Si el pago no tenía
+     * fondos retenidos (no se había cobrado) no hay nada que mover.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarDisputa(Pago pago, EstadoPago estadoAnterior) {
+        if (cuentaDeFondos(estadoAnterior) != CuentaContable.RETENIDO) {
+            return;
+        }
+        registrar(pago, TipoMovimientoContable.DISPUTA, CuentaContable.RETENIDO, CuentaContable.DISPUTADO,
+                pendiente(pago));
+    }
+
+    /** Disputa cerrada sin reembolsar el total: lo que queda vuelve a estar retenido. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCierreDisputa(Pago pago) {
+        registrar(pago, TipoMovimientoContable.CIERRE_DISPUTA, CuentaContable.DISPUTADO, CuentaContable.RETENIDO,
+                pendiente(pago));
+    }
+
+    /**
+     * Reembolso de {@code monto} de un pago que estaba en {@code estadoAnterior}, registrado
+     * después de actualizar el pago. Si estaba disputado y el reembolso es parcial, el resto
+     * vuelve a la cuenta de retenidos, igual que el estado del pago.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarReembolso(Pago pago, EstadoPago estadoAnterior, BigDecimal monto) {
+        var origen = cuentaDeFondos(estadoAnterior);
+        if (origen == null) {
+            log.warn("Reembolso del pago {} en estado {} sin fondos en el libro contable", pago.getId(), estadoAnterior);
+            return;
+        }
+        registrar(pago, TipoMovimientoContable.REEMBOLSO, origen, CuentaContable.REEMBOLSADO, monto);
+        if (origen == CuentaContable.DISPUTADO && cuentaDeFondos(pago.getEstado()) == CuentaContable.RETENIDO) {
+            registrarCierreDisputa(pago);
+        }
+    }
+
+    /** Saldos acumulados de un anfitrión, uno por moneda. */
+    public List<SaldoContable> obtenerSaldosAnfitrion(Long idAnfitrion) {
+        return saldoContableRepository.findByAmbitoAndIdAmbitoOrderByMoneda(AmbitoSaldo.ANFITRION, idAnfitrion);
+    }
+
+    /**
+     * Saldos acumulados de una suscripción. Solo los puede consultar su anfitrión.
+     */
+    public List<SaldoContable> obtenerSaldosSuscripcion(Long idSuscripcion, Long idUsuario) {
+        autorizacionService.verificarAnfitrion(idSuscripcion, idUsuario,
+                "Solo el anfitrión puede consultar el saldo de la suscripción");
+        return saldoContableRepository.findByAmbitoAndIdAmbitoOrderByMoneda(AmbitoSaldo.SUSCRIPCION, idSuscripcion);
+    }
+
+    /**
+     * Extracto mensual de un anfitrión entre {@code desde} y {@code hasta}, ambos incluidos.
+     * Los meses sin movimientos no aparecen.
+     */
+    public List<SaldoContableMensual> obtenerExtractoAnfitrion(Long idAnfitrion, YearMonth desde, YearMonth hasta) {
+        return extracto(AmbitoSaldo.ANFITRION, idAnfitrion, desde, hasta);
+    }
+
+    /**
+     * Extracto mensual de una suscripción. Solo lo puede consultar su anfitrión.
+     */
+    public List<SaldoContableMensual> obtenerExtractoSuscripcion(
+            Long idSuscripcion, Long idUsuario, YearMonth desde, YearMonth hasta) {
+        autorizacionService.verificarAnfitrion(idSuscripcion, idUsuario,
+                "Solo el anfitrión puede consultar el extracto de la suscripción");
+        return extracto(AmbitoSaldo.SUSCRIPCION, idSuscripcion, desde, hasta);
+    }
+
+    private List<SaldoContableMensual> extracto(AmbitoSaldo ambito, Long idAmbito, YearMonth desde, YearMonth hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new BusinessException("El mes inicial no puede ser posterior al final");
+        }
+        return saldoContableMensualRepository.findExtracto(ambito, idAmbito, desde.atDay(1), hasta.atDay(1));
+    }
+
+    /** Cuenta en la que están los fondos de un pago según su estado, o null si no tiene. */
+    static CuentaContable cuentaDeFondos(EstadoPago estado) {
+        return switch (estado) {
+            case RETENIDO, REEMBOLSO_PARCIAL -> CuentaContable.RETENIDO;
+            case DISPUTADO -> CuentaContable.DISPUTADO;
+            case LIBERADO -> CuentaContable.LIBERADO;
+            case PENDIENTE, FALLIDO, REEMBOLSADO -> null;
+        };
+    }
+
+    private static BigDecimal pendiente(Pago pago) {
+        return pago.getMonto().subtract(pago.getMontoReembolsado());
+    }
+
+    private void registrar(Pago pago, TipoMovimientoContable tipo, CuentaContable origen, CuentaContable destino,
+                           BigDecimal monto) {
+        if (monto.signum() <= 0) {
+            return;
+        }
+        var suscripcion = pago.getSuscripcion();
+        libroContable.registrar(new LibroContable.Asiento(pago.getId(), suscripcion.getId(),
+                suscripcion.getAnfitrion().getId(), pago.getMoneda(), tipo, origen, destino, monto,
+                LocalDateTime.now()));
+    }
+}
@@ -8,6 +8,7 @@ import com.alberti.joinly.repositories.NotificacionRepository;
 import com.alberti.joinly.repositories.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,17 +31,32 @@ public class NotificacionService {
 
     private final NotificacionRepository notificacionRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ConfiguracionService configuracionService;
+
+    @Value("${joinly.jobs.dias-limpiar-notificaciones:90}")
+    private int diasRetencion;
+
+    /*
+     * Las consultas de lectura se limitan a la ventana de retención: lo anterior
+     * se purga por particiones, y el límite inferior permite a MySQL descartar
+     * las particiones de meses antiguos.
+     */
 
     public Page<Notificacion> obtenerNotificacionesPaginadas(Long idUsuario, Pageable pageable) {
-        return notificacionRepository.findNotificacionesPorUsuario(idUsuario, pageable);
+        return notificacionRepository.findNotificacionesPorUsuarioDesde(idUsuario, inicioVentana(), pageable);
     }
 
     public List<Notificacion> obtenerNoLeidas(Long idUsuario) {
-        return notificacionRepository.findNotificacionesNoLeidasPorUsuario(idUsuario);
+        return notificacionRepository.findNotificacionesNoLeidasPorUsuarioDesde(idUsuario, inicioVentana());
     }
 
     public long contarNoLeidas(Long idUsuario) {
-        return notificacionRepository.contarNoLeidasPorUsuario(idUsuario);
+        return notificacionRepository.contarNoLeidasPorUsuarioDesde(idUsuario, inicioVentana());
+    }
+
+    private LocalDateTime inicioVentana() {
+        var dias = configuracionService.getInt(ConfiguracionService.JOBS_DIAS_LIMPIAR_NOTIFICACIONES, diasRetencion);
+        return LocalDateTime.now().minusDays(dias);
     }
 
     @Transactional
@@ -173,6 +189,9 @@ public class NotificacionService {
 
     /**
      * Elimina notificaciones antiguas ya leídas (para mantenimiento).
+     * <p>
+     * Borrado fila a fila: solo se usa cuando la tabla no está particionada.
+     * En MySQL con la migración V7 la purga la realiza {@code ParticionService}.
      */
     @Transactional
     public int limpiarNotificacionesAntiguas(int diasAntiguedad) {
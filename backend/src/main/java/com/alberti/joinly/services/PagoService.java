@@ -1,11 +1,16 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.auditoria.Auditable;
+import com.alberti.joinly.dinero.Dinero;
+import com.alberti.joinly.entities.enums.CuentaContable;
 import com.alberti.joinly.entities.enums.EstadoPago;
 import com.alberti.joinly.entities.pago.Pago;
-import com.alberti.joinly.entities.usuario.MetodoPagoUsuario;
 import com.alberti.joinly.exceptions.BusinessException;
 import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.exportacion.EscritorPagos;
+import com.alberti.joinly.exportacion.FormatoExportacion;
 import com.alberti.joinly.repositories.*;
+import com.alberti.joinly.repositories.specifications.PagoSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +19,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,11 +32,13 @@ import java.util.Optional;
  * <p>
  * Implementa el ciclo completo de vida de un pago:
  * <ol>
- *   <li>Creación y cobro vía pasarela (Stripe/PayPal)</li>
+ *   <li>Creación y cobro vía pasarela ({@link CobroService}, fuera de transacción)</li>
  *   <li>Retención por período configurable (default 30 días)</li>
  *   <li>Liberación automática al anfitrión si no hay disputas</li>
- *   <li>Reembolsos totales o parciales</li>
+ *   <li>Reembolsos totales o parciales ({@link CobroService#reembolsar}, también fuera de transacción)</li>
  * </ol>
+ * Cada cambio del dinero de un pago se anota en el libro contable
+ * ({@link LibroContableService}) dentro de la misma transacción.
  * <p>
  * <b>Estados del pago:</b>
  * <ul>
@@ -55,6 +64,9 @@ public class PagoService {
     private final MetodoPagoRepository metodoPagoRepository;
     private final DisputaRepository disputaRepository;
     private final NotificacionService notificacionService;
+    private final ConfiguracionService configuracionService;
+    private final LibroContableService libroContableService;
+    private final AutorizacionService autorizacionService;
 
     public Optional<Pago> buscarPorId(Long id) {
         return pagoRepository.findById(id);
@@ -84,7 +96,8 @@ public class PagoService {
             LocalDate fechaDesde,
             LocalDate fechaHasta,
             Pageable pageable) {
-        return pagoRepository.findPagosConDetallesPorUsuarioWithFilters(idUsuario, estado, fechaDesde, fechaHasta, pageable);
+        return pagoRepository.findAll(
+                PagoSpecifications.filtrosUsuario(idUsuario, estado, fechaDesde, fechaHasta), pageable);
     }
 
     public List<Pago> listarPagosSuscripcion(Long idSuscripcion) {
@@ -92,28 +105,85 @@ public class PagoService {
     }
 
     /**
-     * Procesa un nuevo pago para una plaza de suscripción.
+     * Escribe en {@code salida} todos los pagos de un usuario que cumplen los filtros, en el
+     * formato pedido y por orden de fecha.
      * <p>
-     * Flujo:
-     * <ol>
-     *   <li>Valida que la plaza esté ocupada por el usuario</li>
-     *   <li>Verifica que no exista pago duplicado para el ciclo</li>
-     *   <li>Procesa el cobro vía pasarela de pagos</li>
-     *   <li>Registra el pago con estado RETENIDO</li>
-     *   <li>Envía notificación al usuario</li>
-     * </ol>
+     * Las filas se leen de la base de datos una a una mientras se escriben (ver
+     * {@link PagoRepository#streamExportacionUsuario}), sin cargar entidades, así que la
+     * memoria usada no depende del número de pagos. La transacción de solo lectura dura toda
+     * la escritura: se llama desde el hilo que escribe la respuesta, no desde el de la petición.
+     *
+     * @return Pagos exportados
+     */
+    public long exportarPagosUsuario(
+            Long idUsuario,
+            EstadoPago estado,
+            LocalDate fechaDesde,
+            LocalDate fechaHasta,
+            FormatoExportacion formato,
+            OutputStream salida) throws IOException {
+        try (var pagos = pagoRepository.streamExportacionUsuario(
+                idUsuario, estado, inicioDelDia(fechaDesde), finDelDia(fechaHasta))) {
+            return EscritorPagos.escribir(formato, pagos, salida);
+        }
+    }
+
+    /**
+     * Igual que {@link #exportarPagosUsuario} para los pagos de una suscripción. No comprueba
+     * permisos: el llamador debe haber hecho antes {@link #verificarExportacionSuscripcion}.
+     *
+     * @return Pagos exportados
+     */
+    public long exportarPagosSuscripcion(
+            Long idSuscripcion,
+            EstadoPago estado,
+            LocalDate fechaDesde,
+            LocalDate fechaHasta,
+            FormatoExportacion formato,
+            OutputStream salida) throws IOException {
+        try (var pagos = pagoRepository.streamExportacionSuscripcion(
+                idSuscripcion, estado, inicioDelDia(fechaDesde), finDelDia(fechaHasta))) {
+            return EscritorPagos.escribir(formato, pagos, salida);
+        }
+    }
+
+    /**
+     * Solo el anfitrión puede exportar los pagos de su suscripción. Se comprueba en el hilo de
+     * la petición, antes de empezar a escribir la respuesta, para poder responder 403 o 404.
+     */
+    public void verificarExportacionSuscripcion(Long idSuscripcion, Long idUsuario) {
+        autorizacionService.verificarAnfitrion(idSuscripcion, idUsuario,
+                "Solo el anfitrión puede exportar los pagos de la suscripción");
+    }
+
+    /** {@code fechaDesde 00:00}, como {@link PagoSpecifications#pagadoDesde}. */
+    private static LocalDateTime inicioDelDia(LocalDate fechaDesde) {
+        return fechaDesde != null ? fechaDesde.atStartOfDay() : null;
+    }
+
+    /** {@code (fechaHasta + 1 día) 00:00}, exclusivo, como {@link PagoSpecifications#pagadoHasta}. */
+    private static LocalDateTime finDelDia(LocalDate fechaHasta) {
+        return fechaHasta != null ? fechaHasta.plusDays(1).atStartOfDay() : null;
+    }
+
+    /**
+     * Primer paso del cobro de una plaza (ver {@link CobroService#procesarPago}): valida la
+     * petición y registra el pago en estado PENDIENTE, sin llamar todavía a la pasarela.
+     * <p>
+     * Un pago FALLIDO no cuenta como pago del ciclo, así que se puede volver a intentar. La
+     * plaza se bloquea antes de comprobar si ya hay pago del ciclo: sin ello, dos peticiones
+     * simultáneas (un doble clic, o un reintento sin {@code Idempotency-Key}) pasarían ambas la
+     * comprobación y se cobraría dos veces.
      *
      * @param idUsuario     ID del usuario que paga
      * @param idPlaza       ID de la plaza
      * @param idMetodoPago  ID del método de pago a usar
      * @param monto         Monto a cobrar
-     * @return Pago registrado
+     * @return Pago PENDIENTE, con su método de pago cargado
      */
     @Transactional
-    public Pago procesarPago(Long idUsuario, Long idPlaza, Long idMetodoPago, BigDecimal monto) {
-        log.info("Procesando pago: usuario={}, plaza={}, monto={}", idUsuario, idPlaza, monto);
-
-        var plaza = plazaRepository.findById(idPlaza)
+    public Pago reservarPago(Long idUsuario, Long idPlaza, Long idMetodoPago, BigDecimal monto) {
+        var plaza = plazaRepository.findByIdParaActualizar(idPlaza)
                 .orElseThrow(() -> new ResourceNotFoundException("Plaza", "id", idPlaza));
 
         // Validar que el usuario tiene la plaza
@@ -135,13 +205,11 @@ public class PagoService {
         var cicloFin = calcularFinCiclo(cicloInicio, suscripcion.getPeriodicidad());
 
         // Verificar que no exista pago para este ciclo
-        if (pagoRepository.existsByPlazaIdAndCicloInicioAndCicloFin(idPlaza, cicloInicio, cicloFin)) {
+        if (pagoRepository.existsByPlazaIdAndCicloInicioAndCicloFinAndEstadoNot(
+                idPlaza, cicloInicio, cicloFin, EstadoPago.FALLIDO)) {
             throw new BusinessException("Ya existe un pago para este período");
         }
 
-        // Simular procesamiento con pasarela (en producción: integrar Stripe)
-        var referenciaExterna = procesarConPasarela(metodoPago, monto);
-
         var pago = Pago.builder()
                 .usuario(plaza.getUsuario())
                 .plaza(plaza)
@@ -150,24 +218,75 @@ public class PagoService {
                 .monto(monto)
                 .moneda(suscripcion.getMoneda())
                 .fechaPago(LocalDateTime.now())
-                .fechaRetencionHasta(LocalDate.now().plusDays(diasRetencion))
-                .referenciaExterna(referenciaExterna)
-                .estado(EstadoPago.RETENIDO)
+                .fechaRetencionHasta(fechaRetencionHasta())
+                .estado(EstadoPago.PENDIENTE)
                 .cicloInicio(cicloInicio)
                 .cicloFin(cicloFin)
                 .build();
 
-        var pagoGuardado = pagoRepository.save(pago);
+        return pagoRepository.save(pago);
+    }
+
+    /**
+     * Último paso de un cobro aprobado por la pasarela: el pago pasa a RETENIDO y se
+     * notifica al usuario. Si ya no está PENDIENTE (p. ej. lo ha conciliado otro nodo),
+     * se devuelve tal cual.
+     *
+     * @return Pago con sus relaciones cargadas
+     */
+    @Transactional
+    @Auditable(accion = "PAGO_REALIZADO", entidad = Pago.class, idParametro = "idPago")
+    public Pago confirmarPago(Long idPago, String referenciaExterna) {
+        bloquear(idPago);
+        var pago = pagoRepository.findByIdConDetalles(idPago)
+                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
+        if (pago.getEstado() != EstadoPago.PENDIENTE) {
+            return pago;
+        }
+
+        pago.setEstado(EstadoPago.RETENIDO);
+        pago.setReferenciaExterna(referenciaExterna);
+        pago.setFechaRetencionHasta(fechaRetencionHasta());
+        libroContableService.registrarRetencion(pago);
 
-        // Notificar al usuario
         notificacionService.notificarPagoExitoso(
-                idUsuario,
-                suscripcion.getServicio().getNombre(),
-                monto + " " + suscripcion.getMoneda()
+                pago.getUsuario().getId(),
+                pago.getSuscripcion().getServicio().getNombre(),
+                pago.getMonto() + " " + pago.getMoneda()
+        );
+
+        log.info("Pago procesado exitosamente: id={}, referencia={}", idPago, referenciaExterna);
+        return pagoRepository.save(pago);
+    }
+
+    /**
+     * Último paso de un cobro rechazado o que no se ha podido enviar a la pasarela:
+     * el pago pasa a FALLIDO y se notifica al usuario.
+     */
+    @Transactional
+    @Auditable(accion = "PAGO_FALLIDO", entidad = Pago.class, idParametro = "idPago")
+    public void rechazarPago(Long idPago, String motivo) {
+        var pago = bloquear(idPago);
+        if (pago.getEstado() != EstadoPago.PENDIENTE) {
+            return;
+        }
+
+        pago.setEstado(EstadoPago.FALLIDO);
+        notificacionService.notificarPagoFallido(
+                pago.getUsuario().getId(),
+                pago.getSuscripcion().getServicio().getNombre(),
+                motivo
         );
 
-        log.info("Pago procesado exitosamente: id={}, referencia={}", pagoGuardado.getId(), referenciaExterna);
-        return pagoGuardado;
+        log.info("Pago {} rechazado: {}", idPago, motivo);
+        pagoRepository.save(pago);
+    }
+
+    /**
+     * Pagos PENDIENTES creados antes de {@code hasta}: cobros cuyo resultado quedó en duda.
+     */
+    public List<Pago> obtenerPagosPendientesDeConciliar(LocalDateTime hasta) {
+        return pagoRepository.findByEstadoAndFechaPagoBefore(EstadoPago.PENDIENTE, hasta);
     }
 
     /**
@@ -175,15 +294,18 @@ public class PagoService {
      * Solo se puede liberar si no hay disputas activas.
      */
     @Transactional
+    @Auditable(accion = "PAGO_LIBERADO", entidad = Pago.class, idParametro = "idPago")
     public Pago liberarPago(Long idPago) {
         log.info("Liberando pago: {}", idPago);
 
-        var pago = pagoRepository.findById(idPago)
-                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
+        var pago = bloquear(idPago);
 
         if (pago.getEstado() != EstadoPago.RETENIDO) {
             throw new BusinessException("Solo se pueden liberar pagos en estado RETENIDO");
         }
+        if (pago.getMontoReembolsoEnCurso() != null) {
+            throw new BusinessException("No se puede liberar el pago: hay un reembolso en curso");
+        }
 
         // Verificar que no haya disputas activas
         var disputasActivas = disputaRepository.contarDisputasActivasPorPago(idPago);
@@ -193,42 +315,91 @@ public class PagoService {
 
         pago.setEstado(EstadoPago.LIBERADO);
         pago.setFechaLiberacion(LocalDateTime.now());
+        libroContableService.registrarLiberacion(pago);
 
         log.info("Pago {} liberado exitosamente", idPago);
         return pagoRepository.save(pago);
     }
 
     /**
-     * Procesa un reembolso total o parcial.
+     * Primer paso de un reembolso ({@link CobroService#reembolsar}): valida el importe y lo
+     * anota como reembolso en curso con el pago bloqueado. Mientras está en curso no se admite
+     * otro reembolso por un importe distinto ni se libera el pago; uno por el mismo importe es
+     * el reintento de un reembolso en duda y devuelve el pago tal cual (misma clave de
+     * idempotencia en la pasarela).
+     *
+     * @return Pago con el reembolso en curso anotado
      */
     @Transactional
-    public Pago procesarReembolso(Long idPago, BigDecimal montoReembolso, String motivo) {
-        log.info("Procesando reembolso: pago={}, monto={}", idPago, montoReembolso);
+    public Pago reservarReembolso(Long idPago, BigDecimal montoReembolso) {
+        var pago = bloquear(idPago);
+        var reembolso = Dinero.de(montoReembolso, pago.getMoneda());
 
-        var pago = pagoRepository.findById(idPago)
-                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
+        // Sin cobro en la pasarela no hay nada que devolver ni saldo en el libro contable
+        if (LibroContableService.cuentaDeFondos(pago.getEstado()) == null || pago.getReferenciaExterna() == null) {
+            throw new BusinessException("No se puede reembolsar un pago en estado " + pago.getEstado());
+        }
 
-        var montoDisponible = pago.getMonto().subtract(pago.getMontoReembolsado());
-        if (montoReembolso.compareTo(montoDisponible) > 0) {
-            throw new BusinessException("El monto de reembolso excede el disponible: " + montoDisponible);
+        if (pago.getMontoReembolsoEnCurso() != null) {
+            var enCurso = Dinero.de(pago.getMontoReembolsoEnCurso(), pago.getMoneda());
+            if (enCurso.equals(reembolso)) {
+                return pago;
+            }
+            throw new BusinessException("Ya hay un reembolso en curso de " + enCurso.importe() + " para este pago");
         }
 
-        // Simular reembolso en pasarela
-        procesarReembolsoEnPasarela(pago.getReferenciaExterna(), montoReembolso);
+        var disponible = pago.getImportePendiente();
+        if (reembolso.esMayorQue(disponible)) {
+            throw new BusinessException("El monto de reembolso excede el disponible: " + disponible.importe());
+        }
 
-        pago.setMontoReembolsado(pago.getMontoReembolsado().add(montoReembolso));
+        pago.setMontoReembolsoEnCurso(reembolso.aDecimal());
+        return pagoRepository.save(pago);
+    }
+
+    /**
+     * Último paso de un reembolso aprobado por la pasarela: suma el reembolso en curso a lo
+     * reembolsado, actualiza el estado y lo anota en el libro contable.
+     *
+     * @throws BusinessException si no hay reembolso en curso (ya lo confirmó otra petición)
+     */
+    @Transactional
+    @Auditable(accion = "REEMBOLSO", entidad = Pago.class, idParametro = "idPago")
+    public Pago confirmarReembolso(Long idPago, String motivo) {
+        var pago = bloquear(idPago);
+        if (pago.getMontoReembolsoEnCurso() == null) {
+            throw new BusinessException("No hay ningún reembolso en curso para este pago");
+        }
+
+        var montoReembolso = pago.getMontoReembolsoEnCurso();
+        var reembolsado = pago.getImporteReembolsado().sumar(Dinero.de(montoReembolso, pago.getMoneda()));
+        var estadoAnterior = pago.getEstado();
+        pago.setMontoReembolsoEnCurso(null);
+        pago.setMontoReembolsado(reembolsado.aDecimal());
 
         // Actualizar estado según monto reembolsado
-        if (pago.getMontoReembolsado().compareTo(pago.getMonto()) >= 0) {
+        if (reembolsado.compareTo(pago.getImporte()) >= 0) {
             pago.setEstado(EstadoPago.REEMBOLSADO);
         } else {
             pago.setEstado(EstadoPago.REEMBOLSO_PARCIAL);
         }
+        libroContableService.registrarReembolso(pago, estadoAnterior, montoReembolso);
 
-        log.info("Reembolso procesado: pago={}, montoReembolsado={}", idPago, pago.getMontoReembolsado());
+        log.info("Reembolso procesado: pago={}, montoReembolsado={}, motivo={}",
+                idPago, pago.getMontoReembolsado(), motivo);
         return pagoRepository.save(pago);
     }
 
+    /**
+     * Deshace la reserva de un reembolso que la pasarela ha rechazado o no ha llegado a enviar.
+     */
+    @Transactional
+    public void revertirReembolso(Long idPago) {
+        var pago = bloquear(idPago);
+        pago.setMontoReembolsoEnCurso(null);
+        pagoRepository.save(pago);
+    }
+
     /**
      * Obtiene pagos listos para ser liberados (fin de retención sin disputas).
      */
@@ -237,19 +408,40 @@ public class PagoService {
     }
 
     /**
-     * Marca un pago como disputado.
+     * Marca un pago como disputado. Solo se disputan pagos con los fondos retenidos
+     * (RETENIDO o REEMBOLSO_PARCIAL): uno PENDIENTE o FALLIDO no llegó a cobrarse, uno
+     * REEMBOLSADO ya se devolvió y uno LIBERADO ya está en manos del anfitrión.
+     *
+     * @return Estado del pago antes de la disputa, al que vuelve si se resuelve sin reembolso
      */
     @Transactional
-    public void marcarComoDisputado(Long idPago) {
-        var pago = pagoRepository.findById(idPago)
-                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
+    @Auditable(accion = "PAGO_DISPUTADO", entidad = Pago.class, idParametro = "idPago")
+    public EstadoPago marcarComoDisputado(Long idPago) {
+        var pago = bloquear(idPago);
 
         if (pago.getEstado() == EstadoPago.LIBERADO) {
             throw new BusinessException("No se puede disputar un pago ya liberado");
         }
+        if (LibroContableService.cuentaDeFondos(pago.getEstado()) != CuentaContable.RETENIDO) {
+            throw new BusinessException("No se puede disputar un pago en estado " + pago.getEstado());
+        }
 
+        var estadoAnterior = pago.getEstado();
         pago.setEstado(EstadoPago.DISPUTADO);
+        libroContableService.registrarDisputa(pago, estadoAnterior);
         pagoRepository.save(pago);
+        return estadoAnterior;
+    }
+
+    /**
+     * Carga el pago bloqueando su fila hasta el final de la transacción. Todas las transiciones
+     * de estado pasan por aquí: sin el bloqueo, dos transiciones concurrentes (conciliación y
+     * confirmación, dos reembolsos...) partirían del mismo estado y registrarían dos veces sus
+     * movimientos en el libro contable.
+     */
+    private Pago bloquear(Long idPago) {
+        return pagoRepository.findByIdParaActualizar(idPago)
+                .orElseThrow(() -> new ResourceNotFoundException("Pago", "id", idPago));
     }
 
     private LocalDate calcularFinCiclo(LocalDate inicio, com.alberti.joinly.entities.enums.Periodicidad periodicidad) {
@@ -261,14 +453,8 @@ public class PagoService {
         };
     }
 
-    private String procesarConPasarela(MetodoPagoUsuario metodoPago, BigDecimal monto) {
-        // TODO: Integrar con Stripe API
-        // Por ahora, simular referencia de transacción
-        return "PAY_" + System.currentTimeMillis() + "_" + metodoPago.getId();
-    }
-
-    private void procesarReembolsoEnPasarela(String referenciaOriginal, BigDecimal monto) {
-        // TODO: Integrar con Stripe Refunds API
-        log.debug("Simulando reembolso en pasarela: ref={}, monto={}", referenciaOriginal, monto);
+    private LocalDate fechaRetencionHasta() {
+        return LocalDate.now().plusDays(
+                configuracionService.getInt(ConfiguracionService.DIAS_RETENCION_PAGO, diasRetencion));
     }
 }
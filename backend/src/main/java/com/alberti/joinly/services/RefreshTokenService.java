@@ -0,0 +1,171 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.entities.enums.TipoToken;
+import com.alberti.joinly.entities.usuario.Token;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.exceptions.UnauthorizedException;
+import com.alberti.joinly.repositories.TokenRepository;
+import com.alberti.joinly.security.JwtService;
+import com.alberti.joinly.security.RevocacionSesiones;
+import com.alberti.joinly.security.UserPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Gestión del ciclo de vida de los refresh tokens.
+ * <p>
+ * Cada inicio de sesión abre una familia (identificador de sesión) y emite un refresh
+ * token que se guarda en la tabla {@code token} como hash SHA-256, nunca en claro.
+ * En cada renovación el token presentado se marca como usado y se emite otro de la
+ * misma familia. Presentar de nuevo un token ya rotado indica que se ha filtrado:
+ * se revoca la familia completa, incluidos sus access tokens vigentes.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int MAX_USER_AGENT = 500;
+    private static final String SESION_CERRADA =
+            "La sesión ha sido cerrada. Por favor, inicia sesión nuevamente.";
+
+    private final TokenRepository tokenRepository;
+    private final JwtService jwtService;
+    private final RevocacionSesiones revocacionSesiones;
+
+    /**
+     * Par de tokens emitidos para una sesión.
+     */
+    public record TokensEmitidos(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Abre una nueva sesión para el usuario y emite sus primeros tokens.
+     */
+    @Transactional
+    public TokensEmitidos iniciarSesion(Usuario usuario) {
+        return emitir(usuario, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Rota un refresh token: lo marca como usado y emite uno nuevo de la misma sesión.
+     * <p>
+     * La revocación por reutilización debe persistir aunque se lance la excepción,
+     * de ahí {@code noRollbackFor}.
+     *
+     * @param refreshToken Refresh token JWT ya validado (firma, tipo y expiración)
+     * @param usuario      Usuario titular según el subject del token
+     * @throws UnauthorizedException si el token no está registrado, pertenece a otro usuario,
+     *                               su sesión está revocada o ya fue usado
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public TokensEmitidos rotar(String refreshToken, Usuario usuario) {
+        var almacenado = tokenRepository.findByTokenAndTipoParaActualizar(hash(refreshToken), TipoToken.REFRESH_TOKEN)
+                .orElseThrow(() -> {
+                    log.warn("Refresh token no registrado para usuario ID: {}", usuario.getId());
+                    return new UnauthorizedException("Token inválido");
+                });
+
+        if (!almacenado.getUsuario().getId().equals(usuario.getId())) {
+            log.warn("Refresh token de otro usuario presentado por usuario ID: {}", usuario.getId());
+            throw new UnauthorizedException("Token inválido");
+        }
+
+        if (almacenado.getFechaRevocacion() != null) {
+            throw new UnauthorizedException(SESION_CERRADA);
+        }
+
+        if (Boolean.TRUE.equals(almacenado.getUsado())) {
+            log.warn("Reutilización de refresh token detectada para usuario ID: {}. Revocando sesión {}",
+                    usuario.getId(), almacenado.getFamilia());
+            revocarFamilia(almacenado.getFamilia());
+            throw new UnauthorizedException(SESION_CERRADA);
+        }
+
+        almacenado.setUsado(true);
+        return emitir(usuario, almacenado.getFamilia());
+    }
+
+    /**
+     * Cierra la sesión a la que pertenece el refresh token. Es idempotente:
+     * un token desconocido o ya revocado no produce error.
+     */
+    @Transactional
+    public void cerrarSesion(String refreshToken) {
+        tokenRepository.findByTokenAndTipoParaActualizar(hash(refreshToken), TipoToken.REFRESH_TOKEN)
+                .map(Token::getFamilia)
+                .ifPresent(this::revocarFamilia);
+    }
+
+    /**
+     * Cierra todas las sesiones abiertas del usuario (por ejemplo, tras cambiar la contraseña).
+     */
+    @Transactional
+    public void cerrarTodasLasSesiones(Long idUsuario) {
+        var ahora = LocalDateTime.now();
+        var familias = tokenRepository.findFamiliasActivasPorUsuario(idUsuario, TipoToken.REFRESH_TOKEN, ahora);
+        tokenRepository.revocarPorUsuarioYTipo(idUsuario, TipoToken.REFRESH_TOKEN, ahora);
+        familias.forEach(revocacionSesiones::revocar);
+        log.info("Cerradas {} sesiones del usuario ID: {}", familias.size(), idUsuario);
+    }
+
+    private void revocarFamilia(String familia) {
+        if (familia == null) return;
+        tokenRepository.revocarFamilia(familia, LocalDateTime.now());
+        // Se aplica ya en este nodo; el resto lo recoge en su siguiente sondeo
+        revocacionSesiones.revocar(familia);
+    }
+
+    private TokensEmitidos emitir(Usuario usuario, String familia) {
+        var principal = UserPrincipal.fromUsuario(usuario);
+        var refreshToken = jwtService.generateRefreshToken(principal, familia);
+        var peticion = peticionActual();
+
+        tokenRepository.save(Token.builder()
+                .usuario(usuario)
+                .token(hash(refreshToken))
+                .tipo(TipoToken.REFRESH_TOKEN)
+                .familia(familia)
+                .fechaExpiracion(LocalDateTime.ofInstant(
+                        jwtService.extractExpiration(refreshToken).toInstant(), ZoneId.systemDefault()))
+                .ipCreacion(peticion != null ? peticion.getRemoteAddr() : null)
+                .userAgent(peticion != null ? truncar(peticion.getHeader("User-Agent")) : null)
+                .build());
+
+        return new TokensEmitidos(jwtService.generateAccessToken(principal, familia), refreshToken);
+    }
+
+    static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private HttpServletRequest peticionActual() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            return atributos.getRequest();
+        }
+        return null;
+    }
+
+    private String truncar(String valor) {
+        return valor != null && valor.length() > MAX_USER_AGENT ? valor.substring(0, MAX_USER_AGENT) : valor;
+    }
+}
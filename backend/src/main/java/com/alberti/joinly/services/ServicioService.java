@@ -2,6 +2,7 @@ package com.alberti.joinly.services;
 
 import com.alberti.joinly.dto.servicio.CreateServicioRequest;
 import com.alberti.joinly.dto.servicio.UpdateServicioRequest;
+import com.alberti.joinly.dto.servicio.VersionCatalogo;
 import com.alberti.joinly.entities.enums.CategoriaServicio;
 import com.alberti.joinly.entities.suscripcion.Servicio;
 import com.alberti.joinly.exceptions.ResourceNotFoundException;
@@ -49,6 +50,15 @@ public class ServicioService {
         return servicioRepository.findByActivoTrue();
     }
 
+    /**
+     * Versión actual del catálogo, para invalidar las respuestas del catálogo ya serializadas.
+     *
+     * @return Número de servicios, último id y suma de versiones
+     */
+    public VersionCatalogo obtenerVersionCatalogo() {
+        return servicioRepository.obtenerVersion();
+    }
+
     /**
      * Busca un servicio por su ID.
      *
@@ -5,6 +5,7 @@ import com.alberti.joinly.entities.grupo.MiembroUnidad;
 import com.alberti.joinly.entities.grupo.Solicitud;
 import com.alberti.joinly.exceptions.*;
 import com.alberti.joinly.repositories.*;
+import com.alberti.joinly.repositories.specifications.SolicitudSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -51,6 +52,7 @@ public class SolicitudService {
     private final MiembroUnidadRepository miembroUnidadRepository;
     private final PlazaRepository plazaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final AutorizacionService autorizacionService;
 
     /**
      * Busca una solicitud por su ID.
@@ -100,7 +102,8 @@ public class SolicitudService {
             LocalDate fechaDesde,
             LocalDate fechaHasta,
             Pageable pageable) {
-        return solicitudRepository.findBySolicitanteIdWithFilters(idUsuario, estado, fechaDesde, fechaHasta, pageable);
+        return solicitudRepository.findAll(
+                SolicitudSpecifications.filtrosSolicitante(idUsuario, estado, fechaDesde, fechaHasta), pageable);
     }
     /**
      * Lista las solicitudes pendientes de un grupo familiar.
@@ -110,13 +113,8 @@ public class SolicitudService {
      * @return Lista de solicitudes pendientes ordenadas por fecha
      */
     public List<Solicitud> listarSolicitudesPendientesGrupo(Long idUnidad, Long idUsuario) {
-        // Verificar que el usuario es administrador del grupo
-        var unidad = unidadFamiliarRepository.findWithAdministradorById(idUnidad)
-                .orElseThrow(() -> new ResourceNotFoundException("Unidad familiar", "id", idUnidad));
-        
-        if (!unidad.getAdministrador().getId().equals(idUsuario)) {
-            throw new UnauthorizedException("Solo el administrador puede ver las solicitudes pendientes del grupo");
-        }
+        autorizacionService.verificarAdministrador(idUnidad, idUsuario,
+                "Solo el administrador puede ver las solicitudes pendientes del grupo");
         
         return solicitudRepository.findSolicitudesPendientesGrupo(idUnidad);
     }
@@ -131,6 +129,17 @@ public class SolicitudService {
         return solicitudRepository.findSolicitudesPendientesSuscripcion(idSuscripcion);
     }
 
+    /**
+     * Lista las solicitudes pendientes que el usuario puede responder: las de los grupos
+     * que administra y las de las suscripciones de las que es anfitrión.
+     *
+     * @param idUsuario ID del administrador o anfitrión
+     * @return Lista de solicitudes pendientes ordenadas por fecha
+     */
+    public List<Solicitud> listarSolicitudesPendientesParaResponder(Long idUsuario) {
+        return solicitudRepository.findSolicitudesPendientesParaResponder(idUsuario);
+    }
+
     /**
      * Crea una solicitud de unión a un grupo familiar mediante código de invitación.
      * <p>
@@ -167,8 +176,7 @@ public class SolicitudService {
         }
 
         // REGLA: El solicitante NO puede ser ya miembro activo
-        if (miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                idSolicitante, unidad.getId(), EstadoMiembro.ACTIVO)) {
+        if (autorizacionService.esMiembroActivo(unidad.getId(), idSolicitante)) {
             throw new DuplicateResourceException("Ya eres miembro activo de este grupo");
         }
 
@@ -238,8 +246,7 @@ public class SolicitudService {
         }
 
         // REGLA: El solicitante debe ser miembro activo de la unidad familiar
-        if (!miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                idSolicitante, suscripcion.getUnidad().getId(), EstadoMiembro.ACTIVO)) {
+        if (!autorizacionService.esMiembroActivo(suscripcion.getUnidad().getId(), idSolicitante)) {
             throw new UnauthorizedException("Debes ser miembro del grupo para solicitar unirte a esta suscripción");
         }
 
@@ -387,6 +394,7 @@ public class SolicitudService {
                 .build();
 
         miembroUnidadRepository.save(miembro);
+        autorizacionService.registrarAltaMiembro(unidad.getId(), solicitante.getId());
         log.debug("Nuevo miembro creado: usuario={}, grupo={}", solicitante.getId(), unidad.getId());
     }
 
@@ -1,7 +1,8 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.dinero.Dinero;
+import com.alberti.joinly.dto.suscripcion.PlazasOcupadas;
 import com.alberti.joinly.entities.enums.CategoriaServicio;
-import com.alberti.joinly.entities.enums.EstadoMiembro;
 import com.alberti.joinly.entities.enums.EstadoPlaza;
 import com.alberti.joinly.entities.enums.EstadoSuscripcion;
 import com.alberti.joinly.entities.enums.Periodicidad;
@@ -19,11 +20,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de gestión de suscripciones compartidas.
@@ -41,7 +44,8 @@ import java.util.Optional;
  *   <li>El anfitrión DEBE ser miembro activo de la unidad familiar</li>
  *   <li>num_plazas_total no puede superar max_usuarios del Servicio</li>
  *   <li>Si anfitrion_ocupa_plaza = true, se genera Plaza automáticamente con estado OCUPADA</li>
- *   <li>Un grupo no puede tener más de {@value #MAX_SUSCRIPCIONES_POR_GRUPO} suscripciones activas</li>
+ *   <li>Un grupo no puede tener más de {@code max_suscripciones_grupo} suscripciones activas
+ *       (configurable en caliente, {@value #MAX_SUSCRIPCIONES_POR_GRUPO} por defecto)</li>
  * </ul>
  *
  * @author Joinly Team
@@ -55,14 +59,16 @@ import java.util.Optional;
 public class SuscripcionService {
 
     private static final int MAX_SUSCRIPCIONES_POR_GRUPO = 20;
+    private static final String MONEDA = "EUR";
 
     private final SuscripcionRepository suscripcionRepository;
     private final PlazaRepository plazaRepository;
     private final ServicioRepository servicioRepository;
     private final UnidadFamiliarRepository unidadFamiliarRepository;
-    private final MiembroUnidadRepository miembroUnidadRepository;
     private final UsuarioRepository usuarioRepository;
     private final CredencialService credencialService;
+    private final ConfiguracionService configuracionService;
+    private final AutorizacionService autorizacionService;
 
     /**
      * Busca una suscripción por su ID.
@@ -161,7 +167,7 @@ public class SuscripcionService {
      * <ol>
      *   <li>Valida que el anfitrión sea miembro activo del grupo</li>
      *   <li>Verifica que el número de plazas no exceda el máximo del servicio</li>
-     *   <li>Comprueba el límite de suscripciones activas del grupo (máx. {@value #MAX_SUSCRIPCIONES_POR_GRUPO})</li>
+     *   <li>Comprueba el límite de suscripciones activas del grupo (parámetro {@code max_suscripciones_grupo})</li>
      *   <li>Calcula el precio por plaza según si el anfitrión ocupa plaza</li>
      *   <li>Crea todas las plazas, asignando la primera al anfitrión si corresponde</li>
      * </ol>
@@ -212,8 +218,7 @@ public class SuscripcionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Servicio", "id", idServicio));
 
         // REGLA: El anfitrión DEBE ser miembro activo de la unidad familiar
-        var esMiembroActivo = miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                idAnfitrion, idUnidad, EstadoMiembro.ACTIVO);
+        var esMiembroActivo = autorizacionService.esMiembroActivo(idUnidad, idAnfitrion);
         if (!esMiembroActivo) {
             log.warn("Intento de crear suscripción con anfitrión no miembro: usuario={}, unidad={}",
                     idAnfitrion, idUnidad);
@@ -233,9 +238,11 @@ public class SuscripcionService {
         }
 
         // REGLA: Límite de suscripciones por grupo
+        var maxSuscripciones = configuracionService.getInt(
+                ConfiguracionService.MAX_SUSCRIPCIONES_GRUPO, MAX_SUSCRIPCIONES_POR_GRUPO);
         var suscripcionesActuales = suscripcionRepository.contarSuscripcionesActivasEnUnidad(idUnidad);
-        if (suscripcionesActuales >= MAX_SUSCRIPCIONES_POR_GRUPO) {
-            throw new LimiteAlcanzadoException("suscripciones activas del grupo", MAX_SUSCRIPCIONES_POR_GRUPO);
+        if (suscripcionesActuales >= maxSuscripciones) {
+            throw new LimiteAlcanzadoException("suscripciones activas del grupo", maxSuscripciones);
         }
 
         // Calcular precio por plaza
@@ -247,7 +254,7 @@ public class SuscripcionService {
                 .anfitrion(anfitrion)
                 .servicio(servicio)
                 .precioTotal(precioTotal)
-                .moneda("EUR")
+                .moneda(MONEDA)
                 .precioPorPlaza(precioPorPlaza)
                 .numPlazasTotal(numPlazasTotal)
                 .anfitrionOcupaPlaza(anfitrionOcupaPlaza)
@@ -260,6 +267,7 @@ public class SuscripcionService {
 
         var suscripcionGuardada = suscripcionRepository.save(suscripcion);
         log.info("Suscripción creada con ID: {}", suscripcionGuardada.getId());
+        autorizacionService.registrarAnfitrion(suscripcionGuardada.getId(), idAnfitrion);
 
         // REGLA: Si anfitrion_ocupa_plaza = true, generar Plaza automáticamente con estado OCUPADA
         crearPlazas(suscripcionGuardada, anfitrion, numPlazasTotal, anfitrionOcupaPlaza);
@@ -435,11 +443,15 @@ public class SuscripcionService {
      * </pre>
      * El anfitrión no paga precio por plaza porque ya paga la suscripción completa
      * y reparte el coste entre los demás miembros.
+     * <p>
+     * Si la división no es exacta, es el precio anunciado: la cuota más alta del reparto en
+     * céntimos ({@link Dinero#repartir}), 3.34 para 10.00 entre 3 plazas. Lo que paga cada
+     * plaza es {@link #calcularCuotaPlaza}, que no siempre coincide: 3.34, 3.33 y 3.33.
      *
      * @param precioTotal        Coste total de la suscripción
      * @param numPlazasTotal     Número total de plazas
      * @param anfitrionOcupaPlaza Si el anfitrión usa una de las plazas
-     * @return Precio por plaza redondeado a 2 decimales (HALF_UP), o ZERO si no hay plazas pagantes
+     * @return Precio por plaza con 2 decimales, o ZERO si no hay plazas pagantes
      */
     public BigDecimal calcularPrecioPorPlaza(BigDecimal precioTotal, short numPlazasTotal, boolean anfitrionOcupaPlaza) {
         // El anfitrión no paga si ocupa plaza (él ya paga el servicio completo y reparte costes)
@@ -449,7 +461,29 @@ public class SuscripcionService {
             return BigDecimal.ZERO;
         }
 
-        return precioTotal.divide(BigDecimal.valueOf(plazasPagantes), 2, RoundingMode.HALF_UP);
+        return Dinero.de(precioTotal, MONEDA).cuotaMaxima(plazasPagantes).aDecimal();
+    }
+
+    /**
+     * Cuota de una plaza concreta: su parte del reparto exacto de {@code precioTotal} entre las
+     * plazas pagantes ({@link Dinero#repartir}), por orden de número de plaza. Cobrar a cada
+     * plaza su cuota suma exactamente el precio total; los céntimos sobrantes van a las primeras
+     * plazas. La plaza del anfitrión no paga.
+     *
+     * @param suscripcion Suscripción de la plaza
+     * @param plaza       Plaza a cobrar
+     * @return Cuota de la plaza con 2 decimales, o ZERO si es la del anfitrión
+     */
+    public BigDecimal calcularCuotaPlaza(Suscripcion suscripcion, Plaza plaza) {
+        if (Boolean.TRUE.equals(plaza.getEsPlazaAnfitrion())) {
+            return BigDecimal.ZERO;
+        }
+        // Con el anfitrión ocupando plaza, la suya es la 1 y las pagantes empiezan en la 2
+        var primeraPagante = Boolean.TRUE.equals(suscripcion.getAnfitrionOcupaPlaza()) ? 2 : 1;
+        var plazasPagantes = suscripcion.getNumPlazasTotal() - primeraPagante + 1;
+        return Dinero.de(suscripcion.getPrecioTotal(), suscripcion.getMoneda())
+                .cuota(plazasPagantes, plaza.getNumeroPlaza() - primeraPagante)
+                .aDecimal();
     }
 
     private LocalDate calcularFechaRenovacion(LocalDate fechaInicio, Periodicidad periodicidad) {
@@ -497,8 +531,7 @@ public class SuscripcionService {
         }
 
         // Validar que el usuario sea miembro de la unidad familiar
-        var esMiembro = miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                idUsuario, suscripcion.getUnidad().getId(), EstadoMiembro.ACTIVO);
+        var esMiembro = autorizacionService.esMiembroActivo(suscripcion.getUnidad().getId(), idUsuario);
         if (!esMiembro) {
             throw new UnauthorizedException("El usuario debe ser miembro de la unidad familiar");
         }
@@ -680,6 +713,20 @@ public class SuscripcionService {
         return plazaRepository.contarPlazasOcupadas(idSuscripcion);
     }
 
+    /**
+     * Cuenta las plazas ocupadas de varias suscripciones con una sola consulta.
+     *
+     * @param idsSuscripcion IDs de las suscripciones
+     * @return Plazas ocupadas por ID de suscripción; las que no tienen ninguna no aparecen
+     */
+    public Map<Long, Long> contarPlazasOcupadasPorSuscripcion(Collection<Long> idsSuscripcion) {
+        if (idsSuscripcion.isEmpty()) {
+            return Map.of();
+        }
+        return plazaRepository.contarPlazasOcupadasAgrupadasPorSuscripcion(idsSuscripcion).stream()
+                .collect(Collectors.toMap(PlazasOcupadas::idSuscripcion, PlazasOcupadas::ocupadas));
+    }
+
     public boolean usuarioTienePlazaEnSuscripcion(Long idSuscripcion, Long idUsuario) {
         return plazaRepository.existsBySuscripcionIdAndUsuarioId(idSuscripcion, idUsuario);
     }
@@ -3,12 +3,16 @@ package com.alberti.joinly.services;
 import com.alberti.joinly.dto.soporte.CreateMensajeTicketRequest;
 import com.alberti.joinly.dto.soporte.CreateTicketRequest;
 import com.alberti.joinly.entities.enums.EstadoTicket;
+import com.alberti.joinly.entities.enums.PrioridadTicket;
 import com.alberti.joinly.entities.soporte.MensajeTicket;
 import com.alberti.joinly.entities.soporte.TicketSoporte;
 import com.alberti.joinly.exceptions.BusinessException;
 import com.alberti.joinly.exceptions.ResourceNotFoundException;
 import com.alberti.joinly.exceptions.UnauthorizedException;
 import com.alberti.joinly.repositories.*;
+import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.soporte.AvisosMensajesTicket;
+import com.alberti.joinly.soporte.DespachadorTickets;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,8 +21,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de gestión de tickets de soporte.
@@ -43,6 +50,12 @@ public class TicketSoporteService {
 
     private static final int MAX_TICKETS_ACTIVOS_POR_USUARIO = 10;
 
+    /** Prioridad descendente y, a igual prioridad, el más antiguo primero. */
+    private static final Comparator<TicketSoporte> ORDEN_ATENCION = Comparator
+            .comparing(TicketSoporte::getPrioridad, Comparator.<PrioridadTicket>reverseOrder())
+            .thenComparing(TicketSoporte::getFechaApertura)
+            .thenComparing(TicketSoporte::getId);
+
     private final TicketSoporteRepository ticketRepository;
     private final MensajeTicketRepository mensajeRepository;
     private final UsuarioRepository usuarioRepository;
@@ -50,6 +63,8 @@ public class TicketSoporteService {
     private final PagoRepository pagoRepository;
     private final DisputaRepository disputaRepository;
     private final NotificacionService notificacionService;
+    private final DespachadorTickets despachadorTickets;
+    private final AvisosMensajesTicket avisosMensajes;
 
     public Optional<TicketSoporte> buscarPorId(Long id) {
         return ticketRepository.findById(id);
@@ -63,15 +78,29 @@ public class TicketSoporteService {
         return ticketRepository.findTicketsPorUsuario(idUsuario, pageable);
     }
 
+    /**
+     * Tickets sin asignar en el orden de la cola de despacho (prioridad y antigüedad).
+     */
     public List<TicketSoporte> listarTicketsSinAsignar() {
-        return ticketRepository.findTicketsSinAsignar();
+        var ids = despachadorTickets.idsPendientes();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var porId = ticketRepository.findByIdInConUsuario(ids).stream()
+                .collect(Collectors.toMap(TicketSoporte::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(ticket -> ticket != null && ticket.getAgente() == null)
+                .toList();
     }
 
     public List<TicketSoporte> listarTicketsAgente(Long idAgente) {
         return ticketRepository.findTicketsAsignadosAgente(
-                idAgente,
-                List.of(EstadoTicket.ABIERTO, EstadoTicket.EN_PROCESO, EstadoTicket.PENDIENTE_USUARIO)
-        );
+                        idAgente,
+                        List.of(EstadoTicket.ABIERTO, EstadoTicket.EN_PROCESO, EstadoTicket.PENDIENTE_USUARIO))
+                .stream()
+                .sorted(ORDEN_ATENCION)
+                .toList();
     }
 
     public long contarMensajesTicket(Long idTicket) {
@@ -129,6 +158,8 @@ public class TicketSoporteService {
         var ticketGuardado = ticketRepository.save(ticket);
         log.info("Ticket creado: id={}", ticketGuardado.getId());
 
+        despachadorTickets.asignarNuevo(ticketGuardado);
+
         return ticketGuardado;
     }
 
@@ -150,10 +181,15 @@ public class TicketSoporteService {
             throw new BusinessException("El usuario no es agente de soporte");
         }
 
+        var idAgenteAnterior = ticket.getAgente() != null ? ticket.getAgente().getId() : null;
+        var estadoAnterior = ticket.getEstado();
+
         ticket.setAgente(agente);
         ticket.setEstado(EstadoTicket.EN_PROCESO);
 
-        return ticketRepository.save(ticket);
+        var guardado = ticketRepository.save(ticket);
+        despachadorTickets.registrarTransicion(guardado, idAgenteAnterior, estadoAnterior);
+        return guardado;
     }
 
     /**
@@ -201,6 +237,8 @@ public class TicketSoporteService {
             ticket.setFechaPrimeraRespuesta(LocalDateTime.now());
         }
 
+        var estadoAnterior = ticket.getEstado();
+
         // Actualizar estado del ticket
         if (esAgente && !request.esInterno()) {
             ticket.setEstado(EstadoTicket.PENDIENTE_USUARIO);
@@ -209,8 +247,12 @@ public class TicketSoporteService {
         }
 
         ticketRepository.save(ticket);
+        if (ticket.getEstado() != estadoAnterior) {
+            despachadorTickets.registrarTransicion(ticket, idAgente(ticket), estadoAnterior);
+        }
 
         var mensajeGuardado = mensajeRepository.save(mensaje);
+        avisosMensajes.notificar(idTicket);
 
         // Notificar al usuario si es respuesta de agente
         if (esAgente && !request.esInterno()) {
@@ -228,21 +270,35 @@ public class TicketSoporteService {
     }
 
     /**
-     * Obtiene los mensajes de un ticket.
+     * Obtiene los mensajes de un ticket visibles para el usuario.
+     * <p>
+     * El rol se toma del token y el acceso se comprueba con el propietario del ticket,
+     * sin cargar ni el ticket ni el usuario; esta consulta se repite en cada sondeo del chat.
+     *
+     * @param afterId Si se indica, solo los mensajes posteriores a ese (carga incremental)
      */
-    public List<MensajeTicket> obtenerMensajes(Long idTicket, Long idUsuario) {
-        if (!ticketRepository.existsById(idTicket)) {
-            throw new ResourceNotFoundException("Ticket", "id", idTicket);
-        }
-
-        var usuario = usuarioRepository.findById(idUsuario)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", idUsuario));
+    public List<MensajeTicket> obtenerMensajes(Long idTicket, UserPrincipal usuario, Long afterId) {
+        var idPropietario = ticketRepository.findIdUsuarioById(idTicket)
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket", "id", idTicket));
 
         // Determinar si puede ver mensajes internos
-        var incluirInternos = usuario.getRol() == com.alberti.joinly.entities.enums.RolUsuario.AGENTE 
+        var incluirInternos = usuario.getRol() == com.alberti.joinly.entities.enums.RolUsuario.AGENTE
                 || usuario.getRol() == com.alberti.joinly.entities.enums.RolUsuario.ADMIN;
 
-        return mensajeRepository.findMensajesPorTicket(idTicket, incluirInternos);
+        if (!incluirInternos && !idPropietario.equals(usuario.getId())) {
+            throw new UnauthorizedException("No tienes acceso a este ticket");
+        }
+
+        if (afterId == null) {
+            return mensajeRepository.findMensajesPorTicket(idTicket, incluirInternos);
+        }
+
+        return mensajeRepository.findFechaMensaje(idTicket, afterId)
+                .map(desde -> mensajeRepository.findMensajesPorTicketPosteriores(idTicket, afterId, desde, incluirInternos))
+                // afterId no pertenece al ticket: se filtra sobre la lista completa
+                .orElseGet(() -> mensajeRepository.findMensajesPorTicket(idTicket, incluirInternos).stream()
+                        .filter(m -> m.getId() > afterId)
+                        .toList());
     }
 
     /**
@@ -263,9 +319,12 @@ public class TicketSoporteService {
             throw new UnauthorizedException("Solo agentes pueden resolver tickets");
         }
 
+        var estadoAnterior = ticket.getEstado();
         ticket.setEstado(EstadoTicket.RESUELTO);
 
-        return ticketRepository.save(ticket);
+        var guardado = ticketRepository.save(ticket);
+        despachadorTickets.registrarTransicion(guardado, idAgente(guardado), estadoAnterior);
+        return guardado;
     }
 
     /**
@@ -290,6 +349,7 @@ public class TicketSoporteService {
             throw new UnauthorizedException("No tienes permiso para cerrar este ticket");
         }
 
+        var estadoAnterior = ticket.getEstado();
         ticket.setEstado(EstadoTicket.CERRADO);
         ticket.setFechaCierre(LocalDateTime.now());
 
@@ -297,6 +357,12 @@ public class TicketSoporteService {
             ticket.setSatisfaccion(satisfaccion);
         }
 
-        return ticketRepository.save(ticket);
+        var guardado = ticketRepository.save(ticket);
+        despachadorTickets.registrarTransicion(guardado, idAgente(guardado), estadoAnterior);
+        return guardado;
+    }
+
+    private static Long idAgente(TicketSoporte ticket) {
+        return ticket.getAgente() != null ? ticket.getAgente().getId() : null;
     }
 }
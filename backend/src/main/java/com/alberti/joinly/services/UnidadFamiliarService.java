@@ -8,6 +8,9 @@ import com.alberti.joinly.entities.grupo.MiembroUnidad;
 import com.alberti.joinly.entities.grupo.UnidadFamiliar;
 import com.alberti.joinly.entities.usuario.Usuario;
 import com.alberti.joinly.exceptions.*;
+import com.alberti.joinly.invitaciones.CacheCodigosInvitacion;
+import com.alberti.joinly.invitaciones.GeneradorCodigosInvitacion;
+import com.alberti.joinly.invitaciones.PermutacionCodigos;
 import com.alberti.joinly.repositories.MiembroUnidadRepository;
 import com.alberti.joinly.repositories.SuscripcionRepository;
 import com.alberti.joinly.repositories.UnidadFamiliarRepository;
@@ -19,10 +22,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Servicio de gestión de Unidades Familiares (grupos) en Joinly.
@@ -52,15 +55,16 @@ import java.util.Optional;
 @Slf4j
 public class UnidadFamiliarService {
 
-    private static final String CARACTERES_CODIGO = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final int LONGITUD_CODIGO = 12;
+    private static final int LONGITUD_CODIGO = PermutacionCodigos.LONGITUD;
     private static final int MAX_GRUPOS_POR_USUARIO = 10;
 
     private final UnidadFamiliarRepository unidadFamiliarRepository;
     private final MiembroUnidadRepository miembroUnidadRepository;
     private final UsuarioRepository usuarioRepository;
     private final SuscripcionRepository suscripcionRepository;
-    private final SecureRandom random = new SecureRandom();
+    private final GeneradorCodigosInvitacion generadorCodigos;
+    private final CacheCodigosInvitacion cacheCodigos;
+    private final AutorizacionService autorizacionService;
 
     /**
      * Busca una unidad familiar por su ID.
@@ -91,7 +95,9 @@ public class UnidadFamiliarService {
      * @return Optional con la unidad familiar si existe
      */
     public Optional<UnidadFamiliar> buscarPorCodigo(String codigoInvitacion) {
-        return unidadFamiliarRepository.findByCodigoInvitacion(codigoInvitacion.toUpperCase());
+        return buscarPorCodigo(codigoInvitacion,
+                unidadFamiliarRepository::findById,
+                unidadFamiliarRepository::findByCodigoInvitacion);
     }
 
     /**
@@ -103,7 +109,31 @@ public class UnidadFamiliarService {
      * @return Optional con la unidad familiar y administrador cargados
      */
     public Optional<UnidadFamiliar> buscarPorCodigoConAdministrador(String codigoInvitacion) {
-        return unidadFamiliarRepository.findWithAdministradorByCodigoInvitacion(codigoInvitacion.toUpperCase());
+        return buscarPorCodigo(codigoInvitacion,
+                unidadFamiliarRepository::findWithAdministradorById,
+                unidadFamiliarRepository::findWithAdministradorByCodigoInvitacion);
+    }
+
+    /**
+     * Resuelve el código con {@link CacheCodigosInvitacion} y carga la unidad por id; si no está
+     * en la caché o ya no coincide (unidad eliminada), consulta por código y guarda el resultado.
+     */
+    private Optional<UnidadFamiliar> buscarPorCodigo(
+            String codigoInvitacion,
+            Function<Long, Optional<UnidadFamiliar>> porId,
+            Function<String, Optional<UnidadFamiliar>> porCodigo) {
+        var codigo = codigoInvitacion.trim().toUpperCase();
+        var idUnidad = cacheCodigos.buscar(codigo);
+        if (idUnidad != null) {
+            var unidad = porId.apply(idUnidad).filter(u -> codigo.equals(u.getCodigoInvitacion()));
+            if (unidad.isPresent()) {
+                return unidad;
+            }
+            cacheCodigos.invalidar(codigo);
+        }
+        var unidad = porCodigo.apply(codigo);
+        unidad.ifPresent(u -> cacheCodigos.guardar(codigo, u.getId()));
+        return unidad;
     }
 
     /**
@@ -193,7 +223,8 @@ public class UnidadFamiliarService {
      * Este método realiza las siguientes operaciones atómicamente:
      * <ol>
      *   <li>Verifica que el usuario no haya alcanzado el límite de grupos (máx. {@value #MAX_GRUPOS_POR_USUARIO})</li>
-     *   <li>Genera un código de invitación único de {@value #LONGITUD_CODIGO} caracteres alfanuméricos</li>
+     *   <li>Genera un código de invitación único de {@value #LONGITUD_CODIGO} caracteres alfanuméricos
+     *       ({@link GeneradorCodigosInvitacion}, sin consultar los existentes)</li>
      *   <li>Crea la unidad familiar con estado ACTIVO y límite de 10 miembros por defecto</li>
      *   <li>Añade al administrador como primer miembro con rol ADMINISTRADOR</li>
      * </ol>
@@ -219,7 +250,7 @@ public class UnidadFamiliarService {
             throw new LimiteAlcanzadoException("grupos por usuario", MAX_GRUPOS_POR_USUARIO);
         }
 
-        var codigoUnico = generarCodigoUnico();
+        var codigoUnico = generadorCodigos.generar();
 
         var unidadFamiliar = UnidadFamiliar.builder()
                 .nombre(nombre)
@@ -232,6 +263,7 @@ public class UnidadFamiliarService {
                 .build();
 
         var unidadGuardada = unidadFamiliarRepository.save(unidadFamiliar);
+        autorizacionService.registrarAdministrador(unidadGuardada.getId(), idAdministrador);
 
         // El administrador se añade automáticamente como miembro
         agregarMiembroInterno(unidadGuardada, administrador, RolMiembro.ADMINISTRADOR);
@@ -295,8 +327,7 @@ public class UnidadFamiliarService {
         }
 
         // REGLA: Verificar que el usuario no sea ya miembro activo
-        var yaMiembro = miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                usuario.getId(), unidad.getId(), EstadoMiembro.ACTIVO);
+        var yaMiembro = autorizacionService.esMiembroActivo(unidad.getId(), usuario.getId());
         if (yaMiembro) {
             throw new DuplicateResourceException("El usuario ya es miembro activo de este grupo");
         }
@@ -328,7 +359,9 @@ public class UnidadFamiliarService {
                 .estado(EstadoMiembro.ACTIVO)
                 .build();
 
-        return miembroUnidadRepository.save(miembro);
+        var guardado = miembroUnidadRepository.save(miembro);
+        autorizacionService.registrarAltaMiembro(unidad.getId(), usuario.getId());
+        return guardado;
     }
 
     /**
@@ -372,6 +405,7 @@ public class UnidadFamiliarService {
         miembro.setEstado(EstadoMiembro.EXPULSADO);
         miembro.setFechaBaja(LocalDateTime.now());
         miembroUnidadRepository.save(miembro);
+        autorizacionService.registrarBajaMiembro(idUnidad, idUsuario);
 
         log.info("Miembro expulsado exitosamente: grupo={}, usuario={}", idUnidad, idUsuario);
     }
@@ -408,6 +442,7 @@ public class UnidadFamiliarService {
         miembro.setEstado(EstadoMiembro.ABANDONO);
         miembro.setFechaBaja(LocalDateTime.now());
         miembroUnidadRepository.save(miembro);
+        autorizacionService.registrarBajaMiembro(idUnidad, idUsuario);
 
         log.info("Usuario abandonó grupo exitosamente: grupo={}, usuario={}", idUnidad, idUsuario);
     }
@@ -452,6 +487,9 @@ public class UnidadFamiliarService {
 
         unidad.setEstado(EstadoUnidadFamiliar.ELIMINADO);
         unidadFamiliarRepository.save(unidad);
+        autorizacionService.registrarBajaUnidad(idUnidad);
+        // Si otra petición lo vuelve a cachear antes del commit, la comprobación al leer lo descarta
+        cacheCodigos.invalidar(unidad.getCodigoInvitacion());
 
         log.info("Unidad familiar eliminada exitosamente: id={}", idUnidad);
     }
@@ -464,8 +502,7 @@ public class UnidadFamiliarService {
      * @return true si es miembro activo
      */
     public boolean esMiembroActivo(Long idUnidad, Long idUsuario) {
-        return miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(
-                idUsuario, idUnidad, EstadoMiembro.ACTIVO);
+        return autorizacionService.esMiembroActivo(idUnidad, idUsuario);
     }
 
     /**
@@ -476,31 +513,6 @@ public class UnidadFamiliarService {
      * @return true si es el administrador
      */
     public boolean esAdministrador(Long idUnidad, Long idUsuario) {
-        return unidadFamiliarRepository.findById(idUnidad)
-                .map(u -> u.getAdministrador().getId().equals(idUsuario))
-                .orElse(false);
-    }
-
-    /**
-     * Genera un código de invitación único que no exista en la base de datos.
-     */
-    private String generarCodigoUnico() {
-        String codigo;
-        do {
-            codigo = generarCodigoAleatorio();
-        } while (unidadFamiliarRepository.existsByCodigoInvitacion(codigo));
-        return codigo;
-    }
-
-    /**
-     * Genera un código alfanumérico aleatorio de {@value #LONGITUD_CODIGO} caracteres.
-     */
-    private String generarCodigoAleatorio() {
-        var sb = new StringBuilder(LONGITUD_CODIGO);
-        for (int i = 0; i < LONGITUD_CODIGO; i++) {
-            int index = random.nextInt(CARACTERES_CODIGO.length());
-            sb.append(CARACTERES_CODIGO.charAt(index));
-        }
-        return sb.toString();
+        return autorizacionService.esAdministrador(idUnidad, idUsuario);
     }
 }
@@ -1,5 +1,7 @@
 package com.alberti.joinly.services;
 
+import com.alberti.joinly.busqueda.BusquedaUsuarios;
+import com.alberti.joinly.busqueda.FiltroEmails;
 import com.alberti.joinly.dto.usuario.PreferenciasNotificacionDTO;
 import com.alberti.joinly.entities.enums.EstadoUsuario;
 import com.alberti.joinly.entities.usuario.Usuario;
@@ -7,13 +9,19 @@ import com.alberti.joinly.exceptions.ResourceNotFoundException;
 import com.alberti.joinly.repositories.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +30,8 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final FileStorageService fileStorageService;
+    private final BusquedaUsuarios busquedaUsuarios;
+    private final FiltroEmails filtroEmails;
 
     public Optional<Usuario> buscarPorId(Long id) {
         return usuarioRepository.findById(id);
@@ -31,12 +41,46 @@ public class UsuarioService {
         return usuarioRepository.findByEmail(email);
     }
 
+    /**
+     * Busca usuarios activos por nombre en el índice de búsqueda, ordenados por relevancia.
+     * Devuelve como mucho {@code joinly.busqueda.usuarios.max-resultados} usuarios.
+     */
     public List<Usuario> buscarPorNombre(String nombre) {
-        return usuarioRepository.buscarPorNombreYEstado(nombre, EstadoUsuario.ACTIVO);
+        if (!busquedaUsuarios.estaCargado()) {
+            return buscarEnBaseDeDatos(nombre, PageRequest.of(0, busquedaUsuarios.getMaxResultados())).getContent();
+        }
+        return cargarEnOrden(busquedaUsuarios.buscar(nombre));
     }
 
+    /**
+     * Pagina sobre todas las coincidencias del índice de búsqueda, con el total real. El orden
+     * es siempre el de relevancia; la ordenación del {@link Pageable} no se aplica.
+     * <p>
+     * Mientras el índice se carga tras el arranque, busca en la base de datos con
+     * {@code LIKE}: más lento y sin orden de relevancia, pero sin devolver listas vacías.
+     */
     public Page<Usuario> buscarPorNombrePaginado(String nombre, Pageable pageable) {
-        return usuarioRepository.buscarPorNombreYEstadoPaginado(nombre, EstadoUsuario.ACTIVO, pageable);
+        if (!busquedaUsuarios.estaCargado()) {
+            return buscarEnBaseDeDatos(nombre, pageable);
+        }
+        var desde = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+        var pagina = busquedaUsuarios.buscarPagina(nombre, desde, pageable.getPageSize());
+        return new PageImpl<>(cargarEnOrden(pagina.ids()), pageable, pagina.total());
+    }
+
+    private Page<Usuario> buscarEnBaseDeDatos(String nombre, Pageable pageable) {
+        var porNombre = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("nombre", "id"));
+        return usuarioRepository.buscarPorNombreYEstadoPaginado(nombre, EstadoUsuario.ACTIVO, porNombre);
+    }
+
+    private List<Usuario> cargarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var porId = usuarioRepository.findAllById(ids).stream()
+                .filter(usuario -> usuario.getEstado() == EstadoUsuario.ACTIVO)
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
     }
 
     public List<Usuario> listarAgentesSoporte() {
@@ -45,7 +89,7 @@ public class UsuarioService {
 
     @Transactional
     public Usuario registrar(String nombre, String email, String passwordEncriptado) {
-        if (usuarioRepository.existsByEmail(email)) {
+        if (existeEmail(email)) {
             throw new IllegalArgumentException("Ya existe un usuario con el email: " + email);
         }
 
@@ -59,7 +103,9 @@ public class UsuarioService {
                 .rol(com.alberti.joinly.entities.enums.RolUsuario.USER)
                 .build();
 
-        return usuarioRepository.save(usuario);
+        var guardado = usuarioRepository.save(usuario);
+        busquedaUsuarios.registrarCambio(guardado.getId(), guardado.getNombre(), guardado.getEstado());
+        return guardado;
     }
 
     @Transactional
@@ -85,7 +131,9 @@ public class UsuarioService {
             usuario.setTemaPreferido(temaPreferido);
         }
 
-        return usuarioRepository.save(usuario);
+        var guardado = usuarioRepository.save(usuario);
+        busquedaUsuarios.registrarCambio(guardado.getId(), guardado.getNombre(), guardado.getEstado());
+        return guardado;
     }
 
     @Transactional
@@ -112,10 +160,15 @@ public class UsuarioService {
         
         usuario.setEstado(EstadoUsuario.ELIMINADO);
         usuarioRepository.save(usuario);
+        busquedaUsuarios.registrarCambio(idUsuario, usuario.getNombre(), EstadoUsuario.ELIMINADO);
     }
 
+    /**
+     * Comprueba si el email está registrado. La mayoría de emails nuevos los descarta el
+     * {@link FiltroEmails} sin consultar la base de datos.
+     */
     public boolean existeEmail(String email) {
-        return usuarioRepository.existsByEmail(email);
+        return filtroEmails.existe(email, usuarioRepository::existsByEmail);
     }
 
     /**
@@ -0,0 +1,114 @@
+package com.alberti.joinly.soporte;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Señales por ticket para despertar a las peticiones que esperan mensajes nuevos
+ * ({@link EsperaMensajesTicket}).
+ * <p>
+ * Solo existe señal para los tickets con alguien esperando: se crea al suscribirse y se
+ * elimina cuando se va el último suscriptor, así que avisar de un ticket sin esperas
+ * cuesta una consulta al mapa. Cada señal lleva un contador de versión; quien espera
+ * anota la versión <b>antes</b> de consultar la base de datos, de modo que un aviso que
+ * llegue entre la consulta y la espera no se pierde.
+ */
+@Component
+public class AvisosMensajesTicket {
+
+    private final ConcurrentHashMap<Long, Senal> senales = new ConcurrentHashMap<>();
+
+    public static final class Senal {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition cambio = lock.newCondition();
+        private long version;
+        /** Solo se modifica dentro de {@code compute} sobre el mapa de señales. */
+        private int suscriptores;
+
+        public long version() {
+            lock.lock();
+            try {
+                return version;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Espera hasta que la versión deje de ser {@code vista} o venza el plazo.
+         *
+         * @return {@code true} si hubo aviso, {@code false} si venció el plazo
+         */
+        public boolean esperar(long vista, long nanos) throws InterruptedException {
+            lock.lock();
+            try {
+                while (version == vista) {
+                    if (nanos <= 0) return false;
+                    nanos = cambio.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void avisar() {
+            lock.lock();
+            try {
+                version++;
+                cambio.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Registra una espera sobre el ticket. Debe emparejarse con {@link #cancelar} en un {@code finally}.
+     */
+    public Senal suscribir(Long idTicket) {
+        return senales.compute(idTicket, (id, actual) -> {
+            var senal = actual != null ? actual : new Senal();
+            senal.suscriptores++;
+            return senal;
+        });
+    }
+
+    public void cancelar(Long idTicket) {
+        senales.computeIfPresent(idTicket, (id, senal) -> --senal.suscriptores == 0 ? null : senal);
+    }
+
+    /**
+     * Despierta a quienes esperan mensajes del ticket cuando confirme la transacción en curso
+     * (o inmediatamente si no hay ninguna), para que al volver a consultar vean el mensaje.
+     */
+    public void notificar(Long idTicket) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    avisar(idTicket);
+                }
+            });
+        } else {
+            avisar(idTicket);
+        }
+    }
+
+    private void avisar(Long idTicket) {
+        var senal = senales.get(idTicket);
+        if (senal != null) {
+            senal.avisar();
+        }
+    }
+
+    int ticketsEnEspera() {
+        return senales.size();
+    }
+}
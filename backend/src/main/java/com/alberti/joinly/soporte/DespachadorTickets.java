@@ -0,0 +1,363 @@
+package com.alberti.joinly.soporte;
+
+import com.alberti.joinly.dto.soporte.TicketPendiente;
+import com.alberti.joinly.entities.enums.EstadoTicket;
+import com.alberti.joinly.entities.enums.PrioridadTicket;
+import com.alberti.joinly.entities.soporte.TicketSoporte;
+import com.alberti.joinly.repositories.TicketSoporteRepository;
+import com.alberti.joinly.repositories.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de despacho de tickets de soporte y asignación automática al agente menos cargado.
+ * <p>
+ * Mantiene en memoria dos conjuntos ordenados (árboles rojo-negro, que a diferencia de un
+ * {@code PriorityQueue} permiten retirar un elemento arbitrario en O(log n)):
+ * <ul>
+ *   <li>Tickets sin asignar por prioridad descendente y antigüedad.</li>
+ *   <li>Agentes disponibles por carga ascendente, donde la carga es el número de tickets
+ *       ABIERTO o EN_PROCESO asignados (lo mismo que
+ *       {@link TicketSoporteRepository#contarTicketsActivosPorAgente}).</li>
+ * </ul>
+ * Cada ticket nuevo se asigna al agente con menos carga que no haya alcanzado
+ * {@code joinly.soporte.max-tickets-por-agente}; si todos están completos, queda en la cola
+ * y se despacha en cuanto un agente libera capacidad.
+ * <p>
+ * El estado se reconstruye desde la base de datos al arrancar y cada
+ * {@code joinly.soporte.intervalo-reconciliacion-ms}, lo que corrige la deriva de las
+ * asignaciones hechas en otros nodos y recoge altas y bajas de agentes. La asignación desde
+ * la cola usa un {@code UPDATE} condicional, de modo que dos nodos no pueden asignar el mismo ticket.
+ */
+@Component
+@Slf4j
+public class DespachadorTickets {
+
+    private static final Set<EstadoTicket> ESTADOS_ACTIVOS = EnumSet.of(EstadoTicket.ABIERTO, EstadoTicket.EN_PROCESO);
+
+    private final TicketSoporteRepository ticketRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean asignacionAutomatica;
+    private final int maxTicketsPorAgente;
+
+    /** Protege {@link #pendientes}, {@link #agentesPorCarga} y {@link #cargaPorAgente}. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final TreeSet<TicketPendiente> pendientes = new TreeSet<>(ORDEN_PENDIENTES);
+    private final Map<Long, TicketPendiente> pendientesPorId = new HashMap<>();
+    private final TreeSet<Carga> agentesPorCarga = new TreeSet<>(ORDEN_CARGAS);
+    private final Map<Long, Carga> cargaPorAgente = new HashMap<>();
+
+    private record Carga(long idAgente, int tickets) {
+    }
+
+    static final Comparator<TicketPendiente> ORDEN_PENDIENTES = Comparator
+            .comparing(TicketPendiente::prioridad, Comparator.<PrioridadTicket>reverseOrder())
+            .thenComparing(TicketPendiente::fechaApertura, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TicketPendiente::idTicket);
+
+    private static final Comparator<Carga> ORDEN_CARGAS = Comparator
+            .comparingInt(Carga::tickets)
+            .thenComparingLong(Carga::idAgente);
+
+    public DespachadorTickets(
+            TicketSoporteRepository ticketRepository,
+            UsuarioRepository usuarioRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${joinly.soporte.asignacion-automatica:true}") boolean asignacionAutomatica,
+            @Value("${joinly.soporte.max-tickets-por-agente:15}") int maxTicketsPorAgente) {
+        this.ticketRepository = ticketRepository;
+        this.usuarioRepository = usuarioRepository;
+        // Se invoca desde afterCommit: necesita una transacción propia
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.asignacionAutomatica = asignacionAutomatica;
+        this.maxTicketsPorAgente = maxTicketsPorAgente;
+    }
+
+    // ==================== Consultas ====================
+
+    /**
+     * Identificadores de los tickets sin asignar en orden de atención.
+     */
+    public List<Long> idsPendientes() {
+        lock.lock();
+        try {
+            return pendientes.stream().map(TicketPendiente::idTicket).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int cargaAgente(long idAgente) {
+        lock.lock();
+        try {
+            var carga = cargaPorAgente.get(idAgente);
+            return carga != null ? carga.tickets() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== Eventos del servicio ====================
+
+    /**
+     * Asigna un ticket recién creado (aún en la transacción de creación) al agente menos cargado.
+     * La carga se reserva en el momento para que creaciones concurrentes se repartan, y se
+     * devuelve si la transacción no confirma. Sin agente disponible, el ticket se encola al confirmar.
+     */
+    public void asignarNuevo(TicketSoporte ticket) {
+        var idAgente = asignacionAutomatica ? reservarAgente() : Optional.<Long>empty();
+        var agente = idAgente.flatMap(usuarioRepository::findById);
+
+        if (agente.isPresent()) {
+            ticket.setAgente(agente.get());
+            ticket.setEstado(EstadoTicket.EN_PROCESO);
+            log.info("Ticket {} asignado automáticamente al agente {}", ticket.getId(), idAgente.get());
+            alFinalizar(null, () -> liberar(idAgente.get()));
+            return;
+        }
+        idAgente.ifPresent(id -> ajustarCarga(id, -1));
+        var pendiente = new TicketPendiente(ticket.getId(), ticket.getPrioridad(), ticket.getFechaApertura());
+        alFinalizar(() -> encolar(pendiente), null);
+    }
+
+    /**
+     * Aplica, al confirmar la transacción, el cambio de agente o de estado de un ticket existente.
+     *
+     * @param idAgenteAnterior Agente antes del cambio (puede ser {@code null})
+     * @param estadoAnterior   Estado antes del cambio
+     */
+    public void registrarTransicion(TicketSoporte ticket, Long idAgenteAnterior, EstadoTicket estadoAnterior) {
+        var idTicket = ticket.getId();
+        var idAgente = ticket.getAgente() != null ? ticket.getAgente().getId() : null;
+        var estado = ticket.getEstado();
+        var pendiente = new TicketPendiente(idTicket, ticket.getPrioridad(), ticket.getFechaApertura());
+
+        alFinalizar(() -> {
+            boolean contabaAntes = idAgenteAnterior != null && ESTADOS_ACTIVOS.contains(estadoAnterior);
+            boolean cuentaAhora = idAgente != null && ESTADOS_ACTIVOS.contains(estado);
+            if (!contabaAntes && cuentaAhora) {
+                ajustarCarga(idAgente, 1);
+            } else if (contabaAntes && (!cuentaAhora || !idAgenteAnterior.equals(idAgente))) {
+                if (cuentaAhora) ajustarCarga(idAgente, 1);
+                liberar(idAgenteAnterior);
+            }
+
+            if (idAgente == null && estado == EstadoTicket.ABIERTO) {
+                encolar(pendiente);
+            } else {
+                desencolar(idTicket);
+            }
+        }, null);
+    }
+
+    // ==================== Estado en memoria ====================
+
+    /**
+     * Reserva una unidad de carga en el agente disponible menos cargado. O(log n).
+     */
+    Optional<Long> reservarAgente() {
+        lock.lock();
+        try {
+            if (agentesPorCarga.isEmpty() || agentesPorCarga.first().tickets() >= maxTicketsPorAgente) {
+                return Optional.empty();
+            }
+            var menosCargado = agentesPorCarga.pollFirst();
+            var actualizada = new Carga(menosCargado.idAgente(), menosCargado.tickets() + 1);
+            agentesPorCarga.add(actualizada);
+            cargaPorAgente.put(actualizada.idAgente(), actualizada);
+            return Optional.of(actualizada.idAgente());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Descuenta una unidad de carga y despacha la cola si el agente queda con capacidad.
+     */
+    void liberar(long idAgente) {
+        ajustarCarga(idAgente, -1);
+        despacharPendientes();
+    }
+
+    private void ajustarCarga(long idAgente, int delta) {
+        lock.lock();
+        try {
+            var actual = cargaPorAgente.get(idAgente);
+            if (actual == null) {
+                // No es un agente disponible (baja, o administrador sin registrar): no se contabiliza
+                return;
+            }
+            agentesPorCarga.remove(actual);
+            var actualizada = new Carga(idAgente, Math.max(0, actual.tickets() + delta));
+            agentesPorCarga.add(actualizada);
+            cargaPorAgente.put(idAgente, actualizada);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void encolar(TicketPendiente pendiente) {
+        lock.lock();
+        try {
+            var anterior = pendientesPorId.put(pendiente.idTicket(), pendiente);
+            if (anterior != null) {
+                pendientes.remove(anterior);
+            }
+            pendientes.add(pendiente);
+        } finally {
+            lock.unlock();
+        }
+        despacharPendientes();
+    }
+
+    private void desencolar(long idTicket) {
+        lock.lock();
+        try {
+            var anterior = pendientesPorId.remove(idTicket);
+            if (anterior != null) {
+                pendientes.remove(anterior);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Asigna tickets de la cola mientras haya agentes con capacidad. La reserva en memoria
+     * se hace bajo el cerrojo; la escritura en base de datos, fuera de él.
+     */
+    void despacharPendientes() {
+        if (!asignacionAutomatica) {
+            return;
+        }
+        while (true) {
+            TicketPendiente siguiente;
+            Long idAgente;
+            lock.lock();
+            try {
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+                var reservado = reservarAgente();
+                if (reservado.isEmpty()) {
+                    return;
+                }
+                idAgente = reservado.get();
+                siguiente = pendientes.pollFirst();
+                pendientesPorId.remove(siguiente.idTicket());
+            } finally {
+                lock.unlock();
+            }
+
+            boolean asignado;
+            try {
+                asignado = Boolean.TRUE.equals(transactionTemplate.execute(estado ->
+                        ticketRepository.asignarSiSinAgente(
+                                siguiente.idTicket(), usuarioRepository.getReferenceById(idAgente)) == 1));
+            } catch (DataAccessException e) {
+                log.warn("No se pudo asignar el ticket {}: {}", siguiente.idTicket(), e.getMessage());
+                ajustarCarga(idAgente, -1);
+                encolar(siguiente);
+                return;
+            }
+
+            if (asignado) {
+                log.info("Ticket {} despachado al agente {}", siguiente.idTicket(), idAgente);
+            } else {
+                // Ya asignado o cerrado por otro camino: se descarta de la cola
+                ajustarCarga(idAgente, -1);
+            }
+        }
+    }
+
+    // ==================== Reconstrucción ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        reconstruir();
+    }
+
+    /**
+     * Sustituye el estado en memoria por el de la base de datos y despacha lo pendiente.
+     */
+    @Scheduled(
+            initialDelayString = "${joinly.soporte.intervalo-reconciliacion-ms:60000}",
+            fixedDelayString = "${joinly.soporte.intervalo-reconciliacion-ms:60000}")
+    public void reconstruir() {
+        try {
+            var agentes = usuarioRepository.findAgentesSoporteActivos();
+            var cargas = new HashMap<Long, Long>();
+            ticketRepository.contarTicketsActivosAgrupadosPorAgente()
+                    .forEach(c -> cargas.put(c.idAgente(), c.tickets()));
+            var tickets = ticketRepository.findTicketsPendientesDespacho();
+
+            lock.lock();
+            try {
+                agentesPorCarga.clear();
+                cargaPorAgente.clear();
+                for (var agente : agentes) {
+                    var carga = new Carga(agente.getId(), cargas.getOrDefault(agente.getId(), 0L).intValue());
+                    agentesPorCarga.add(carga);
+                    cargaPorAgente.put(agente.getId(), carga);
+                }
+                pendientes.clear();
+                pendientesPorId.clear();
+                for (var ticket : tickets) {
+                    pendientes.add(ticket);
+                    pendientesPorId.put(ticket.idTicket(), ticket);
+                }
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Despachador de tickets reconstruido: {} agentes, {} tickets pendientes",
+                    agentes.size(), tickets.size());
+            despacharPendientes();
+        } catch (DataAccessException e) {
+            log.warn("No se pudo reconstruir el despachador de tickets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta las acciones al confirmar o al deshacer la transacción en curso.
+     * Sin transacción activa, la acción de confirmación se ejecuta inmediatamente.
+     */
+    private static void alFinalizar(Runnable alConfirmar, Runnable alDeshacer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (alConfirmar != null) alConfirmar.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED && alConfirmar != null) {
+                    alConfirmar.run();
+                } else if (status != STATUS_COMMITTED && alDeshacer != null) {
+                    alDeshacer.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.alberti.joinly.soporte;
+
+import com.alberti.joinly.basedatos.EnrutadorLecturas;
+import com.alberti.joinly.entities.soporte.MensajeTicket;
+import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.services.TicketSoporteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Long-poll de mensajes de un ticket: si no hay mensajes posteriores al último visto,
+ * la petición queda aparcada hasta que {@link TicketSoporteService#agregarMensaje} confirme
+ * uno nuevo o venza el plazo, en lugar de que el cliente consulte cada pocos segundos.
+ * <p>
+ * La espera bloquea el hilo de la petición, que es virtual ({@code spring.threads.virtual.enabled}),
+ * por lo que no retiene ningún hilo de plataforma ni conexión a la base de datos mientras dura:
+ * cada consulta abre y cierra su propia transacción de lectura.
+ * <p>
+ * Los avisos son locales al nodo; al vencer el plazo se consulta una última vez para
+ * recoger los mensajes escritos a través de otros nodos.
+ * <p>
+ * Tras un aviso la consulta va a la primaria ({@link EnrutadorLecturas#enPrimaria}): el aviso
+ * llega en el {@code afterCommit} de la primaria y la réplica puede no tener aún el mensaje.
+ */
+@Component
+public class EsperaMensajesTicket {
+
+    private final TicketSoporteService ticketService;
+    private final AvisosMensajesTicket avisos;
+    private final long esperaMaximaMs;
+
+    public EsperaMensajesTicket(
+            TicketSoporteService ticketService,
+            AvisosMensajesTicket avisos,
+            @Value("${joinly.soporte.long-poll-max-ms:25000}") long esperaMaximaMs) {
+        this.ticketService = ticketService;
+        this.avisos = avisos;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Mensajes del ticket posteriores a {@code afterId}, esperando hasta {@code esperaMs}
+     * (limitado a {@code joinly.soporte.long-poll-max-ms}) si todavía no hay ninguno.
+     *
+     * @return Los mensajes nuevos, o lista vacía si venció el plazo sin novedades
+     */
+    public List<MensajeTicket> obtenerMensajes(Long idTicket, UserPrincipal usuario, Long afterId, long esperaMs) {
+        var espera = Math.clamp(esperaMs, 0L, esperaMaximaMs);
+        if (espera == 0) {
+            return ticketService.obtenerMensajes(idTicket, usuario, afterId);
+        }
+
+        var limite = System.nanoTime() + espera * 1_000_000L;
+        var senal = avisos.suscribir(idTicket);
+        try {
+            var avisado = false;
+            while (true) {
+                var version = senal.version();
+                var mensajes = avisado
+                        ? EnrutadorLecturas.enPrimaria(() -> ticketService.obtenerMensajes(idTicket, usuario, afterId))
+                        : ticketService.obtenerMensajes(idTicket, usuario, afterId);
+                var restante = limite - System.nanoTime();
+                if (!mensajes.isEmpty() || restante <= 0) {
+                    return mensajes;
+                }
+                // Un aviso puede corresponder a una nota interna que este usuario no ve: se vuelve a esperar
+                if (!senal.esperar(version, restante)) {
+                    return ticketService.obtenerMensajes(idTicket, usuario, afterId);
+                }
+                avisado = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            avisos.cancelar(idTicket);
+        }
+    }
+}
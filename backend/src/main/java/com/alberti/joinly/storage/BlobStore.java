@@ -0,0 +1,55 @@
+package com.alberti.joinly.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Abstracción de almacenamiento de objetos binarios (avatares y otros ficheros subidos).
+ * <p>
+ * Permite que varias réplicas del backend compartan los ficheros sin depender
+ * de un disco local o de NFS. Implementaciones disponibles:
+ * <ul>
+ *   <li>{@link LocalBlobStore}: sistema de ficheros local (por defecto)</li>
+ *   <li>{@link S3BlobStore}: almacenamiento compatible con S3 (AWS, MinIO...)</li>
+ * </ul>
+ * <p>
+ * Las claves son nombres de fichero simples (p. ej. {@code 3f2a...e1.jpg}); cada
+ * implementación decide cómo mapearlas a su espacio de nombres.
+ */
+public interface BlobStore extends AutoCloseable {
+
+    /**
+     * Guarda un objeto leyendo el contenido en streaming.
+     *
+     * @param key         Clave del objeto
+     * @param contenido   Flujo con los bytes del objeto (no se cierra)
+     * @param contentType Tipo MIME del contenido
+     * @throws IOException Si falla la escritura
+     */
+    void put(String key, InputStream contenido, String contentType) throws IOException;
+
+    /**
+     * Devuelve una copia local del objeto lista para servirse por HTTP.
+     * <p>
+     * Las implementaciones remotas actúan como caché de lectura: la primera
+     * petición descarga el objeto y las siguientes se sirven desde disco.
+     *
+     * @param key Clave del objeto
+     * @return Ruta local del objeto, o vacío si no existe
+     */
+    Optional<Path> resolveLocal(String key);
+
+    /**
+     * Elimina un objeto. Las implementaciones remotas pueden hacerlo de forma asíncrona.
+     *
+     * @param key Clave del objeto
+     */
+    void delete(String key);
+
+    /** Libera los recursos de la implementación al cerrar el contexto. */
+    @Override
+    default void close() {
+    }
+}
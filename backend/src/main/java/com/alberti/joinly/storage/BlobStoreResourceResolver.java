@@ -0,0 +1,42 @@
+package com.alberti.joinly.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resuelve recursos estáticos a través de un {@link BlobStore}.
+ * <p>
+ * Permite servir los avatares con el mismo {@code ResourceHttpRequestHandler}
+ * (caché HTTP, rangos, ETag) independientemente de dónde estén almacenados.
+ */
+public class BlobStoreResourceResolver extends AbstractResourceResolver {
+
+    private final BlobStore blobStore;
+
+    public BlobStoreResourceResolver(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        try {
+            return blobStore.resolveLocal(requestPath)
+                    .<Resource>map(FileSystemResource::new)
+                    .orElse(null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return resourceUrlPath;
+    }
+}
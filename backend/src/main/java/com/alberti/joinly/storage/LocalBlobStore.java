@@ -0,0 +1,70 @@
+package com.alberti.joinly.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link BlobStore} sobre el sistema de ficheros local.
+ * <p>
+ * Es el comportamiento histórico de {@code FileStorageService}: los ficheros se
+ * guardan en un directorio del nodo. Adecuado para desarrollo o despliegues de
+ * una sola réplica.
+ */
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, InputStream contenido, String contentType) throws IOException {
+        var destino = resolver(key);
+        if (!Files.exists(root)) {
+            log.info("Creando directorio de almacenamiento: {}", root);
+            Files.createDirectories(root);
+        }
+
+        // Escribir en temporal y mover para que nunca se sirva un fichero a medias
+        var temporal = Files.createTempFile(root, ".", ".part");
+        try {
+            Files.copy(contenido, temporal, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    @Override
+    public Optional<Path> resolveLocal(String key) {
+        var ruta = resolver(key);
+        return Files.isRegularFile(ruta) ? Optional.of(ruta) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) {
+        var ruta = resolver(key);
+        try {
+            log.info("Eliminando fichero: {}", ruta);
+            Files.deleteIfExists(ruta);
+        } catch (IOException e) {
+            log.error("Error al eliminar fichero {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    private Path resolver(String key) {
+        var ruta = root.resolve(key).normalize();
+        if (!ruta.getParent().equals(root)) {
+            throw new IllegalArgumentException("Clave de almacenamiento inválida: " + key);
+        }
+        return ruta;
+    }
+}
@@ -0,0 +1,437 @@
+package com.alberti.joinly.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementación de {@link BlobStore} sobre un almacenamiento compatible con S3.
+ * <p>
+ * Características:
+ * <ul>
+ *   <li><b>Subida en streaming</b>: el contenido se lee por partes de tamaño fijo;
+ *       si cabe en una parte se usa {@code PutObject}, si no, subida multiparte</li>
+ *   <li><b>Caché local de lectura</b>: los objetos se descargan a un directorio local
+ *       la primera vez que se piden y se sirven desde allí después. Cada copia se guarda
+ *       con el ETag del objeto y, pasado {@code revalidacion}, se comprueba con
+ *       {@code HeadObject}: si el objeto ya no existe o ha cambiado (borrado o sustituido
+ *       desde otra réplica) se descarta. La caché está limitada a {@code maxBytesCache};
+ *       al superarlo se eliminan las copias usadas hace más tiempo</li>
+ *   <li><b>Borrado asíncrono</b>: {@link #delete(String)} invalida la caché al instante
+ *       y encola el borrado remoto, que se ejecuta en un hilo virtual. Los reintentos se
+ *       programan con espera creciente en la misma cola, sin bloquear los demás borrados</li>
+ * </ul>
+ */
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    private static final int MAX_INTENTOS_BORRADO = 5;
+    private static final Duration ESPERA_REINTENTO = Duration.ofSeconds(2);
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefijo;
+    private final int tamanoParte;
+    private final Path cache;
+    private final long maxBytesCache;
+    private final long revalidacionNanos;
+    private final DelayQueue<BorradoPendiente> borradosPendientes = new DelayQueue<>();
+    private final Thread trabajadorBorrados;
+
+    /** Copias locales por clave, en orden de último acceso (la primera es la menos usada). */
+    private final LinkedHashMap<String, CopiaLocal> copias = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesEnCache;
+
+    private volatile boolean activo = true;
+
+    private record CopiaLocal(Path ruta, String etag, long tamano, long validadaNanos) {
+
+        CopiaLocal revalidada() {
+            return new CopiaLocal(ruta, etag, tamano, System.nanoTime());
+        }
+    }
+
+    private record BorradoPendiente(String key, int intento, long vencimientoNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unidad) {
+            return unidad.convert(vencimientoNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), otro.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    public S3BlobStore(S3Client s3, String bucket, String prefijo, int tamanoParte, Path cache,
+                       long maxBytesCache, Duration revalidacion) {
+        if (tamanoParte <= 0) {
+            throw new IllegalArgumentException("El tamaño de parte debe ser positivo");
+        }
+        if (maxBytesCache <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser positivo");
+        }
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefijo = prefijo == null ? "" : prefijo;
+        this.tamanoParte = tamanoParte;
+        this.cache = cache.toAbsolutePath().normalize();
+        this.maxBytesCache = maxBytesCache;
+        this.revalidacionNanos = revalidacion.toNanos();
+        vaciarDirectorioCache();
+        this.trabajadorBorrados = Thread.ofVirtual()
+                .name("s3-blob-delete")
+                .start(this::procesarBorrados);
+    }
+
+    @Override
+    public void put(String key, InputStream contenido, String contentType) throws IOException {
+        var objeto = claveRemota(key);
+        var primeraParte = contenido.readNBytes(tamanoParte);
+
+        if (primeraParte.length < tamanoParte) {
+            var respuesta = s3.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objeto)
+                            .contentType(contentType)
+                            .contentLength((long) primeraParte.length)
+                            .build(),
+                    RequestBody.fromBytes(primeraParte));
+            guardarEnCache(key, respuesta.eTag(), primeraParte);
+            log.debug("Objeto subido a S3: {} ({} bytes)", objeto, primeraParte.length);
+            return;
+        }
+
+        subirMultiparte(objeto, primeraParte, contenido, contentType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Si S3 no responde (throttling, red) y hay copia local, se sirve la copia sin darla por
+     * revalidada: la siguiente petición lo vuelve a intentar. Solo un 404 de S3 la descarta.
+     */
+    @Override
+    public Optional<Path> resolveLocal(String key) {
+        validarClave(key);
+        var copia = copia(key);
+        if (copia != null && !Files.isRegularFile(copia.ruta())) {
+            copia = null;
+        }
+        if (copia != null && System.nanoTime() - copia.validadaNanos() < revalidacionNanos) {
+            return Optional.of(copia.ruta());
+        }
+
+        try {
+            if (copia != null) {
+                var etagActual = s3.headObject(HeadObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(claveRemota(key))
+                        .build()).eTag();
+                if (copia.etag().equals(etagActual)) {
+                    registrar(key, copia.revalidada());
+                    return Optional.of(copia.ruta());
+                }
+            }
+            return Optional.of(descargar(key));
+        } catch (SdkException e) {
+            if (noExiste(e)) {
+                invalidar(key);
+                return Optional.empty();
+            }
+            return copiaSinRevalidar(key, copia, e);
+        } catch (IOException e) {
+            return copiaSinRevalidar(key, copia, e);
+        }
+    }
+
+    private static boolean noExiste(SdkException e) {
+        return e instanceof NoSuchKeyException
+                || (e instanceof S3Exception s3Exception && s3Exception.statusCode() == 404);
+    }
+
+    private Optional<Path> copiaSinRevalidar(String key, CopiaLocal copia, Exception e) {
+        if (copia == null) {
+            log.error("Error al descargar objeto {} de S3: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+        log.warn("No se pudo revalidar {} contra S3, se sirve la copia local: {}", key, e.getMessage());
+        return Optional.of(copia.ruta());
+    }
+
+    @Override
+    public void delete(String key) {
+        validarClave(key);
+        invalidar(key);
+        borradosPendientes.offer(new BorradoPendiente(key, 1, System.nanoTime()));
+    }
+
+    /**
+     * Número de borrados remotos pendientes de ejecutar, incluidos los que esperan reintento.
+     */
+    public int getBorradosPendientes() {
+        return borradosPendientes.size();
+    }
+
+    /**
+     * Bytes ocupados por las copias locales.
+     */
+    public synchronized long getBytesEnCache() {
+        return bytesEnCache;
+    }
+
+    /**
+     * Detiene el hilo de borrados, hace un último intento de los pendientes (también de los
+     * que esperaban reintento) y cierra el cliente S3.
+     */
+    @Override
+    public void close() {
+        activo = false;
+        trabajadorBorrados.interrupt();
+        try {
+            trabajadorBorrados.join(Duration.ofSeconds(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        var pendientes = new ArrayList<>(borradosPendientes);
+        borradosPendientes.clear();
+        for (var pendiente : pendientes) {
+            borrarRemoto(pendiente.key());
+        }
+        s3.close();
+    }
+
+    private Path descargar(String key) throws IOException {
+        try (var remoto = s3.getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(claveRemota(key))
+                .build())) {
+            Files.createDirectories(cache);
+            var etag = remoto.response().eTag();
+            var local = rutaCache(key, etag);
+            var temporal = Files.createTempFile(cache, ".", ".part");
+            try {
+                var tamano = Files.copy(remoto, temporal, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporal, local, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                registrar(key, new CopiaLocal(local, etag, tamano, System.nanoTime()));
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+            return local;
+        }
+    }
+
+    private void subirMultiparte(String objeto, byte[] primeraParte, InputStream contenido, String contentType)
+            throws IOException {
+        var uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(objeto)
+                        .contentType(contentType)
+                        .build())
+                .uploadId();
+
+        var partes = new ArrayList<CompletedPart>();
+        try {
+            var parte = primeraParte;
+            var numero = 1;
+            while (parte.length > 0) {
+                var respuesta = s3.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(objeto)
+                                .uploadId(uploadId)
+                                .partNumber(numero)
+                                .contentLength((long) parte.length)
+                                .build(),
+                        RequestBody.fromBytes(parte));
+                partes.add(CompletedPart.builder().partNumber(numero).eTag(respuesta.eTag()).build());
+                numero++;
+                parte = contenido.readNBytes(tamanoParte);
+            }
+
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objeto)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(partes).build())
+                    .build());
+            log.debug("Objeto subido a S3 en {} partes: {}", partes.size(), objeto);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error en subida multiparte de {}, abortando: {}", objeto, e.getMessage());
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objeto)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    private void procesarBorrados() {
+        while (activo) {
+            try {
+                var pendiente = borradosPendientes.take();
+                if (!borrarRemoto(pendiente.key())) {
+                    reintentar(pendiente);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void reintentar(BorradoPendiente pendiente) {
+        if (pendiente.intento() >= MAX_INTENTOS_BORRADO) {
+            log.error("Descartado borrado de {} tras {} intentos", pendiente.key(), pendiente.intento());
+            return;
+        }
+        var espera = ESPERA_REINTENTO.multipliedBy(pendiente.intento());
+        borradosPendientes.offer(new BorradoPendiente(
+                pendiente.key(), pendiente.intento() + 1, System.nanoTime() + espera.toNanos()));
+    }
+
+    private boolean borrarRemoto(String key) {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(claveRemota(key))
+                    .build());
+            log.debug("Objeto eliminado de S3: {}", key);
+            return true;
+        } catch (SdkException e) {
+            log.warn("Error al eliminar objeto {} de S3: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private void guardarEnCache(String key, String etag, byte[] contenido) {
+        if (etag == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(cache);
+            var local = rutaCache(key, etag);
+            Files.write(local, contenido);
+            registrar(key, new CopiaLocal(local, etag, contenido.length, System.nanoTime()));
+        } catch (IOException e) {
+            log.warn("No se pudo cachear {} localmente: {}", key, e.getMessage());
+        }
+    }
+
+    // ==================== Índice de la caché local ====================
+
+    private synchronized CopiaLocal copia(String key) {
+        return copias.get(key);
+    }
+
+    /**
+     * Registra la copia de {@code key} (sustituyendo la anterior si tenía otro fichero) y
+     * libera las menos usadas hasta volver por debajo de {@code maxBytesCache}.
+     */
+    private void registrar(String key, CopiaLocal copia) {
+        var sobrantes = new ArrayList<Path>();
+        synchronized (this) {
+            var anterior = copias.put(key, copia);
+            bytesEnCache += copia.tamano();
+            if (anterior != null) {
+                bytesEnCache -= anterior.tamano();
+                if (!anterior.ruta().equals(copia.ruta())) {
+                    sobrantes.add(anterior.ruta());
+                }
+            }
+            var iterador = copias.entrySet().iterator();
+            while (bytesEnCache > maxBytesCache && iterador.hasNext()) {
+                var antigua = iterador.next();
+                if (antigua.getKey().equals(key)) {
+                    continue;
+                }
+                iterador.remove();
+                bytesEnCache -= antigua.getValue().tamano();
+                sobrantes.add(antigua.getValue().ruta());
+            }
+        }
+        sobrantes.forEach(this::borrarLocal);
+    }
+
+    private void invalidar(String key) {
+        CopiaLocal anterior;
+        synchronized (this) {
+            anterior = copias.remove(key);
+            if (anterior != null) {
+                bytesEnCache -= anterior.tamano();
+            }
+        }
+        if (anterior != null) {
+            borrarLocal(anterior.ruta());
+        }
+    }
+
+    private void borrarLocal(Path ruta) {
+        try {
+            Files.deleteIfExists(ruta);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {} de la caché local: {}", ruta.getFileName(), e.getMessage());
+        }
+    }
+
+    /** El índice vive en memoria: las copias de una ejecución anterior no se pueden validar. */
+    private void vaciarDirectorioCache() {
+        if (!Files.isDirectory(cache)) {
+            return;
+        }
+        try (var ficheros = Files.list(cache)) {
+            ficheros.filter(Files::isRegularFile).forEach(this::borrarLocal);
+        } catch (IOException e) {
+            log.warn("No se pudo vaciar la caché local {}: {}", cache, e.getMessage());
+        }
+    }
+
+    private String claveRemota(String key) {
+        validarClave(key);
+        return prefijo + key;
+    }
+
+    /**
+     * Fichero local de una versión concreta del objeto. El ETag va delante para que el
+     * nombre conserve la extensión, de la que se deduce el Content-Type al servirlo.
+     */
+    private Path rutaCache(String key, String etag) {
+        validarClave(key);
+        var version = etag == null ? "" : etag.replaceAll("[^A-Za-z0-9-]", "");
+        return cache.resolve(version + "_" + key);
+    }
+
+    private void validarClave(String key) {
+        if (key == null || key.isBlank() || key.contains("/") || key.contains("\\") || key.startsWith(".")) {
+            throw new IllegalArgumentException("Clave de almacenamiento inválida: " + key);
+        }
+    }
+}
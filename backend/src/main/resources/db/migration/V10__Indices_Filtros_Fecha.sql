@@ -0,0 +1,16 @@
+-- V10: Índices compuestos para los listados filtrados por estado y rango de fechas
+--
+-- Los filtros de "mis pagos" y "mis solicitudes" se generan ahora con predicados
+-- dinámicos y rangos semiabiertos sobre la columna sin transformar
+-- (fecha >= :desde AND fecha < :hasta), de modo que pueden recorrer estos índices.
+
+-- pago: usuario + estado + rango de fecha_pago
+-- (usuario + rango sin estado ya lo cubre idx_pago_usuario_fecha)
+CREATE INDEX idx_pago_usuario_estado_fecha ON pago(id_usuario, estado, fecha_pago);
+
+-- solicitud: solicitante + rango de fecha_solicitud, con y sin estado
+CREATE INDEX idx_solicitud_solicitante_fecha ON solicitud(id_solicitante, fecha_solicitud);
+CREATE INDEX idx_solicitud_solicitante_estado_fecha ON solicitud(id_solicitante, estado, fecha_solicitud);
+
+-- idx_solicitud_solicitante_estado es prefijo del nuevo índice de tres columnas
+DROP INDEX idx_solicitud_solicitante_estado ON solicitud;
@@ -0,0 +1,5 @@
+-- V11: Índice para la sincronización del índice de búsqueda de usuarios
+--
+-- Cada nodo consulta periódicamente los usuarios con updated_at posterior a su
+-- última marca para incorporar altas, renombrados y bajas hechas en otros nodos.
+CREATE INDEX idx_usuario_updated_at ON usuario(updated_at);
@@ -0,0 +1,11 @@
+-- V12: Secuencias para generar identificadores sin consultar la tabla de destino
+--
+-- GeneradorCodigosInvitacion reserva bloques de 'codigo_invitacion' con
+-- UPDATE secuencia SET valor = valor + N y cifra cada número con una permutación
+-- con clave, de modo que los códigos nuevos no se repiten ni hay que comprobarlos.
+CREATE TABLE secuencia (
+    nombre VARCHAR(50) PRIMARY KEY,
+    valor BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO secuencia (nombre, valor) VALUES ('codigo_invitacion', 0);
@@ -0,0 +1,23 @@
+-- V13: Ids por bloques para las tablas con inserciones masivas
+--
+-- Con IDENTITY, Hibernate tiene que ejecutar cada INSERT por separado para leer
+-- el id generado, así que hibernate.jdbc.batch_size no tiene efecto. plaza,
+-- notificacion, pago y mensaje_ticket pasan a un @TableGenerator sobre la tabla
+-- secuencia que reserva bloques de 50 ids (optimizador pooled).
+--
+-- Con el optimizador pooled, al leer el valor V de la secuencia el nodo usa los
+-- ids (V - 50, V], así que cada fila empieza en MAX(id) + 50 + 1 para que el
+-- primer bloque quede por encima de los ids existentes. Las columnas conservan
+-- AUTO_INCREMENT, pero la aplicación ya no lo usa: no debe haber nodos con la
+-- versión anterior insertando en estas tablas durante el despliegue.
+INSERT INTO secuencia (nombre, valor)
+SELECT 'plaza', COALESCE(MAX(id_plaza), 0) + 51 FROM plaza;
+
+INSERT INTO secuencia (nombre, valor)
+SELECT 'notificacion', COALESCE(MAX(id_notificacion), 0) + 51 FROM notificacion;
+
+INSERT INTO secuencia (nombre, valor)
+SELECT 'pago', COALESCE(MAX(id_pago), 0) + 51 FROM pago;
+
+INSERT INTO secuencia (nombre, valor)
+SELECT 'mensaje_ticket', COALESCE(MAX(id_mensaje), 0) + 51 FROM mensaje_ticket;
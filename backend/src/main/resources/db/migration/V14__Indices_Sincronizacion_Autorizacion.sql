@@ -0,0 +1,6 @@
+-- V14: Índices para la sincronización del índice de autorización
+--
+-- Cada nodo consulta periódicamente los miembros y unidades familiares con updated_at
+-- posterior a su última marca para descartar de memoria las unidades que han cambiado.
+CREATE INDEX idx_miembro_unidad_updated_at ON miembro_unidad(updated_at);
+CREATE INDEX idx_unidad_familiar_updated_at ON unidad_familiar(updated_at);
@@ -0,0 +1,17 @@
+-- V15: Respuestas guardadas de las peticiones con cabecera Idempotency-Key
+--
+-- Cada fila reserva una clave (<id_usuario>:<clave del cliente>) mientras se procesa la
+-- petición original (estado_http NULL) y después guarda su respuesta hasta expira_en, para
+-- devolverla a los reintentos. La clave primaria impide que dos nodos procesen la misma
+-- petición a la vez; las filas caducadas se purgan por expira_en.
+CREATE TABLE respuesta_idempotente (
+    clave VARCHAR(300) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    estado_http INT NULL,
+    tipo_contenido VARCHAR(255) NULL,
+    cuerpo MEDIUMBLOB NULL,
+    expira_en DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_idempotente_expira ON respuesta_idempotente(expira_en);
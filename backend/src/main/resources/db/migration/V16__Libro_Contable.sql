@@ -0,0 +1,124 @@
+-- V16: Libro contable de pagos con saldos por anfitrión y por suscripción
+--
+-- movimiento_contable es de solo inserción: cada fila pasa un importe de una cuenta a otra
+-- (PASARELA, RETENIDO, DISPUTADO, LIBERADO, REEMBOLSADO). saldo_contable guarda el acumulado
+-- por anfitrión o suscripción y moneda, y saldo_contable_mensual el de cada mes; la aplicación
+-- los actualiza por incrementos en la misma transacción que cada movimiento.
+
+-- El estado DISPUTADO ya lo usa la aplicación pero faltaba en la restricción original
+ALTER TABLE pago DROP CHECK chk_pago_estado;
+ALTER TABLE pago ADD CONSTRAINT chk_pago_estado CHECK (estado IN
+    ('PENDIENTE', 'FALLIDO', 'RETENIDO', 'LIBERADO', 'REEMBOLSADO', 'REEMBOLSO_PARCIAL', 'DISPUTADO'));
+
+CREATE TABLE movimiento_contable (
+    id_movimiento BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id_pago BIGINT NOT NULL,
+    id_suscripcion BIGINT NOT NULL,
+    id_anfitrion BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    cuenta_origen VARCHAR(20) NOT NULL,
+    cuenta_destino VARCHAR(20) NOT NULL,
+    monto DECIMAL(10,2) NOT NULL,
+    moneda CHAR(3) NOT NULL,
+    fecha DATETIME(6) NOT NULL,
+
+    CONSTRAINT fk_movimiento_pago FOREIGN KEY (id_pago) REFERENCES pago(id_pago) ON DELETE RESTRICT,
+    CONSTRAINT chk_movimiento_monto CHECK (monto > 0),
+    CONSTRAINT chk_movimiento_cuentas CHECK (cuenta_origen <> cuenta_destino)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_movimiento_pago ON movimiento_contable(id_pago);
+CREATE INDEX idx_movimiento_anfitrion_fecha ON movimiento_contable(id_anfitrion, fecha);
+
+CREATE TABLE saldo_contable (
+    id_saldo BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ambito VARCHAR(20) NOT NULL,
+    id_ambito BIGINT NOT NULL,
+    moneda CHAR(3) NOT NULL,
+    cobrado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    retenido DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    disputado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    liberado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    reembolsado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    updated_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT uk_saldo_ambito UNIQUE (ambito, id_ambito, moneda)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE saldo_contable_mensual (
+    id_saldo_mensual BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ambito VARCHAR(20) NOT NULL,
+    id_ambito BIGINT NOT NULL,
+    periodo DATE NOT NULL,
+    moneda CHAR(3) NOT NULL,
+    cobrado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    retenido DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    disputado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    liberado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    reembolsado DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+
+    CONSTRAINT uk_saldo_mensual_ambito UNIQUE (ambito, id_ambito, periodo, moneda)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- Movimientos de los pagos existentes, reconstruidos a partir de su estado actual.
+-- No se conoce la fecha de los reembolsos ni de las disputas; se usa la del pago.
+-- ============================================================================
+
+INSERT INTO movimiento_contable (id_pago, id_suscripcion, id_anfitrion, tipo, cuenta_origen, cuenta_destino, monto, moneda, fecha)
+SELECT p.id_pago, p.id_suscripcion, s.id_anfitrion, 'RETENCION', 'PASARELA', 'RETENIDO', p.monto, p.moneda, p.fecha_pago
+FROM pago p JOIN suscripcion s ON s.id_suscripcion = p.id_suscripcion
+WHERE p.estado IN ('RETENIDO', 'LIBERADO', 'DISPUTADO', 'REEMBOLSADO', 'REEMBOLSO_PARCIAL')
+  AND p.monto > 0;
+
+INSERT INTO movimiento_contable (id_pago, id_suscripcion, id_anfitrion, tipo, cuenta_origen, cuenta_destino, monto, moneda, fecha)
+SELECT p.id_pago, p.id_suscripcion, s.id_anfitrion, 'REEMBOLSO', 'RETENIDO', 'REEMBOLSADO', p.monto_reembolsado, p.moneda, p.fecha_pago
+FROM pago p JOIN suscripcion s ON s.id_suscripcion = p.id_suscripcion
+WHERE p.estado IN ('RETENIDO', 'LIBERADO', 'DISPUTADO', 'REEMBOLSADO', 'REEMBOLSO_PARCIAL')
+  AND p.monto_reembolsado > 0;
+
+INSERT INTO movimiento_contable (id_pago, id_suscripcion, id_anfitrion, tipo, cuenta_origen, cuenta_destino, monto, moneda, fecha)
+SELECT p.id_pago, p.id_suscripcion, s.id_anfitrion, 'LIBERACION', 'RETENIDO', 'LIBERADO',
+       p.monto - COALESCE(p.monto_reembolsado, 0), p.moneda, COALESCE(p.fecha_liberacion, p.fecha_pago)
+FROM pago p JOIN suscripcion s ON s.id_suscripcion = p.id_suscripcion
+WHERE p.estado = 'LIBERADO'
+  AND p.monto - COALESCE(p.monto_reembolsado, 0) > 0;
+
+INSERT INTO movimiento_contable (id_pago, id_suscripcion, id_anfitrion, tipo, cuenta_origen, cuenta_destino, monto, moneda, fecha)
+SELECT p.id_pago, p.id_suscripcion, s.id_anfitrion, 'DISPUTA', 'RETENIDO', 'DISPUTADO',
+       p.monto - COALESCE(p.monto_reembolsado, 0), p.moneda, p.fecha_pago
+FROM pago p JOIN suscripcion s ON s.id_suscripcion = p.id_suscripcion
+WHERE p.estado = 'DISPUTADO'
+  AND p.monto - COALESCE(p.monto_reembolsado, 0) > 0;
+
+-- ============================================================================
+-- Saldos iniciales a partir de esos movimientos
+-- ============================================================================
+
+CREATE TEMPORARY TABLE tmp_importes_movimiento AS
+SELECT id_anfitrion, id_suscripcion, moneda,
+       CAST(DATE_FORMAT(fecha, '%Y-%m-01') AS DATE) AS periodo,
+       CASE WHEN cuenta_origen = 'PASARELA' THEN monto ELSE 0 END AS cobrado,
+       CASE WHEN cuenta_destino = 'RETENIDO' THEN monto WHEN cuenta_origen = 'RETENIDO' THEN -monto ELSE 0 END AS retenido,
+       CASE WHEN cuenta_destino = 'DISPUTADO' THEN monto WHEN cuenta_origen = 'DISPUTADO' THEN -monto ELSE 0 END AS disputado,
+       CASE WHEN cuenta_destino = 'LIBERADO' THEN monto WHEN cuenta_origen = 'LIBERADO' THEN -monto ELSE 0 END AS liberado,
+       CASE WHEN cuenta_destino = 'REEMBOLSADO' THEN monto WHEN cuenta_origen = 'REEMBOLSADO' THEN -monto ELSE 0 END AS reembolsado
+FROM movimiento_contable;
+
+INSERT INTO saldo_contable (ambito, id_ambito, moneda, cobrado, retenido, disputado, liberado, reembolsado, updated_at)
+SELECT 'ANFITRION', id_anfitrion, moneda, SUM(cobrado), SUM(retenido), SUM(disputado), SUM(liberado), SUM(reembolsado), NOW(6)
+FROM tmp_importes_movimiento GROUP BY id_anfitrion, moneda;
+
+INSERT INTO saldo_contable (ambito, id_ambito, moneda, cobrado, retenido, disputado, liberado, reembolsado, updated_at)
+SELECT 'SUSCRIPCION', id_suscripcion, moneda, SUM(cobrado), SUM(retenido), SUM(disputado), SUM(liberado), SUM(reembolsado), NOW(6)
+FROM tmp_importes_movimiento GROUP BY id_suscripcion, moneda;
+
+INSERT INTO saldo_contable_mensual (ambito, id_ambito, periodo, moneda, cobrado, retenido, disputado, liberado, reembolsado)
+SELECT 'ANFITRION', id_anfitrion, periodo, moneda, SUM(cobrado), SUM(retenido), SUM(disputado), SUM(liberado), SUM(reembolsado)
+FROM tmp_importes_movimiento GROUP BY id_anfitrion, periodo, moneda;
+
+INSERT INTO saldo_contable_mensual (ambito, id_ambito, periodo, moneda, cobrado, retenido, disputado, liberado, reembolsado)
+SELECT 'SUSCRIPCION', id_suscripcion, periodo, moneda, SUM(cobrado), SUM(retenido), SUM(disputado), SUM(liberado), SUM(reembolsado)
+FROM tmp_importes_movimiento GROUP BY id_suscripcion, periodo, moneda;
+
+DROP TEMPORARY TABLE tmp_importes_movimiento;
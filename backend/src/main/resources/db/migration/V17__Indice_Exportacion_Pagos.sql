@@ -0,0 +1,6 @@
+-- V17: Índice para exportar los pagos de una suscripción en orden de fecha
+--
+-- La exportación recorre los pagos fila a fila ordenados por fecha_pago; con este índice
+-- MySQL los entrega en orden sin ordenar antes todo el resultado (los de un usuario ya usan
+-- idx_pago_usuario_fecha).
+CREATE INDEX idx_pago_suscripcion_fecha ON pago(id_suscripcion, fecha_pago);
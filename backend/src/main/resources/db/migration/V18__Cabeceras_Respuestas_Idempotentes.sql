@@ -0,0 +1,6 @@
+-- V18: Cabeceras de las respuestas idempotentes
+--
+-- Los reintentos con Idempotency-Key deben recibir también las cabeceras propias de la
+-- respuesta original (Location de un 201, ETag...), guardadas como objeto JSON
+-- nombre -> lista de valores. Las filas anteriores quedan con NULL y se repiten sin ellas.
+ALTER TABLE respuesta_idempotente ADD COLUMN cabeceras TEXT NULL AFTER tipo_contenido;
@@ -0,0 +1,6 @@
+-- V19: Versión de fila en servicio
+--
+-- Las respuestas del catálogo en caché se invalidan con COUNT, MAX(id_servicio) y SUM(version)
+-- de esta tabla. JPA incrementa version en cada actualización; un UPDATE manual sobre el
+-- catálogo debe hacer también version = version + 1 para que se note.
+ALTER TABLE servicio ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
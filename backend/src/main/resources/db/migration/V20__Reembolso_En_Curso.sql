@@ -0,0 +1,6 @@
+-- V20: Reembolso en curso
+--
+-- Los reembolsos se reservan en una transacción corta, se envían a la pasarela sin
+-- transacción abierta y se confirman o revierten después. Mientras tanto el importe queda
+-- aquí, para que otro reembolso o la liberación del pago no partan del mismo disponible.
+ALTER TABLE pago ADD COLUMN monto_reembolso_en_curso DECIMAL(10,2) NULL AFTER monto_reembolsado;
@@ -0,0 +1,6 @@
+-- V21: Estado del pago al abrir la disputa
+--
+-- Solo se disputan pagos con los fondos retenidos (RETENIDO o REEMBOLSO_PARCIAL). Al
+-- resolver la disputa sin reembolso, el pago vuelve al estado que tenía. Las disputas
+-- anteriores quedan a NULL.
+ALTER TABLE disputa ADD COLUMN estado_pago_anterior VARCHAR(20) NULL AFTER evidencia_urls;
@@ -0,0 +1,50 @@
+-- V7: Particionado mensual por rango de log_auditoria y notificacion
+--
+-- Ambas tablas solo crecen y su limpieza se hacía con DELETE masivos. Con el
+-- particionado RANGE por mes, purgar un mes completo es un DROP PARTITION
+-- (operación de metadatos) y las consultas acotadas por fecha solo leen las
+-- particiones afectadas (partition pruning).
+--
+-- Restricciones de MySQL para tablas particionadas:
+--   * La columna de particionado debe formar parte de la clave primaria,
+--     por eso la PK pasa a ser (id, fecha).
+--   * InnoDB no admite claves foráneas en tablas particionadas. Se eliminan
+--     fk_log_usuario y fk_notificacion_usuario; los usuarios solo se borran
+--     de forma lógica (estado = 'ELIMINADO'), así que el ON DELETE no se usaba.
+--
+-- Se crea una partición inicial con todo el histórico y una partición pmax.
+-- ParticionService divide pmax en particiones mensuales al arrancar y en el
+-- job diario de mantenimiento, manteniendo siempre varios meses por delante.
+
+-- =====================================================
+-- log_auditoria (particionado por fecha)
+-- =====================================================
+ALTER TABLE log_auditoria DROP FOREIGN KEY fk_log_usuario;
+
+ALTER TABLE log_auditoria
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id_log, fecha);
+
+ALTER TABLE log_auditoria
+    PARTITION BY RANGE (TO_DAYS(fecha)) (
+        PARTITION p_inicial VALUES LESS THAN (TO_DAYS('2026-11-01')),
+        PARTITION pmax VALUES LESS THAN MAXVALUE
+    );
+
+-- =====================================================
+-- notificacion (particionado por fecha_creacion)
+-- =====================================================
+ALTER TABLE notificacion DROP FOREIGN KEY fk_notificacion_usuario;
+
+ALTER TABLE notificacion
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id_notificacion, fecha_creacion);
+
+-- Listado paginado por usuario ordenado por fecha, acotado a la ventana de retención
+CREATE INDEX idx_notificacion_usuario_fecha ON notificacion(id_usuario, fecha_creacion);
+
+ALTER TABLE notificacion
+    PARTITION BY RANGE (TO_DAYS(fecha_creacion)) (
+        PARTITION p_inicial VALUES LESS THAN (TO_DAYS('2026-11-01')),
+        PARTITION pmax VALUES LESS THAN MAXVALUE
+    );
@@ -0,0 +1,16 @@
+-- V8: Configuración modificable en caliente
+--
+-- ConfiguracionService detecta cambios comparando COUNT(*) y MAX(updated_at).
+-- Para que también se detecten los UPDATE hechos a mano durante una incidencia,
+-- updated_at se mantiene desde la propia base de datos con precisión de microsegundos.
+
+ALTER TABLE configuracion
+    MODIFY updated_at DATETIME(6) NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+UPDATE configuracion SET updated_at = CURRENT_TIMESTAMP(6) WHERE updated_at IS NULL;
+
+-- Parámetros de los jobs programados (sustituyen a joinly.jobs.* cuando existen)
+INSERT INTO configuracion (clave, valor, tipo, descripcion, categoria, modificable) VALUES
+('jobs_pausados', 'false', 'BOOLEAN', 'Pausa todos los jobs programados sin reiniciar la aplicación', 'jobs', TRUE),
+('jobs_dias_aviso_renovacion', '7', 'NUMBER', 'Días de anticipación para avisar de renovaciones', 'jobs', TRUE),
+('jobs_dias_limpiar_notificaciones', '90', 'NUMBER', 'Días de retención de notificaciones', 'jobs', TRUE);
@@ -0,0 +1,13 @@
+-- V9: Refresh tokens persistidos con rotación y revocación
+--
+-- Cada refresh token se guarda como hash SHA-256 en token.token. Todos los
+-- tokens de una misma sesión comparten familia; al reutilizar un token ya
+-- rotado se revoca la familia completa. fecha_revocacion permite a cada nodo
+-- sincronizar su caché de sesiones revocadas con una consulta MAX() indexada.
+
+ALTER TABLE token
+    ADD COLUMN familia VARCHAR(36) NULL,
+    ADD COLUMN fecha_revocacion DATETIME(6) NULL;
+
+CREATE INDEX idx_token_familia ON token(familia);
+CREATE INDEX idx_token_revocacion ON token(fecha_revocacion);
@@ -0,0 +1,57 @@
+package com.alberti.joinly.arranque;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("InformeArranque Tests")
+class InformeArranqueTest {
+
+    private final BufferingApplicationStartup arranque = new BufferingApplicationStartup(100);
+
+    private void crearBean(String nombre, long milisegundos) throws InterruptedException {
+        var paso = arranque.start(InformeArranque.PASO_BEAN).tag("beanName", nombre);
+        Thread.sleep(milisegundos);
+        paso.end();
+    }
+
+    @Test
+    @DisplayName("Agrupa las fases por nombre en el orden en que terminaron")
+    void agrupaFases() {
+        arranque.start("spring.boot.application.environment-prepared").end();
+        arranque.start("spring.context.config-classes.parse").end();
+        arranque.start("spring.context.config-classes.parse").end();
+
+        var resumen = InformeArranque.resumir(arranque.getBufferedTimeline());
+
+        assertThat(resumen.fases()).extracting(InformeArranque.Fase::nombre)
+                .containsExactly("spring.boot.application.environment-prepared", "spring.context.config-classes.parse");
+        assertThat(resumen.beansLentos()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Separa la creación de beans y los ordena de más a menos lento")
+    void beansLentos() throws InterruptedException {
+        crearBean("rapido", 0);
+        crearBean("lento", 30);
+
+        var resumen = InformeArranque.resumir(arranque.getBufferedTimeline());
+
+        assertThat(resumen.fases()).isEmpty();
+        assertThat(resumen.beansLentos()).extracting(InformeArranque.Fase::nombre).containsExactly("lento", "rapido");
+    }
+
+    @Test
+    @DisplayName("Limita el informe a los beans más lentos")
+    void limitaBeans() throws InterruptedException {
+        for (var i = 0; i < InformeArranque.BEANS_EN_INFORME + 5; i++) {
+            crearBean("bean" + i, 0);
+        }
+
+        var resumen = InformeArranque.resumir(arranque.getBufferedTimeline());
+
+        assertThat(resumen.beansLentos()).hasSize(InformeArranque.BEANS_EN_INFORME);
+    }
+}
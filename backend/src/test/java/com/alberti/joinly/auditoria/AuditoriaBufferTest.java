@@ -0,0 +1,224 @@
+package com.alberti.joinly.auditoria;
+
+import com.alberti.joinly.config.AuditoriaProperties;
+import com.alberti.joinly.config.AuditoriaProperties.ModoSaturacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prueba {@link AuditoriaBuffer} con la base de datos simulada y el fichero de volcado en un
+ * directorio temporal.
+ */
+@DisplayName("AuditoriaBuffer Tests")
+class AuditoriaBufferTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    private Path directorio;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> lotesEscritos = new ArrayList<>();
+    private AuditoriaProperties properties;
+    private AuditoriaBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditoriaProperties();
+        properties.setCapacidad(10);
+        properties.setTamanoLote(2);
+        properties.setIntervaloFlushMs(20);
+        properties.setUmbralSaturacion(0.5);
+        properties.setTasaMuestreo(2);
+        properties.setDirectorioSpill(directorio.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    private AuditoriaBuffer crear() {
+        buffer = new AuditoriaBuffer(properties, jdbcTemplate, mock(PlatformTransactionManager.class), meterRegistry);
+        return buffer;
+    }
+
+    private void baseDeDatosDisponible() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocacion -> {
+            synchronized (lotesEscritos) {
+                lotesEscritos.add(invocacion.<List<?>>getArgument(1).size());
+            }
+            return new int[0][];
+        });
+    }
+
+    private void baseDeDatosCaida() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+    }
+
+    private static EntradaAuditoria entrada(long idEntidad) {
+        return new EntradaAuditoria(1L, "ACTUALIZAR", "Suscripcion", idEntidad,
+                null, Map.of("estado", "ACTIVA"), "127.0.0.1", "test",
+                LocalDateTime.of(2026, 3, 1, 10, 0));
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.counter("joinly.auditoria.registros", "resultado", resultado).count();
+    }
+
+    private Path spill() {
+        return directorio.resolve("auditoria-pendiente.jsonl");
+    }
+
+    private Path reinyeccion() {
+        return directorio.resolve("auditoria-reinyectando.jsonl");
+    }
+
+    private void escribirSpill(int registros) throws Exception {
+        var lineas = new ArrayList<String>();
+        for (var i = 0; i < registros; i++) {
+            lineas.add(OBJECT_MAPPER.writeValueAsString(entrada(i)));
+        }
+        Files.write(spill(), lineas);
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        var limite = System.nanoTime() + 5_000_000_000L;
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condición no alcanzada a tiempo").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Con el buffer lleno descarta la entrada y la contabiliza")
+    void descartaConBufferLleno() {
+        var auditoria = crear();
+
+        for (var i = 0; i < 12; i++) {
+            auditoria.registrar(entrada(i));
+        }
+
+        assertThat(contador("descartado")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("En modo MUESTREO conserva una de cada tasa-muestreo entradas por encima del umbral")
+    void muestreaPorEncimaDelUmbral() {
+        properties.setModoSaturacion(ModoSaturacion.MUESTREO);
+        var auditoria = crear();
+
+        for (var i = 0; i < 10; i++) {
+            auditoria.registrar(entrada(i));
+        }
+
+        assertThat(contador("muestreado")).isEqualTo(3);
+        assertThat(contador("descartado")).isZero();
+    }
+
+    @Test
+    @DisplayName("En modo MUESTREO un lote que no se puede escribir cuenta como descartado")
+    void muestreoContabilizaLotesFallidos() throws Exception {
+        properties.setModoSaturacion(ModoSaturacion.MUESTREO);
+        baseDeDatosCaida();
+        var auditoria = crear();
+        auditoria.start();
+
+        auditoria.registrar(entrada(1));
+
+        esperar(() -> contador("descartado") == 1);
+        assertThat(spill()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Con la base de datos caída vuelca a disco y conserva el fichero al reinyectar")
+    void vuelcaADiscoSinBaseDeDatos() throws Exception {
+        baseDeDatosCaida();
+        var auditoria = crear();
+        auditoria.start();
+
+        auditoria.registrar(entrada(1));
+        auditoria.registrar(entrada(2));
+        esperar(() -> contador("volcado_disco") == 2);
+        // Deja pasar varios ciclos sin actividad, en los que se intenta reinyectar
+        Thread.sleep(200);
+        auditoria.stop();
+
+        var pendiente = Files.exists(reinyeccion()) ? reinyeccion() : spill();
+        assertThat(Files.readAllLines(pendiente)).hasSize(2);
+        assertThat(contador("descartado")).isZero();
+    }
+
+    @Test
+    @DisplayName("Al reinyectar con éxito escribe todos los registros y borra el fichero")
+    void reinyectaYBorra() throws Exception {
+        escribirSpill(3);
+        baseDeDatosDisponible();
+        var auditoria = crear();
+
+        auditoria.start();
+
+        esperar(() -> contador("escrito") == 3);
+        esperar(() -> !Files.exists(reinyeccion()));
+        assertThat(spill()).doesNotExist();
+        synchronized (lotesEscritos) {
+            assertThat(lotesEscritos).containsExactly(2, 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Si la reinyección falla a mitad, conserva solo lo que no se escribió")
+    void reinyeccionParcialConservaPendientes() throws Exception {
+        escribirSpill(5);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenReturn(new int[0][])
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        var auditoria = crear();
+
+        auditoria.start();
+
+        esperar(() -> contador("escrito") == 2);
+        Thread.sleep(100);
+        auditoria.stop();
+
+        var pendientes = Files.readAllLines(reinyeccion()).stream()
+                .map(linea -> {
+                    try {
+                        return OBJECT_MAPPER.readValue(linea, EntradaAuditoria.class).idEntidad();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertThat(pendientes).containsExactly(2L, 3L, 4L);
+        assertThat(contador("descartado")).isZero();
+    }
+}
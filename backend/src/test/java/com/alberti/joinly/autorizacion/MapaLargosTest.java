@@ -0,0 +1,48 @@
+package com.alberti.joinly.autorizacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MapaLargos Tests")
+class MapaLargosTest {
+
+    @Test
+    @DisplayName("Debe comportarse como un HashMap con inserciones, borrados y crecimiento")
+    void debeCoincidirConHashMap() {
+        var aleatorio = new Random(42);
+        var mapa = new MapaLargos(4);
+        var referencia = new HashMap<Long, Long>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long clave = 1 + aleatorio.nextInt(2_000);
+            switch (aleatorio.nextInt(3)) {
+                case 0 -> {
+                    long valor = 1 + aleatorio.nextInt(1_000);
+                    mapa.put(clave, valor);
+                    referencia.put(clave, valor);
+                }
+                case 1 -> {
+                    mapa.remove(clave);
+                    referencia.remove(clave);
+                }
+                default -> assertThat(mapa.get(clave)).isEqualTo(referencia.getOrDefault(clave, MapaLargos.AUSENTE));
+            }
+        }
+        assertThat(mapa.tamano()).isEqualTo(referencia.size());
+        referencia.forEach((clave, valor) -> assertThat(mapa.get(clave)).isEqualTo(valor));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar claves y valores no positivos")
+    void debeRechazarNoPositivos() {
+        var mapa = new MapaLargos(16);
+
+        assertThatThrownBy(() -> mapa.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> mapa.put(1, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.alberti.joinly.basedatos;
+
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CompartimentosBd Tests")
+class CompartimentosBdTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CompartimentosBd compartimentos;
+
+    @BeforeEach
+    void setUp() {
+        compartimentos = new CompartimentosBd(2, 100, 1, 100, 1, 100, 1, 100, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private void enPeticion() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private void enTransaccion(boolean soloLectura) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(soloLectura);
+    }
+
+    @Nested
+    @DisplayName("Clasificación del tráfico")
+    class Clasificacion {
+
+        @Test
+        @DisplayName("Sin petición HTTP debe ser tráfico de lote")
+        void debeSerLoteSinPeticion() {
+            enTransaccion(false);
+
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.LOTE);
+        }
+
+        @Test
+        @DisplayName("En una petición debe distinguir lectura y escritura por la transacción")
+        void debeDistinguirLecturaYEscritura() {
+            enPeticion();
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.LECTURA);
+
+            enTransaccion(true);
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.LECTURA);
+
+            enTransaccion(false);
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.ESCRITURA);
+        }
+
+        @Test
+        @DisplayName("Una tarea declarada interactiva no debe contar como lote")
+        void debeRespetarTareaInteractiva() throws Exception {
+            var clase = CompartimentosBd.interactivo(compartimentos::claseActual).call();
+
+            assertThat(clase).isEqualTo(ClaseTrafico.LECTURA);
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.LOTE);
+        }
+
+        @Test
+        @DisplayName("Una exportación debe tener su propio compartimento, con o sin petición")
+        void debeSepararExportaciones() throws Exception {
+            enTransaccion(true);
+            assertThat(CompartimentosBd.exportacion(compartimentos::claseActual).call())
+                    .isEqualTo(ClaseTrafico.EXPORTACION);
+
+            enPeticion();
+            assertThat(CompartimentosBd.exportacion(compartimentos::claseActual).call())
+                    .isEqualTo(ClaseTrafico.EXPORTACION);
+            assertThat(compartimentos.claseActual()).isEqualTo(ClaseTrafico.LECTURA);
+        }
+    }
+
+    @Nested
+    @DisplayName("Permisos")
+    class Permisos {
+
+        @Test
+        @DisplayName("Debe rechazar con 503 al agotar la espera")
+        void debeRechazarAlAgotarEspera() throws Exception {
+            var ocupado = new CountDownLatch(1);
+            var soltar = new CountDownLatch(1);
+            try (var otro = Executors.newVirtualThreadPerTaskExecutor()) {
+                otro.submit(() -> {
+                    var clase = compartimentos.adquirir();
+                    ocupado.countDown();
+                    soltar.await(5, TimeUnit.SECONDS);
+                    compartimentos.liberar(clase);
+                    return null;
+                });
+                assertThat(ocupado.await(5, TimeUnit.SECONDS)).isTrue();
+
+                assertThatThrownBy(() -> compartimentos.adquirir())
+                        .isInstanceOf(ServicioSaturadoException.class);
+                assertThat(meterRegistry.get("joinly.bd.compartimento.rechazos")
+                        .tag("clase", "lote").counter().count()).isEqualTo(1);
+
+                soltar.countDown();
+            }
+
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Un hilo con permiso no debe esperar por otro")
+        void noDebeBloquearseConSuPropioPermiso() {
+            var primero = compartimentos.adquirir();
+            var anidado = compartimentos.adquirir();
+
+            assertThat(primero).isEqualTo(ClaseTrafico.LOTE);
+            assertThat(anidado).isNull();
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isZero();
+
+            compartimentos.liberar(anidado);
+            compartimentos.liberar(primero);
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("DataSource compartimentado")
+    class DataSourceCompartimentado {
+
+        @Test
+        @DisplayName("Debe devolver el permiso una sola vez al cerrar la conexión")
+        void debeDevolverPermisoAlCerrar() throws Exception {
+            var destino = mock(DataSource.class);
+            var conexion = mock(Connection.class);
+            when(destino.getConnection()).thenReturn(conexion);
+            var dataSource = new CompartimentosDataSource(destino, () -> compartimentos);
+
+            var abierta = dataSource.getConnection();
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isZero();
+            abierta.isValid(1);
+
+            abierta.close();
+            abierta.close();
+
+            verify(conexion).isValid(1);
+            verify(conexion, times(2)).close();
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe devolver el permiso si el pool no da la conexión")
+        void debeDevolverPermisoSiFallaApertura() throws Exception {
+            var destino = mock(DataSource.class);
+            when(destino.getConnection()).thenThrow(new SQLException("pool agotado"));
+            var dataSource = new CompartimentosDataSource(destino, () -> compartimentos);
+
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+            assertThat(compartimentos.disponibles(ClaseTrafico.LOTE)).isEqualTo(1);
+        }
+    }
+}
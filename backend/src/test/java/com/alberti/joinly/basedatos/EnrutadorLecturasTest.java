@@ -0,0 +1,171 @@
+package com.alberti.joinly.basedatos;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("EnrutadorLecturas Tests")
+class EnrutadorLecturasTest {
+
+    private static final String CONSULTA = "SELECT origen FROM nodo";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong reloj = new AtomicLong();
+
+    private DataSource primaria;
+    private DataSource replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate lectura;
+    private TransactionTemplate escritura;
+
+    @BeforeEach
+    void setUp() {
+        primaria = baseDeDatos("primaria");
+        replica = baseDeDatos("replica");
+        configurar(replica);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static DataSource baseDeDatos(String origen) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + origen + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE nodo (origen VARCHAR(20))");
+        jdbc.update("INSERT INTO nodo VALUES (?)", origen);
+        return dataSource;
+    }
+
+    private void configurar(DataSource replica) {
+        var enrutador = new EnrutadorLecturas(replica,
+                new LecturasPropias(Duration.ofSeconds(2), reloj::get), meterRegistry);
+        var dataSource = new LazyConnectionDataSourceProxy(new EnrutadoDataSource(primaria, () -> enrutador));
+        // Sin valores por defecto el proxy abriría una conexión fuera de transacción para averiguarlos
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        escritura = new TransactionTemplate(transactionManager);
+    }
+
+    private String leer() {
+        return lectura.execute(status -> jdbc.queryForObject(CONSULTA, String.class));
+    }
+
+    private void escribir() {
+        escritura.executeWithoutResult(status -> jdbc.update("UPDATE nodo SET origen = origen"));
+    }
+
+    private double enrutadas(String destino, String motivo) {
+        return meterRegistry.counter("joinly.bd.enrutado", "destino", destino, "motivo", motivo).count();
+    }
+
+    private static void autenticar(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    @Test
+    @DisplayName("Las transacciones de solo lectura van a la réplica")
+    void lecturasVanALaReplica() {
+        assertThat(leer()).isEqualTo("replica");
+        assertThat(enrutadas("replica", "lectura")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Las transacciones de escritura van a la primaria")
+    void escriturasVanALaPrimaria() {
+        var origen = escritura.execute(status -> jdbc.queryForObject(CONSULTA, String.class));
+
+        assertThat(origen).isEqualTo("primaria");
+        assertThat(enrutadas("primaria", "escritura")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Una lectura dentro de enPrimaria va a la primaria")
+    void lecturaForzadaVaALaPrimaria() {
+        assertThat(EnrutadorLecturas.enPrimaria(this::leer)).isEqualTo("primaria");
+        assertThat(enrutadas("primaria", "forzada")).isEqualTo(1);
+        assertThat(leer()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Sin réplica configurada todo va a la primaria")
+    void sinReplicaTodoALaPrimaria() {
+        configurar(null);
+
+        assertThat(leer()).isEqualTo("primaria");
+    }
+
+    @Test
+    @DisplayName("Si la réplica no da conexión se lee de la primaria")
+    void replicaCaidaLeeDeLaPrimaria() throws SQLException {
+        var caida = mock(DataSource.class);
+        when(caida.getConnection()).thenThrow(new SQLException("Connection is not available"));
+        configurar(caida);
+
+        assertThat(leer()).isEqualTo("primaria");
+        assertThat(enrutadas("primaria", "replica_no_disponible")).isEqualTo(1);
+    }
+
+    @Nested
+    @DisplayName("Lectura de las propias escrituras")
+    class LecturasPropiasTests {
+
+        @Test
+        @DisplayName("Tras escribir, el usuario lee de la primaria hasta que pasa la ventana")
+        void usuarioLeeDeLaPrimariaTrasEscribir() {
+            autenticar("ana@joinly.com");
+            escribir();
+
+            assertThat(leer()).isEqualTo("primaria");
+
+            reloj.addAndGet(Duration.ofSeconds(2).toNanos());
+            assertThat(leer()).isEqualTo("replica");
+        }
+
+        @Test
+        @DisplayName("La escritura de un usuario no afecta a las lecturas de otro")
+        void otroUsuarioSigueEnLaReplica() {
+            autenticar("ana@joinly.com");
+            escribir();
+
+            autenticar("luis@joinly.com");
+            assertThat(leer()).isEqualTo("replica");
+        }
+
+        @Test
+        @DisplayName("Sin usuario autenticado no hay lectura de las propias escrituras")
+        void sinUsuarioNoHayVentana() {
+            escribir();
+
+            assertThat(leer()).isEqualTo("replica");
+        }
+    }
+}
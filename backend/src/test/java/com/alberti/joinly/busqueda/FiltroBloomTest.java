@@ -0,0 +1,62 @@
+package com.alberti.joinly.busqueda;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FiltroBloom Tests")
+class FiltroBloomTest {
+
+    private static final int ELEMENTOS = 50_000;
+
+    @Test
+    @DisplayName("No debe dar falsos negativos")
+    void noDebeDarFalsosNegativos() {
+        var filtro = new FiltroBloom(ELEMENTOS, 0.01);
+        for (int i = 0; i < ELEMENTOS; i++) {
+            filtro.agregar("usuario" + i + "@joinly.com");
+        }
+
+        for (int i = 0; i < ELEMENTOS; i++) {
+            assertThat(filtro.puedeContener("usuario" + i + "@joinly.com")).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe mantener la tasa de falsos positivos cerca de la configurada")
+    void debeRespetarTasaFalsosPositivos() {
+        var filtro = new FiltroBloom(ELEMENTOS, 0.01);
+        for (int i = 0; i < ELEMENTOS; i++) {
+            filtro.agregar("usuario" + i + "@joinly.com");
+        }
+
+        var falsosPositivos = 0;
+        for (int i = 0; i < ELEMENTOS; i++) {
+            if (filtro.puedeContener("otro" + i + "@example.org")) falsosPositivos++;
+        }
+
+        assertThat((double) falsosPositivos / ELEMENTOS).isLessThan(0.02);
+        assertThat(filtro.tasaFalsosPositivosEstimada()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    @DisplayName("Debe contar solo los valores nuevos como insertados")
+    void debeContarInsertados() {
+        var filtro = new FiltroBloom(1_000, 0.01);
+
+        assertThat(filtro.agregar("a@joinly.com")).isTrue();
+        assertThat(filtro.agregar("a@joinly.com")).isFalse();
+        assertThat(filtro.getInsertados()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe dimensionar la memoria según capacidad y probabilidad")
+    void debeDimensionarMemoria() {
+        var filtro = new FiltroBloom(100_000, 0.01);
+
+        // ~9,6 bits por elemento y 7 hashes para un 1 %
+        assertThat(filtro.getBytes()).isBetween(115_000L, 125_000L);
+        assertThat(filtro.getNumHashes()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,169 @@
+package com.alberti.joinly.busqueda;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("IndiceTrigramas Tests")
+class IndiceTrigramasTest {
+
+    private IndiceTrigramas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTrigramas();
+        indice.indexar(1L, "Mariana López");
+        indice.indexar(2L, "Ana María García");
+        indice.indexar(3L, "Juliana Pérez");
+        indice.indexar(4L, "Ana Belén Ruiz");
+        indice.indexar(5L, "Pedro Sánchez");
+    }
+
+    @Nested
+    @DisplayName("Búsqueda")
+    class Busqueda {
+
+        @Test
+        @DisplayName("Debe ordenar: empieza por el texto, palabra que empieza, contiene")
+        void debeOrdenarPorRelevancia() {
+            // "Ana Belén" y "Ana María" empiezan por "ana"; "Mariana" y "Juliana" solo la contienen
+            assertThat(indice.buscar("ana", 10)).containsExactly(4L, 2L, 3L, 1L);
+        }
+
+        @Test
+        @DisplayName("Debe priorizar coincidencias al inicio de una palabra interior")
+        void debePriorizarInicioDePalabra() {
+            assertThat(indice.buscar("mar", 10)).containsExactly(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("Debe ignorar mayúsculas y acentos")
+        void debeIgnorarMayusculasYAcentos() {
+            assertThat(indice.buscar("LOPEZ", 10)).containsExactly(1L);
+            assertThat(indice.buscar("belén", 10)).containsExactly(4L);
+        }
+
+        @Test
+        @DisplayName("Con menos de tres caracteres solo debe buscar inicios de palabra")
+        void debeBuscarSoloPrefijosConTextoCorto() {
+            assertThat(indice.buscar("p", 10)).containsExactly(5L, 3L);
+            assertThat(indice.buscar("an", 10)).containsExactly(4L, 2L);
+        }
+
+        @Test
+        @DisplayName("Debe encontrar texto que abarca varias palabras")
+        void debeBuscarVariasPalabras() {
+            assertThat(indice.buscar("na lop", 10)).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Debe respetar el límite de resultados")
+        void debeRespetarLimite() {
+            assertThat(indice.buscar("ana", 2)).containsExactly(4L, 2L);
+        }
+
+        @Test
+        @DisplayName("Debe descartar falsos positivos de la intersección de trigramas")
+        void debeDescartarFalsosPositivos() {
+            indice.indexar(6L, "Anaya Nana");
+
+            // Contiene todos los trigramas de "ana" pero no "anana"
+            assertThat(indice.buscar("anana", 10)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Debe devolver vacío para texto vacío o sin coincidencias")
+        void debeDevolverVacio() {
+            assertThat(indice.buscar("  ", 10)).isEmpty();
+            assertThat(indice.buscar("xyz", 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Paginación")
+    class Paginacion {
+
+        @Test
+        @DisplayName("Debe devolver la página pedida y el total real")
+        void debePaginarConTotal() {
+            var primera = indice.buscarPagina("ana", 0, 2);
+            var segunda = indice.buscarPagina("ana", 2, 2);
+
+            assertThat(primera.ids()).containsExactly(4L, 2L);
+            assertThat(segunda.ids()).containsExactly(3L, 1L);
+            assertThat(primera.total()).isEqualTo(4);
+            assertThat(segunda.total()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Debe contar las coincidencias aunque la página esté fuera de rango")
+        void debeContarFueraDeRango() {
+            var pagina = indice.buscarPagina("ana", 10, 5);
+
+            assertThat(pagina.ids()).isEmpty();
+            assertThat(pagina.total()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Las páginas consecutivas deben formar el orden global sin huecos ni repetidos")
+        void paginasEstables() {
+            for (long id = 100; id < 150; id++) {
+                indice.indexar(id, "Zoe " + (char) ('a' + (149 - id) % 26) + id);
+            }
+
+            var todas = new ArrayList<Long>();
+            for (int desde = 0; desde < 50; desde += 7) {
+                var pagina = indice.buscarPagina("zoe", desde, 7);
+                assertThat(pagina.total()).isEqualTo(50);
+                todas.addAll(pagina.ids());
+            }
+
+            assertThat(todas).hasSize(50).doesNotHaveDuplicates();
+            assertThat(todas.subList(0, 10)).containsExactlyElementsOf(indice.buscarPagina("zoe", 0, 10).ids());
+            assertThat(indice.buscar("zoe", 50)).containsExactlyElementsOf(todas);
+        }
+    }
+
+    @Nested
+    @DisplayName("Actualización")
+    class Actualizacion {
+
+        @Test
+        @DisplayName("Debe reemplazar el nombre al reindexar")
+        void debeReemplazarNombre() {
+            indice.indexar(5L, "Pedro Anaya");
+
+            assertThat(indice.buscar("sanchez", 10)).isEmpty();
+            assertThat(indice.buscar("anaya", 10)).containsExactly(5L);
+            assertThat(indice.tamano()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Debe dejar de encontrar los eliminados")
+        void debeEliminar() {
+            indice.eliminar(2L);
+
+            assertThat(indice.buscar("ana", 10)).containsExactly(4L, 3L, 1L);
+            assertThat(indice.tamano()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Debe mantener los resultados tras compactar")
+        void debeCompactar() {
+            for (long id = 100; id < 5_000; id++) {
+                indice.indexar(id, "Usuario " + id);
+            }
+            for (long id = 100; id < 5_000; id++) {
+                indice.eliminar(id);
+            }
+
+            assertThat(indice.tamano()).isEqualTo(5);
+            assertThat(indice.buscar("ana", 10)).containsExactly(4L, 2L, 3L, 1L);
+        }
+    }
+}
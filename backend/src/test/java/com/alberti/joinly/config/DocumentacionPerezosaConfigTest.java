@@ -0,0 +1,29 @@
+package com.alberti.joinly.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DocumentacionPerezosaConfig Tests")
+class DocumentacionPerezosaConfigTest {
+
+    @Test
+    @DisplayName("Solo retrasa la creación de los beans de springdoc y OpenApiConfig")
+    void marcaSoloDocumentacion() {
+        var beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("springdoc", new RootBeanDefinition(SpringDocConfigProperties.class));
+        beanFactory.registerBeanDefinition("openApiConfig", new AnnotatedGenericBeanDefinition(OpenApiConfig.class));
+        beanFactory.registerBeanDefinition("jackson", new RootBeanDefinition(JacksonConfig.class));
+
+        DocumentacionPerezosaConfig.documentacionPerezosa().postProcessBeanFactory(beanFactory);
+
+        assertThat(beanFactory.getBeanDefinition("springdoc").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("openApiConfig").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("jackson").isLazyInit()).isFalse();
+    }
+}
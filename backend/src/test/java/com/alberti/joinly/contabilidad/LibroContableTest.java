@@ -0,0 +1,143 @@
+package com.alberti.joinly.contabilidad;
+
+import com.alberti.joinly.entities.enums.CuentaContable;
+import com.alberti.joinly.entities.enums.TipoMovimientoContable;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LibroContable Tests")
+class LibroContableTest {
+
+    private static final long ANFITRION = 10L;
+    private static final long SUSCRIPCION = 20L;
+    private static final LocalDateTime ENERO = LocalDateTime.of(2026, 1, 15, 12, 0);
+    private static final LocalDateTime FEBRERO = LocalDateTime.of(2026, 2, 3, 9, 30);
+
+    private JdbcTemplate jdbc;
+    private LibroContable libro;
+
+    @BeforeEach
+    void setUp() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:libro-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE movimiento_contable (
+                    id_movimiento BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    id_pago BIGINT NOT NULL, id_suscripcion BIGINT NOT NULL, id_anfitrion BIGINT NOT NULL,
+                    tipo VARCHAR(20) NOT NULL, cuenta_origen VARCHAR(20) NOT NULL, cuenta_destino VARCHAR(20) NOT NULL,
+                    monto DECIMAL(10,2) NOT NULL, moneda CHAR(3) NOT NULL, fecha TIMESTAMP(6) NOT NULL)""");
+        var importes = """
+                cobrado DECIMAL(14,2) NOT NULL DEFAULT 0, retenido DECIMAL(14,2) NOT NULL DEFAULT 0,
+                disputado DECIMAL(14,2) NOT NULL DEFAULT 0, liberado DECIMAL(14,2) NOT NULL DEFAULT 0,
+                reembolsado DECIMAL(14,2) NOT NULL DEFAULT 0""";
+        jdbc.execute("""
+                CREATE TABLE saldo_contable (
+                    id_saldo BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    ambito VARCHAR(20) NOT NULL, id_ambito BIGINT NOT NULL, moneda CHAR(3) NOT NULL,
+                    updated_at TIMESTAMP(6) NOT NULL, %s,
+                    CONSTRAINT uk_saldo_ambito UNIQUE (ambito, id_ambito, moneda))""".formatted(importes));
+        jdbc.execute("""
+                CREATE TABLE saldo_contable_mensual (
+                    id_saldo_mensual BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    ambito VARCHAR(20) NOT NULL, id_ambito BIGINT NOT NULL, periodo DATE NOT NULL,
+                    moneda CHAR(3) NOT NULL, %s,
+                    CONSTRAINT uk_saldo_mensual_ambito UNIQUE (ambito, id_ambito, periodo, moneda))""".formatted(importes));
+        libro = new LibroContable(jdbc);
+    }
+
+    private void registrar(long idPago, TipoMovimientoContable tipo, CuentaContable origen, CuentaContable destino,
+                           String monto, LocalDateTime fecha) {
+        libro.registrar(new LibroContable.Asiento(idPago, SUSCRIPCION, ANFITRION, "EUR", tipo, origen, destino,
+                new BigDecimal(monto), fecha));
+    }
+
+    private Map<String, Object> saldo(String ambito, long idAmbito) {
+        return jdbc.queryForMap("SELECT * FROM saldo_contable WHERE ambito = ? AND id_ambito = ?", ambito, idAmbito);
+    }
+
+    private Map<String, Object> mes(String periodo) {
+        return jdbc.queryForMap("SELECT * FROM saldo_contable_mensual WHERE ambito = 'ANFITRION' AND periodo = ?",
+                Date.valueOf(periodo));
+    }
+
+    private static void assertImportes(Map<String, Object> fila, String cobrado, String retenido, String disputado,
+                                       String liberado, String reembolsado) {
+        assertThat((BigDecimal) fila.get("COBRADO")).isEqualByComparingTo(cobrado);
+        assertThat((BigDecimal) fila.get("RETENIDO")).isEqualByComparingTo(retenido);
+        assertThat((BigDecimal) fila.get("DISPUTADO")).isEqualByComparingTo(disputado);
+        assertThat((BigDecimal) fila.get("LIBERADO")).isEqualByComparingTo(liberado);
+        assertThat((BigDecimal) fila.get("REEMBOLSADO")).isEqualByComparingTo(reembolsado);
+    }
+
+    @Test
+    @DisplayName("Cada movimiento se suma al saldo del anfitrión y al de la suscripción")
+    void acumulaSaldos() {
+        registrar(1, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA, CuentaContable.RETENIDO, "10.00", ENERO);
+        registrar(2, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA, CuentaContable.RETENIDO, "5.50", ENERO);
+        registrar(1, TipoMovimientoContable.LIBERACION, CuentaContable.RETENIDO, CuentaContable.LIBERADO, "10.00", FEBRERO);
+        registrar(2, TipoMovimientoContable.DISPUTA, CuentaContable.RETENIDO, CuentaContable.DISPUTADO, "5.50", FEBRERO);
+        registrar(2, TipoMovimientoContable.REEMBOLSO, CuentaContable.DISPUTADO, CuentaContable.REEMBOLSADO, "2.00", FEBRERO);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM movimiento_contable", Integer.class)).isEqualTo(5);
+        assertImportes(saldo("ANFITRION", ANFITRION), "15.50", "0", "3.50", "10.00", "2.00");
+        assertImportes(saldo("SUSCRIPCION", SUSCRIPCION), "15.50", "0", "3.50", "10.00", "2.00");
+    }
+
+    @Test
+    @DisplayName("El saldo mensual guarda la variación de cada cuenta en el mes del movimiento")
+    void acumulaPorMes() {
+        registrar(1, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA, CuentaContable.RETENIDO, "10.00", ENERO);
+        registrar(1, TipoMovimientoContable.LIBERACION, CuentaContable.RETENIDO, CuentaContable.LIBERADO, "10.00", FEBRERO);
+
+        assertImportes(mes("2026-01-01"), "10.00", "10.00", "0", "0", "0");
+        assertImportes(mes("2026-02-01"), "0", "-10.00", "0", "10.00", "0");
+    }
+
+    @Test
+    @DisplayName("Movimientos simultáneos del mismo anfitrión no se pierden")
+    void concurrente() throws Exception {
+        var tareas = new ArrayList<Callable<Void>>();
+        for (var i = 0; i < 50; i++) {
+            var idPago = i;
+            tareas.add(() -> {
+                registrar(idPago, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA, CuentaContable.RETENIDO,
+                        "1.00", ENERO);
+                return null;
+            });
+        }
+        try (var ejecutor = Executors.newFixedThreadPool(8)) {
+            for (var futuro : ejecutor.invokeAll(tareas)) {
+                futuro.get();
+            }
+        }
+
+        assertImportes(saldo("ANFITRION", ANFITRION), "50.00", "50.00", "0", "0", "0");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM saldo_contable_mensual", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Rechaza movimientos sin importe o entre la misma cuenta")
+    void validaAsiento() {
+        assertThatThrownBy(() -> registrar(1, TipoMovimientoContable.RETENCION, CuentaContable.PASARELA,
+                CuentaContable.RETENIDO, "0", ENERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> registrar(1, TipoMovimientoContable.RETENCION, CuentaContable.RETENIDO,
+                CuentaContable.RETENIDO, "1.00", ENERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
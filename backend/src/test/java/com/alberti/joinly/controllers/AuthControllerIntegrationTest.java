@@ -291,6 +291,63 @@ class AuthControllerIntegrationTest {
                     .andExpect(jsonPath("$.tokenType").value("Bearer"));
         }
 
+        @Test
+        @DisplayName("❌ Debe revocar la sesión si se reutiliza un refresh token ya rotado")
+        void refreshReutilizadoRevocaSesion() throws Exception {
+            var refreshToken = obtenerRefreshToken();
+
+            // Primera rotación: válida
+            MvcResult rotado = mockMvc.perform(post(API_AUTH + "/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String nuevoRefreshToken = objectMapper.readTree(rotado.getResponse().getContentAsString())
+                    .get("refreshToken").asText();
+
+            // Reutilización del token original: se rechaza y se revoca la sesión
+            mockMvc.perform(post(API_AUTH + "/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                    .andExpect(status().is4xxClientError());
+
+            // El token emitido en la rotación también queda invalidado
+            mockMvc.perform(post(API_AUTH + "/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new RefreshTokenRequest(nuevoRefreshToken))))
+                    .andExpect(status().is4xxClientError());
+        }
+
+        @Test
+        @DisplayName("❌ No debe renovar tokens tras cerrar sesión")
+        void refreshTrasLogout() throws Exception {
+            var refreshToken = obtenerRefreshToken();
+            var request = objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken));
+
+            mockMvc.perform(post(API_AUTH + "/logout")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(post(API_AUTH + "/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andExpect(status().is4xxClientError());
+        }
+
+        private String obtenerRefreshToken() throws Exception {
+            var loginRequest = new LoginRequest("test@joinly.com", "Password123!");
+
+            MvcResult loginResult = mockMvc.perform(post(API_AUTH + "/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            return objectMapper.readTree(loginResult.getResponse().getContentAsString())
+                    .get("refreshToken").asText();
+        }
+
         @Test
         @DisplayName("❌ Debe retornar 403 con refresh token inválido")
         void refreshTokenInvalido() throws Exception {
@@ -0,0 +1,130 @@
+package com.alberti.joinly.dinero;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Dinero Tests")
+class DineroTest {
+
+    private static Dinero eur(String importe) {
+        return Dinero.de(new BigDecimal(importe), "EUR");
+    }
+
+    @Nested
+    @DisplayName("Conversión")
+    class Conversion {
+
+        @ParameterizedTest
+        @CsvSource({"12.50, 1250", "12.5, 1250", "3, 300", "0.05, 5", "-0.05, -5", "-1.05, -105"})
+        @DisplayName("Convierte decimales a céntimos y vuelta sin perder precisión")
+        void idaYVuelta(String importe, long centimos) {
+            var dinero = eur(importe);
+
+            assertThat(dinero.centimos()).isEqualTo(centimos);
+            assertThat(dinero.aDecimal()).isEqualByComparingTo(importe);
+            assertThat(dinero.importe()).isEqualTo(dinero.aDecimal().toPlainString());
+        }
+
+        @Test
+        @DisplayName("No redondea importes con más de dos decimales")
+        void rechazaFraccionesDeCentimo() {
+            assertThatThrownBy(() -> eur("1.005")).isInstanceOf(ArithmeticException.class);
+            assertThat(eur("1.050").centimos()).isEqualTo(105);
+        }
+    }
+
+    @Nested
+    @DisplayName("Aritmética")
+    class Aritmetica {
+
+        @Test
+        @DisplayName("Suma y resta en céntimos exactos")
+        void sumaYResta() {
+            assertThat(eur("0.10").sumar(eur("0.20"))).isEqualTo(eur("0.30"));
+            assertThat(eur("10.00").restar(eur("12.50"))).isEqualTo(eur("-2.50"));
+            assertThat(eur("10.00").esMayorQue(eur("9.99"))).isTrue();
+        }
+
+        @Test
+        @DisplayName("No opera importes de monedas distintas")
+        void monedasDistintas() {
+            var dolares = Dinero.deCentimos(100, "USD");
+
+            assertThatThrownBy(() -> eur("1.00").sumar(dolares)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> eur("1.00").compareTo(dolares)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("Falla en lugar de desbordar")
+        void desbordamiento() {
+            var maximo = Dinero.deCentimos(Long.MAX_VALUE, "EUR");
+
+            assertThatThrownBy(() -> maximo.sumar(eur("0.01"))).isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("repartir()")
+    class Repartir {
+
+        @ParameterizedTest
+        @CsvSource({"10.00, 3", "17.99, 4", "0.01, 5", "100.00, 7", "-10.00, 3"})
+        @DisplayName("Las cuotas suman el total y difieren como mucho en un céntimo")
+        void cuotasExactas(String total, int partes) {
+            var cuotas = eur(total).repartir(partes);
+
+            assertThat(cuotas).hasSize(partes);
+            assertThat(Arrays.stream(cuotas).mapToLong(Dinero::centimos).sum()).isEqualTo(eur(total).centimos());
+            var maxima = Arrays.stream(cuotas).mapToLong(Dinero::centimos).max().orElseThrow();
+            var minima = Arrays.stream(cuotas).mapToLong(Dinero::centimos).min().orElseThrow();
+            assertThat(maxima - minima).isLessThanOrEqualTo(1);
+            assertThat(eur(total).cuotaMaxima(partes).centimos()).isEqualTo(maxima);
+            for (var i = 0; i < partes; i++) {
+                assertThat(eur(total).cuota(partes, i)).isEqualTo(cuotas[i]);
+            }
+        }
+
+        @Test
+        @DisplayName("Los céntimos sobrantes van a las primeras cuotas")
+        void sobrantesAlPrincipio() {
+            assertThat(eur("10.00").repartir(3)).containsExactly(eur("3.34"), eur("3.33"), eur("3.33"));
+        }
+
+        @Test
+        @DisplayName("Rechaza repartir entre cero partes")
+        void ceroPartes() {
+            assertThatThrownBy(() -> eur("1.00").repartir(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON")
+    class Json {
+
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        @Test
+        @DisplayName("Se serializa como importe numérico con dos decimales y moneda")
+        void serializa() throws Exception {
+            assertThat(mapper.writeValueAsString(eur("12.5"))).isEqualTo("{\"importe\":12.50,\"moneda\":\"EUR\"}");
+            assertThat(mapper.writeValueAsString(eur("-0.05"))).isEqualTo("{\"importe\":-0.05,\"moneda\":\"EUR\"}");
+        }
+
+        @Test
+        @DisplayName("Se deserializa desde el mismo formato")
+        void deserializa() throws Exception {
+            var dinero = mapper.readValue("{\"importe\":12.50,\"moneda\":\"EUR\"}", Dinero.class);
+
+            assertThat(dinero).isEqualTo(eur("12.50"));
+        }
+    }
+}
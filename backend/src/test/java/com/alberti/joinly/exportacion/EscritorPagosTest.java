@@ -0,0 +1,111 @@
+package com.alberti.joinly.exportacion;
+
+import com.alberti.joinly.dto.pago.PagoExportacion;
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("EscritorPagos Tests")
+class EscritorPagosTest {
+
+    private static PagoExportacion pago(long id, String servicio, String referencia) {
+        return new PagoExportacion(id, LocalDateTime.of(2026, 3, 1, 10, 30), 7L, 20L, servicio,
+                new BigDecimal("12.50"), "EUR", BigDecimal.ZERO, EstadoPago.RETENIDO,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), null, referencia);
+    }
+
+    private static String escribir(FormatoExportacion formato, PagoExportacion... pagos) throws Exception {
+        var salida = new ByteArrayOutputStream();
+        EscritorPagos.escribir(formato, Stream.of(pagos), salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("El CSV lleva cabecera y una línea por pago separada por CRLF")
+    void csvBasico() throws Exception {
+        var csv = escribir(FormatoExportacion.CSV, pago(1, "Netflix", "ch_1"));
+
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,fechaPago,idUsuario,idSuscripcion,servicio,monto,moneda,montoReembolsado,estado,"
+                        + "cicloInicio,cicloFin,fechaLiberacion,referenciaExterna",
+                "1,2026-03-01T10:30,7,20,Netflix,12.50,EUR,0,RETENIDO,2026-03-01,2026-03-31,,ch_1");
+    }
+
+    @Test
+    @DisplayName("El CSV entrecomilla comas, comillas y saltos de línea")
+    void csvEscapa() throws Exception {
+        var csv = escribir(FormatoExportacion.CSV, pago(1, "Disney, \"Plus\"\nPremium", null));
+
+        assertThat(csv).contains(",\"Disney, \"\"Plus\"\"\nPremium\",");
+    }
+
+    @Test
+    @DisplayName("El CSV neutraliza textos que una hoja de cálculo tomaría por fórmulas")
+    void csvEvitaFormulas() throws Exception {
+        var csv = escribir(FormatoExportacion.CSV, pago(1, "=HYPERLINK(\"x\")", "+34"));
+
+        assertThat(csv).contains(",\"'=HYPERLINK(\"\"x\"\")\",").endsWith(",'+34\r\n");
+    }
+
+    @Test
+    @DisplayName("El JSON es un array de objetos con importes numéricos")
+    void json() throws Exception {
+        var json = escribir(FormatoExportacion.JSON, pago(1, "Netflix", "ch_1"), pago(2, "Spotify", null));
+
+        var filas = new ObjectMapper().readTree(json);
+        assertThat(filas.isArray()).isTrue();
+        assertThat(filas).hasSize(2);
+        assertThat(filas.get(0).get("monto").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(filas.get(0).get("servicio").asText()).isEqualTo("Netflix");
+        assertThat(filas.get(1).get("referenciaExterna").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sin pagos el JSON es un array vacío y el CSV solo la cabecera")
+    void vacio() throws Exception {
+        assertThat(escribir(FormatoExportacion.JSON)).isEqualTo("[]");
+        assertThat(escribir(FormatoExportacion.CSV).split("\r\n")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Escribe a medida que lee: la salida crece antes de terminar de recorrer los pagos")
+    void escribeSinAcumular() throws Exception {
+        var filas = 200_000L;
+        var escritos = new AtomicLong();
+        var escritosAMitad = new AtomicLong();
+        var salida = new OutputStream() {
+            @Override
+            public void write(int b) {
+                escritos.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                escritos.addAndGet(len);
+            }
+        };
+        var pagos = LongStream.rangeClosed(1, filas)
+                .peek(id -> {
+                    if (id == filas / 2) escritosAMitad.set(escritos.get());
+                })
+                .mapToObj(id -> pago(id, "Netflix", "ch_" + id));
+
+        var exportados = EscritorPagos.escribir(FormatoExportacion.CSV, pagos, salida);
+
+        assertThat(exportados).isEqualTo(filas);
+        assertThat(escritosAMitad.get()).isGreaterThan(escritos.get() / 3);
+    }
+}
@@ -0,0 +1,40 @@
+package com.alberti.joinly.exportacion;
+
+import com.alberti.joinly.exceptions.LimiteAlcanzadoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LimiteExportaciones Tests")
+class LimiteExportacionesTest {
+
+    private final LimiteExportaciones limite = new LimiteExportaciones(1);
+
+    @Test
+    @DisplayName("Debe rechazar una segunda exportación simultánea del mismo usuario")
+    void debeRechazarSegundaExportacion() {
+        limite.reservar(1L);
+
+        assertThatThrownBy(() -> limite.reservar(1L)).isInstanceOf(LimiteAlcanzadoException.class);
+        assertThat(limite.enCurso(1L)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe contar por separado a cada usuario")
+    void debeContarPorUsuario() {
+        limite.reservar(1L);
+
+        assertThatCode(() -> limite.reservar(2L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Al liberar debe permitir una nueva exportación")
+    void debePermitirTrasLiberar() {
+        limite.reservar(1L);
+        limite.liberar(1L);
+
+        assertThat(limite.enCurso(1L)).isZero();
+        assertThatCode(() -> limite.reservar(1L)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,57 @@
+package com.alberti.joinly.invitaciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PermutacionCodigos Tests")
+class PermutacionCodigosTest {
+
+    private static final byte[] CLAVE = "clave-de-prueba-de-32-bytes-1234".getBytes(StandardCharsets.UTF_8);
+
+    private final PermutacionCodigos permutacion = new PermutacionCodigos(CLAVE);
+
+    @Test
+    @DisplayName("Números consecutivos deben dar códigos distintos y con el formato de invitación")
+    void debeGenerarCodigosDistintos() {
+        var codigos = new HashSet<String>();
+        for (long n = 0; n < 100_000; n++) {
+            codigos.add(permutacion.codificar(n));
+        }
+
+        assertThat(codigos).hasSize(100_000);
+        assertThat(codigos).allMatch(c -> c.matches("[A-Z0-9]{12}"));
+    }
+
+    @Test
+    @DisplayName("Debe poder invertirse en todo el rango")
+    void debeInvertirse() {
+        for (long n : new long[]{0, 1, 2, 12_345, PermutacionCodigos.TAMANO / 2, PermutacionCodigos.TAMANO - 1}) {
+            assertThat(permutacion.invertir(permutacion.codificar(n))).isEqualTo(n);
+        }
+    }
+
+    @Test
+    @DisplayName("Los códigos dependen de la clave")
+    void debeDependerDeLaClave() {
+        var otra = new PermutacionCodigos("otra-clave-de-prueba-de-32-bytes".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(permutacion.codificar(1)).isEqualTo(new PermutacionCodigos(CLAVE).codificar(1));
+        assertThat(otra.codificar(1)).isNotEqualTo(permutacion.codificar(1));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar números fuera de rango y claves cortas")
+    void debeValidarEntradas() {
+        assertThatThrownBy(() -> permutacion.codificar(PermutacionCodigos.TAMANO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> permutacion.codificar(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PermutacionCodigos(new byte[8]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
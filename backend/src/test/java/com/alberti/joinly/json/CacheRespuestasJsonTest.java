@@ -0,0 +1,67 @@
+package com.alberti.joinly.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CacheRespuestasJson Tests")
+class CacheRespuestasJsonTest {
+
+    private final CacheRespuestasJson cache = new CacheRespuestasJson(JsonMapper.builder().build());
+
+    @Test
+    @DisplayName("Serializa una sola vez mientras no cambia la versión")
+    void reutilizaMismaVersion() {
+        var serializaciones = new AtomicInteger();
+
+        var primera = cache.obtener("servicios", 1L, () -> {
+            serializaciones.incrementAndGet();
+            return List.of("Netflix", "Spotify");
+        });
+        var segunda = cache.obtener("servicios", 1L, () -> {
+            serializaciones.incrementAndGet();
+            return List.of("otro contenido");
+        });
+
+        assertThat(serializaciones).hasValue(1);
+        assertThat(segunda).isSameAs(primera);
+        assertThat(new String(segunda.cuerpo(), StandardCharsets.UTF_8)).isEqualTo("[\"Netflix\",\"Spotify\"]");
+    }
+
+    @Test
+    @DisplayName("Vuelve a serializar cuando cambia la versión, con otro ETag")
+    void nuevaVersion() {
+        var antes = cache.obtener("servicios", 1L, () -> List.of("Netflix"));
+        var despues = cache.obtener("servicios", 2L, () -> List.of("Netflix", "Spotify"));
+
+        assertThat(despues.version()).isEqualTo(2L);
+        assertThat(despues.etag()).isNotEqualTo(antes.etag());
+    }
+
+    @Test
+    @DisplayName("Cada clave tiene su propia entrada")
+    void clavesIndependientes() {
+        cache.obtener("servicios", 1L, () -> List.of("Netflix"));
+        var categoria = cache.obtener("servicios:MUSICA", 1L, () -> List.of("Spotify"));
+
+        assertThat(new String(categoria.cuerpo(), StandardCharsets.UTF_8)).isEqualTo("[\"Spotify\"]");
+    }
+
+    @Test
+    @DisplayName("La respuesta HTTP lleva el cuerpo como JSON y su ETag")
+    void comoRespuesta() {
+        var respuesta = cache.obtener("servicios", 1L, () -> List.of("Netflix")).comoRespuesta();
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(respuesta.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(respuesta.getHeaders().getETag()).matches("\"[0-9a-f]{32}\"");
+    }
+}
@@ -0,0 +1,114 @@
+package com.alberti.joinly.particiones;
+
+import com.alberti.joinly.config.ParticionesProperties;
+import com.alberti.joinly.particiones.ParticionService.Particion;
+import com.alberti.joinly.particiones.ParticionService.TablaParticionada;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ParticionService Tests")
+class ParticionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ParticionesProperties properties;
+    private ParticionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ParticionesProperties();
+        properties.setMesesAdelantados(2);
+        properties.setArchivar(false);
+        service = new ParticionService(jdbcTemplate, properties);
+    }
+
+    private void simularMySql(List<Particion> particiones) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("MySQL");
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Particion>>any(), eq("notificacion")))
+                .thenReturn(particiones);
+    }
+
+    @Test
+    @DisplayName("Debe convertir la descripción TO_DAYS en el límite de la partición")
+    void debeConvertirDescripcion() {
+        assertThat(ParticionService.limiteDesdeDescripcion("740286")).isEqualTo(LocalDate.of(2026, 11, 1));
+        assertThat(ParticionService.limiteDesdeDescripcion("MAXVALUE")).isNull();
+    }
+
+    @Test
+    @DisplayName("No debe hacer nada si la base de datos no es MySQL")
+    void noDebeActuarFueraDeMySql() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        var resultado = service.mantener(TablaParticionada.NOTIFICACION, 90);
+
+        assertThat(resultado).isEqualTo(new ParticionService.ResultadoMantenimiento(0, 0));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Debe dividir pmax hasta cubrir los meses adelantados")
+    void debeCrearParticionesFuturas() {
+        var inicioMes = LocalDate.now().withDayOfMonth(1);
+        simularMySql(List.of(new Particion("p_inicial", inicioMes), new Particion("pmax", null)));
+
+        var creadas = service.crearParticionesFuturas(TablaParticionada.NOTIFICACION);
+
+        // Mes actual + 2 adelantados
+        assertThat(creadas).isEqualTo(3);
+        verify(jdbcTemplate, times(1)).execute(startsWith("ALTER TABLE notificacion REORGANIZE PARTITION pmax"));
+    }
+
+    @Test
+    @DisplayName("Debe cubrir en una sola sentencia el hueco desde un límite inicial ya pasado")
+    void debeCubrirHuecoDesdeLimiteInicial() {
+        var limiteInicial = LocalDate.now().withDayOfMonth(1).minusMonths(4);
+        simularMySql(List.of(new Particion("p_inicial", limiteInicial), new Particion("pmax", null)));
+
+        var creadas = service.crearParticionesFuturas(TablaParticionada.NOTIFICACION);
+
+        // 4 meses pasados + mes actual + 2 adelantados
+        assertThat(creadas).isEqualTo(7);
+        var sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).execute(sql.capture());
+        assertThat(sql.getValue())
+                .contains("PARTITION " + limiteInicial.format(DateTimeFormatter.ofPattern("'p'yyyyMM"))
+                        + " VALUES LESS THAN (TO_DAYS('" + limiteInicial.plusMonths(1) + "'))")
+                .endsWith("PARTITION pmax VALUES LESS THAN MAXVALUE)");
+    }
+
+    @Test
+    @DisplayName("Debe eliminar solo las particiones completamente fuera de la retención")
+    void debePurgarParticionesAntiguas() {
+        var hoy = LocalDate.now();
+        simularMySql(List.of(
+                new Particion("p_antigua", hoy.minusDays(100)),
+                new Particion("p_reciente", hoy.minusDays(10)),
+                new Particion("pmax", null)));
+
+        var eliminadas = service.purgarParticionesAntiguas(TablaParticionada.NOTIFICACION, 90);
+
+        assertThat(eliminadas).isEqualTo(1);
+        verify(jdbcTemplate).execute("ALTER TABLE notificacion DROP PARTITION p_antigua");
+        verify(jdbcTemplate, never()).execute(contains("p_reciente"));
+    }
+}
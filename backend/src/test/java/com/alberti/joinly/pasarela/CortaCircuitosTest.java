@@ -0,0 +1,81 @@
+package com.alberti.joinly.pasarela;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CortaCircuitos")
+class CortaCircuitosTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private CortaCircuitos circuito;
+
+    @BeforeEach
+    void setUp() {
+        circuito = new CortaCircuitos(3, Duration.ofSeconds(30), reloj::get);
+    }
+
+    private void fallar(int veces) {
+        for (var i = 0; i < veces; i++) {
+            assertThat(circuito.permitir()).isTrue();
+            circuito.fallo();
+        }
+    }
+
+    @Test
+    @DisplayName("Se abre tras el umbral de fallos seguidos y rechaza sin llamar")
+    void seAbreTrasUmbral() {
+        fallar(3);
+
+        assertThat(circuito.estado()).isEqualTo(CortaCircuitos.Estado.ABIERTO);
+        assertThat(circuito.permitir()).isFalse();
+        assertThat(circuito.esperaRestante()).isEqualTo(Duration.ofSeconds(30).toNanos());
+    }
+
+    @Test
+    @DisplayName("Un éxito reinicia la cuenta de fallos seguidos")
+    void exitoReiniciaCuenta() {
+        fallar(2);
+        circuito.permitir();
+        circuito.exito();
+        fallar(2);
+
+        assertThat(circuito.estado()).isEqualTo(CortaCircuitos.Estado.CERRADO);
+    }
+
+    @Test
+    @DisplayName("Pasada la apertura deja pasar una única llamada de prueba")
+    void unaUnicaPrueba() {
+        fallar(3);
+        reloj.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertThat(circuito.permitir()).isTrue();
+        assertThat(circuito.estado()).isEqualTo(CortaCircuitos.Estado.SEMIABIERTO);
+        assertThat(circuito.permitir()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Si la prueba va bien se cierra; si falla vuelve a abrirse")
+    void resultadoDeLaPrueba() {
+        fallar(3);
+        reloj.addAndGet(Duration.ofSeconds(30).toNanos());
+        circuito.permitir();
+        circuito.fallo();
+
+        assertThat(circuito.estado()).isEqualTo(CortaCircuitos.Estado.ABIERTO);
+        assertThat(circuito.permitir()).isFalse();
+
+        reloj.addAndGet(Duration.ofSeconds(30).toNanos());
+        circuito.permitir();
+        circuito.exito();
+
+        assertThat(circuito.estado()).isEqualTo(CortaCircuitos.Estado.CERRADO);
+        assertThat(circuito.permitir()).isTrue();
+        assertThat(circuito.permitir()).isTrue();
+    }
+}
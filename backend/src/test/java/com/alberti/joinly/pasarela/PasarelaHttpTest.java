@@ -0,0 +1,216 @@
+package com.alberti.joinly.pasarela;
+
+import com.alberti.joinly.config.PasarelaProperties;
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba {@link PasarelaHttp} contra una pasarela falsa local.
+ */
+@DisplayName("PasarelaHttp")
+class PasarelaHttpTest {
+
+    private HttpServer servidor;
+    private ExecutorService hilosServidor;
+    private final List<String> recibidas = new CopyOnWriteArrayList<>();
+    private final CountDownLatch liberarRespuestas = new CountDownLatch(1);
+
+    private volatile int estadoHttp = 200;
+    private volatile String cuerpo = "{\"estado\":\"APROBADO\",\"referencia\":\"ch_1\"}";
+    private volatile boolean bloquear;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasarelaProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hilosServidor = Executors.newCachedThreadPool();
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.setExecutor(hilosServidor);
+        servidor.createContext("/", this::responder);
+        servidor.start();
+
+        properties = new PasarelaProperties();
+        properties.setTipo("http");
+        properties.setUrl("http://127.0.0.1:" + servidor.getAddress().getPort() + "/v1");
+        properties.setApiKey("clave-test");
+        properties.setTimeoutMs(2000);
+        properties.setMaxConcurrentes(10);
+        properties.setUmbralFallos(2);
+        properties.setAperturaMs(60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberarRespuestas.countDown();
+        servidor.stop(0);
+        hilosServidor.shutdownNow();
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        recibidas.add(intercambio.getRequestMethod() + " " + intercambio.getRequestURI().getPath()
+                + " " + intercambio.getRequestHeaders().getFirst("Idempotency-Key"));
+        if (bloquear) {
+            try {
+                liberarRespuestas.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        var bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().add("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(estadoHttp, bytes.length == 0 ? -1 : bytes.length);
+        try (var salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    private PasarelaHttp pasarela() {
+        return new PasarelaHttp(properties, meterRegistry);
+    }
+
+    private static PasarelaPago.Cobro cobro(String clave) {
+        return new PasarelaPago.Cobro(clave, "tok_visa", new BigDecimal("4.99"), "EUR");
+    }
+
+    @Test
+    @DisplayName("Cobro aprobado: envía la clave de idempotencia y devuelve la referencia")
+    void cobroAprobado() {
+        var resultado = pasarela().cobrar(cobro("pago-1")).join();
+
+        assertThat(resultado.aprobado()).isTrue();
+        assertThat(resultado.referencia()).isEqualTo("ch_1");
+        assertThat(recibidas).containsExactly("POST /v1/cobros pago-1");
+    }
+
+    @Test
+    @DisplayName("402 es un rechazo con el motivo de la pasarela")
+    void cobroRechazado() {
+        estadoHttp = 402;
+        cuerpo = "{\"estado\":\"RECHAZADO\",\"motivo\":\"Fondos insuficientes\"}";
+
+        var resultado = pasarela().cobrar(cobro("pago-2")).join();
+
+        assertThat(resultado.aprobado()).isFalse();
+        assertThat(resultado.motivo()).isEqualTo("Fondos insuficientes");
+    }
+
+    @Test
+    @DisplayName("Consultar un cobro que no existe devuelve vacío")
+    void consultarInexistente() {
+        estadoHttp = 404;
+        cuerpo = "";
+
+        assertThat(pasarela().consultar("pago-3").join()).isEmpty();
+        assertThat(recibidas).containsExactly("GET /v1/cobros/pago-3 null");
+    }
+
+    @Test
+    @DisplayName("Un 400 al cobrar es un rechazo definitivo")
+    void peticionNoValida() {
+        estadoHttp = 400;
+        cuerpo = "{}";
+
+        var resultado = pasarela().cobrar(cobro("pago-8")).join();
+
+        assertThat(resultado.aprobado()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un 401, 403 o 429 al consultar deja el resultado en duda en lugar de rechazar")
+    void consultarSinRespuestaDefinitiva() {
+        cuerpo = "{}";
+        var pasarela = pasarela();
+
+        for (var estado : List.of(401, 403, 429)) {
+            estadoHttp = estado;
+            assertThatThrownBy(() -> pasarela.consultar("pago-9").get())
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Un 429 al cobrar deja el resultado en duda y cuenta como fallo del circuito")
+    void cobroLimitado() {
+        estadoHttp = 429;
+        cuerpo = "{}";
+        var pasarela = pasarela();
+
+        for (var i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> pasarela.cobrar(cobro("pago-10")).get())
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThatThrownBy(() -> pasarela.cobrar(cobro("pago-10")).get())
+                .hasCauseInstanceOf(ServicioSaturadoException.class);
+    }
+
+    @Test
+    @DisplayName("Los 5xx seguidos abren el circuito y después se rechaza sin llamar")
+    void circuitoSeAbre() {
+        estadoHttp = 503;
+        cuerpo = "{}";
+        var pasarela = pasarela();
+
+        for (var i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> pasarela.cobrar(cobro("pago-4")).get())
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThatThrownBy(() -> pasarela.cobrar(cobro("pago-4")).get())
+                .hasCauseInstanceOf(ServicioSaturadoException.class);
+
+        assertThat(recibidas).hasSize(2);
+        assertThat(meterRegistry.get("joinly.pasarela.circuito.abierto").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Una respuesta que no llega en el plazo falla con timeout")
+    void timeout() {
+        properties.setTimeoutMs(200);
+        bloquear = true;
+
+        assertThatThrownBy(() -> pasarela().cobrar(cobro("pago-5")).get())
+                .hasCauseInstanceOf(HttpTimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Por encima del máximo de llamadas simultáneas se rechaza al momento")
+    void limiteConcurrencia() {
+        properties.setMaxConcurrentes(1);
+        bloquear = true;
+        var pasarela = pasarela();
+
+        var enCurso = pasarela.cobrar(cobro("pago-6"));
+        assertThatThrownBy(() -> pasarela.cobrar(cobro("pago-7")).get())
+                .hasCauseInstanceOf(ServicioSaturadoException.class);
+
+        liberarRespuestas.countDown();
+        assertThat(enCurso.join().aprobado()).isTrue();
+        assertThat(pasarela.cobrar(cobro("pago-7")).join().aprobado()).isTrue();
+        assertThat(meterRegistry.counter("joinly.pasarela.rechazadas", "motivo", "concurrencia").count())
+                .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.alberti.joinly.repositories;
+
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.enums.EstadoSolicitud;
+import com.alberti.joinly.repositories.specifications.PagoSpecifications;
+import com.alberti.joinly.repositories.specifications.SolicitudSpecifications;
+import com.alberti.joinly.support.CapturaSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Comprueba que los listados filtrados de pagos y solicitudes generan predicados
+ * que pueden resolverse con los índices compuestos (usuario, estado, fecha).
+ * <p>
+ * Se captura el SQL real emitido por Hibernate para cada combinación de filtros y se
+ * verifica que no aparecen columnas envueltas en funciones ({@code CAST(... AS DATE)})
+ * ni ramas {@code ? IS NULL OR ...}, y que las fechas se comparan como rango semiabierto.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Filtros de fecha indexables")
+class FiltrosFechaIndexablesTest {
+
+    private static final LocalDate DESDE = LocalDate.of(2026, 1, 1);
+    private static final LocalDate HASTA = LocalDate.of(2026, 1, 31);
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @AfterEach
+    void tearDown() {
+        CapturaSql.detener();
+    }
+
+    static Stream<Arguments> combinacionesDeFiltros() {
+        return Stream.of(
+                Arguments.of(false, null, null),
+                Arguments.of(true, null, null),
+                Arguments.of(false, DESDE, null),
+                Arguments.of(false, null, HASTA),
+                Arguments.of(false, DESDE, HASTA),
+                Arguments.of(true, DESDE, HASTA));
+    }
+
+    @ParameterizedTest(name = "estado={0}, desde={1}, hasta={2}")
+    @MethodSource("combinacionesDeFiltros")
+    @DisplayName("Pagos: el SQL generado solo contiene predicados indexables")
+    void pagosConPredicadosIndexables(boolean conEstado, LocalDate desde, LocalDate hasta) {
+        CapturaSql.iniciar();
+        pagoRepository.findAll(
+                PagoSpecifications.filtrosUsuario(1L, conEstado ? EstadoPago.RETENIDO : null, desde, hasta),
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "fechaPago")));
+        var sentencias = CapturaSql.detener();
+
+        verificarIndexables(sentencias, "fecha_pago", conEstado, desde, hasta);
+    }
+
+    @ParameterizedTest(name = "estado={0}, desde={1}, hasta={2}")
+    @MethodSource("combinacionesDeFiltros")
+    @DisplayName("Solicitudes: el SQL generado solo contiene predicados indexables")
+    void solicitudesConPredicadosIndexables(boolean conEstado, LocalDate desde, LocalDate hasta) {
+        CapturaSql.iniciar();
+        solicitudRepository.findAll(
+                SolicitudSpecifications.filtrosSolicitante(1L, conEstado ? EstadoSolicitud.PENDIENTE : null, desde, hasta),
+                PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "fechaSolicitud")));
+        var sentencias = CapturaSql.detener();
+
+        verificarIndexables(sentencias, "fecha_solicitud", conEstado, desde, hasta);
+    }
+
+    @Test
+    @DisplayName("El analizador debe detectar el patrón CAST + IS NULL anterior")
+    void analizadorDetectaPatronAnterior() {
+        var sqlAnterior = "select p1_0.id_pago from pago p1_0 where p1_0.id_usuario=? "
+                + "and (? is null or p1_0.estado=?) "
+                + "and (? is null or cast(p1_0.fecha_pago as date)>=?)";
+
+        assertThat(CapturaSql.predicadosNoIndexables(sqlAnterior))
+                .containsExactly("cast(p1_0.fecha_pago", "? is null", "? is null");
+    }
+
+    private static void verificarIndexables(
+            List<String> sentencias, String columnaFecha, boolean conEstado, LocalDate desde, LocalDate hasta) {
+        // Página 1: se emiten la consulta de datos y la de conteo
+        assertThat(sentencias).hasSize(2);
+
+        for (var sql : sentencias) {
+            var normalizado = sql.toLowerCase();
+            assertThat(CapturaSql.predicadosNoIndexables(sql))
+                    .as("Predicados no indexables en: %s", sql)
+                    .isEmpty();
+            assertThat(normalizado.contains(".estado=?") || normalizado.contains(".estado in"))
+                    .as("Filtro de estado en: %s", sql)
+                    .isEqualTo(conEstado);
+            assertThat(normalizado.contains(columnaFecha + ">=?"))
+                    .as("Cota inferior en: %s", sql)
+                    .isEqualTo(desde != null);
+            assertThat(normalizado.contains(columnaFecha + "<?"))
+                    .as("Cota superior en: %s", sql)
+                    .isEqualTo(hasta != null);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.alberti.joinly.repositories;
+
+import com.alberti.joinly.entities.enums.EstadoUsuario;
+import com.alberti.joinly.entities.enums.RolUsuario;
+import com.alberti.joinly.entities.enums.TipoNotificacion;
+import com.alberti.joinly.entities.notificacion.Notificacion;
+import com.alberti.joinly.entities.sistema.LogAuditoria;
+import com.alberti.joinly.entities.usuario.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compara las sentencias JDBC de una inserción masiva con ids por bloques
+ * ({@code @TableGenerator}, ver {@code Secuencia}) y con IDENTITY.
+ * <p>
+ * Se cuentan las sentencias preparadas con las estadísticas de Hibernate: un lote JDBC
+ * prepara su INSERT una sola vez, mientras que con IDENTITY cada fila se ejecuta por
+ * separado para leer el id generado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Inserciones en lote")
+class InsercionesEnLoteTest {
+
+    private static final int FILAS = 50;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+
+        usuario = Usuario.builder()
+                .nombre("Lotes")
+                .email("lotes@joinly.com")
+                .password("no-se-usa")
+                .fechaRegistro(LocalDateTime.now())
+                .estado(EstadoUsuario.ACTIVO)
+                .emailVerificado(true)
+                .rol(RolUsuario.USER)
+                .build();
+        entityManager.persist(usuario);
+        // Calienta el generador: la primera reserva crea la fila de la secuencia
+        entityManager.persist(notificacion(0));
+        entityManager.flush();
+        entityManager.clear();
+        usuario = entityManager.getReference(Usuario.class, usuario.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        estadisticas.setStatisticsEnabled(false);
+    }
+
+    private Notificacion notificacion(int i) {
+        return Notificacion.builder()
+                .usuario(usuario)
+                .tipo(TipoNotificacion.SOLICITUD_RECIBIDA)
+                .titulo("Notificación " + i)
+                .mensaje("Mensaje " + i)
+                .build();
+    }
+
+    private LogAuditoria registro(int i) {
+        return LogAuditoria.builder()
+                .usuario(usuario)
+                .accion("CREAR")
+                .entidad("Prueba")
+                .idEntidad((long) i)
+                .build();
+    }
+
+    private long sentenciasPreparadas(Runnable insertar) {
+        estadisticas.clear();
+        insertar.run();
+        entityManager.flush();
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(FILAS);
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("Con ids por bloques, 50 notificaciones se insertan en un solo lote")
+    void idsPorBloquesInsertanEnLote() {
+        var sentencias = sentenciasPreparadas(() -> {
+            for (int i = 1; i <= FILAS; i++) {
+                entityManager.persist(notificacion(i));
+            }
+        });
+
+        // El INSERT del lote y, como mucho, la reserva de un bloque nuevo (SELECT + UPDATE)
+        assertThat(sentencias).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Con IDENTITY, cada una de las 50 filas es un INSERT")
+    void identityInsertaFilaAFila() {
+        var sentencias = sentenciasPreparadas(() -> {
+            for (int i = 1; i <= FILAS; i++) {
+                entityManager.persist(registro(i));
+            }
+        });
+
+        assertThat(sentencias).isGreaterThanOrEqualTo(FILAS);
+    }
+}
@@ -0,0 +1,129 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CodificadorContrasenas Tests")
+class CodificadorContrasenasTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CodificadorContrasenas codificador;
+
+    private CodificadorContrasenas crear(String algoritmo, int coste, int hilos, int cola) {
+        codificador = new CodificadorContrasenas(algoritmo, coste, hilos, cola, meterRegistry);
+        return codificador;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (codificador != null) {
+            codificador.destroy();
+        }
+    }
+
+    @Nested
+    @DisplayName("Codificación")
+    class Codificacion {
+
+        @Test
+        @DisplayName("Debe codificar con prefijo y validar la contraseña")
+        void debeCodificarYValidar() {
+            var encoder = crear("bcrypt", 4, 1, 4);
+
+            var hash = encoder.encode("secreta");
+
+            assertThat(hash).startsWith("{bcrypt}$2a$04$");
+            assertThat(encoder.matches("secreta", hash)).isTrue();
+            assertThat(encoder.matches("otra", hash)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Debe validar hashes BCrypt antiguos sin prefijo")
+        void debeValidarHashesSinPrefijo() {
+            var encoder = crear("bcrypt", 4, 1, 4);
+            var antiguo = new BCryptPasswordEncoder(4).encode("secreta");
+
+            assertThat(encoder.matches("secreta", antiguo)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Recálculo de hashes")
+    class Recalculo {
+
+        @Test
+        @DisplayName("Debe pedir recalcular hashes sin prefijo o de otro algoritmo")
+        void debeRecalcularOtroAlgoritmo() {
+            var pbkdf2 = crear("pbkdf2", 4, 1, 4);
+            var hashPbkdf2 = pbkdf2.encode("secreta");
+
+            assertThat(pbkdf2.upgradeEncoding(hashPbkdf2)).isFalse();
+            assertThat(pbkdf2.upgradeEncoding("{bcrypt}$2a$04$abcdefghijklmnopqrstuv")).isTrue();
+            assertThat(pbkdf2.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuv")).isTrue();
+            assertThat(pbkdf2.matches("secreta", hashPbkdf2)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Debe pedir recalcular hashes BCrypt con otro coste, mayor o menor")
+        void debeRecalcularOtroCoste() {
+            var encoder = crear("bcrypt", 5, 1, 4);
+
+            assertThat(encoder.upgradeEncoding("{bcrypt}$2a$05$abcdefghijklmnopqrstuv")).isFalse();
+            assertThat(encoder.upgradeEncoding("{bcrypt}$2a$04$abcdefghijklmnopqrstuv")).isTrue();
+            assertThat(encoder.upgradeEncoding("{bcrypt}$2a$12$abcdefghijklmnopqrstuv")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Debe leer el coste de un hash BCrypt")
+        void debeLeerCoste() {
+            assertThat(CodificadorContrasenas.costeBcrypt("$2a$10$abc")).isEqualTo(10);
+            assertThat(CodificadorContrasenas.costeBcrypt("$2y$04$abc")).isEqualTo(4);
+            assertThat(CodificadorContrasenas.costeBcrypt("no-es-bcrypt")).isEqualTo(-1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ejecutor acotado")
+    class EjecutorAcotado {
+
+        @Test
+        @DisplayName("Debe rechazar al instante con la cola llena")
+        void debeRechazarConColaLlena() throws Exception {
+            var encoder = crear("bcrypt", 4, 1, 1);
+            var bloqueo = new CountDownLatch(1);
+            var ocupado = new CountDownLatch(1);
+
+            try (var llamantes = Executors.newVirtualThreadPerTaskExecutor()) {
+                // Un hash en curso y otro en cola ocupan toda la capacidad
+                llamantes.submit(() -> encoder.ejecutar(() -> {
+                    ocupado.countDown();
+                    return bloqueo.await(5, TimeUnit.SECONDS);
+                }));
+                assertThat(ocupado.await(5, TimeUnit.SECONDS)).isTrue();
+                llamantes.submit(() -> encoder.ejecutar(() -> true));
+                while (meterRegistry.get("joinly.contrasenas.cola").gauge().value() < 1) {
+                    Thread.onSpinWait();
+                }
+
+                assertThatThrownBy(() -> encoder.encode("secreta"))
+                        .isInstanceOf(ServicioSaturadoException.class);
+                assertThat(meterRegistry.get("joinly.contrasenas.rechazados").counter().count()).isEqualTo(1);
+
+                bloqueo.countDown();
+            }
+
+            assertThat(encoder.matches("secreta", encoder.encode("secreta"))).isTrue();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.alberti.joinly.security;
+
+import com.alberti.joinly.entities.enums.RolUsuario;
+import com.alberti.joinly.entities.usuario.Usuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("IdempotenciaFilter Tests")
+class IdempotenciaFilterTest {
+
+    private static final String RUTA = "/api/v1/pagos";
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    private JdbcTemplate jdbc;
+    private AlmacenIdempotencia almacen;
+    private IdempotenciaFilter filtro;
+    private UserPrincipal usuario;
+
+    @BeforeEach
+    void setUp() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idempotencia-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TABLE respuesta_idempotente (
+                    clave VARCHAR(300) PRIMARY KEY,
+                    huella VARCHAR(64) NOT NULL,
+                    estado_http INT NULL,
+                    tipo_contenido VARCHAR(255) NULL,
+                    cabeceras TEXT NULL,
+                    cuerpo MEDIUMBLOB NULL,
+                    expira_en TIMESTAMP(6) NOT NULL,
+                    created_at TIMESTAMP(6) NOT NULL)""");
+        almacen = new AlmacenIdempotencia(jdbc, Duration.ofHours(24), Duration.ofMinutes(1),
+                Duration.ofSeconds(5), 100, Clock.systemDefaultZone(), new SimpleMeterRegistry());
+        filtro = new IdempotenciaFilter(almacen, true, 1024);
+
+        usuario = UserPrincipal.fromUsuario(Usuario.builder().id(7L).rol(RolUsuario.USER).build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest peticion(String clave, String cuerpo) {
+        var request = new MockHttpServletRequest("POST", RUTA);
+        request.setServletPath(RUTA);
+        if (clave != null) {
+            request.addHeader(IdempotenciaFilter.CABECERA_CLAVE, clave);
+        }
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /** Simula el controlador: cuenta las ejecuciones y responde con el cuerpo recibido. */
+    private FilterChain controlador(int estado) {
+        return (request, response) -> {
+            var cuerpo = request.getInputStream().readAllBytes();
+            var n = ejecuciones.incrementAndGet();
+            var http = (HttpServletResponse) response;
+            http.setStatus(estado);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"ejecucion\":" + n + ",\"recibido\":" + new String(cuerpo, StandardCharsets.UTF_8) + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse enviar(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        var response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Un reintento con la misma clave devuelve la respuesta original sin volver a ejecutarse")
+    void reintentoDevuelveRespuestaGuardada() throws Exception {
+        var primera = enviar(peticion("k1", "{\"importe\":5}"), controlador(201));
+        var segunda = enviar(peticion("k1", "{\"importe\":5}"), controlador(201));
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(segunda.getStatus()).isEqualTo(201);
+        assertThat(segunda.getContentAsString()).isEqualTo(primera.getContentAsString());
+        assertThat(segunda.getContentType()).startsWith("application/json");
+        assertThat(segunda.getHeader(IdempotenciaFilter.CABECERA_REPETIDA)).isEqualTo("true");
+        assertThat(primera.getHeader(IdempotenciaFilter.CABECERA_REPETIDA)).isNull();
+    }
+
+    @Test
+    @DisplayName("La respuesta se recupera de la base de datos en otro nodo")
+    void respuestaCompartidaEntreNodos() throws Exception {
+        enviar(peticion("k1", "{}"), controlador(201));
+
+        var otroNodo = new IdempotenciaFilter(new AlmacenIdempotencia(jdbc, Duration.ofHours(24),
+                Duration.ofMinutes(1), Duration.ofSeconds(5), 100, Clock.systemDefaultZone(),
+                new SimpleMeterRegistry()), true, 1024);
+        var response = new MockHttpServletResponse();
+        otroNodo.doFilter(peticion("k1", "{}"), response, controlador(201));
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).contains("\"ejecucion\":1");
+    }
+
+    @Test
+    @DisplayName("El reintento recibe también las cabeceras propias de la respuesta, aunque venga de otro nodo")
+    void repiteCabecerasDeLaRespuesta() throws Exception {
+        FilterChain crea = (request, response) -> {
+            controlador(201).doFilter(request, response);
+            var http = (HttpServletResponse) response;
+            http.setHeader("Location", "/api/v1/pagos/42");
+            http.setHeader("X-Frame-Options", "DENY");
+        };
+        enviar(peticion("k1", "{}"), crea);
+
+        var otroNodo = new IdempotenciaFilter(new AlmacenIdempotencia(jdbc, Duration.ofHours(24),
+                Duration.ofMinutes(1), Duration.ofSeconds(5), 100, Clock.systemDefaultZone(),
+                new SimpleMeterRegistry()), true, 1024);
+        var mismoNodo = enviar(peticion("k1", "{}"), crea);
+        var response = new MockHttpServletResponse();
+        otroNodo.doFilter(peticion("k1", "{}"), response, crea);
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(mismoNodo.getHeader("Location")).isEqualTo("/api/v1/pagos/42");
+        assertThat(response.getHeader("Location")).isEqualTo("/api/v1/pagos/42");
+        assertThat(response.getHeader("X-Frame-Options")).isNull();
+    }
+
+    @Test
+    @DisplayName("Las peticiones multipart pasan sin leer su cuerpo")
+    void multipartNoSeFiltra() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/v1/usuarios/7/avatar");
+        request.setServletPath("/api/v1/usuarios/7/avatar");
+        request.addHeader(IdempotenciaFilter.CABECERA_CLAVE, "k1");
+        request.setContentType("multipart/form-data; boundary=xyz");
+        request.setContent("--xyz\r\n".getBytes(StandardCharsets.UTF_8));
+        FilterChain recibe = (req, response) -> {
+            assertThat(req).isSameAs(request);
+            ejecuciones.incrementAndGet();
+        };
+
+        enviar(request, recibe);
+        enviar(request, recibe);
+
+        assertThat(ejecuciones).hasValue(2);
+        assertThat(IdempotenciaFilter.sinCuerpoOJson("application/merge-patch+json")).isTrue();
+        assertThat(IdempotenciaFilter.sinCuerpoOJson(null)).isTrue();
+        assertThat(IdempotenciaFilter.sinCuerpoOJson("text/plain")).isFalse();
+    }
+
+    @Test
+    @DisplayName("La misma clave con otra petición responde 422")
+    void mismaClaveOtraPeticion() throws Exception {
+        enviar(peticion("k1", "{\"importe\":5}"), controlador(201));
+        var response = enviar(peticion("k1", "{\"importe\":6}"), controlador(201));
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    @DisplayName("Las claves son de cada usuario")
+    void clavesPorUsuario() throws Exception {
+        enviar(peticion("k1", "{}"), controlador(201));
+
+        var otro = UserPrincipal.fromUsuario(Usuario.builder().id(8L).rol(RolUsuario.USER).build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(otro, null, otro.getAuthorities()));
+        enviar(peticion("k1", "{}"), controlador(201));
+
+        assertThat(ejecuciones).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Los errores transitorios no se guardan y el reintento vuelve a ejecutarse")
+    void erroresTransitoriosNoSeGuardan() throws Exception {
+        enviar(peticion("k1", "{}"), controlador(503));
+        var response = enviar(peticion("k1", "{}"), controlador(201));
+
+        assertThat(ejecuciones).hasValue(2);
+        assertThat(response.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Las respuestas mayores que el máximo no se guardan")
+    void respuestasGrandesNoSeGuardan() throws Exception {
+        var grande = "\"" + "x".repeat(2000) + "\"";
+        enviar(peticion("k1", grande), controlador(201));
+        var response = enviar(peticion("k1", grande), controlador(201));
+
+        assertThat(ejecuciones).hasValue(2);
+        assertThat(response.getContentAsString()).hasSizeGreaterThan(2000);
+    }
+
+    @Test
+    @DisplayName("Sin cabecera o sin usuario la petición pasa sin guardar nada")
+    void sinCabeceraNiUsuario() throws Exception {
+        enviar(peticion(null, "{}"), controlador(201));
+        SecurityContextHolder.clearContext();
+        enviar(peticion("k1", "{}"), controlador(201));
+        enviar(peticion("k1", "{}"), controlador(201));
+
+        assertThat(ejecuciones).hasValue(3);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM respuesta_idempotente", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Un duplicado concurrente espera a la petición original y recibe su respuesta")
+    void duplicadoConcurrenteEspera() throws Exception {
+        var dentro = new CountDownLatch(1);
+        var continuar = new CountDownLatch(1);
+        FilterChain lento = (request, response) -> {
+            dentro.countDown();
+            try {
+                continuar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controlador(201).doFilter(request, response);
+        };
+
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            var original = executor.submit(() -> enviarComo(usuario, peticion("k1", "{}"), lento));
+            assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+            var duplicado = executor.submit(() -> enviarComo(usuario, peticion("k1", "{}"), lento));
+
+            Thread.sleep(100);
+            assertThat(duplicado).isNotDone();
+            continuar.countDown();
+
+            assertThat(original.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+            var repetida = duplicado.get(5, TimeUnit.SECONDS);
+            assertThat(repetida.getStatus()).isEqualTo(201);
+            assertThat(repetida.getHeader(IdempotenciaFilter.CABECERA_REPETIDA)).isEqualTo("true");
+        }
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    private MockHttpServletResponse enviarComo(UserPrincipal principal, MockHttpServletRequest request,
+                                               FilterChain chain) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            return enviar(request, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @DisplayName("Una petición en curso en otro nodo responde 409 hasta que caduca su reserva")
+    void reservaDeOtroNodo() throws Exception {
+        var ahora = LocalDateTime.now();
+        jdbc.update("INSERT INTO respuesta_idempotente (clave, huella, expira_en, created_at) VALUES (?, ?, ?, ?)",
+                "7:k1", "x".repeat(64), Timestamp.valueOf(ahora.plusMinutes(1)), Timestamp.valueOf(ahora));
+
+        var response = enviar(peticion("k1", "{}"), controlador(201));
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+
+        jdbc.update("UPDATE respuesta_idempotente SET expira_en = ?", Timestamp.valueOf(ahora.minusSeconds(1)));
+        response = enviar(peticion("k1", "{}"), controlador(201));
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Si el controlador lanza una excepción la clave queda libre")
+    void excepcionLiberaClave() {
+        FilterChain falla = (request, response) -> {
+            throw new IllegalStateException("fallo");
+        };
+
+        assertThatThrownBy(() -> enviar(peticion("k1", "{}"), falla)).isInstanceOf(IllegalStateException.class);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM respuesta_idempotente", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("La purga borra las respuestas caducadas")
+    void purgaCaducadas() throws Exception {
+        enviar(peticion("k1", "{}"), controlador(201));
+        jdbc.update("UPDATE respuesta_idempotente SET expira_en = ?", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+
+        almacen.purgar();
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM respuesta_idempotente", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,145 @@
+package com.alberti.joinly.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LimitadorTasa Tests")
+class LimitadorTasaTest {
+
+    private static final long SEGUNDO = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong reloj = new AtomicLong(1_000 * SEGUNDO);
+    private LimitadorTasa limitador;
+
+    @BeforeEach
+    void setUp() {
+        // 3 intentos seguidos y uno nuevo cada 10 segundos
+        limitador = new LimitadorTasa(3, Duration.ofSeconds(10), 1_000, reloj::get);
+    }
+
+    private void avanzar(long segundos) {
+        reloj.addAndGet(segundos * SEGUNDO);
+    }
+
+    @Nested
+    @DisplayName("Cubeta de tokens")
+    class Cubeta {
+
+        @Test
+        @DisplayName("Debe admitir la ráfaga y rechazar indicando la espera")
+        void debeAdmitirRafagaYRechazar() {
+            for (int i = 0; i < 3; i++) {
+                assertThat(limitador.consumir("ip:1")).isZero();
+            }
+
+            assertThat(limitador.consumir("ip:1")).isEqualTo(10 * SEGUNDO);
+            assertThat(limitador.consumir("ip:2")).isZero();
+        }
+
+        @Test
+        @DisplayName("Debe reponer un token por intervalo")
+        void debeReponer() {
+            for (int i = 0; i < 3; i++) {
+                limitador.consumir("ip:1");
+            }
+            avanzar(4);
+            assertThat(limitador.consumir("ip:1")).isEqualTo(6 * SEGUNDO);
+
+            avanzar(6);
+            assertThat(limitador.consumir("ip:1")).isZero();
+            assertThat(limitador.consumir("ip:1")).isPositive();
+        }
+
+        @Test
+        @DisplayName("Debe recuperar el token devuelto")
+        void debeRecuperarDevuelto() {
+            for (int i = 0; i < 3; i++) {
+                limitador.consumir("ip:1");
+            }
+            limitador.devolver("ip:1");
+
+            assertThat(limitador.consumir("ip:1")).isZero();
+            assertThat(limitador.consumir("ip:1")).isPositive();
+        }
+
+        @Test
+        @DisplayName("No debe admitir más que la capacidad con peticiones concurrentes")
+        void debeRespetarCapacidadConcurrente() {
+            var admitidas = new AtomicInteger();
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 1_000; i++) {
+                    executor.submit(() -> {
+                        if (limitador.consumir("ip:1") == 0) admitidas.incrementAndGet();
+                    });
+                }
+            }
+
+            assertThat(admitidas.get()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("Memoria")
+    class Memoria {
+
+        @Test
+        @DisplayName("Debe olvidar las claves cuya cubeta se ha vuelto a llenar")
+        void debeOlvidarClavesLlenas() {
+            limitador.consumir("ip:1");
+            limitador.consumir("ip:2");
+            avanzar(5);
+            limitador.consumir("ip:2");
+            limitador.consumir("ip:2");
+            assertThat(limitador.tamano()).isEqualTo(2);
+
+            // ip:1 se llenó a los 10 s; ip:2 no se llena hasta los 30 s
+            avanzar(15);
+            limitador.purgar();
+            assertThat(limitador.tamano()).isEqualTo(1);
+
+            avanzar(30);
+            limitador.purgar();
+            assertThat(limitador.tamano()).isZero();
+        }
+
+        @Test
+        @DisplayName("No debe olvidar una clave con la cubeta sin llenar")
+        void debeConservarClavesLimitadas() {
+            for (int i = 0; i < 3; i++) {
+                limitador.consumir("ip:1");
+            }
+            for (int s = 0; s < 25; s++) {
+                avanzar(1);
+                limitador.purgar();
+            }
+
+            // A los 25 s se han repuesto dos de los tres tokens
+            assertThat(limitador.tamano()).isEqualTo(1);
+            assertThat(limitador.consumir("ip:1")).isZero();
+            assertThat(limitador.consumir("ip:1")).isZero();
+            assertThat(limitador.consumir("ip:1")).isEqualTo(5 * SEGUNDO);
+        }
+
+        @Test
+        @DisplayName("Por encima del máximo las claves nuevas deben compartir cubeta")
+        void debeCompartirCubetaAlSuperarMaximo() {
+            var limitado = new LimitadorTasa(3, Duration.ofSeconds(10), 1, reloj::get);
+            var admitidas = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (limitado.consumir("email:" + i) == 0) admitidas++;
+            }
+
+            assertThat(limitado.tamano()).isLessThanOrEqualTo(Runtime.getRuntime().availableProcessors() * 4);
+            assertThat(admitidas).isLessThan(100);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.exceptions.ResourceNotFoundException;
+import com.alberti.joinly.exceptions.UnauthorizedException;
+import com.alberti.joinly.repositories.MiembroUnidadRepository;
+import com.alberti.joinly.repositories.SuscripcionRepository;
+import com.alberti.joinly.repositories.UnidadFamiliarRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AutorizacionService Tests")
+class AutorizacionServiceTest {
+
+    @Mock
+    private SuscripcionRepository suscripcionRepository;
+
+    @Mock
+    private UnidadFamiliarRepository unidadFamiliarRepository;
+
+    @Mock
+    private MiembroUnidadRepository miembroUnidadRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AutorizacionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AutorizacionService(suscripcionRepository, unidadFamiliarRepository,
+                miembroUnidadRepository, jdbcTemplate, 1_000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** Simula la confirmación de la transacción abierta con {@code initSynchronization}. */
+    private static void confirmar() {
+        var sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        sincronizaciones.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Nested
+    @DisplayName("Anfitrión y administrador")
+    class PropiedadTests {
+
+        @Test
+        @DisplayName("Debe consultar el anfitrión una sola vez y responder después desde memoria")
+        void debeCargarAnfitrionUnaVez() {
+            given(suscripcionRepository.findIdAnfitrionById(20L)).willReturn(Optional.of(1L));
+
+            assertThat(service.esAnfitrion(20L, 1L)).isTrue();
+            assertThat(service.esAnfitrion(20L, 2L)).isFalse();
+            service.verificarAnfitrion(20L, 1L, "No");
+
+            then(suscripcionRepository).should(times(1)).findIdAnfitrionById(20L);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar ResourceNotFoundException si la suscripción no existe")
+        void debeLanzarNotFoundSiNoExisteSuscripcion() {
+            given(suscripcionRepository.findIdAnfitrionById(99L)).willReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.verificarAnfitrion(99L, 1L, "No"))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar UnauthorizedException si no es el anfitrión")
+        void debeLanzarUnauthorizedSiNoEsAnfitrion() {
+            given(suscripcionRepository.findIdAnfitrionById(20L)).willReturn(Optional.of(1L));
+
+            assertThatThrownBy(() -> service.verificarAnfitrion(20L, 2L, "Solo el anfitrión"))
+                    .isInstanceOf(UnauthorizedException.class)
+                    .hasMessage("Solo el anfitrión");
+        }
+
+        @Test
+        @DisplayName("Una unidad que no existe no tiene administrador y no se guarda")
+        void unidadInexistenteNoTieneAdministrador() {
+            given(unidadFamiliarRepository.findIdAdministradorById(999L)).willReturn(Optional.empty());
+
+            assertThat(service.esAdministrador(999L, 1L)).isFalse();
+            assertThat(service.esAdministrador(999L, 1L)).isFalse();
+
+            then(unidadFamiliarRepository).should(times(2)).findIdAdministradorById(999L);
+        }
+
+        @Test
+        @DisplayName("La baja de una unidad obliga a volver a consultarla")
+        void bajaUnidadDescartaAdministrador() {
+            given(unidadFamiliarRepository.findIdAdministradorById(100L))
+                    .willReturn(Optional.of(1L))
+                    .willReturn(Optional.empty());
+            assertThat(service.esAdministrador(100L, 1L)).isTrue();
+
+            service.registrarBajaUnidad(100L);
+
+            assertThat(service.esAdministrador(100L, 1L)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Miembros")
+    class MiembrosTests {
+
+        @Test
+        @DisplayName("Debe cargar los miembros de la unidad una sola vez")
+        void debeCargarMiembrosUnaVez() {
+            given(miembroUnidadRepository.findIdsUsuariosActivosByUnidadId(100L)).willReturn(List.of(3L, 1L));
+
+            assertThat(service.esMiembroActivo(100L, 1L)).isTrue();
+            assertThat(service.esMiembroActivo(100L, 3L)).isTrue();
+            assertThat(service.esMiembroActivo(100L, 2L)).isFalse();
+
+            then(miembroUnidadRepository).should(times(1)).findIdsUsuariosActivosByUnidadId(100L);
+        }
+
+        @Test
+        @DisplayName("Las altas y bajas actualizan el índice sin volver a consultar")
+        void altasYBajasActualizanIndice() {
+            given(miembroUnidadRepository.findIdsUsuariosActivosByUnidadId(100L)).willReturn(List.of(1L));
+            assertThat(service.esMiembroActivo(100L, 2L)).isFalse();
+
+            service.registrarAltaMiembro(100L, 2L);
+            assertThat(service.esMiembroActivo(100L, 2L)).isTrue();
+
+            service.registrarBajaMiembro(100L, 1L);
+            assertThat(service.esMiembroActivo(100L, 1L)).isFalse();
+
+            then(miembroUnidadRepository).should(times(1)).findIdsUsuariosActivosByUnidadId(100L);
+        }
+
+        @Test
+        @DisplayName("Los cambios se aplican al confirmar la transacción")
+        void cambiosSeAplicanAlConfirmar() {
+            given(miembroUnidadRepository.findIdsUsuariosActivosByUnidadId(100L)).willReturn(List.of(1L));
+            assertThat(service.esMiembroActivo(100L, 1L)).isTrue();
+
+            TransactionSynchronizationManager.initSynchronization();
+            service.registrarBajaMiembro(100L, 1L);
+            assertThat(service.esMiembroActivo(100L, 1L)).isTrue();
+
+            confirmar();
+            assertThat(service.esMiembroActivo(100L, 1L)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Lo leído en una transacción con cambios pendientes no se guarda")
+        void noGuardaLecturasDeTransaccionConCambios() {
+            given(miembroUnidadRepository.findIdsUsuariosActivosByUnidadId(100L))
+                    .willReturn(List.of(1L, 2L))
+                    .willReturn(List.of(1L));
+
+            TransactionSynchronizationManager.initSynchronization();
+            service.registrarAltaMiembro(100L, 2L);
+            assertThat(service.esMiembroActivo(100L, 2L)).isTrue();
+            // La transacción se deshace: el alta no llega a la base de datos
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+
+            assertThat(service.esMiembroActivo(100L, 2L)).isFalse();
+        }
+    }
+}
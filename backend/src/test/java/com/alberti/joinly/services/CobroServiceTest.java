@@ -0,0 +1,220 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.config.PasarelaProperties;
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.usuario.MetodoPagoUsuario;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.exceptions.ServicioSaturadoException;
+import com.alberti.joinly.pasarela.PasarelaPago;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests unitarios para CobroService: orquestación entre la reserva del pago, la pasarela y la
+ * confirmación o el rechazo.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CobroService Unit Tests")
+class CobroServiceTest {
+
+    @Mock
+    private PagoService pagoService;
+
+    @Mock
+    private PasarelaPago pasarelaPago;
+
+    @Mock
+    private PasarelaProperties pasarelaProperties;
+
+    @InjectMocks
+    private CobroService cobroService;
+
+    private Pago pagoPendiente;
+
+    @BeforeEach
+    void setUp() {
+        pagoPendiente = Pago.builder()
+                .id(7L)
+                .metodoPago(MetodoPagoUsuario.builder().id(3L).tokenPasarela("tok_visa").build())
+                .monto(new BigDecimal("4.99"))
+                .estado(EstadoPago.PENDIENTE)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("procesarPago")
+    class ProcesarPago {
+
+        @BeforeEach
+        void setUp() {
+            given(pagoService.reservarPago(1L, 2L, 3L, new BigDecimal("4.99"))).willReturn(pagoPendiente);
+        }
+
+        private Pago procesar() {
+            return cobroService.procesarPago(1L, 2L, 3L, new BigDecimal("4.99"));
+        }
+
+        @Test
+        @DisplayName("Cobro aprobado: confirma el pago con la referencia de la pasarela")
+        void aprobado() {
+            var confirmado = Pago.builder().id(7L).estado(EstadoPago.RETENIDO).build();
+            given(pasarelaPago.cobrar(new PasarelaPago.Cobro("pago-7", "tok_visa", new BigDecimal("4.99"), "EUR")))
+                    .willReturn(CompletableFuture.completedFuture(PasarelaPago.Resultado.aprobado("ch_1")));
+            given(pagoService.confirmarPago(7L, "ch_1")).willReturn(confirmado);
+
+            assertThat(procesar()).isSameAs(confirmado);
+            then(pagoService).should(never()).rechazarPago(anyLong(), anyString());
+        }
+
+        @Test
+        @DisplayName("Cobro rechazado: marca el pago FALLIDO y lanza BusinessException")
+        void rechazado() {
+            given(pasarelaPago.cobrar(any()))
+                    .willReturn(CompletableFuture.completedFuture(PasarelaPago.Resultado.rechazado("Fondos insuficientes")));
+
+            assertThatThrownBy(() -> procesar())
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Fondos insuficientes");
+            then(pagoService).should().rechazarPago(7L, "Fondos insuficientes");
+        }
+
+        @Test
+        @DisplayName("Pasarela saturada o con el circuito abierto: no se cobró, marca FALLIDO y propaga el 503")
+        void saturada() {
+            given(pasarelaPago.cobrar(any())).willReturn(CompletableFuture.failedFuture(
+                    new ServicioSaturadoException("La pasarela de pagos no está disponible", 30)));
+
+            assertThatThrownBy(() -> procesar())
+                    .isInstanceOf(ServicioSaturadoException.class);
+            then(pagoService).should().rechazarPago(eq(7L), anyString());
+        }
+
+        @Test
+        @DisplayName("Resultado en duda (timeout): el pago queda PENDIENTE sin confirmar ni rechazar")
+        void enDuda() {
+            given(pasarelaPago.cobrar(any()))
+                    .willReturn(CompletableFuture.failedFuture(new IllegalStateException("timeout")));
+            given(pagoService.buscarPorIdConDetalles(7L)).willReturn(Optional.of(pagoPendiente));
+
+            assertThat(procesar().getEstado()).isEqualTo(EstadoPago.PENDIENTE);
+            then(pagoService).should(never()).confirmarPago(anyLong(), anyString());
+            then(pagoService).should(never()).rechazarPago(anyLong(), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("reembolsar")
+    class Reembolsar {
+
+        private Pago reservado;
+
+        @BeforeEach
+        void setUp() {
+            reservado = Pago.builder()
+                    .id(7L)
+                    .referenciaExterna("ch_1")
+                    .monto(new BigDecimal("4.99"))
+                    .estado(EstadoPago.RETENIDO)
+                    .montoReembolsoEnCurso(new BigDecimal("2.00"))
+                    .build();
+            given(pagoService.reservarReembolso(7L, new BigDecimal("2.00"))).willReturn(reservado);
+        }
+
+        private Pago reembolsar() {
+            return cobroService.reembolsar(7L, new BigDecimal("2.00"), "Cancelación");
+        }
+
+        @Test
+        @DisplayName("Reembolso aprobado: lo confirma con la clave del total reembolsado")
+        void aprobado() {
+            var confirmado = Pago.builder().id(7L).estado(EstadoPago.REEMBOLSO_PARCIAL).build();
+            given(pasarelaPago.reembolsar("ch_1", new BigDecimal("2.00"), "reembolso-7-2.00"))
+                    .willReturn(CompletableFuture.completedFuture(PasarelaPago.Resultado.aprobado("re_1")));
+            given(pagoService.confirmarReembolso(7L, "Cancelación")).willReturn(confirmado);
+
+            assertThat(reembolsar()).isSameAs(confirmado);
+            then(pagoService).should(never()).revertirReembolso(anyLong());
+        }
+
+        @Test
+        @DisplayName("Reembolso rechazado: deshace la reserva y lanza BusinessException")
+        void rechazado() {
+            given(pasarelaPago.reembolsar(any(), any(), any()))
+                    .willReturn(CompletableFuture.completedFuture(PasarelaPago.Resultado.rechazado("Cargo disputado")));
+
+            assertThatThrownBy(() -> reembolsar())
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("Cargo disputado");
+            then(pagoService).should().revertirReembolso(7L);
+            then(pagoService).should(never()).confirmarReembolso(anyLong(), anyString());
+        }
+
+        @Test
+        @DisplayName("Pasarela saturada: no se envió, deshace la reserva y propaga el 503")
+        void saturada() {
+            given(pasarelaPago.reembolsar(any(), any(), any())).willReturn(CompletableFuture.failedFuture(
+                    new ServicioSaturadoException("La pasarela de pagos no está disponible", 30)));
+
+            assertThatThrownBy(() -> reembolsar())
+                    .isInstanceOf(ServicioSaturadoException.class);
+            then(pagoService).should().revertirReembolso(7L);
+        }
+
+        @Test
+        @DisplayName("Resultado en duda: el reembolso queda en curso y se pide repetirlo con un 503")
+        void enDuda() {
+            given(pasarelaPago.reembolsar(any(), any(), any()))
+                    .willReturn(CompletableFuture.failedFuture(new IllegalStateException("timeout")));
+
+            assertThatThrownBy(() -> reembolsar())
+                    .isInstanceOf(ServicioSaturadoException.class)
+                    .hasMessageContaining("mismo importe");
+            then(pagoService).should(never()).revertirReembolso(anyLong());
+            then(pagoService).should(never()).confirmarReembolso(anyLong(), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("conciliarPendientes")
+    class ConciliarPendientes {
+
+        @Test
+        @DisplayName("Confirma los cobrados, rechaza los que no llegaron y deja los que no se pueden consultar")
+        void concilia() {
+            var cobrado = Pago.builder().id(1L).build();
+            var perdido = Pago.builder().id(2L).build();
+            var sinRespuesta = Pago.builder().id(3L).build();
+            given(pasarelaProperties.getConciliarTrasMs()).willReturn(300000L);
+            given(pagoService.obtenerPagosPendientesDeConciliar(any(LocalDateTime.class)))
+                    .willReturn(List.of(cobrado, perdido, sinRespuesta));
+            given(pasarelaPago.consultar("pago-1"))
+                    .willReturn(CompletableFuture.completedFuture(Optional.of(PasarelaPago.Resultado.aprobado("ch_1"))));
+            given(pasarelaPago.consultar("pago-2")).willReturn(CompletableFuture.completedFuture(Optional.empty()));
+            given(pasarelaPago.consultar("pago-3"))
+                    .willReturn(CompletableFuture.failedFuture(new IllegalStateException("HTTP 503")));
+
+            assertThat(cobroService.conciliarPendientes()).isEqualTo(2);
+
+            then(pagoService).should().confirmarPago(1L, "ch_1");
+            then(pagoService).should().rechazarPago(eq(2L), anyString());
+            then(pagoService).should(never()).rechazarPago(eq(3L), anyString());
+        }
+    }
+}
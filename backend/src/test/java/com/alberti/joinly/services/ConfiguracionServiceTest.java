@@ -0,0 +1,125 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.dto.configuracion.VersionConfiguracion;
+import com.alberti.joinly.entities.enums.TipoConfiguracion;
+import com.alberti.joinly.entities.sistema.Configuracion;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.repositories.ConfiguracionRepository;
+import com.alberti.joinly.repositories.UsuarioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConfiguracionService Unit Tests")
+class ConfiguracionServiceTest {
+
+    private static final VersionConfiguracion VERSION_1 = new VersionConfiguracion(3L, LocalDateTime.of(2026, 1, 1, 0, 0));
+
+    @Mock
+    private ConfiguracionRepository configuracionRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private ConfiguracionService configuracionService;
+
+    private static Configuracion parametro(String clave, String valor, TipoConfiguracion tipo) {
+        return Configuracion.builder().clave(clave).valor(valor).tipo(tipo).build();
+    }
+
+    private void cargar() {
+        given(configuracionRepository.obtenerVersion()).willReturn(VERSION_1);
+        given(configuracionRepository.findAll()).willReturn(List.of(
+                parametro("max_suscripciones_grupo", "25", TipoConfiguracion.NUMBER),
+                parametro("comision_plataforma", "5.5", TipoConfiguracion.NUMBER),
+                parametro("jobs_pausados", "true", TipoConfiguracion.BOOLEAN),
+                parametro("roto", "abc", TipoConfiguracion.NUMBER)));
+        configuracionService.recargar();
+    }
+
+    @Nested
+    @DisplayName("Lectura tipada")
+    class LecturaTipada {
+
+        @Test
+        @DisplayName("Debe devolver los valores convertidos de la instantánea")
+        void debeDevolverValoresConvertidos() {
+            cargar();
+
+            assertThat(configuracionService.getInt("max_suscripciones_grupo", 20)).isEqualTo(25);
+            assertThat(configuracionService.getDecimal("comision_plataforma", BigDecimal.ZERO))
+                    .isEqualByComparingTo("5.5");
+            assertThat(configuracionService.getBoolean("jobs_pausados", false)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Debe usar el valor por defecto si la clave no existe o no es del tipo pedido")
+        void debeUsarValorPorDefecto() {
+            cargar();
+
+            assertThat(configuracionService.getInt("inexistente", 7)).isEqualTo(7);
+            assertThat(configuracionService.getInt("roto", 7)).isEqualTo(7);
+            assertThat(configuracionService.getInt("comision_plataforma", 7)).isEqualTo(7);
+        }
+    }
+
+    @Nested
+    @DisplayName("Refresco")
+    class Refresco {
+
+        @Test
+        @DisplayName("No debe recargar si la versión no ha cambiado")
+        void noDebeRecargarSinCambios() {
+            cargar();
+
+            configuracionService.refrescarSiHaCambiado();
+
+            then(configuracionRepository).should(times(1)).findAll();
+        }
+
+        @Test
+        @DisplayName("Debe recargar cuando cambia la versión")
+        void debeRecargarConCambios() {
+            cargar();
+            given(configuracionRepository.obtenerVersion())
+                    .willReturn(new VersionConfiguracion(3L, LocalDateTime.of(2026, 1, 2, 0, 0)));
+            given(configuracionRepository.findAll())
+                    .willReturn(List.of(parametro("max_suscripciones_grupo", "30", TipoConfiguracion.NUMBER)));
+
+            configuracionService.refrescarSiHaCambiado();
+
+            assertThat(configuracionService.getInt("max_suscripciones_grupo", 20)).isEqualTo(30);
+        }
+    }
+
+    @Nested
+    @DisplayName("Actualización")
+    class Actualizacion {
+
+        @Test
+        @DisplayName("Debe rechazar valores que no corresponden al tipo del parámetro")
+        void debeRechazarTipoIncorrecto() {
+            var configuracion = parametro("max_suscripciones_grupo", "20", TipoConfiguracion.NUMBER);
+            configuracion.setModificable(true);
+            given(configuracionRepository.findById("max_suscripciones_grupo")).willReturn(Optional.of(configuracion));
+
+            assertThatThrownBy(() -> configuracionService.actualizar("max_suscripciones_grupo", "muchas", 1L))
+                    .isInstanceOf(BusinessException.class);
+            then(configuracionRepository).should(never()).save(any());
+        }
+    }
+}
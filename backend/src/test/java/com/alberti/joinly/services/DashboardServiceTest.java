@@ -0,0 +1,194 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.dto.suscripcion.SuscripcionSummary;
+import com.alberti.joinly.dto.unidad.UnidadFamiliarCardDTO;
+import com.alberti.joinly.entities.suscripcion.Servicio;
+import com.alberti.joinly.entities.suscripcion.Suscripcion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardService Tests")
+class DashboardServiceTest {
+
+    @Mock
+    private UnidadFamiliarService unidadFamiliarService;
+
+    @Mock
+    private SuscripcionService suscripcionService;
+
+    @Mock
+    private NotificacionService notificacionService;
+
+    @Mock
+    private SolicitudService solicitudService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardService(unidadFamiliarService, suscripcionService, notificacionService,
+                solicitudService, transactionManager, meterRegistry, 1_000, 2);
+    }
+
+    private void stubSecciones() {
+        given(unidadFamiliarService.obtenerGruposCardDelUsuario(any(), any(Pageable.class)))
+                .willReturn(new PageImpl<>(List.of(new UnidadFamiliarCardDTO(100L, "Familia", 3, 2))));
+        given(suscripcionService.listarPlazasOcupadasPorUsuario(1L)).willReturn(List.of());
+        given(suscripcionService.listarSuscripcionesDeAnfitrion(1L)).willReturn(List.of());
+        given(solicitudService.listarSolicitudesPendientesParaResponder(1L)).willReturn(List.of());
+    }
+
+    private static Servicio servicio() {
+        return Servicio.builder().nombre("Netflix").build();
+    }
+
+    @Test
+    @DisplayName("Debe devolver todas las secciones")
+    void debeDevolverTodasLasSecciones() {
+        stubSecciones();
+        given(notificacionService.contarNoLeidas(1L)).willReturn(4L);
+
+        var resultado = service.obtenerDashboard(1L);
+
+        assertThat(resultado.grupos()).extracting(UnidadFamiliarCardDTO::nombre).containsExactly("Familia");
+        assertThat(resultado.plazas()).isEmpty();
+        assertThat(resultado.suscripcionesAnfitrion()).isEmpty();
+        assertThat(resultado.notificacionesNoLeidas()).isEqualTo(4L);
+        assertThat(resultado.solicitudesPendientes()).isEmpty();
+        assertThat(resultado.seccionesIncompletas()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Las secciones deben leerse con el usuario de la petición")
+    void debePropagarElUsuario() {
+        stubSecciones();
+        var usuario = new UsernamePasswordAuthenticationToken("ana@joinly.com", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(usuario);
+        var vistos = new ConcurrentLinkedQueue<Authentication>();
+        given(notificacionService.contarNoLeidas(1L)).willAnswer(inv -> {
+            vistos.add(SecurityContextHolder.getContext().getAuthentication());
+            return 0L;
+        });
+
+        try {
+            service.obtenerDashboard(1L);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertThat(vistos).containsExactly(usuario);
+    }
+
+    @Test
+    @DisplayName("Debe responder sin la sección que falla")
+    void debeOmitirSeccionConError() {
+        stubSecciones();
+        given(notificacionService.contarNoLeidas(1L)).willThrow(new IllegalStateException("caída"));
+
+        var resultado = service.obtenerDashboard(1L);
+
+        assertThat(resultado.notificacionesNoLeidas()).isNull();
+        assertThat(resultado.grupos()).hasSize(1);
+        assertThat(resultado.seccionesIncompletas()).containsExactly(DashboardService.NOTIFICACIONES);
+        assertThat(meterRegistry.get("joinly.dashboard.secciones.incompletas")
+                .tag("seccion", DashboardService.NOTIFICACIONES).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe responder dentro del plazo sin esperar a la sección lenta")
+    void debeCortarSeccionLenta() throws Exception {
+        stubSecciones();
+        var interrumpida = new CountDownLatch(1);
+        given(notificacionService.contarNoLeidas(1L)).willAnswer(inv -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrumpida.countDown();
+            }
+            return 0L;
+        });
+
+        var inicio = System.nanoTime();
+        var resultado = service.obtenerDashboard(1L);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(5_000);
+        assertThat(resultado.seccionesIncompletas()).containsExactly(DashboardService.NOTIFICACIONES);
+        assertThat(resultado.grupos()).hasSize(1);
+        assertThat(interrumpida.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe contar las plazas de todas las suscripciones del anfitrión en una consulta")
+    void debeContarPlazasAgrupadas() {
+        stubSecciones();
+        var primera = Suscripcion.builder().id(10L).servicio(servicio()).build();
+        var segunda = Suscripcion.builder().id(11L).servicio(servicio()).build();
+        given(suscripcionService.listarSuscripcionesDeAnfitrion(1L)).willReturn(List.of(primera, segunda));
+        given(suscripcionService.contarPlazasOcupadasPorSuscripcion(List.of(10L, 11L))).willReturn(Map.of(10L, 3L));
+
+        var resultado = service.obtenerDashboard(1L);
+
+        assertThat(resultado.suscripcionesAnfitrion())
+                .extracting(SuscripcionSummary::plazasOcupadas)
+                .containsExactly(3L, 0L);
+        verify(suscripcionService, never()).contarPlazasOcupadas(anyLong());
+    }
+
+    @Test
+    @DisplayName("No debe consultar más secciones a la vez que el paralelismo configurado")
+    void debeLimitarSeccionesSimultaneas() {
+        var activas = new AtomicInteger();
+        var maximo = new AtomicInteger();
+        Answer<Object> lenta = inv -> {
+            maximo.accumulateAndGet(activas.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            activas.decrementAndGet();
+            return inv.getMethod().getReturnType() == long.class ? 0L : List.of();
+        };
+        given(unidadFamiliarService.obtenerGruposCardDelUsuario(any(), any(Pageable.class)))
+                .willAnswer(inv -> {
+                    lenta.answer(inv);
+                    return new PageImpl<>(List.<UnidadFamiliarCardDTO>of());
+                });
+        given(suscripcionService.listarPlazasOcupadasPorUsuario(1L)).willAnswer(lenta);
+        given(suscripcionService.listarSuscripcionesDeAnfitrion(1L)).willAnswer(lenta);
+        given(notificacionService.contarNoLeidas(1L)).willAnswer(lenta);
+        given(solicitudService.listarSolicitudesPendientesParaResponder(1L)).willAnswer(lenta);
+
+        var resultado = service.obtenerDashboard(1L);
+
+        assertThat(resultado.seccionesIncompletas()).isEmpty();
+        assertThat(maximo.get()).isEqualTo(2);
+    }
+}
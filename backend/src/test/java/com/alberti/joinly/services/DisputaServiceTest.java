@@ -0,0 +1,218 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.dto.disputa.CreateDisputaRequest;
+import com.alberti.joinly.dto.disputa.ResolverDisputaRequest;
+import com.alberti.joinly.entities.enums.EstadoDisputa;
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.enums.MotivoDisputa;
+import com.alberti.joinly.entities.enums.ResolucionDisputa;
+import com.alberti.joinly.entities.enums.RolUsuario;
+import com.alberti.joinly.entities.pago.Disputa;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.repositories.DisputaRepository;
+import com.alberti.joinly.repositories.PagoRepository;
+import com.alberti.joinly.repositories.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests unitarios para DisputaService: solo se disputan pagos con fondos retenidos y la
+ * resolución devuelve el pago al estado que tenía.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DisputaService Unit Tests")
+class DisputaServiceTest {
+
+    @Mock
+    private DisputaRepository disputaRepository;
+
+    @Mock
+    private PagoRepository pagoRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PagoService pagoService;
+
+    @Mock
+    private CobroService cobroService;
+
+    @Mock
+    private NotificacionService notificacionService;
+
+    @Mock
+    private LibroContableService libroContableService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DisputaService disputaService;
+
+    private Usuario reclamante;
+    private Usuario agente;
+
+    @BeforeEach
+    void setUp() {
+        disputaService = new DisputaService(disputaRepository, pagoRepository, usuarioRepository, pagoService,
+                cobroService, notificacionService, libroContableService, transactionManager);
+        reclamante = Usuario.builder().id(1L).rol(RolUsuario.USER).build();
+        agente = Usuario.builder().id(9L).rol(RolUsuario.AGENTE).build();
+    }
+
+    private Pago pago(EstadoPago estado, String referenciaExterna) {
+        return Pago.builder()
+                .id(7L)
+                .usuario(reclamante)
+                .monto(new BigDecimal("4.99"))
+                .estado(estado)
+                .referenciaExterna(referenciaExterna)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("abrirDisputa")
+    class AbrirDisputa {
+
+        private Disputa abrir() {
+            return disputaService.abrirDisputa(1L, new CreateDisputaRequest(7L, MotivoDisputa.NO_ACCESO,
+                    "No he podido acceder a la cuenta en todo el mes", null));
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = EstadoPago.class, names = {"PENDIENTE", "FALLIDO", "REEMBOLSADO"})
+        @DisplayName("Pago sin fondos retenidos: rechaza la disputa sin marcar el pago")
+        void sinFondos(EstadoPago estado) {
+            given(pagoRepository.findByIdParaActualizar(7L)).willReturn(Optional.of(pago(estado, null)));
+
+            assertThatThrownBy(() -> abrir())
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining(estado.name());
+            then(pagoService).should(never()).marcarComoDisputado(anyLong());
+            then(disputaRepository).should(never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Pago retenido: abre la disputa y guarda el estado anterior del pago")
+        void retenido() {
+            given(pagoRepository.findByIdParaActualizar(7L)).willReturn(Optional.of(pago(EstadoPago.REEMBOLSO_PARCIAL, "ch_1")));
+            given(usuarioRepository.findById(1L)).willReturn(Optional.of(reclamante));
+            given(pagoService.marcarComoDisputado(7L)).willReturn(EstadoPago.REEMBOLSO_PARCIAL);
+            given(disputaRepository.save(any(Disputa.class))).willAnswer(inv -> inv.getArgument(0));
+
+            assertThat(abrir().getEstadoPagoAnterior()).isEqualTo(EstadoPago.REEMBOLSO_PARCIAL);
+        }
+    }
+
+    @Nested
+    @DisplayName("resolverDisputa")
+    class ResolverDisputa {
+
+        private Disputa disputa;
+
+        private void disputaSobre(Pago pago, EstadoPago estadoPagoAnterior) {
+            disputa = Disputa.builder()
+                    .id(5L)
+                    .pago(pago)
+                    .reclamante(reclamante)
+                    .estado(EstadoDisputa.EN_REVISION)
+                    .estadoPagoAnterior(estadoPagoAnterior)
+                    .build();
+            given(disputaRepository.findByIdParaActualizar(5L)).willReturn(Optional.of(disputa));
+            given(usuarioRepository.findById(9L)).willReturn(Optional.of(agente));
+        }
+
+        private void stubAplicar() {
+            given(disputaRepository.findByIdConDetalles(5L)).willReturn(Optional.of(disputa));
+            given(disputaRepository.save(any(Disputa.class))).willAnswer(inv -> inv.getArgument(0));
+        }
+
+        private Disputa resolver(ResolucionDisputa resolucion) {
+            return disputaService.resolverDisputa(5L, 9L, new ResolverDisputaRequest(resolucion, null, null));
+        }
+
+        @Test
+        @DisplayName("A favor del anfitrión: el pago vuelve a su estado anterior y sus fondos a retenidos")
+        void favorAnfitrion() {
+            var pago = pago(EstadoPago.DISPUTADO, "ch_1");
+            disputaSobre(pago, EstadoPago.REEMBOLSO_PARCIAL);
+            stubAplicar();
+
+            assertThat(resolver(ResolucionDisputa.FAVOR_ANFITRION).getEstado()).isEqualTo(EstadoDisputa.RESUELTA);
+            assertThat(pago.getEstado()).isEqualTo(EstadoPago.REEMBOLSO_PARCIAL);
+            then(libroContableService).should().registrarCierreDisputa(pago);
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = EstadoPago.class, names = {"PENDIENTE", "FALLIDO"})
+        @DisplayName("A favor del anfitrión sobre un pago sin cobrar: vuelve a su estado sin tocar el libro contable")
+        void favorAnfitrionSinFondos(EstadoPago estadoAnterior) {
+            var pago = pago(EstadoPago.DISPUTADO, null);
+            disputaSobre(pago, estadoAnterior);
+            stubAplicar();
+
+            resolver(ResolucionDisputa.FAVOR_ANFITRION);
+
+            assertThat(pago.getEstado()).isEqualTo(estadoAnterior);
+            then(libroContableService).should(never()).registrarCierreDisputa(any());
+        }
+
+        @Test
+        @DisplayName("Disputa anterior sin estado guardado y sin referencia de la pasarela: vuelve a PENDIENTE")
+        void favorAnfitrionSinEstadoGuardado() {
+            var pago = pago(EstadoPago.DISPUTADO, null);
+            disputaSobre(pago, null);
+            stubAplicar();
+
+            resolver(ResolucionDisputa.FAVOR_ANFITRION);
+
+            assertThat(pago.getEstado()).isEqualTo(EstadoPago.PENDIENTE);
+            then(libroContableService).should(never()).registrarCierreDisputa(any());
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = EstadoPago.class, names = {"PENDIENTE", "FALLIDO"})
+        @DisplayName("A favor del usuario sobre un pago sin cobrar: rechaza la resolución sin reembolsar")
+        void favorUsuarioSinFondos(EstadoPago estadoAnterior) {
+            disputaSobre(pago(EstadoPago.DISPUTADO, null), estadoAnterior);
+
+            assertThatThrownBy(() -> resolver(ResolucionDisputa.FAVOR_USUARIO))
+                    .isInstanceOf(BusinessException.class);
+            then(pagoService).should(never()).reservarReembolso(anyLong(), any());
+            then(cobroService).should(never()).enviarReembolso(any());
+            assertThat(disputa.getEstado()).isEqualTo(EstadoDisputa.EN_REVISION);
+        }
+
+        @Test
+        @DisplayName("A favor del usuario: reserva el reembolso, lo envía y lo confirma")
+        void favorUsuario() {
+            var pago = pago(EstadoPago.DISPUTADO, "ch_1");
+            disputaSobre(pago, EstadoPago.RETENIDO);
+            stubAplicar();
+            given(pagoService.reservarReembolso(7L, new BigDecimal("4.99"))).willReturn(pago);
+
+            var resuelta = resolver(ResolucionDisputa.FAVOR_USUARIO);
+
+            assertThat(resuelta.getMontoResuelto()).isEqualByComparingTo("4.99");
+            then(cobroService).should().enviarReembolso(pago);
+            then(pagoService).should().confirmarReembolso(eq(7L), anyString());
+        }
+    }
+}
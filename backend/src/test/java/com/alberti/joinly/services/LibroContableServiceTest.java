@@ -0,0 +1,124 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.contabilidad.LibroContable;
+import com.alberti.joinly.entities.enums.CuentaContable;
+import com.alberti.joinly.entities.enums.EstadoPago;
+import com.alberti.joinly.entities.enums.TipoMovimientoContable;
+import com.alberti.joinly.entities.pago.Pago;
+import com.alberti.joinly.entities.suscripcion.Suscripcion;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.exceptions.BusinessException;
+import com.alberti.joinly.repositories.SaldoContableMensualRepository;
+import com.alberti.joinly.repositories.SaldoContableRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests unitarios para LibroContableService: qué movimientos genera cada cambio de un pago.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LibroContableService Unit Tests")
+class LibroContableServiceTest {
+
+    @Mock
+    private LibroContable libroContable;
+
+    @Mock
+    private SaldoContableRepository saldoContableRepository;
+
+    @Mock
+    private SaldoContableMensualRepository saldoContableMensualRepository;
+
+    @Mock
+    private AutorizacionService autorizacionService;
+
+    @InjectMocks
+    private LibroContableService libroContableService;
+
+    private Pago pago;
+
+    @BeforeEach
+    void setUp() {
+        var suscripcion = Suscripcion.builder().id(20L).anfitrion(Usuario.builder().id(10L).build()).build();
+        pago = Pago.builder()
+                .id(1L)
+                .suscripcion(suscripcion)
+                .monto(new BigDecimal("10.00"))
+                .estado(EstadoPago.RETENIDO)
+                .build();
+    }
+
+    private LibroContable.Asiento[] asientos(int numero) {
+        var captor = ArgumentCaptor.forClass(LibroContable.Asiento.class);
+        then(libroContable).should(times(numero)).registrar(captor.capture());
+        return captor.getAllValues().toArray(LibroContable.Asiento[]::new);
+    }
+
+    @Test
+    @DisplayName("La retención pasa el monto de la pasarela a retenido, a nombre del anfitrión")
+    void retencion() {
+        libroContableService.registrarRetencion(pago);
+
+        var asiento = asientos(1)[0];
+        assertThat(asiento.tipo()).isEqualTo(TipoMovimientoContable.RETENCION);
+        assertThat(asiento.origen()).isEqualTo(CuentaContable.PASARELA);
+        assertThat(asiento.destino()).isEqualTo(CuentaContable.RETENIDO);
+        assertThat(asiento.monto()).isEqualByComparingTo("10.00");
+        assertThat(asiento.idAnfitrion()).isEqualTo(10L);
+        assertThat(asiento.idSuscripcion()).isEqualTo(20L);
+    }
+
+    @Test
+    @DisplayName("La liberación solo mueve lo que no se ha reembolsado")
+    void liberacionDescuentaReembolsos() {
+        pago.setMontoReembolsado(new BigDecimal("4.00"));
+
+        libroContableService.registrarLiberacion(pago);
+
+        assertThat(asientos(1)[0].monto()).isEqualByComparingTo("6.00");
+    }
+
+    @Test
+    @DisplayName("Disputar un pago que no se había cobrado no genera movimientos")
+    void disputaSinFondos() {
+        libroContableService.registrarDisputa(pago, EstadoPago.PENDIENTE);
+
+        then(libroContable).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("Un reembolso parcial de un pago disputado devuelve el resto a retenido")
+    void reembolsoParcialDeDisputa() {
+        pago.setMontoReembolsado(new BigDecimal("3.00"));
+        pago.setEstado(EstadoPago.REEMBOLSO_PARCIAL);
+
+        libroContableService.registrarReembolso(pago, EstadoPago.DISPUTADO, new BigDecimal("3.00"));
+
+        var asientos = asientos(2);
+        assertThat(asientos[0].origen()).isEqualTo(CuentaContable.DISPUTADO);
+        assertThat(asientos[0].destino()).isEqualTo(CuentaContable.REEMBOLSADO);
+        assertThat(asientos[0].monto()).isEqualByComparingTo("3.00");
+        assertThat(asientos[1].tipo()).isEqualTo(TipoMovimientoContable.CIERRE_DISPUTA);
+        assertThat(asientos[1].monto()).isEqualByComparingTo("7.00");
+    }
+
+    @Test
+    @DisplayName("El extracto rechaza un rango de meses invertido")
+    void extractoRangoInvertido() {
+        assertThatThrownBy(() -> libroContableService.obtenerExtractoAnfitrion(
+                10L, YearMonth.of(2026, 3), YearMonth.of(2026, 1)))
+                .isInstanceOf(BusinessException.class);
+    }
+}
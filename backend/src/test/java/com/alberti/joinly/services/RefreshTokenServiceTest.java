@@ -0,0 +1,194 @@
+package com.alberti.joinly.services;
+
+import com.alberti.joinly.entities.enums.TipoToken;
+import com.alberti.joinly.entities.usuario.Token;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.exceptions.UnauthorizedException;
+import com.alberti.joinly.repositories.TokenRepository;
+import com.alberti.joinly.security.JwtService;
+import com.alberti.joinly.security.RevocacionSesiones;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final String FAMILIA = "familia-1";
+    private static final String TOKEN_PRESENTADO = "refresh-presentado";
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private RevocacionSesiones revocacionSesiones;
+
+    @InjectMocks
+    private RefreshTokenService service;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = Usuario.builder()
+                .id(1L)
+                .nombre("Usuario")
+                .email("usuario@test.com")
+                .build();
+    }
+
+    private Token almacenado(Usuario titular) {
+        return Token.builder()
+                .id(10L)
+                .usuario(titular)
+                .token(RefreshTokenService.hash(TOKEN_PRESENTADO))
+                .tipo(TipoToken.REFRESH_TOKEN)
+                .familia(FAMILIA)
+                .fechaExpiracion(LocalDateTime.now().plusDays(7))
+                .build();
+    }
+
+    private void encontrar(Token token) {
+        when(tokenRepository.findByTokenAndTipoParaActualizar(
+                RefreshTokenService.hash(TOKEN_PRESENTADO), TipoToken.REFRESH_TOKEN))
+                .thenReturn(Optional.of(token));
+    }
+
+    private void emisionSimulada() {
+        when(jwtService.generateRefreshToken(any(), eq(FAMILIA))).thenReturn("refresh-nuevo");
+        when(jwtService.generateAccessToken(any(), eq(FAMILIA))).thenReturn("access-nuevo");
+        when(jwtService.extractExpiration("refresh-nuevo")).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+    }
+
+    @Nested
+    @DisplayName("rotar()")
+    class Rotar {
+
+        @Test
+        @DisplayName("Marca el token como usado y emite otro de la misma sesión, guardado como hash")
+        void rotaDentroDeLaFamilia() {
+            var token = almacenado(usuario);
+            encontrar(token);
+            emisionSimulada();
+
+            var emitidos = service.rotar(TOKEN_PRESENTADO, usuario);
+
+            assertThat(emitidos).isEqualTo(new RefreshTokenService.TokensEmitidos("access-nuevo", "refresh-nuevo"));
+            assertThat(token.getUsado()).isTrue();
+            var guardado = ArgumentCaptor.forClass(Token.class);
+            verify(tokenRepository).save(guardado.capture());
+            assertThat(guardado.getValue().getFamilia()).isEqualTo(FAMILIA);
+            assertThat(guardado.getValue().getToken()).isEqualTo(RefreshTokenService.hash("refresh-nuevo"));
+            verifyNoInteractions(revocacionSesiones);
+        }
+
+        @Test
+        @DisplayName("Reutilizar un token ya rotado revoca la sesión completa")
+        void detectaReutilizacion() {
+            var token = almacenado(usuario);
+            token.setUsado(true);
+            encontrar(token);
+
+            assertThatThrownBy(() -> service.rotar(TOKEN_PRESENTADO, usuario))
+                    .isInstanceOf(UnauthorizedException.class);
+
+            verify(tokenRepository).revocarFamilia(eq(FAMILIA), any(LocalDateTime.class));
+            verify(revocacionSesiones).revocar(FAMILIA);
+            verify(tokenRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Rechaza un token de una sesión ya revocada sin emitir otro")
+        void rechazaSesionRevocada() {
+            var token = almacenado(usuario);
+            token.setFechaRevocacion(LocalDateTime.now().minusMinutes(1));
+            encontrar(token);
+
+            assertThatThrownBy(() -> service.rotar(TOKEN_PRESENTADO, usuario))
+                    .isInstanceOf(UnauthorizedException.class);
+
+            verify(tokenRepository, never()).save(any());
+            verifyNoInteractions(jwtService);
+        }
+
+        @Test
+        @DisplayName("Rechaza un token de otro usuario")
+        void rechazaTokenDeOtroUsuario() {
+            var otro = Usuario.builder().id(2L).email("otro@test.com").build();
+            encontrar(almacenado(otro));
+
+            assertThatThrownBy(() -> service.rotar(TOKEN_PRESENTADO, usuario))
+                    .isInstanceOf(UnauthorizedException.class);
+
+            verify(tokenRepository, never()).revocarFamilia(any(), any());
+        }
+
+        @Test
+        @DisplayName("Rechaza un token no registrado")
+        void rechazaTokenDesconocido() {
+            when(tokenRepository.findByTokenAndTipoParaActualizar(any(), eq(TipoToken.REFRESH_TOKEN)))
+                    .thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.rotar(TOKEN_PRESENTADO, usuario))
+                    .isInstanceOf(UnauthorizedException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Revocación")
+    class Revocacion {
+
+        @Test
+        @DisplayName("cerrarSesion revoca la familia del token presentado")
+        void cierraLaSesion() {
+            encontrar(almacenado(usuario));
+
+            service.cerrarSesion(TOKEN_PRESENTADO);
+
+            verify(tokenRepository).revocarFamilia(eq(FAMILIA), any(LocalDateTime.class));
+            verify(revocacionSesiones).revocar(FAMILIA);
+        }
+
+        @Test
+        @DisplayName("cerrarSesion con un token desconocido no falla")
+        void cerrarSesionEsIdempotente() {
+            when(tokenRepository.findByTokenAndTipoParaActualizar(any(), eq(TipoToken.REFRESH_TOKEN)))
+                    .thenReturn(Optional.empty());
+
+            assertThatCode(() -> service.cerrarSesion("desconocido")).doesNotThrowAnyException();
+            verifyNoInteractions(revocacionSesiones);
+        }
+
+        @Test
+        @DisplayName("cerrarTodasLasSesiones revoca los tokens y todas las sesiones activas del usuario")
+        void cierraTodasLasSesiones() {
+            when(tokenRepository.findFamiliasActivasPorUsuario(eq(1L), eq(TipoToken.REFRESH_TOKEN), any()))
+                    .thenReturn(List.of("s1", "s2"));
+
+            service.cerrarTodasLasSesiones(1L);
+
+            verify(tokenRepository).revocarPorUsuarioYTipo(eq(1L), eq(TipoToken.REFRESH_TOKEN), any());
+            verify(revocacionSesiones).revocar("s1");
+            verify(revocacionSesiones).revocar("s2");
+        }
+    }
+}
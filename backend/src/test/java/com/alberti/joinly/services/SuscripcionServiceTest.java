@@ -56,6 +56,12 @@ class SuscripcionServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private ConfiguracionService configuracionService;
+
+    @Mock
+    private AutorizacionService autorizacionService;
+
     @InjectMocks
     private SuscripcionService suscripcionService;
 
@@ -68,6 +74,10 @@ class SuscripcionServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Sin parámetros en BD: se aplican los valores por defecto del servicio
+        lenient().when(configuracionService.getInt(anyString(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
         anfitrion = Usuario.builder()
                 .id(1L)
                 .nombre("Anfitrión")
@@ -133,7 +143,7 @@ class SuscripcionServiceTest {
             given(unidadFamiliarRepository.findById(10L)).willReturn(Optional.of(unidadFamiliar));
             given(usuarioRepository.findById(1L)).willReturn(Optional.of(anfitrion));
             given(servicioRepository.findById(100L)).willReturn(Optional.of(servicio));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(1L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 1L))
                     .willReturn(true);
             given(suscripcionRepository.contarSuscripcionesActivasEnUnidad(10L)).willReturn(0L);
             given(suscripcionRepository.save(any(Suscripcion.class))).willAnswer(inv -> {
@@ -189,7 +199,7 @@ class SuscripcionServiceTest {
             given(unidadFamiliarRepository.findById(10L)).willReturn(Optional.of(unidadFamiliar));
             given(usuarioRepository.findById(1L)).willReturn(Optional.of(anfitrion));
             given(servicioRepository.findById(100L)).willReturn(Optional.of(servicio));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(1L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 1L))
                     .willReturn(true);
             given(suscripcionRepository.contarSuscripcionesActivasEnUnidad(10L)).willReturn(0L);
             given(suscripcionRepository.save(any(Suscripcion.class))).willAnswer(inv -> {
@@ -233,7 +243,7 @@ class SuscripcionServiceTest {
             given(unidadFamiliarRepository.findById(10L)).willReturn(Optional.of(unidadFamiliar));
             given(usuarioRepository.findById(1L)).willReturn(Optional.of(anfitrion));
             given(servicioRepository.findById(100L)).willReturn(Optional.of(servicio));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(1L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 1L))
                     .willReturn(false);
 
             // When/Then
@@ -251,7 +261,7 @@ class SuscripcionServiceTest {
             given(unidadFamiliarRepository.findById(10L)).willReturn(Optional.of(unidadFamiliar));
             given(usuarioRepository.findById(1L)).willReturn(Optional.of(anfitrion));
             given(servicioRepository.findById(100L)).willReturn(Optional.of(servicio));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(1L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 1L))
                     .willReturn(true);
 
             // When/Then - servicio permite máximo 5, intentamos crear 10
@@ -269,7 +279,7 @@ class SuscripcionServiceTest {
             given(unidadFamiliarRepository.findById(10L)).willReturn(Optional.of(unidadFamiliar));
             given(usuarioRepository.findById(1L)).willReturn(Optional.of(anfitrion));
             given(servicioRepository.findById(100L)).willReturn(Optional.of(servicio));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(1L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 1L))
                     .willReturn(true);
             given(suscripcionRepository.contarSuscripcionesActivasEnUnidad(10L)).willReturn(20L);
 
@@ -294,6 +304,7 @@ class SuscripcionServiceTest {
                 "17.99, 5, false, 3.60",  // 17.99 / 5 plazas pagantes = 3.598 ≈ 3.60
                 "12.00, 4, true, 4.00",   // 12.00 / 3 plazas pagantes = 4.00
                 "10.00, 2, false, 5.00",  // 10.00 / 2 plazas pagantes = 5.00
+                "10.00, 4, true, 3.34",   // 10.00 / 3 plazas pagantes = 3.34 + 3.33 + 3.33
         })
         @DisplayName("Debe calcular precio por plaza correctamente")
         void debeCalcularPrecioPorPlazaCorrectamente(
@@ -322,6 +333,56 @@ class SuscripcionServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("calcularCuotaPlaza()")
+    class CalcularCuotaPlazaTests {
+
+        private Plaza plaza(int numero, boolean anfitrion) {
+            return Plaza.builder()
+                    .numeroPlaza((short) numero)
+                    .esPlazaAnfitrion(anfitrion)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Las cuotas de todas las plazas deben sumar exactamente el precio total")
+        void cuotasSumanElTotal() {
+            var diezEuros = Suscripcion.builder()
+                    .precioTotal(new BigDecimal("10.00"))
+                    .moneda("EUR")
+                    .numPlazasTotal((short) 4)
+                    .anfitrionOcupaPlaza(true)
+                    .build();
+
+            var cuotas = List.of(
+                    suscripcionService.calcularCuotaPlaza(diezEuros, plaza(1, true)),
+                    suscripcionService.calcularCuotaPlaza(diezEuros, plaza(2, false)),
+                    suscripcionService.calcularCuotaPlaza(diezEuros, plaza(3, false)),
+                    suscripcionService.calcularCuotaPlaza(diezEuros, plaza(4, false)));
+
+            assertThat(cuotas).containsExactly(new BigDecimal("0"), new BigDecimal("3.34"),
+                    new BigDecimal("3.33"), new BigDecimal("3.33"));
+            assertThat(cuotas.stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .isEqualByComparingTo("10.00");
+        }
+
+        @Test
+        @DisplayName("Sin anfitrión ocupando plaza, la primera plaza debe pagar")
+        void sinAnfitrionPagaLaPrimera() {
+            var diezEuros = Suscripcion.builder()
+                    .precioTotal(new BigDecimal("10.00"))
+                    .moneda("EUR")
+                    .numPlazasTotal((short) 3)
+                    .anfitrionOcupaPlaza(false)
+                    .build();
+
+            assertThat(suscripcionService.calcularCuotaPlaza(diezEuros, plaza(1, false)))
+                    .isEqualByComparingTo("3.34");
+            assertThat(suscripcionService.calcularCuotaPlaza(diezEuros, plaza(3, false)))
+                    .isEqualByComparingTo("3.33");
+        }
+    }
+
     // ======================== TESTS: OCUPAR PLAZA ========================
 
     @Nested
@@ -346,7 +407,7 @@ class SuscripcionServiceTest {
             // Given
             given(suscripcionRepository.findById(20L)).willReturn(Optional.of(suscripcion));
             given(usuarioRepository.findById(2L)).willReturn(Optional.of(miembro));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 2L))
                     .willReturn(true);
             given(plazaRepository.existsBySuscripcionIdAndUsuarioId(20L, 2L)).willReturn(false);
             given(plazaRepository.findPlazasDisponiblesOrdenadas(20L)).willReturn(List.of(plazaDisponible));
@@ -381,7 +442,7 @@ class SuscripcionServiceTest {
             // Given
             given(suscripcionRepository.findById(20L)).willReturn(Optional.of(suscripcion));
             given(usuarioRepository.findById(2L)).willReturn(Optional.of(miembro));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 2L))
                     .willReturn(true);
             given(plazaRepository.existsBySuscripcionIdAndUsuarioId(20L, 2L)).willReturn(true);
 
@@ -397,7 +458,7 @@ class SuscripcionServiceTest {
             // Given
             given(suscripcionRepository.findById(20L)).willReturn(Optional.of(suscripcion));
             given(usuarioRepository.findById(2L)).willReturn(Optional.of(miembro));
-            given(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 10L, EstadoMiembro.ACTIVO))
+            given(autorizacionService.esMiembroActivo(10L, 2L))
                     .willReturn(true);
             given(plazaRepository.existsBySuscripcionIdAndUsuarioId(20L, 2L)).willReturn(false);
             given(plazaRepository.findPlazasDisponiblesOrdenadas(20L)).willReturn(List.of());
@@ -7,6 +7,8 @@ import com.alberti.joinly.entities.grupo.MiembroUnidad;
 import com.alberti.joinly.entities.grupo.UnidadFamiliar;
 import com.alberti.joinly.entities.usuario.Usuario;
 import com.alberti.joinly.exceptions.*;
+import com.alberti.joinly.invitaciones.CacheCodigosInvitacion;
+import com.alberti.joinly.invitaciones.GeneradorCodigosInvitacion;
 import com.alberti.joinly.repositories.MiembroUnidadRepository;
 import com.alberti.joinly.repositories.SuscripcionRepository;
 import com.alberti.joinly.repositories.UnidadFamiliarRepository;
@@ -45,6 +47,15 @@ class UnidadFamiliarServiceTest {
     @Mock
     private SuscripcionRepository suscripcionRepository;
 
+    @Mock
+    private GeneradorCodigosInvitacion generadorCodigos;
+
+    @Mock
+    private CacheCodigosInvitacion cacheCodigos;
+
+    @Mock
+    private AutorizacionService autorizacionService;
+
     @InjectMocks
     private UnidadFamiliarService service;
 
@@ -126,6 +137,33 @@ class UnidadFamiliarServiceTest {
 
             assertThat(resultado).isPresent();
             assertThat(resultado.get().getCodigoInvitacion()).isEqualTo("ABC123DEF456");
+            verify(cacheCodigos).guardar("ABC123DEF456", 100L);
+        }
+
+        @Test
+        @DisplayName("Debe cargar por id la unidad de un código cacheado")
+        void debeBuscarPorCodigoCacheado() {
+            when(cacheCodigos.buscar("ABC123DEF456")).thenReturn(100L);
+            when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
+
+            var resultado = service.buscarPorCodigo("ABC123DEF456");
+
+            assertThat(resultado).contains(unidadFamiliar);
+            verify(unidadFamiliarRepository, never()).findByCodigoInvitacion(anyString());
+        }
+
+        @Test
+        @DisplayName("Debe descartar la entrada cacheada de una unidad que ya no existe")
+        void debeDescartarCodigoCacheadoObsoleto() {
+            when(cacheCodigos.buscar("ABC123DEF456")).thenReturn(100L);
+            when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.empty());
+            when(unidadFamiliarRepository.findByCodigoInvitacion("ABC123DEF456")).thenReturn(Optional.empty());
+
+            var resultado = service.buscarPorCodigo("ABC123DEF456");
+
+            assertThat(resultado).isEmpty();
+            verify(cacheCodigos).invalidar("ABC123DEF456");
+            verify(cacheCodigos, never()).guardar(anyString(), anyLong());
         }
     }
 
@@ -182,7 +220,7 @@ class UnidadFamiliarServiceTest {
         void debeCrearUnidadFamiliar() {
             when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioAdmin));
             when(miembroUnidadRepository.contarGruposActivosDelUsuario(1L)).thenReturn(0L);
-            when(unidadFamiliarRepository.existsByCodigoInvitacion(anyString())).thenReturn(false);
+            when(generadorCodigos.generar()).thenReturn("K7Q2M9X4B1Z8");
             when(unidadFamiliarRepository.save(any(UnidadFamiliar.class)))
                     .thenAnswer(inv -> {
                         UnidadFamiliar uf = inv.getArgument(0);
@@ -199,7 +237,8 @@ class UnidadFamiliarServiceTest {
             assertThat(resultado.getDescripcion()).isEqualTo("Grupo familiar");
             assertThat(resultado.getAdministrador().getId()).isEqualTo(1L);
             assertThat(resultado.getEstado()).isEqualTo(EstadoUnidadFamiliar.ACTIVO);
-            assertThat(resultado.getCodigoInvitacion()).isNotNull().hasSize(12);
+            assertThat(resultado.getCodigoInvitacion()).isEqualTo("K7Q2M9X4B1Z8");
+            verify(unidadFamiliarRepository, never()).existsByCodigoInvitacion(anyString());
 
             // Verificar que se añadió al administrador como miembro
             ArgumentCaptor<MiembroUnidad> miembroCaptor = ArgumentCaptor.forClass(MiembroUnidad.class);
@@ -239,7 +278,7 @@ class UnidadFamiliarServiceTest {
         void debeAgregarMiembro() {
             when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
             when(usuarioRepository.findById(2L)).thenReturn(Optional.of(usuarioMiembro));
-            when(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 100L, EstadoMiembro.ACTIVO))
+            when(autorizacionService.esMiembroActivo(100L, 2L))
                     .thenReturn(false);
             when(unidadFamiliarRepository.contarMiembrosActivos(100L)).thenReturn(1L);
             when(miembroUnidadRepository.contarGruposActivosDelUsuario(2L)).thenReturn(0L);
@@ -268,7 +307,7 @@ class UnidadFamiliarServiceTest {
         void debeFallarSiYaEsMiembro() {
             when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
             when(usuarioRepository.findById(2L)).thenReturn(Optional.of(usuarioMiembro));
-            when(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 100L, EstadoMiembro.ACTIVO))
+            when(autorizacionService.esMiembroActivo(100L, 2L))
                     .thenReturn(true);
 
             assertThatThrownBy(() -> service.agregarMiembro(100L, 2L))
@@ -281,7 +320,7 @@ class UnidadFamiliarServiceTest {
         void debeFallarSiGrupoLleno() {
             when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
             when(usuarioRepository.findById(2L)).thenReturn(Optional.of(usuarioMiembro));
-            when(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 100L, EstadoMiembro.ACTIVO))
+            when(autorizacionService.esMiembroActivo(100L, 2L))
                     .thenReturn(false);
             when(unidadFamiliarRepository.contarMiembrosActivos(100L)).thenReturn(10L); // Lleno
 
@@ -393,6 +432,7 @@ class UnidadFamiliarServiceTest {
             service.eliminarUnidadFamiliar(100L, 1L);
 
             assertThat(unidadFamiliar.getEstado()).isEqualTo(EstadoUnidadFamiliar.ELIMINADO);
+            verify(cacheCodigos).invalidar("ABC123DEF456");
         }
 
         @Test
@@ -426,7 +466,7 @@ class UnidadFamiliarServiceTest {
         @Test
         @DisplayName("Debe verificar si es miembro activo")
         void debeVerificarMiembroActivo() {
-            when(miembroUnidadRepository.existsByUsuarioIdAndUnidadIdAndEstado(2L, 100L, EstadoMiembro.ACTIVO))
+            when(autorizacionService.esMiembroActivo(100L, 2L))
                     .thenReturn(true);
 
             boolean resultado = service.esMiembroActivo(100L, 2L);
@@ -437,7 +477,7 @@ class UnidadFamiliarServiceTest {
         @Test
         @DisplayName("Debe verificar si es administrador")
         void debeVerificarAdministrador() {
-            when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
+            when(autorizacionService.esAdministrador(100L, 1L)).thenReturn(true);
 
             boolean resultado = service.esAdministrador(100L, 1L);
 
@@ -447,7 +487,7 @@ class UnidadFamiliarServiceTest {
         @Test
         @DisplayName("Debe retornar false si no es administrador")
         void debeRetornarFalseSiNoEsAdmin() {
-            when(unidadFamiliarRepository.findById(100L)).thenReturn(Optional.of(unidadFamiliar));
+            when(autorizacionService.esAdministrador(100L, 999L)).thenReturn(false);
 
             boolean resultado = service.esAdministrador(100L, 999L);
 
@@ -457,7 +497,7 @@ class UnidadFamiliarServiceTest {
         @Test
         @DisplayName("Debe retornar false si unidad no existe")
         void debeRetornarFalseSiUnidadNoExiste() {
-            when(unidadFamiliarRepository.findById(999L)).thenReturn(Optional.empty());
+            when(autorizacionService.esAdministrador(999L, 1L)).thenReturn(false);
 
             boolean resultado = service.esAdministrador(999L, 1L);
 
@@ -0,0 +1,166 @@
+package com.alberti.joinly.soporte;
+
+import com.alberti.joinly.dto.soporte.CargaAgente;
+import com.alberti.joinly.dto.soporte.TicketPendiente;
+import com.alberti.joinly.entities.enums.EstadoTicket;
+import com.alberti.joinly.entities.enums.PrioridadTicket;
+import com.alberti.joinly.entities.enums.RolUsuario;
+import com.alberti.joinly.entities.soporte.TicketSoporte;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.repositories.TicketSoporteRepository;
+import com.alberti.joinly.repositories.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DespachadorTickets Unit Tests")
+class DespachadorTicketsTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Mock
+    private TicketSoporteRepository ticketRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DespachadorTickets despachador;
+
+    @BeforeEach
+    void setUp() {
+        despachador = new DespachadorTickets(ticketRepository, usuarioRepository, transactionManager, true, 2);
+    }
+
+    private static Usuario agente(long id) {
+        return Usuario.builder().id(id).nombre("Agente " + id).rol(RolUsuario.AGENTE).build();
+    }
+
+    private void reconstruirCon(List<CargaAgente> cargas, List<TicketPendiente> pendientes, Usuario... agentes) {
+        given(usuarioRepository.findAgentesSoporteActivos()).willReturn(List.of(agentes));
+        given(ticketRepository.contarTicketsActivosAgrupadosPorAgente()).willReturn(cargas);
+        given(ticketRepository.findTicketsPendientesDespacho()).willReturn(pendientes);
+        despachador.reconstruir();
+    }
+
+    @Nested
+    @DisplayName("Asignación de tickets nuevos")
+    class AsignacionNuevos {
+
+        @Test
+        @DisplayName("Debe asignar al agente con menos tickets activos")
+        void debeAsignarAlMenosCargado() {
+            var agente20 = agente(20L);
+            reconstruirCon(List.of(new CargaAgente(10L, 1L)), List.of(), agente(10L), agente20);
+            given(usuarioRepository.findById(20L)).willReturn(Optional.of(agente20));
+            var ticket = TicketSoporte.builder().id(1L).prioridad(PrioridadTicket.ALTA).fechaApertura(AHORA).build();
+
+            despachador.asignarNuevo(ticket);
+
+            assertThat(ticket.getAgente()).isSameAs(agente20);
+            assertThat(ticket.getEstado()).isEqualTo(EstadoTicket.EN_PROCESO);
+            assertThat(despachador.cargaAgente(20L)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe encolar el ticket si todos los agentes están al límite")
+        void debeEncolarSiNoHayCapacidad() {
+            reconstruirCon(List.of(new CargaAgente(10L, 2L)), List.of(), agente(10L));
+            var ticket = TicketSoporte.builder().id(1L).prioridad(PrioridadTicket.MEDIA).fechaApertura(AHORA).build();
+
+            despachador.asignarNuevo(ticket);
+
+            assertThat(ticket.getAgente()).isNull();
+            assertThat(ticket.getEstado()).isEqualTo(EstadoTicket.ABIERTO);
+            assertThat(despachador.idsPendientes()).containsExactly(1L);
+            assertThat(despachador.cargaAgente(10L)).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cola de pendientes")
+    class ColaPendientes {
+
+        @Test
+        @DisplayName("Debe ordenar por prioridad descendente y después por antigüedad")
+        void debeOrdenarPorPrioridadYAntiguedad() {
+            reconstruirCon(List.of(), List.of(
+                    new TicketPendiente(1L, PrioridadTicket.BAJA, AHORA.minusHours(5)),
+                    new TicketPendiente(2L, PrioridadTicket.URGENTE, AHORA),
+                    new TicketPendiente(3L, PrioridadTicket.ALTA, AHORA.minusHours(1)),
+                    new TicketPendiente(4L, PrioridadTicket.URGENTE, AHORA.minusHours(2))));
+
+            assertThat(despachador.idsPendientes()).containsExactly(4L, 2L, 3L, 1L);
+        }
+
+        @Test
+        @DisplayName("Debe despachar el ticket más prioritario cuando un agente libera capacidad")
+        void debeDespacharAlLiberar() {
+            reconstruirCon(
+                    List.of(new CargaAgente(10L, 2L)),
+                    List.of(new TicketPendiente(1L, PrioridadTicket.BAJA, AHORA.minusHours(5)),
+                            new TicketPendiente(2L, PrioridadTicket.URGENTE, AHORA)),
+                    agente(10L));
+            var referencia = agente(10L);
+            given(usuarioRepository.getReferenceById(10L)).willReturn(referencia);
+            given(ticketRepository.asignarSiSinAgente(2L, referencia)).willReturn(1);
+
+            despachador.liberar(10L);
+
+            then(ticketRepository).should().asignarSiSinAgente(2L, referencia);
+            then(ticketRepository).should(never()).asignarSiSinAgente(eq(1L), any());
+            assertThat(despachador.idsPendientes()).containsExactly(1L);
+            assertThat(despachador.cargaAgente(10L)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Debe descartar el ticket y devolver la carga si otro nodo ya lo asignó")
+        void debeDescartarSiYaAsignado() {
+            reconstruirCon(List.of(new CargaAgente(10L, 2L)),
+                    List.of(new TicketPendiente(1L, PrioridadTicket.ALTA, AHORA)), agente(10L));
+            given(usuarioRepository.getReferenceById(10L)).willReturn(agente(10L));
+            given(ticketRepository.asignarSiSinAgente(eq(1L), any())).willReturn(0);
+
+            despachador.liberar(10L);
+
+            assertThat(despachador.idsPendientes()).isEmpty();
+            assertThat(despachador.cargaAgente(10L)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Transiciones de estado")
+    class Transiciones {
+
+        @Test
+        @DisplayName("Debe descontar la carga al pasar a PENDIENTE_USUARIO y sumarla al volver")
+        void debeAjustarCargaSegunEstado() {
+            var agente10 = agente(10L);
+            reconstruirCon(List.of(new CargaAgente(10L, 1L)), List.of(), agente10);
+            var ticket = TicketSoporte.builder().id(1L).agente(agente10)
+                    .estado(EstadoTicket.PENDIENTE_USUARIO).prioridad(PrioridadTicket.MEDIA).build();
+
+            despachador.registrarTransicion(ticket, 10L, EstadoTicket.EN_PROCESO);
+            assertThat(despachador.cargaAgente(10L)).isZero();
+
+            ticket.setEstado(EstadoTicket.EN_PROCESO);
+            despachador.registrarTransicion(ticket, 10L, EstadoTicket.PENDIENTE_USUARIO);
+            assertThat(despachador.cargaAgente(10L)).isEqualTo(1);
+        }
+    }
+}
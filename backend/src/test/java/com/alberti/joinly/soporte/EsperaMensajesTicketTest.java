@@ -0,0 +1,98 @@
+package com.alberti.joinly.soporte;
+
+import com.alberti.joinly.entities.enums.RolUsuario;
+import com.alberti.joinly.entities.soporte.MensajeTicket;
+import com.alberti.joinly.entities.usuario.Usuario;
+import com.alberti.joinly.security.UserPrincipal;
+import com.alberti.joinly.services.TicketSoporteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EsperaMensajesTicket Unit Tests")
+class EsperaMensajesTicketTest {
+
+    private static final long ID_TICKET = 1L;
+
+    @Mock
+    private TicketSoporteService ticketService;
+
+    private AvisosMensajesTicket avisos;
+    private EsperaMensajesTicket espera;
+    private UserPrincipal usuario;
+
+    @BeforeEach
+    void setUp() {
+        avisos = new AvisosMensajesTicket();
+        espera = new EsperaMensajesTicket(ticketService, avisos, 5_000);
+        usuario = UserPrincipal.fromUsuario(Usuario.builder().id(7L).rol(RolUsuario.USER).build());
+    }
+
+    @Nested
+    @DisplayName("Long-poll")
+    class LongPoll {
+
+        @Test
+        @DisplayName("Debe responder sin esperar si ya hay mensajes nuevos")
+        void debeResponderSinEsperar() {
+            var mensaje = MensajeTicket.builder().id(11L).build();
+            given(ticketService.obtenerMensajes(ID_TICKET, usuario, 10L)).willReturn(List.of(mensaje));
+
+            assertThat(espera.obtenerMensajes(ID_TICKET, usuario, 10L, 5_000)).containsExactly(mensaje);
+            then(ticketService).should(times(1)).obtenerMensajes(ID_TICKET, usuario, 10L);
+            assertThat(avisos.ticketsEnEspera()).isZero();
+        }
+
+        @Test
+        @DisplayName("Debe despertar y devolver el mensaje cuando se notifica")
+        void debeDespertarAlNotificar() throws Exception {
+            var mensaje = MensajeTicket.builder().id(11L).build();
+            given(ticketService.obtenerMensajes(ID_TICKET, usuario, 10L))
+                    .willReturn(List.of())
+                    .willReturn(List.of(mensaje));
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var resultado = executor.submit(() -> espera.obtenerMensajes(ID_TICKET, usuario, 10L, 5_000));
+                // Se repite el aviso por si el primero llega antes de que la petición anote la versión
+                while (!resultado.isDone()) {
+                    avisos.notificar(ID_TICKET);
+                    Thread.sleep(10);
+                }
+
+                assertThat(resultado.get(2, TimeUnit.SECONDS)).containsExactly(mensaje);
+            }
+            assertThat(avisos.ticketsEnEspera()).isZero();
+        }
+
+        @Test
+        @DisplayName("Debe devolver vacío al vencer el plazo tras una última consulta")
+        void debeDevolverVacioAlVencer() {
+            given(ticketService.obtenerMensajes(ID_TICKET, usuario, 10L)).willReturn(List.of());
+
+            assertThat(espera.obtenerMensajes(ID_TICKET, usuario, 10L, 50)).isEmpty();
+            then(ticketService).should(times(2)).obtenerMensajes(ID_TICKET, usuario, 10L);
+            assertThat(avisos.ticketsEnEspera()).isZero();
+        }
+
+        @Test
+        @DisplayName("Sin esperaMs debe consultar una sola vez")
+        void debeConsultarUnaVezSinEspera() {
+            given(ticketService.obtenerMensajes(ID_TICKET, usuario, null)).willReturn(List.of());
+
+            assertThat(espera.obtenerMensajes(ID_TICKET, usuario, null, 0)).isEmpty();
+            then(ticketService).should(times(1)).obtenerMensajes(ID_TICKET, usuario, null);
+        }
+    }
+}
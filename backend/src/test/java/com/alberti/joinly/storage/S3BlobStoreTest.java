@@ -0,0 +1,229 @@
+package com.alberti.joinly.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("S3BlobStore Tests")
+class S3BlobStoreTest {
+
+    private static final int TAMANO_PARTE = 4;
+    private static final long MAX_BYTES_CACHE = 5;
+
+    @Mock
+    private S3Client s3;
+
+    @TempDir
+    private Path cache;
+
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new S3BlobStore(s3, "bucket", "avatars/", TAMANO_PARTE, cache, MAX_BYTES_CACHE, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Debe usar PutObject cuando el contenido cabe en una parte")
+    void debeSubirEnUnaParte() throws Exception {
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"e1\"").build());
+
+        store.put("a.jpg", new ByteArrayInputStream(new byte[]{1, 2, 3}), "image/jpeg");
+
+        var captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3).putObject(captor.capture(), any(RequestBody.class));
+        assertThat(captor.getValue().key()).isEqualTo("avatars/a.jpg");
+        verify(s3, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        assertThat(store.resolveLocal("a.jpg")).contains(cache.resolve("e1_a.jpg"));
+        verify(s3, never()).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("Debe usar subida multiparte cuando el contenido supera una parte")
+    void debeSubirEnVariasPartes() throws Exception {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        store.put("b.jpg", new ByteArrayInputStream(new byte[10]), "image/jpeg");
+
+        verify(s3, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        var captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(captor.capture());
+        assertThat(captor.getValue().multipartUpload().parts()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Debe abortar la subida multiparte si falla una parte")
+    void debeAbortarSubidaFallida() {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("boom").build());
+
+        assertThatThrownBy(() -> store.put("c.jpg", new ByteArrayInputStream(new byte[10]), "image/jpeg"))
+                .isInstanceOf(S3Exception.class);
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    @DisplayName("Debe descargar una sola vez y servir después desde la caché local")
+    void debeLeerAtravesDeCache() {
+        when(s3.getObject(any(GetObjectRequest.class))).thenReturn(objeto("\"e1\"", 7, 7));
+
+        var primera = store.resolveLocal("d.jpg");
+        var segunda = store.resolveLocal("d.jpg");
+
+        assertThat(primera).contains(cache.resolve("e1_d.jpg"));
+        assertThat(segunda).isEqualTo(primera);
+        verify(s3, times(1)).getObject(any(GetObjectRequest.class));
+        verify(s3, never()).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("Debe descartar la copia local si el objeto cambió o se borró en remoto")
+    void debeRevalidarContraElEtag() {
+        store.close();
+        store = new S3BlobStore(s3, "bucket", "avatars/", TAMANO_PARTE, cache, MAX_BYTES_CACHE, Duration.ZERO);
+        when(s3.getObject(any(GetObjectRequest.class)))
+                .thenReturn(objeto("\"e1\"", 1), objeto("\"e2\"", 2));
+        when(s3.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().eTag("\"e1\"").build())
+                .thenReturn(HeadObjectResponse.builder().eTag("\"e2\"").build())
+                .thenThrow(NoSuchKeyException.builder().build());
+
+        assertThat(store.resolveLocal("g.jpg")).contains(cache.resolve("e1_g.jpg"));
+        assertThat(store.resolveLocal("g.jpg")).contains(cache.resolve("e1_g.jpg"));
+        assertThat(store.resolveLocal("g.jpg")).contains(cache.resolve("e2_g.jpg"));
+        assertThat(cache.resolve("e1_g.jpg")).doesNotExist();
+        assertThat(store.resolveLocal("g.jpg")).isEmpty();
+        assertThat(cache.resolve("e2_g.jpg")).doesNotExist();
+        assertThat(store.getBytesEnCache()).isZero();
+    }
+
+    @Test
+    @DisplayName("Si S3 falla al revalidar o al descargar, debe servir la copia local")
+    void debeServirCopiaLocalSiS3Falla() {
+        store.close();
+        store = new S3BlobStore(s3, "bucket", "avatars/", TAMANO_PARTE, cache, MAX_BYTES_CACHE, Duration.ZERO);
+        when(s3.getObject(any(GetObjectRequest.class)))
+                .thenReturn(objeto("\"e1\"", 1))
+                .thenThrow(S3Exception.builder().statusCode(503).message("SlowDown").build());
+        when(s3.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(503).message("SlowDown").build())
+                .thenReturn(HeadObjectResponse.builder().eTag("\"e2\"").build());
+
+        assertThat(store.resolveLocal("h.jpg")).contains(cache.resolve("e1_h.jpg"));
+        assertThat(store.resolveLocal("h.jpg")).contains(cache.resolve("e1_h.jpg"));
+        assertThat(store.resolveLocal("h.jpg")).contains(cache.resolve("e1_h.jpg"));
+        assertThat(cache.resolve("e1_h.jpg")).exists();
+    }
+
+    @Test
+    @DisplayName("Sin copia local, un fallo de S3 debe retornar vacío")
+    void debeRetornarVacioSinCopiaSiS3Falla() {
+        when(s3.getObject(any(GetObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(503).message("SlowDown").build());
+
+        assertThat(store.resolveLocal("i.jpg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe eliminar las copias menos usadas al superar el tamaño máximo")
+    void debeLimitarElTamanoDeLaCache() {
+        when(s3.getObject(any(GetObjectRequest.class)))
+                .thenReturn(objeto("\"e1\"", 1, 1), objeto("\"e2\"", 2, 2), objeto("\"e3\"", 3, 3));
+
+        store.resolveLocal("h1.jpg");
+        store.resolveLocal("h2.jpg");
+        store.resolveLocal("h1.jpg");
+        store.resolveLocal("h3.jpg");
+
+        assertThat(cache.resolve("e1_h1.jpg")).exists();
+        assertThat(cache.resolve("e2_h2.jpg")).doesNotExist();
+        assertThat(cache.resolve("e3_h3.jpg")).exists();
+        assertThat(store.getBytesEnCache()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Debe retornar vacío si el objeto no existe")
+    void debeRetornarVacioSiNoExiste() {
+        when(s3.getObject(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThat(store.resolveLocal("e.jpg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe invalidar la caché al instante y borrar en remoto de forma asíncrona")
+    void debeBorrarDeFormaAsincrona() {
+        when(s3.getObject(any(GetObjectRequest.class))).thenReturn(objeto("\"e1\"", 1));
+        store.resolveLocal("f.jpg");
+
+        store.delete("f.jpg");
+
+        assertThat(cache.resolve("e1_f.jpg")).doesNotExist();
+        verify(s3, timeout(2000)).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("Un borrado que falla espera su reintento sin bloquear los siguientes")
+    void debeReintentarSinBloquearLaCola() {
+        when(s3.deleteObject(any(DeleteObjectRequest.class))).thenAnswer(invocacion -> {
+            DeleteObjectRequest peticion = invocacion.getArgument(0);
+            if (peticion.key().equals("avatars/falla.jpg")) {
+                throw S3Exception.builder().message("boom").build();
+            }
+            return DeleteObjectResponse.builder().build();
+        });
+
+        store.delete("falla.jpg");
+        store.delete("ok.jpg");
+
+        verify(s3, timeout(1000)).deleteObject(argThat((DeleteObjectRequest r) -> r.key().equals("avatars/ok.jpg")));
+        assertThat(store.getBorradosPendientes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar claves con rutas")
+    void debeRechazarClavesInvalidas() {
+        assertThatThrownBy(() -> store.resolveLocal("../secreto"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ResponseInputStream<GetObjectResponse> objeto(String etag, int... bytes) {
+        var contenido = new byte[bytes.length];
+        for (var i = 0; i < bytes.length; i++) {
+            contenido[i] = (byte) bytes[i];
+        }
+        return new ResponseInputStream<>(
+                GetObjectResponse.builder().eTag(etag).build(),
+                AbortableInputStream.create(new ByteArrayInputStream(contenido)));
+    }
+}
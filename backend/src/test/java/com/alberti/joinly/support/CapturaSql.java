@@ -0,0 +1,71 @@
+package com.alberti.joinly.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Captura el SQL que genera Hibernate en el hilo actual y detecta predicados
+ * que impiden a la base de datos usar un índice.
+ * <p>
+ * Se registra en los tests con
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ * Solo guarda sentencias entre {@link #iniciar()} y {@link #detener()}.
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURADAS = new ThreadLocal<>();
+
+    /** Columna envuelta en una función o conversión: el índice sobre la columna no es utilizable. */
+    private static final Pattern FUNCION_SOBRE_COLUMNA = Pattern.compile(
+            "\\b(cast|date|year|month|day|trunc|lower|upper|coalesce|ifnull|date_format)\\s*\\(\\s*[a-z_][a-z0-9_]*\\.[a-z_][a-z0-9_]*");
+
+    /** Rama {@code :param IS NULL OR ...}: un único plan para todas las combinaciones de filtros. */
+    private static final Pattern PARAMETRO_IS_NULL = Pattern.compile("\\?\\s+is\\s+(not\\s+)?null");
+
+    /** LIKE con comodín inicial: no puede recorrer un índice B-tree. */
+    private static final Pattern LIKE_COMODIN_INICIAL = Pattern.compile("like\\s+'%");
+
+    public static void iniciar() {
+        CAPTURADAS.set(new ArrayList<>());
+    }
+
+    public static List<String> detener() {
+        var capturadas = CAPTURADAS.get();
+        CAPTURADAS.remove();
+        return capturadas == null ? List.of() : List.copyOf(capturadas);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        var capturadas = CAPTURADAS.get();
+        if (capturadas != null) {
+            capturadas.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Devuelve los fragmentos de la cláusula WHERE que no pueden resolverse con un índice.
+     */
+    public static List<String> predicadosNoIndexables(String sql) {
+        var normalizado = sql.toLowerCase(Locale.ROOT);
+        var inicioWhere = normalizado.indexOf(" where ");
+        if (inicioWhere < 0) {
+            return List.of();
+        }
+        var where = normalizado.substring(inicioWhere);
+
+        var hallazgos = new ArrayList<String>();
+        for (var patron : List.of(FUNCION_SOBRE_COLUMNA, PARAMETRO_IS_NULL, LIKE_COMODIN_INICIAL)) {
+            var matcher = patron.matcher(where);
+            while (matcher.find()) {
+                hallazgos.add(matcher.group());
+            }
+        }
+        return hallazgos;
+    }
+}